@@ -1,7 +1,11 @@
 package com.sistemaventas.controlador;
 
 import com.sistemaventas.dao.ClienteDAO;
+import com.sistemaventas.excepcion.ClienteException;
+import com.sistemaventas.excepcion.ClienteException.ClienteDuplicadoException;
+import com.sistemaventas.excepcion.ClienteException.ClienteNoEncontradoException;
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.util.RestriccionesDB;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -51,21 +55,21 @@ public class ClienteController {
      * @param cliente Cliente a guardar
      * @return true si se guardó exitosamente
      * @throws SQLException si hay error en la base de datos
+     * @throws ClienteDuplicadoException si ya existe un cliente con ese DNI o email
      * @throws IllegalArgumentException si los datos son inválidos
      */
-    public boolean guardarCliente(Cliente cliente) throws SQLException {
+    public boolean guardarCliente(Cliente cliente) throws SQLException, ClienteException {
         // Validaciones de negocio
         validarCliente(cliente);
         
-        // Verificar email único si se proporcionó
-        if (cliente.getEmail() != null && !cliente.getEmail().trim().isEmpty()) {
-            Cliente existente = clienteDAO.buscarPorEmail(cliente.getEmail());
-            if (existente != null) {
-                throw new IllegalArgumentException("Ya existe un cliente con ese email");
-            }
+        // DNI y email únicos los garantizan las restricciones UNIQUE de la
+        // tabla: no se consulta antes de insertar
+        try {
+            return clienteDAO.guardar(cliente);
+        } catch (SQLException e) {
+            lanzarSiEsDuplicado(cliente, e);
+            throw e;
         }
-        
-        return clienteDAO.guardar(cliente);
     }
     
     /**
@@ -73,27 +77,28 @@ public class ClienteController {
      * @param cliente Cliente a actualizar
      * @return true si se actualizó exitosamente
      * @throws SQLException si hay error en la base de datos
+     * @throws ClienteDuplicadoException si otro cliente ya tiene ese DNI o email
+     * @throws ClienteNoEncontradoException si el cliente no existe
      * @throws IllegalArgumentException si los datos son inválidos
      */
-    public boolean actualizarCliente(Cliente cliente) throws SQLException {
+    public boolean actualizarCliente(Cliente cliente) throws SQLException, ClienteException {
         // Validaciones de negocio
         validarCliente(cliente);
         
-        // Verificar que el cliente existe
-        Cliente existente = clienteDAO.buscarPorId(cliente.getIdCliente());
-        if (existente == null) {
-            throw new IllegalArgumentException("El cliente no existe en la base de datos");
+        // Un solo UPDATE: si no toca ninguna fila el cliente no existe, y un
+        // DNI o email repetido lo rechazan las restricciones UNIQUE
+        boolean actualizado;
+        try {
+            actualizado = clienteDAO.actualizar(cliente);
+        } catch (SQLException e) {
+            lanzarSiEsDuplicado(cliente, e);
+            throw e;
         }
         
-        // Verificar email único si se proporcionó y cambió
-        if (cliente.getEmail() != null && !cliente.getEmail().trim().isEmpty()) {
-            Cliente clienteConEmail = clienteDAO.buscarPorEmail(cliente.getEmail());
-            if (clienteConEmail != null && clienteConEmail.getIdCliente() != cliente.getIdCliente()) {
-                throw new IllegalArgumentException("Ya existe otro cliente con ese email");
-            }
+        if (!actualizado) {
+            throw new ClienteNoEncontradoException(cliente.getIdCliente());
         }
-        
-        return clienteDAO.actualizar(cliente);
+        return true;
     }
     
     /**
@@ -170,6 +175,28 @@ public class ClienteController {
         return clienteDAO.buscarPorEmail(email.trim());
     }
     
+    /**
+     * Convierte el rechazo de una restricción UNIQUE en la excepción de negocio
+     * @param cliente Cliente que se intentó escribir
+     * @param e Error de la base de datos
+     * @throws ClienteDuplicadoException si el error es un DNI o email repetido
+     */
+    private void lanzarSiEsDuplicado(Cliente cliente, SQLException e) throws ClienteDuplicadoException {
+        String columna = RestriccionesDB.columnaDuplicada(e);
+        ClienteDuplicadoException duplicado = null;
+        
+        if ("email".equals(columna)) {
+            duplicado = new ClienteDuplicadoException(cliente.getEmail());
+        } else if ("dni".equals(columna)) {
+            duplicado = new ClienteDuplicadoException("DNI", cliente.getDni());
+        }
+        
+        if (duplicado != null) {
+            duplicado.initCause(e);
+            throw duplicado;
+        }
+    }
+    
     /**
      * Valida que un cliente tenga los datos mínimos requeridos
      * @param cliente Cliente a validar
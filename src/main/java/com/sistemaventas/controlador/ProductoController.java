@@ -1,7 +1,16 @@
 package com.sistemaventas.controlador;
 
+import com.sistemaventas.dao.AjustePrecios;
+import com.sistemaventas.dao.ConteoInventario;
+import com.sistemaventas.dao.InventarioDAO;
 import com.sistemaventas.dao.ProductoDAO;
+import com.sistemaventas.excepcion.ProductoException;
+import com.sistemaventas.excepcion.ProductoException.PrecioInvalidoException;
+import com.sistemaventas.excepcion.ProductoException.ProductoDuplicadoException;
+import com.sistemaventas.excepcion.ProductoException.ProductoNoEncontradoException;
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.RestriccionesDB;
+import com.sistemaventas.util.UnidadDeTrabajo;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
@@ -14,10 +23,15 @@ import java.util.List;
  */
 public class ProductoController {
     
+    // Productos de ejemplo que muestra la vista previa de un ajuste de precios
+    private static final int EJEMPLOS_AJUSTE = 50;
+    
     private ProductoDAO productoDAO;
+    private InventarioDAO inventarioDAO;
     
     public ProductoController() {
         this.productoDAO = new ProductoDAO();
+        this.inventarioDAO = new InventarioDAO();
     }
     
     /**
@@ -25,24 +39,21 @@ public class ProductoController {
      * @param producto Producto a guardar
      * @return true si se guardó exitosamente
      * @throws SQLException si hay error en la base de datos
+     * @throws ProductoDuplicadoException si ya existe un producto con ese nombre o código
      * @throws IllegalArgumentException si los datos son inválidos
      */
-    public boolean guardarProducto(Producto producto) throws SQLException {
+    public boolean guardarProducto(Producto producto) throws SQLException, ProductoException {
         // Validaciones de negocio
         validarProducto(producto);
         
-        // Verificar nombre único
-        List<Producto> productosExistentes = productoDAO.buscarPorNombre(producto.getNombre());
-        if (productosExistentes != null && !productosExistentes.isEmpty()) {
-            // Verificar si hay coincidencia exacta
-            for (Producto p : productosExistentes) {
-                if (p.getNombre().equalsIgnoreCase(producto.getNombre())) {
-                    throw new IllegalArgumentException("Ya existe un producto con ese nombre");
-                }
-            }
+        // El nombre (sin distinguir mayúsculas) y el código únicos los
+        // garantizan los índices UNIQUE: no se consulta antes de insertar
+        try {
+            return productoDAO.guardar(producto);
+        } catch (SQLException e) {
+            lanzarSiEsDuplicado(producto, e);
+            throw e;
         }
-        
-        return productoDAO.guardar(producto);
     }
     
     /**
@@ -50,27 +61,28 @@ public class ProductoController {
      * @param producto Producto a actualizar
      * @return true si se actualizó exitosamente
      * @throws SQLException si hay error en la base de datos
+     * @throws ProductoDuplicadoException si otro producto ya tiene ese nombre o código
+     * @throws ProductoNoEncontradoException si el producto no existe
      * @throws IllegalArgumentException si los datos son inválidos
      */
-    public boolean actualizarProducto(Producto producto) throws SQLException {
+    public boolean actualizarProducto(Producto producto) throws SQLException, ProductoException {
         // Validaciones de negocio
         validarProducto(producto);
         
-        // Verificar que el producto existe
-        Producto existente = productoDAO.buscarPorId(producto.getIdProducto());
-        if (existente == null) {
-            throw new IllegalArgumentException("El producto no existe en la base de datos");
+        // Un solo UPDATE: si no toca ninguna fila el producto no existe, y un
+        // nombre o código repetido lo rechazan los índices UNIQUE
+        boolean actualizado;
+        try {
+            actualizado = productoDAO.actualizar(producto);
+        } catch (SQLException e) {
+            lanzarSiEsDuplicado(producto, e);
+            throw e;
         }
         
-        // Verificar nombre único si cambió
-        List<Producto> productosConNombre = productoDAO.buscarPorNombre(producto.getNombre());
-        for (Producto p : productosConNombre) {
-            if (p.getIdProducto() != producto.getIdProducto()) {
-                throw new IllegalArgumentException("Ya existe otro producto con ese nombre");
-            }
+        if (!actualizado) {
+            throw new ProductoNoEncontradoException(producto.getIdProducto());
         }
-        
-        return productoDAO.actualizar(producto);
+        return true;
     }
     
     /**
@@ -174,21 +186,124 @@ public class ProductoController {
             throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
         }
         
-        // Verificar que el producto existe y tiene stock suficiente
-        Producto producto = productoDAO.buscarPorId(id);
-        if (producto == null) {
-            throw new IllegalArgumentException("El producto no existe");
+        // Leer y descontar en la misma transacción, para no pisar otra venta
+        return UnidadDeTrabajo.ejecutar(() -> {
+            // Verificar que el producto existe y tiene stock suficiente
+            Producto producto = productoDAO.buscarPorId(id);
+            if (producto == null) {
+                throw new IllegalArgumentException("El producto no existe");
+            }
+            
+            if (producto.getStock() < cantidad) {
+                throw new IllegalArgumentException(
+                    String.format("Stock insuficiente. Disponible: %d, Solicitado: %d", 
+                        producto.getStock(), cantidad)
+                );
+            }
+            
+            int nuevoStock = producto.getStock() - cantidad;
+            return productoDAO.actualizarStock(id, nuevoStock);
+        });
+    }
+    
+    /**
+     * Calcula cómo quedarían los precios con un ajuste masivo, sin modificarlos
+     * @param ajuste Ajuste a evaluar
+     * @return vista previa con totales y algunos productos de ejemplo
+     * @throws SQLException si hay error en la base de datos
+     * @throws IllegalArgumentException si el ajuste es inválido
+     */
+    public AjustePrecios.Resultado previsualizarAjustePrecios(AjustePrecios ajuste) throws SQLException {
+        validarAjuste(ajuste);
+        return productoDAO.previsualizarAjuste(ajuste, EJEMPLOS_AJUSTE);
+    }
+    
+    /**
+     * Aplica un ajuste masivo de precios a los productos que cumplen su filtro
+     * @param ajuste Ajuste a aplicar
+     * @return cantidad de productos cuyo precio cambió
+     * @throws SQLException si hay error en la base de datos
+     * @throws PrecioInvalidoException si algún precio quedaría inválido (no se modifica ninguno)
+     * @throws IllegalArgumentException si el ajuste es inválido
+     */
+    public int aplicarAjustePrecios(AjustePrecios ajuste) throws SQLException, ProductoException {
+        validarAjuste(ajuste);
+        
+        AjustePrecios.Resultado resultado = productoDAO.aplicarAjuste(ajuste);
+        if (!resultado.isAplicado()) {
+            throw new PrecioInvalidoException(String.format(
+                "%d producto(s) quedarían con precio cero, negativo o mayor a $999,999.99. "
+                + "No se modificó ningún precio.", resultado.getInvalidos()));
+        }
+        return resultado.getCambian();
+    }
+    
+    /**
+     * Compara un conteo físico con el stock del sistema, sin modificarlo
+     * @param conteo Cantidades contadas
+     * @return diferencias por producto y claves que no corresponden a ningún producto
+     * @throws SQLException si hay error en la base de datos
+     * @throws IllegalArgumentException si el conteo está vacío
+     */
+    public ConteoInventario.Resultado compararConteo(ConteoInventario conteo) throws SQLException {
+        validarConteo(conteo);
+        return inventarioDAO.comparar(conteo);
+    }
+    
+    /**
+     * Lleva el stock de los productos contados a las cantidades del conteo y
+     * registra cada diferencia, todo en una sola transacción
+     * @param conteo Cantidades contadas
+     * @return diferencias aplicadas
+     * @throws SQLException si hay error en la base de datos (no se modifica ningún stock)
+     * @throws IllegalArgumentException si el conteo está vacío
+     */
+    public ConteoInventario.Resultado conciliarInventario(ConteoInventario conteo) throws SQLException {
+        validarConteo(conteo);
+        return inventarioDAO.aplicar(conteo);
+    }
+    
+    private void validarConteo(ConteoInventario conteo) {
+        if (conteo == null || conteo.estaVacio()) {
+            throw new IllegalArgumentException("El conteo no tiene ningún producto");
+        }
+    }
+    
+    private void validarAjuste(AjustePrecios ajuste) {
+        if (ajuste == null) {
+            throw new IllegalArgumentException("El ajuste no puede ser nulo");
         }
         
-        if (producto.getStock() < cantidad) {
-            throw new IllegalArgumentException(
-                String.format("Stock insuficiente. Disponible: %d, Solicitado: %d", 
-                    producto.getStock(), cantidad)
-            );
+        if (ajuste.esNulo()) {
+            throw new IllegalArgumentException("El ajuste no cambia ningún precio");
         }
         
-        int nuevoStock = producto.getStock() - cantidad;
-        return productoDAO.actualizarStock(id, nuevoStock);
+        if (ajuste.getPrecioMinimo() != null && ajuste.getPrecioMaximo() != null
+                && ajuste.getPrecioMinimo().compareTo(ajuste.getPrecioMaximo()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo del filtro no puede superar al máximo");
+        }
+    }
+    
+    /**
+     * Convierte el rechazo de una restricción UNIQUE en la excepción de negocio
+     * @param producto Producto que se intentó escribir
+     * @param e Error de la base de datos
+     * @throws ProductoDuplicadoException si el error es un nombre o código repetido
+     */
+    private void lanzarSiEsDuplicado(Producto producto, SQLException e) throws ProductoDuplicadoException {
+        String columna = RestriccionesDB.columnaDuplicada(e);
+        ProductoDuplicadoException duplicado = null;
+        
+        if ("nombre".equals(columna)) {
+            duplicado = new ProductoDuplicadoException(producto.getNombre());
+        } else if ("codigo".equals(columna)) {
+            duplicado = new ProductoDuplicadoException("código", producto.getCodigo());
+        }
+        
+        if (duplicado != null) {
+            duplicado.initCause(e);
+            throw duplicado;
+        }
     }
     
     /**
@@ -3,11 +3,15 @@ package com.sistemaventas.controlador;
 import com.sistemaventas.dao.VentaDAO;
 import com.sistemaventas.dao.ProductoDAO;
 import com.sistemaventas.dao.ClienteDAO;
+import com.sistemaventas.modelo.Dinero;
 import com.sistemaventas.modelo.Venta;
 import com.sistemaventas.modelo.Producto;
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.util.PoliticaReintentos;
+import com.sistemaventas.util.UnidadDeTrabajo;
 
 import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -97,7 +101,7 @@ public class VentaController {
             }
             
         } catch (SQLException e) {
-            mostrarError("Error de base de datos: " + e.getMessage());
+            mostrarError(mensajeErrorBaseDatos(e));
             return false;
         } catch (IllegalArgumentException e) {
             mostrarError(e.getMessage());
@@ -165,7 +169,7 @@ public class VentaController {
             }
             
         } catch (SQLException e) {
-            mostrarError("Error de base de datos: " + e.getMessage());
+            mostrarError(mensajeErrorBaseDatos(e));
             return false;
         } catch (IllegalArgumentException e) {
             mostrarError(e.getMessage());
@@ -193,58 +197,21 @@ public class VentaController {
             
             validarVenta(venta);
             
-            // Verificar que la venta existe
-            Venta ventaExistente = ventaDAO.buscarPorId(venta.getIdVenta());
-            if (ventaExistente == null) {
-                mostrarError("La venta no existe en la base de datos");
-                return false;
-            }
-            
-            // Verificar cliente
-            Cliente cliente = clienteDAO.buscarPorId(venta.getCliente().getIdCliente());
-            if (cliente == null) {
-                mostrarError("El cliente no existe");
-                return false;
-            }
-            
-            // Verificar producto y stock
-            Producto producto = productoDAO.buscarPorId(venta.getProducto().getIdProducto());
-            if (producto == null) {
-                mostrarError("El producto no existe");
-                return false;
-            }
-            
-            // Calcular stock disponible considerando la venta original
-            int stockDisponible = producto.getStock();
-            if (ventaExistente.getIdProducto() == venta.getProducto().getIdProducto()) {
-                // Mismo producto: sumar el stock de la venta original
-                stockDisponible += ventaExistente.getCantidad();
-            }
-            
-            if (stockDisponible < venta.getCantidad()) {
-                mostrarError(String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
-                    stockDisponible, venta.getCantidad()));
-                return false;
-            }
-            
-            // Actualizar objetos completos en la venta
-            venta.setCliente(cliente);
-            venta.setProducto(producto);
-            venta.recalcularTotal();
-            
-            // Actualizar la venta
-            boolean actualizada = ventaDAO.actualizar(venta);
+            // Las verificaciones y la escritura van en una sola transacción:
+            // lo que se valida es lo que se guarda. Los mensajes se muestran
+            // después, sin retener la base de datos mientras el usuario lee
+            String error = UnidadDeTrabajo.ejecutar(() -> actualizarVentaVerificada(venta));
             
-            if (actualizada) {
+            if (error == null) {
                 mostrarMensaje("Venta actualizada exitosamente");
                 return true;
             } else {
-                mostrarError("Error al actualizar la venta");
+                mostrarError(error);
                 return false;
             }
             
         } catch (SQLException e) {
-            mostrarError("Error de base de datos: " + e.getMessage());
+            mostrarError(mensajeErrorBaseDatos(e));
             return false;
         } catch (IllegalArgumentException e) {
             mostrarError(e.getMessage());
@@ -255,6 +222,52 @@ public class VentaController {
         }
     }
     
+    /**
+     * Verifica la venta contra los datos actuales y la guarda (dentro de una
+     * unidad de trabajo)
+     * 
+     * @return null si se actualizó, o el motivo por el que no
+     */
+    private String actualizarVentaVerificada(Venta venta) throws SQLException {
+        // Verificar que la venta existe
+        Venta ventaExistente = ventaDAO.buscarPorId(venta.getIdVenta());
+        if (ventaExistente == null) {
+            return "La venta no existe en la base de datos";
+        }
+        
+        // Verificar cliente
+        Cliente cliente = clienteDAO.buscarPorId(venta.getCliente().getIdCliente());
+        if (cliente == null) {
+            return "El cliente no existe";
+        }
+        
+        // Verificar producto y stock
+        Producto producto = productoDAO.buscarPorId(venta.getProducto().getIdProducto());
+        if (producto == null) {
+            return "El producto no existe";
+        }
+        
+        // Calcular stock disponible considerando la venta original
+        int stockDisponible = producto.getStock();
+        if (ventaExistente.getIdProducto() == venta.getProducto().getIdProducto()) {
+            // Mismo producto: sumar el stock de la venta original
+            stockDisponible += ventaExistente.getCantidad();
+        }
+        
+        if (stockDisponible < venta.getCantidad()) {
+            return String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
+                stockDisponible, venta.getCantidad());
+        }
+        
+        // Actualizar objetos completos en la venta
+        venta.setCliente(cliente);
+        venta.setProducto(producto);
+        venta.recalcularTotal();
+        
+        // Actualizar la venta
+        return ventaDAO.actualizar(venta) ? null : "Error al actualizar la venta";
+    }
+    
     /**
      * Elimina una venta y restaura el stock
      * 
@@ -271,16 +284,17 @@ public class VentaController {
             }
             
             // Confirmar eliminación
-            int opcion = JOptionPane.showConfirmDialog(
+            int[] opcion = {JOptionPane.NO_OPTION};
+            enEDT(() -> opcion[0] = JOptionPane.showConfirmDialog(
                 null,
                 String.format("¿Está seguro de eliminar esta venta?\n\nCliente: %s\nProducto: %s\nCantidad: %d\nTotal: $%.2f\n\nSe restaurará el stock del producto.",
                     venta.getNombreCliente(), venta.getNombreProducto(), venta.getCantidad(), venta.getTotal()),
                 "Confirmar Eliminación",
                 JOptionPane.YES_NO_OPTION,
                 JOptionPane.WARNING_MESSAGE
-            );
+            ));
             
-            if (opcion != JOptionPane.YES_OPTION) {
+            if (opcion[0] != JOptionPane.YES_OPTION) {
                 return false;
             }
             
@@ -296,7 +310,7 @@ public class VentaController {
             }
             
         } catch (SQLException e) {
-            mostrarError("Error de base de datos: " + e.getMessage());
+            mostrarError(mensajeErrorBaseDatos(e));
             return false;
         } catch (Exception e) {
             mostrarError("Error inesperado: " + e.getMessage());
@@ -400,12 +414,13 @@ public class VentaController {
         try {
             List<Venta> ventas = buscarVentasPorFechas(fechaInicio, fechaFin);
             
-            BigDecimal total = BigDecimal.ZERO;
+            // Acumular en centavos: sin crear un BigDecimal por venta
+            long total = 0;
             for (Venta venta : ventas) {
-                total = total.add(venta.getTotal());
+                total = Dinero.sumarCentavos(total, venta.getTotalCentavos());
             }
             
-            return total;
+            return Dinero.aBigDecimal(total);
             
         } catch (Exception e) {
             mostrarError("Error al calcular total de ventas: " + e.getMessage());
@@ -449,9 +464,9 @@ public class VentaController {
                 return "No hay ventas registradas hoy";
             }
             
-            BigDecimal totalVentas = ventasHoy.stream()
-                    .map(Venta::getTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal totalVentas = Dinero.aBigDecimal(ventasHoy.stream()
+                    .mapToLong(Venta::getTotalCentavos)
+                    .reduce(0L, Dinero::sumarCentavos));
             
             int cantidadTotal = ventasHoy.stream()
                     .mapToInt(Venta::getCantidad)
@@ -678,12 +693,44 @@ public class VentaController {
         }
     }
     
+    /**
+     * Arma el mensaje de error a mostrar según el tipo de falla de la BD.
+     * Si la base siguió ocupada por otra terminal aun después de los
+     * reintentos, se indica que la operación puede repetirse.
+     */
+    private String mensajeErrorBaseDatos(SQLException e) {
+        if (PoliticaReintentos.esContencion(e)) {
+            System.err.println("Contención en la BD: " + PoliticaReintentos.getResumen());
+            return "La base de datos está ocupada por otra terminal.\n" +
+                   "No se guardaron cambios; intente nuevamente en unos segundos.";
+        }
+        return "Error de base de datos: " + e.getMessage();
+    }
+    
     // Métodos de utilidad para mostrar mensajes
     private void mostrarMensaje(String mensaje) {
-        JOptionPane.showMessageDialog(null, mensaje, "Información", JOptionPane.INFORMATION_MESSAGE);
+        enEDT(() -> JOptionPane.showMessageDialog(null, mensaje, "Información", JOptionPane.INFORMATION_MESSAGE));
     }
     
     private void mostrarError(String mensaje) {
-        JOptionPane.showMessageDialog(null, mensaje, "Error", JOptionPane.ERROR_MESSAGE);
+        enEDT(() -> JOptionPane.showMessageDialog(null, mensaje, "Error", JOptionPane.ERROR_MESSAGE));
+    }
+    
+    /**
+     * Muestra un diálogo en el EDT y espera a que se cierre; las escrituras
+     * de las ventanas llaman al controlador desde un hilo en segundo plano
+     */
+    private void enEDT(Runnable dialogo) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            dialogo.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(dialogo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
     }
 }
\ No newline at end of file
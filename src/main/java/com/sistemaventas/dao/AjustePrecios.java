@@ -0,0 +1,347 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Dinero;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ajuste masivo de precios: un porcentaje o un monto fijo aplicado a los
+ * productos que cumplen un filtro (nombre y rango de precio actual), con
+ * una regla de redondeo del precio resultante.
+ * <p>
+ * El precio nuevo se calcula en SQL con aritmética entera sobre los
+ * centavos, así {@link ProductoDAO#aplicarAjuste(AjustePrecios)} modifica
+ * todo el catálogo con una sola sentencia UPDATE y
+ * {@link ProductoDAO#previsualizarAjuste(AjustePrecios, int)} muestra el
+ * resultado exacto antes de aplicarlo.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class AjustePrecios {
+
+    /**
+     * Precio máximo admitido para un producto, en centavos ($999,999.99)
+     */
+    public static final long PRECIO_MAXIMO_CENTAVOS = 99_999_999L;
+
+    /**
+     * Forma de aplicar el valor del ajuste
+     */
+    public enum Tipo {
+        /** Porcentaje sobre el precio actual (negativo para bajar) */
+        PORCENTAJE,
+        /** Monto en pesos sumado al precio actual (negativo para bajar) */
+        MONTO_FIJO
+    }
+
+    /**
+     * Sentido del redondeo al múltiplo elegido
+     */
+    public enum Redondeo {
+        CERCANO,
+        ARRIBA,
+        ABAJO
+    }
+
+    private Tipo tipo = Tipo.PORCENTAJE;
+    // Porcentaje en centésimos (12.5% = 1250) o monto en centavos
+    private long valor;
+    private Redondeo redondeo = Redondeo.CERCANO;
+    private long multiploCentavos = 1;
+
+    private String nombreContiene;
+    private Long precioMinimoCentavos;
+    private Long precioMaximoCentavos;
+
+    public AjustePrecios() {
+    }
+
+    /**
+     * Ajuste por porcentaje (hasta 2 decimales) sobre todo el catálogo
+     */
+    public static AjustePrecios porcentaje(BigDecimal porcentaje) {
+        AjustePrecios ajuste = new AjustePrecios();
+        ajuste.setPorcentaje(porcentaje);
+        return ajuste;
+    }
+
+    /**
+     * Ajuste por monto fijo en pesos sobre todo el catálogo
+     */
+    public static AjustePrecios montoFijo(BigDecimal monto) {
+        AjustePrecios ajuste = new AjustePrecios();
+        ajuste.setMontoFijo(monto);
+        return ajuste;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public void setPorcentaje(BigDecimal porcentaje) {
+        this.tipo = Tipo.PORCENTAJE;
+        this.valor = porcentaje.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public void setMontoFijo(BigDecimal monto) {
+        this.tipo = Tipo.MONTO_FIJO;
+        this.valor = Dinero.aCentavos(monto);
+    }
+
+    /**
+     * Valor del ajuste: porcentaje o monto en pesos, según el tipo
+     */
+    public BigDecimal getValor() {
+        return BigDecimal.valueOf(valor, 2);
+    }
+
+    public Redondeo getRedondeo() {
+        return redondeo;
+    }
+
+    public BigDecimal getMultiplo() {
+        return Dinero.aBigDecimal(multiploCentavos);
+    }
+
+    /**
+     * Redondea el precio resultante a un múltiplo (por ejemplo 10 para
+     * terminar en $..0,00). Un múltiplo de 0,01 no redondea.
+     *
+     * @param redondeo sentido del redondeo
+     * @param multiplo múltiplo en pesos, mayor a cero
+     */
+    public void setRedondeo(Redondeo redondeo, BigDecimal multiplo) {
+        long centavos = Dinero.aCentavos(multiplo);
+        if (centavos <= 0) {
+            throw new IllegalArgumentException("El múltiplo de redondeo debe ser mayor a cero");
+        }
+        this.redondeo = redondeo;
+        this.multiploCentavos = centavos;
+    }
+
+    public String getNombreContiene() {
+        return nombreContiene;
+    }
+
+    public void setNombreContiene(String nombreContiene) {
+        this.nombreContiene = nombreContiene == null || nombreContiene.trim().isEmpty()
+            ? null : nombreContiene.trim();
+    }
+
+    public BigDecimal getPrecioMinimo() {
+        return precioMinimoCentavos != null ? Dinero.aBigDecimal(precioMinimoCentavos) : null;
+    }
+
+    public void setPrecioMinimo(BigDecimal precioMinimo) {
+        this.precioMinimoCentavos = precioMinimo != null ? Dinero.aCentavos(precioMinimo) : null;
+    }
+
+    public BigDecimal getPrecioMaximo() {
+        return precioMaximoCentavos != null ? Dinero.aBigDecimal(precioMaximoCentavos) : null;
+    }
+
+    public void setPrecioMaximo(BigDecimal precioMaximo) {
+        this.precioMaximoCentavos = precioMaximo != null ? Dinero.aCentavos(precioMaximo) : null;
+    }
+
+    /**
+     * Indica si el ajuste no cambia ningún precio (valor cero y sin redondeo)
+     */
+    public boolean esNulo() {
+        return valor == 0 && multiploCentavos == 1;
+    }
+
+    /**
+     * Expresión SQL del precio nuevo a partir de <code>precio_centavos</code>.
+     * <p>
+     * Los valores son enteros calculados por esta clase (no texto del
+     * usuario), así que van como literales: la expresión aparece varias
+     * veces en la misma consulta y no hace falta repetir parámetros. La
+     * división entera de SQLite trunca; sumar la mitad del divisor antes de
+     * dividir redondea al más cercano, igual que HALF_UP para precios positivos.
+     * </p>
+     */
+    String getExpresionSQL() {
+        String ajustado = tipo == Tipo.PORCENTAJE
+            ? "((precio_centavos * " + (10_000 + valor) + " + 5000) / 10000)"
+            : "(precio_centavos + " + valor + ")";
+
+        if (multiploCentavos == 1) {
+            return ajustado;
+        }
+        long m = multiploCentavos;
+        switch (redondeo) {
+            case ARRIBA:
+                return "((" + ajustado + " + " + (m - 1) + ") / " + m + " * " + m + ")";
+            case ABAJO:
+                return "(" + ajustado + " / " + m + " * " + m + ")";
+            default:
+                return "((" + ajustado + " + " + (m / 2) + ") / " + m + " * " + m + ")";
+        }
+    }
+
+    /**
+     * Condiciones SQL del filtro sobre <code>productos</code>, unidas con AND
+     * (vacío si se ajusta todo el catálogo)
+     */
+    String getCondicionSQL() {
+        List<String> condiciones = new ArrayList<>();
+        if (nombreContiene != null) condiciones.add(BusquedaNombre.CONDICION);
+        if (precioMinimoCentavos != null) condiciones.add("precio_centavos >= ?");
+        if (precioMaximoCentavos != null) condiciones.add("precio_centavos <= ?");
+        return String.join(" AND ", condiciones);
+    }
+
+    /**
+     * Asigna los parámetros de {@link #getCondicionSQL()} a partir de la posición indicada
+     *
+     * @return siguiente posición libre
+     */
+    int asignarParametros(PreparedStatement pstmt, int posicion) throws SQLException {
+        if (nombreContiene != null) pstmt.setString(posicion++, BusquedaNombre.patronContiene(nombreContiene));
+        if (precioMinimoCentavos != null) pstmt.setLong(posicion++, precioMinimoCentavos);
+        if (precioMaximoCentavos != null) pstmt.setLong(posicion++, precioMaximoCentavos);
+        return posicion;
+    }
+
+    @Override
+    public String toString() {
+        String ajuste = tipo == Tipo.PORCENTAJE ? getValor() + "%" : "$" + getValor();
+        return "AjustePrecios{" + ajuste + ", redondeo=" + redondeo + " a " + getMultiplo()
+            + ", nombre=" + nombreContiene + ", precio=" + getPrecioMinimo() + ".." + getPrecioMaximo() + "}";
+    }
+
+    /**
+     * Precio de un producto antes y después del ajuste
+     */
+    public static class Cambio {
+        private final int idProducto;
+        private final String nombre;
+        private final long anteriorCentavos;
+        private final long nuevoCentavos;
+
+        Cambio(int idProducto, String nombre, long anteriorCentavos, long nuevoCentavos) {
+            this.idProducto = idProducto;
+            this.nombre = nombre;
+            this.anteriorCentavos = anteriorCentavos;
+            this.nuevoCentavos = nuevoCentavos;
+        }
+
+        public int getIdProducto() {
+            return idProducto;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public BigDecimal getPrecioAnterior() {
+            return Dinero.aBigDecimal(anteriorCentavos);
+        }
+
+        public BigDecimal getPrecioNuevo() {
+            return Dinero.aBigDecimal(nuevoCentavos);
+        }
+
+        /**
+         * Indica si el precio nuevo no se puede guardar (cero, negativo o sobre el máximo)
+         */
+        public boolean esInvalido() {
+            return nuevoCentavos <= 0 || nuevoCentavos > PRECIO_MAXIMO_CENTAVOS;
+        }
+    }
+
+    /**
+     * Efecto de un ajuste sobre el catálogo: lo que haría (vista previa) o
+     * lo que hizo, si se aplicó
+     */
+    public static class Resultado {
+        private final int productos;
+        private final int cambian;
+        private final int invalidos;
+        private final long valorAnteriorCentavos;
+        private final long valorNuevoCentavos;
+        private final List<Cambio> ejemplos;
+        private final boolean aplicado;
+
+        Resultado(int productos, int cambian, int invalidos, long valorAnteriorCentavos,
+                  long valorNuevoCentavos, List<Cambio> ejemplos, boolean aplicado) {
+            this.productos = productos;
+            this.cambian = cambian;
+            this.invalidos = invalidos;
+            this.valorAnteriorCentavos = valorAnteriorCentavos;
+            this.valorNuevoCentavos = valorNuevoCentavos;
+            this.ejemplos = Collections.unmodifiableList(ejemplos);
+            this.aplicado = aplicado;
+        }
+
+        /**
+         * El mismo resultado, marcado como aplicado
+         */
+        Resultado comoAplicado() {
+            return new Resultado(productos, cambian, invalidos, valorAnteriorCentavos,
+                                 valorNuevoCentavos, ejemplos, true);
+        }
+
+        /**
+         * Productos que cumplen el filtro
+         */
+        public int getProductos() {
+            return productos;
+        }
+
+        /**
+         * Productos cuyo precio cambia
+         */
+        public int getCambian() {
+            return cambian;
+        }
+
+        /**
+         * Productos que quedarían con un precio inválido; si hay alguno el
+         * ajuste no se aplica
+         */
+        public int getInvalidos() {
+            return invalidos;
+        }
+
+        /**
+         * Suma de los precios actuales de los productos filtrados
+         */
+        public BigDecimal getValorAnterior() {
+            return Dinero.aBigDecimal(valorAnteriorCentavos);
+        }
+
+        /**
+         * Suma de los precios nuevos de los productos filtrados
+         */
+        public BigDecimal getValorNuevo() {
+            return Dinero.aBigDecimal(valorNuevoCentavos);
+        }
+
+        /**
+         * Algunos productos afectados, ordenados por nombre
+         */
+        public List<Cambio> getEjemplos() {
+            return ejemplos;
+        }
+
+        public boolean isAplicado() {
+            return aplicado;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Resultado{productos=%d, cambian=%d, invalidos=%d, $%s -> $%s%s}",
+                productos, cambian, invalidos, getValorAnterior(), getValorNuevo(), aplicado ? ", aplicado" : "");
+        }
+    }
+}
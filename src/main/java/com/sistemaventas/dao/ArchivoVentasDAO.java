@@ -0,0 +1,425 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.PoliticaReintentos;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DAO para el archivo de ventas históricas en particiones mensuales.
+ * <p>
+ * Las ventas de más de un año ya no pueden editarse, pero si siguen en la
+ * tabla <code>ventas</code> hacen más lento cada recorrido y cada índice.
+ * Este DAO mueve cada mes cerrado a su propio archivo SQLite
+ * (<code>archivo/ventas_AAAA_MM.db</code>, junto a la base principal) y deja
+ * en la base principal:
+ * </p>
+ * <ul>
+ *   <li><code>ventas_particiones</code> - registro de los meses archivados y su rango de fechas</li>
+ *   <li><code>ventas_resumen_mensual</code> - totales por mes, cliente y producto</li>
+ * </ul>
+ * <p>
+ * {@link VentaDAO#buscarPorFechas(LocalDate, LocalDate)} adjunta (ATTACH) las
+ * particiones que se solapan con el rango pedido y las une a la tabla viva.
+ * Las búsquedas sin fechas ({@link VentaDAO#obtenerTodas()},
+ * {@link VentaDAO#buscarPorCliente(int)}, {@link VentaDAO#buscarPorProducto(int)}
+ * y {@link VentaDAO#buscarPorId(int)}) solo leen la tabla viva; una venta
+ * archivada se busca por ID con {@link VentaDAO#buscarArchivadaPorId(int)}.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class ArchivoVentasDAO {
+
+    // SQLite admite 10 bases adjuntas por conexión; se deja margen
+    static final int MAX_ADJUNTAS = 8;
+
+    // Columnas copiadas a la partición, por nombre: no depende del orden de la tabla viva
+    private static final String COLUMNAS_VENTA = "id_venta, fecha, id_cliente, id_producto, cantidad, " +
+                                                 "precio_unitario_centavos, total_centavos";
+
+    private final File directorio;
+
+    public ArchivoVentasDAO() {
+        this.directorio = new File(ConexionDB.getDirectorioBaseDatos(), "archivo");
+    }
+
+    /**
+     * Partición mensual registrada en la base principal
+     */
+    public static class Particion {
+        private final YearMonth mes;
+        private final File archivo;
+        private final int filas;
+        private final long totalCentavos;
+
+        Particion(YearMonth mes, File archivo, int filas, long totalCentavos) {
+            this.mes = mes;
+            this.archivo = archivo;
+            this.filas = filas;
+            this.totalCentavos = totalCentavos;
+        }
+
+        public YearMonth getMes() {
+            return mes;
+        }
+
+        public File getArchivo() {
+            return archivo;
+        }
+
+        public int getFilas() {
+            return filas;
+        }
+
+        public BigDecimal getTotal() {
+            return Dinero.aBigDecimal(totalCentavos);
+        }
+
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        /**
+         * Nombre con el que se adjunta la partición a una conexión
+         */
+        String getAlias() {
+            return String.format("p_%d_%02d", mes.getYear(), mes.getMonthValue());
+        }
+    }
+
+    /**
+     * Fecha a partir de la cual las ventas siguen siendo editables
+     */
+    public static LocalDate getFechaCorte() {
+        return LocalDate.now().minusYears(1);
+    }
+
+    /**
+     * Archiva todos los meses que terminaron antes de la fecha de corte
+     *
+     * @return cantidad de ventas movidas a particiones
+     * @throws SQLException si falla el archivo de algún mes
+     */
+    public int archivarMesesCerrados() throws SQLException {
+        // Solo meses completos: el mes de la fecha de corte todavía tiene ventas editables
+        YearMonth limite = YearMonth.from(getFechaCorte());
+        LocalDate primera = obtenerFechaMasAntigua();
+        if (primera == null) {
+            return 0;
+        }
+
+        int movidas = 0;
+        for (YearMonth mes = YearMonth.from(primera); mes.isBefore(limite); mes = mes.plusMonths(1)) {
+            YearMonth actual = mes;
+            movidas += PoliticaReintentos.ejecutar(() -> archivarMes(actual));
+        }
+
+        if (movidas > 0) {
+            System.out.println("✓ Ventas archivadas: " + movidas);
+        }
+        return movidas;
+    }
+
+    /**
+     * Mueve las ventas de un mes a su partición.
+     * <p>
+     * Se hace en dos transacciones: primero se copian las filas a la
+     * partición y luego, en la base principal, se registran los totales y se
+     * borran las filas copiadas. Si se corta a mitad de camino, volver a
+     * ejecutarlo termina el trabajo sin duplicar ventas.
+     * </p>
+     *
+     * @param mes mes a archivar
+     * @return cantidad de ventas movidas
+     * @throws SQLException si falla la copia o el borrado
+     */
+    public int archivarMes(YearMonth mes) throws SQLException {
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new SQLException("No se pudo crear el directorio de archivo: " + directorio.getPath());
+        }
+
+        File archivo = new File(directorio, String.format("ventas_%d_%02d.db", mes.getYear(), mes.getMonthValue()));
+        Particion particion = new Particion(mes, archivo, 0, 0);
+        String alias = particion.getAlias();
+        long desde = mes.atDay(1).toEpochDay();
+        long hasta = mes.atEndOfMonth().toEpochDay();
+
+        try (Connection conn = ConexionDB.getConexionEscritura();
+             Statement stmt = conn.createStatement()) {
+
+            adjuntar(conn, particion);
+            try {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + alias + """
+                    .ventas (
+                        id_venta INTEGER PRIMARY KEY,
+                        fecha INTEGER NOT NULL,
+                        id_cliente INTEGER NOT NULL,
+                        id_producto INTEGER NOT NULL,
+                        cantidad INTEGER NOT NULL,
+                        precio_unitario_centavos INTEGER NOT NULL,
+                        total_centavos INTEGER NOT NULL
+                    )
+                """);
+                stmt.execute("CREATE INDEX IF NOT EXISTS " + alias + ".idx_ventas_fecha ON ventas(fecha)");
+
+                conn.setAutoCommit(false);
+                try {
+                    // 1. Copiar a la partición
+                    String sqlCopiar = "INSERT OR REPLACE INTO " + alias + ".ventas (" + COLUMNAS_VENTA + ") " +
+                                       "SELECT " + COLUMNAS_VENTA + " FROM main.ventas WHERE fecha BETWEEN ? AND ?";
+                    int copiadas;
+                    try (PreparedStatement pstmt = conn.prepareStatement(sqlCopiar)) {
+                        pstmt.setLong(1, desde);
+                        pstmt.setLong(2, hasta);
+                        copiadas = pstmt.executeUpdate();
+                    }
+                    conn.commit();
+
+                    if (copiadas == 0 && !estaRegistrada(conn, mes)) {
+                        return 0;
+                    }
+
+                    // 2. Registrar totales y quitar las filas de la tabla viva
+                    String anioMes = mes.toString();
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "DELETE FROM ventas_resumen_mensual WHERE anio_mes = ?")) {
+                        pstmt.setString(1, anioMes);
+                        pstmt.executeUpdate();
+                    }
+
+                    String sqlResumen = "INSERT INTO ventas_resumen_mensual " +
+                                        "(anio_mes, id_cliente, id_producto, ventas, unidades, total_centavos) " +
+                                        "SELECT ?, id_cliente, id_producto, COUNT(*), SUM(cantidad), " +
+                                        "SUM(total_centavos) " +
+                                        "FROM " + alias + ".ventas GROUP BY id_cliente, id_producto";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sqlResumen)) {
+                        pstmt.setString(1, anioMes);
+                        pstmt.executeUpdate();
+                    }
+
+                    String sqlRegistro = "INSERT OR REPLACE INTO ventas_particiones " +
+                                         "(anio_mes, archivo, desde, hasta, filas, total_centavos) " +
+                                         "SELECT ?, ?, ?, ?, COUNT(*), " +
+                                         "COALESCE(SUM(total_centavos), 0) FROM " + alias + ".ventas";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sqlRegistro)) {
+                        pstmt.setString(1, anioMes);
+                        pstmt.setString(2, archivo.getName());
+                        pstmt.setLong(3, desde);
+                        pstmt.setLong(4, hasta);
+                        pstmt.executeUpdate();
+                    }
+
+                    String sqlBorrar = "DELETE FROM main.ventas WHERE fecha BETWEEN ? AND ? " +
+                                       "AND id_venta IN (SELECT id_venta FROM " + alias + ".ventas)";
+                    int borradas;
+                    try (PreparedStatement pstmt = conn.prepareStatement(sqlBorrar)) {
+                        pstmt.setLong(1, desde);
+                        pstmt.setLong(2, hasta);
+                        borradas = pstmt.executeUpdate();
+                    }
+
+                    conn.commit();
+                    System.out.println("✓ Mes archivado " + anioMes + ": " + borradas + " venta(s)");
+                    return borradas;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } finally {
+                separar(conn, particion);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al archivar ventas de " + mes + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Exporta todas las ventas (particiones archivadas y tabla viva) al
+     * formato columnar de {@link EscritorColumnarVentas}
+     *
+     * @param destino directorio donde se escriben las columnas
+     * @return cantidad de ventas exportadas
+     * @throws SQLException si falla la lectura de la base
+     * @throws IOException si falla la escritura de los archivos
+     */
+    public long exportarColumnar(File destino) throws SQLException, IOException {
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+
+            // De la más antigua a la más reciente, para escribir ordenado por fecha
+            List<Particion> particiones = buscarParticiones(conn, null, null);
+            Collections.reverse(particiones);
+
+            // Primera pasada: diccionarios y cantidad máxima
+            int[] clientes = leerIds(conn, "SELECT id_cliente FROM clientes " +
+                                           "UNION SELECT id_cliente FROM ventas_resumen_mensual " +
+                                           "UNION SELECT id_cliente FROM ventas");
+            int[] productos = leerIds(conn, "SELECT id_producto FROM productos " +
+                                            "UNION SELECT id_producto FROM ventas_resumen_mensual " +
+                                            "UNION SELECT id_producto FROM ventas");
+            int maxCantidad = maximaCantidad(conn, "main");
+            for (Particion particion : particiones) {
+                adjuntar(conn, particion);
+                try {
+                    maxCantidad = Math.max(maxCantidad, maximaCantidad(conn, particion.getAlias()));
+                } finally {
+                    separar(conn, particion);
+                }
+            }
+
+            // Segunda pasada: copiar las filas
+            try (EscritorColumnarVentas escritor =
+                     new EscritorColumnarVentas(destino, clientes, productos, maxCantidad)) {
+                for (Particion particion : particiones) {
+                    adjuntar(conn, particion);
+                    try {
+                        exportarTabla(conn, particion.getAlias(), escritor);
+                    } finally {
+                        separar(conn, particion);
+                    }
+                }
+                exportarTabla(conn, "main", escritor);
+
+                System.out.println("✓ Ventas exportadas en formato columnar: " + escritor.getFilas());
+                return escritor.getFilas();
+            }
+
+        } catch (SQLException | IOException e) {
+            System.err.println("Error al exportar ventas en formato columnar: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private void exportarTabla(Connection conn, String esquema, EscritorColumnarVentas escritor)
+            throws SQLException, IOException {
+        String sql = "SELECT fecha, id_cliente, id_producto, cantidad, total_centavos FROM " + esquema + ".ventas " +
+                     "ORDER BY fecha, id_venta";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                escritor.agregar(rs.getLong("fecha"),
+                                 rs.getInt("id_cliente"),
+                                 rs.getInt("id_producto"),
+                                 rs.getInt("cantidad"),
+                                 rs.getLong("total_centavos"));
+            }
+        }
+    }
+
+    private static int[] leerIds(Connection conn, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int maximaCantidad(Connection conn, String esquema) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT COALESCE(MAX(cantidad), 0) FROM " + esquema + ".ventas");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Obtiene las particiones archivadas, de la más reciente a la más antigua
+     */
+    public List<Particion> obtenerParticiones() throws SQLException {
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+            return buscarParticiones(conn, null, null);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener particiones: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Particiones cuyo rango de fechas se solapa con el pedido
+     * (sin límites si las fechas son null)
+     */
+    List<Particion> buscarParticiones(Connection conn, LocalDate fechaInicio, LocalDate fechaFin) throws SQLException {
+        String sql = "SELECT anio_mes, archivo, filas, total_centavos FROM ventas_particiones " +
+                     "WHERE (? IS NULL OR hasta >= ?) AND (? IS NULL OR desde <= ?) ORDER BY anio_mes DESC";
+
+        List<Particion> particiones = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Long inicio = fechaInicio != null ? fechaInicio.toEpochDay() : null;
+            Long fin = fechaFin != null ? fechaFin.toEpochDay() : null;
+            pstmt.setObject(1, inicio);
+            pstmt.setObject(2, inicio);
+            pstmt.setObject(3, fin);
+            pstmt.setObject(4, fin);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    File archivo = new File(directorio, rs.getString("archivo"));
+                    if (!archivo.isFile()) {
+                        System.err.println("⚠ Falta el archivo de la partición " + rs.getString("anio_mes"));
+                        continue;
+                    }
+                    particiones.add(new Particion(YearMonth.parse(rs.getString("anio_mes")), archivo,
+                                                  rs.getInt("filas"), rs.getLong("total_centavos")));
+                }
+            }
+        }
+        return particiones;
+    }
+
+    void adjuntar(Connection conn, Particion particion) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("ATTACH DATABASE ? AS " + particion.getAlias())) {
+            pstmt.setString(1, particion.getArchivo().getPath());
+            pstmt.execute();
+        }
+    }
+
+    void separar(Connection conn, Particion particion) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DETACH DATABASE " + particion.getAlias());
+        } catch (SQLException e) {
+            System.err.println("Error al separar la partición " + particion.getMes() + ": " + e.getMessage());
+        }
+    }
+
+    private boolean estaRegistrada(Connection conn, YearMonth mes) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM ventas_particiones WHERE anio_mes = ?")) {
+            pstmt.setString(1, mes.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private LocalDate obtenerFechaMasAntigua() throws SQLException {
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(fecha) AS fecha FROM ventas");
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                long dia = rs.getLong("fecha");
+                return rs.wasNull() ? null : LocalDate.ofEpochDay(dia);
+            }
+            return null;
+        }
+    }
+}
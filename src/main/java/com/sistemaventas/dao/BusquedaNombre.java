@@ -0,0 +1,94 @@
+package com.sistemaventas.dao;
+
+/**
+ * Regla única para buscar clientes y productos por parte del nombre.
+ * <p>
+ * La consulta usa <code>LIKE</code>, que en SQLite ignora mayúsculas solo
+ * en las letras ASCII ("a" = "A", pero "á" y "Á" son distintas). Las tablas
+ * vuelven a evaluar la búsqueda en memoria cuando cambia una fila; para que
+ * ambas decisiones coincidan, {@link #contiene} aplica exactamente la misma
+ * regla, y {@link #patronContiene} escapa <code>%</code> y <code>_</code>
+ * para que el texto buscado se tome literal en los dos lados. Las
+ * búsquedas por "empieza con" (autocompletar) usan {@link #patronPrefijo},
+ * con el mismo escape.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public final class BusquedaNombre {
+
+    /**
+     * Condición SQL para el patrón de {@link #patronContiene} o
+     * {@link #patronPrefijo} (con su escape)
+     */
+    static final String CONDICION = "nombre LIKE ? ESCAPE '\\'";
+
+    private BusquedaNombre() {
+    }
+
+    /**
+     * Patrón de <code>LIKE</code> que busca el texto en cualquier parte del nombre
+     *
+     * @param termino texto buscado
+     * @return patrón con los comodines del texto escapados
+     */
+    static String patronContiene(String termino) {
+        return escaparComodines(new StringBuilder(termino.length() + 2).append('%'), termino)
+            .append('%').toString();
+    }
+
+    /**
+     * Patrón de <code>LIKE</code> que busca los nombres que empiezan con el
+     * texto; con {@link #CONDICION} y un <code>ORDER BY nombre COLLATE
+     * NOCASE</code> usa el índice del nombre
+     *
+     * @param termino texto buscado
+     * @return patrón con los comodines del texto escapados
+     */
+    static String patronPrefijo(String termino) {
+        return escaparComodines(new StringBuilder(termino.length() + 1), termino)
+            .append('%').toString();
+    }
+
+    private static StringBuilder escaparComodines(StringBuilder patron, String termino) {
+        for (int i = 0; i < termino.length(); i++) {
+            char c = termino.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                patron.append('\\');
+            }
+            patron.append(c);
+        }
+        return patron;
+    }
+
+    /**
+     * Indica si un nombre contiene el texto buscado, con la misma regla que
+     * el <code>LIKE</code> de la consulta
+     *
+     * @param nombre nombre del cliente o producto (null no coincide)
+     * @param termino texto buscado
+     * @return true si el nombre cumple la búsqueda
+     */
+    public static boolean contiene(String nombre, String termino) {
+        return nombre != null && minusculasAscii(nombre).contains(minusculasAscii(termino));
+    }
+
+    /**
+     * Pasa a minúsculas solo las letras A-Z, como hace SQLite al comparar
+     * con <code>LIKE</code> o <code>COLLATE NOCASE</code>
+     */
+    static String minusculasAscii(String texto) {
+        char[] caracteres = null;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (caracteres == null) {
+                    caracteres = texto.toCharArray();
+                }
+                caracteres[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return caracteres == null ? texto : new String(caracteres);
+    }
+}
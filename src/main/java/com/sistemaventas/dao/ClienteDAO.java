@@ -1,7 +1,9 @@
 package com.sistemaventas.dao;
 
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.util.BusEventos;
 import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.PoliticaReintentos;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -64,44 +66,37 @@ public class ClienteDAO {
      * @throws IllegalArgumentException si el cliente es null
      */
     public boolean guardar(Cliente cliente) throws SQLException {
+        boolean guardado = PoliticaReintentos.ejecutar(() -> guardarEnBase(cliente));
+        if (guardado) {
+            BusEventos.publicar(BusEventos.Tipo.CLIENTE_CREADO, cliente.getIdCliente());
+        }
+        return guardado;
+    }
+    
+    private boolean guardarEnBase(Cliente cliente) throws SQLException {
         if (cliente == null) {
             throw new IllegalArgumentException("El cliente no puede ser null");
         }
         
-        String sql = "INSERT INTO clientes (nombre, dni, telefono, email) VALUES (?, ?, ?, ?)";
+        // Una sola sentencia: el ID vuelve con RETURNING y un DNI o email
+        // repetido lo rechaza la restricción UNIQUE (SQLITE_CONSTRAINT_UNIQUE)
+        String sql = "INSERT INTO clientes (nombre, dni, telefono, email) VALUES (?, ?, ?, ?) RETURNING id_cliente";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            // Deshabilitar auto-commit para manejar la transacción manualmente
-            conn.setAutoCommit(false);
-            
             pstmt.setString(1, cliente.getNombre());
             pstmt.setString(2, cliente.getDni());
             pstmt.setString(3, cliente.getTelefono());
             pstmt.setString(4, cliente.getEmail());
             
-            int filasAfectadas = pstmt.executeUpdate();
-            
-            if (filasAfectadas > 0) {
-                // Obtener el ID generado
-                String sqlId = "SELECT last_insert_rowid() as id";
-                try (PreparedStatement pstmtId = conn.prepareStatement(sqlId);
-                     ResultSet rs = pstmtId.executeQuery()) {
-                    
-                    if (rs.next()) {
-                        cliente.setIdCliente(rs.getInt("id"));
-                        
-                        // Confirmar la transacción
-                        conn.commit();
-                        
-                        return true;
-                    }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    cliente.setIdCliente(rs.getInt(1));
+                    return true;
                 }
             }
             
-            // Si llegamos aquí, algo salió mal
-            conn.rollback();
             return false;
             
         } catch (SQLException e) {
@@ -129,7 +124,7 @@ public class ClienteDAO {
         
         String sql = "SELECT * FROM clientes WHERE id_cliente = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -162,7 +157,7 @@ public class ClienteDAO {
         String sql = "SELECT * FROM clientes ORDER BY nombre";
         List<Cliente> clientes = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -191,6 +186,14 @@ public class ClienteDAO {
      * @throws IllegalArgumentException si el cliente es null o no tiene ID válido
      */
     public boolean actualizar(Cliente cliente) throws SQLException {
+        boolean actualizado = PoliticaReintentos.ejecutar(() -> actualizarEnBase(cliente));
+        if (actualizado) {
+            BusEventos.publicar(BusEventos.Tipo.CLIENTE_ACTUALIZADO, cliente.getIdCliente());
+        }
+        return actualizado;
+    }
+    
+    private boolean actualizarEnBase(Cliente cliente) throws SQLException {
         if (cliente == null) {
             throw new IllegalArgumentException("El cliente no puede ser null");
         }
@@ -200,7 +203,7 @@ public class ClienteDAO {
         
         String sql = "UPDATE clientes SET nombre = ?, dni = ?, telefono = ?, email = ? WHERE id_cliente = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             conn.setAutoCommit(false);
@@ -241,6 +244,14 @@ public class ClienteDAO {
      * @throws IllegalArgumentException si el ID es menor o igual a cero
      */
     public boolean eliminar(int id) throws SQLException {
+        boolean eliminado = PoliticaReintentos.ejecutar(() -> eliminarEnBase(id));
+        if (eliminado) {
+            BusEventos.publicar(BusEventos.Tipo.CLIENTE_ELIMINADO, id);
+        }
+        return eliminado;
+    }
+    
+    private boolean eliminarEnBase(int id) throws SQLException {
         if (id <= 0) {
             throw new IllegalArgumentException("El ID del cliente debe ser mayor a cero");
         }
@@ -253,7 +264,7 @@ public class ClienteDAO {
         
         String sql = "DELETE FROM clientes WHERE id_cliente = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             conn.setAutoCommit(false);
@@ -294,13 +305,13 @@ public class ClienteDAO {
             throw new IllegalArgumentException("El nombre no puede ser null o vacío");
         }
         
-        String sql = "SELECT * FROM clientes WHERE nombre LIKE ? ORDER BY nombre";
+        String sql = "SELECT * FROM clientes WHERE " + BusquedaNombre.CONDICION + " ORDER BY nombre";
         List<Cliente> clientes = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + nombre + "%");
+            pstmt.setString(1, BusquedaNombre.patronContiene(nombre));
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -315,6 +326,53 @@ public class ClienteDAO {
         }
     }
     
+    /**
+     * Busca clientes para un selector con autocompletado.
+     * <p>
+     * Si el texto son solo dígitos se buscan los DNI que empiezan con él;
+     * si no, los nombres que empiezan con él (sin distinguir mayúsculas).
+     * Ambas búsquedas recorren un índice, así que el tiempo no depende de
+     * la cantidad de clientes.
+     * </p>
+     * 
+     * @param texto comienzo del nombre o del DNI
+     * @param limite cantidad máxima de resultados
+     * @return clientes ordenados por nombre o por DNI (vacía si el texto está vacío)
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<Cliente> buscarPorPrefijo(String texto, int limite) throws SQLException {
+        List<Cliente> clientes = new ArrayList<>();
+        String termino = texto == null ? "" : texto.trim();
+        if (termino.isEmpty()) {
+            return clientes;
+        }
+        
+        // GLOB respeta mayúsculas y usa el índice único de dni; LIKE usa idx_clientes_nombre
+        boolean esDni = termino.chars().allMatch(c -> c >= '0' && c <= '9');
+        String sql = esDni
+            ? "SELECT * FROM clientes WHERE dni GLOB ? ORDER BY dni LIMIT ?"
+            : "SELECT * FROM clientes WHERE " + BusquedaNombre.CONDICION + " ORDER BY nombre COLLATE NOCASE LIMIT ?";
+        
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, esDni ? termino + "*" : BusquedaNombre.patronPrefijo(termino));
+            pstmt.setInt(2, limite);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(mapearCliente(rs));
+                }
+            }
+            
+            return clientes;
+            
+        } catch (SQLException e) {
+            System.err.println("Error al buscar clientes para autocompletar: " + e.getMessage());
+            throw e;
+        }
+    }
+    
     /**
      * Busca un cliente por su dirección de email.
      * <p>
@@ -322,9 +380,14 @@ public class ClienteDAO {
      * su dirección de email. Como el email es único en el sistema,
      * retorna un solo cliente o null si no se encuentra.
      * </p>
+     * <p>
+     * Si el índice en memoria está cargado y tiene el cliente, se devuelve
+     * su copia sin consultar la base de datos: puede no reflejar un cambio
+     * hecho desde otra terminal. Si no lo tiene, se consulta la base.
+     * </p>
      * 
      * @param email la dirección de email a buscar (no puede ser null ni vacío)
-     * @return el cliente encontrado, o null si no existe
+     * @return el cliente encontrado (una copia, se puede modificar), o null si no existe
      * @throws SQLException si ocurre un error de base de datos
      * @throws IllegalArgumentException si el email es null o vacío
      */
@@ -333,12 +396,22 @@ public class ClienteDAO {
             throw new IllegalArgumentException("El email no puede ser null o vacío");
         }
         
+        // El índice en memoria responde si lo tiene; si no, puede ser un
+        // cliente dado de alta en otra terminal y se consulta la base
+        IndicesCatalogo indices = IndicesCatalogo.getInstancia();
+        if (indices.isCargado()) {
+            Cliente cliente = indices.clientePorEmail(email);
+            if (cliente != null) {
+                return cliente;
+            }
+        }
+        
         String sql = "SELECT * FROM clientes WHERE email = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, email);
+            pstmt.setString(1, email.trim());
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -360,9 +433,14 @@ public class ClienteDAO {
      * su número de DNI. Como el DNI es único en el sistema,
      * retorna un solo cliente o null si no se encuentra.
      * </p>
+     * <p>
+     * Si el índice en memoria está cargado y tiene el cliente, se devuelve
+     * su copia sin consultar la base de datos: puede no reflejar un cambio
+     * hecho desde otra terminal. Si no lo tiene, se consulta la base.
+     * </p>
      * 
      * @param dni el número de DNI a buscar (no puede ser null ni vacío)
-     * @return el cliente encontrado, o null si no existe
+     * @return el cliente encontrado (una copia, se puede modificar), o null si no existe
      * @throws SQLException si ocurre un error de base de datos
      * @throws IllegalArgumentException si el DNI es null o vacío
      */
@@ -371,12 +449,22 @@ public class ClienteDAO {
             throw new IllegalArgumentException("El DNI no puede ser null o vacío");
         }
         
+        // El índice en memoria responde si lo tiene; si no, puede ser un
+        // cliente dado de alta en otra terminal y se consulta la base
+        IndicesCatalogo indices = IndicesCatalogo.getInstancia();
+        if (indices.isCargado()) {
+            Cliente cliente = indices.clientePorDni(dni);
+            if (cliente != null) {
+                return cliente;
+            }
+        }
+        
         String sql = "SELECT * FROM clientes WHERE dni = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, dni);
+            pstmt.setString(1, dni.trim());
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -0,0 +1,316 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.modelo.Venta;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola de escritura diferida (write-behind) para el registro de ventas.
+ * <p>
+ * Las ventas se validan y su stock se reserva en memoria al momento de
+ * encolarlas. La primera reserva de un producto lee su stock actual de la
+ * base de datos (no el del producto que cargó el formulario, que puede ser
+ * viejo) y lo guarda mientras el producto tenga reservas pendientes; cada
+ * venta confirmada lo descuenta. El control definitivo sigue siendo el
+ * <code>stock &gt;= ?</code> del lote. Un único hilo escritor toma las ventas pendientes, espera
+ * unos pocos milisegundos para agrupar las que lleguen mientras tanto y
+ * las confirma todas juntas en una sola transacción (group commit). De esta
+ * forma la cantidad de commits (y de sincronizaciones del WAL) deja de
+ * crecer con la cantidad de ventas.
+ * </p>
+ *
+ * <p><strong>Configuración (propiedades del sistema):</strong></p>
+ * <ul>
+ *   <li><code>sistemaventas.ventas.escrituraDiferida</code> - habilita el modo (por defecto false)</li>
+ *   <li><code>sistemaventas.ventas.ventanaMs</code> - ventana de agrupamiento en ms (por defecto 5)</li>
+ *   <li><code>sistemaventas.ventas.loteMaximo</code> - ventas máximas por transacción (por defecto 256)</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.dao.VentaDAO#guardarDiferido(Venta)
+ */
+public class ColaEscrituraVentas {
+
+    private static final boolean HABILITADA = Boolean.getBoolean("sistemaventas.ventas.escrituraDiferida");
+
+    private static ColaEscrituraVentas instancia;
+
+    private final BlockingQueue<VentaPendiente> pendientes = new LinkedBlockingQueue<>();
+
+    // Stock y unidades reservadas de los productos con ventas sin confirmar (con su lock)
+    private final Map<Integer, Reserva> reservas = new HashMap<>();
+
+    private final long ventanaNanos;
+    private final int loteMaximo;
+    private final VentaDAO ventaDAO;
+    private final ProductoDAO productoDAO = new ProductoDAO();
+
+    private final AtomicLong lotesConfirmados = new AtomicLong();
+    private final AtomicLong ventasConfirmadas = new AtomicLong();
+
+    ColaEscrituraVentas(long ventanaMs, int loteMaximo) {
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        this.loteMaximo = loteMaximo;
+        this.ventaDAO = new VentaDAO();
+
+        Thread escritor = new Thread(this::procesar, "escritor-ventas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Obtiene la cola compartida, creándola en el primer uso.
+     */
+    public static synchronized ColaEscrituraVentas getInstancia() {
+        if (instancia == null) {
+            long ventanaMs = Long.getLong("sistemaventas.ventas.ventanaMs", 5L);
+            int loteMaximo = Integer.getInteger("sistemaventas.ventas.loteMaximo", 256);
+            instancia = new ColaEscrituraVentas(Math.max(0L, ventanaMs), Math.max(1, loteMaximo));
+        }
+        return instancia;
+    }
+
+    /**
+     * Indica si el modo de escritura diferida está habilitado
+     */
+    public static boolean estaHabilitada() {
+        return HABILITADA;
+    }
+
+    /**
+     * Reserva el stock de la venta y la encola para el próximo lote. Una
+     * venta rechazada al reservar (o cuyo producto no existe) se informa
+     * también por el futuro.
+     *
+     * @param venta venta con cliente y producto ya verificados (el stock que
+     *              trae el producto no se usa)
+     * @return futuro que se completa con la venta (con su ID asignado) cuando
+     *         el lote que la contiene fue confirmado en la base de datos
+     */
+    public CompletableFuture<Venta> encolar(Venta venta) {
+        CompletableFuture<Venta> resultado = new CompletableFuture<>();
+
+        if (venta.getCliente() == null || venta.getProducto() == null) {
+            resultado.completeExceptionally(new IllegalArgumentException("La venta debe tener cliente y producto"));
+            return resultado;
+        }
+
+        int idProducto = venta.getProducto().getIdProducto();
+        int cantidad = venta.getCantidad();
+
+        // Reservar de forma atómica contra las ventas aún no confirmadas. Sin
+        // reservas pendientes se lee el stock actual, fuera del lock: la
+        // consulta no debe frenar las reservas de otros productos
+        Integer stockLeido = null;
+        while (true) {
+            synchronized (reservas) {
+                Reserva reserva = reservas.get(idProducto);
+                if (reserva == null && stockLeido != null) {
+                    reserva = new Reserva(stockLeido);
+                    reservas.put(idProducto, reserva);
+                }
+                // Si otro hilo la creó mientras se leía, vale la suya: ya
+                // descuenta lo que se confirmó desde entonces
+                if (reserva != null) {
+                    int disponible = reserva.getDisponible();
+                    if (disponible < cantidad) {
+                        if (reserva.unidades == 0) {
+                            reservas.remove(idProducto);
+                        }
+                        resultado.completeExceptionally(new IllegalArgumentException(String.format(
+                            "Stock insuficiente. Disponible: %d, Solicitado: %d", disponible, cantidad)));
+                        return resultado;
+                    }
+                    reserva.unidades += cantidad;
+                    break;
+                }
+            }
+            try {
+                Producto producto = productoDAO.buscarPorId(idProducto);
+                if (producto == null) {
+                    resultado.completeExceptionally(new IllegalArgumentException("El producto no existe"));
+                    return resultado;
+                }
+                stockLeido = producto.getStock();
+            } catch (SQLException e) {
+                resultado.completeExceptionally(e);
+                return resultado;
+            }
+        }
+
+        pendientes.add(new VentaPendiente(venta, resultado));
+        return resultado;
+    }
+
+    /**
+     * Cantidad de ventas encoladas que aún no fueron confirmadas
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    public long getLotesConfirmados() {
+        return lotesConfirmados.get();
+    }
+
+    public long getVentasConfirmadas() {
+        return ventasConfirmadas.get();
+    }
+
+    /**
+     * Bucle del hilo escritor: arma lotes dentro de la ventana y los confirma
+     */
+    private void procesar() {
+        List<VentaPendiente> lote = new ArrayList<>();
+
+        while (true) {
+            try {
+                lote.add(pendientes.take());
+
+                long limite = System.nanoTime() + ventanaNanos;
+                while (lote.size() < loteMaximo) {
+                    long restante = limite - System.nanoTime();
+                    VentaPendiente siguiente = restante > 0
+                        ? pendientes.poll(restante, TimeUnit.NANOSECONDS)
+                        : pendientes.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                confirmarLote(lote);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Un error inesperado no debe matar al hilo escritor
+                System.err.println("Error en el escritor de ventas: " + e.getMessage());
+                for (VentaPendiente p : lote) {
+                    terminar(p, e);
+                }
+            } finally {
+                for (VentaPendiente p : lote) {
+                    if (!p.resultado.isDone()) {
+                        terminar(p, new SQLException("Se detuvo el escritor de ventas"));
+                    }
+                }
+                lote.clear();
+            }
+        }
+    }
+
+    private void confirmarLote(List<VentaPendiente> lote) {
+        List<Venta> ventas = new ArrayList<>(lote.size());
+        for (VentaPendiente p : lote) {
+            ventas.add(p.venta);
+        }
+
+        try {
+            List<SQLException> errores = ventaDAO.guardarLote(ventas);
+
+            int confirmadas = 0;
+            for (int i = 0; i < lote.size(); i++) {
+                VentaPendiente p = lote.get(i);
+                if (errores.get(i) == null) {
+                    confirmadas++;
+                }
+                terminar(p, errores.get(i));
+            }
+
+            lotesConfirmados.incrementAndGet();
+            ventasConfirmadas.addAndGet(confirmadas);
+
+        } catch (SQLException e) {
+            // Falló la transacción completa: ninguna venta del lote quedó guardada
+            for (VentaPendiente p : lote) {
+                terminar(p, e);
+            }
+        }
+    }
+
+    /**
+     * Libera la reserva de la venta y recién después completa su futuro:
+     * quien espera la confirmación y vende de nuevo ya ve el stock al día
+     *
+     * @param error motivo del rechazo, o null si la venta se confirmó
+     */
+    private void terminar(VentaPendiente pendiente, Exception error) {
+        liberarReserva(pendiente.venta, error == null);
+        if (error == null) {
+            pendiente.resultado.complete(pendiente.venta);
+        } else {
+            pendiente.resultado.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Devuelve las unidades reservadas por la venta. Si se confirmó, también
+     * salen del stock guardado, igual que en la base de datos; el producto
+     * sin reservas pendientes se olvida y la próxima venta relee su stock.
+     */
+    private void liberarReserva(Venta venta, boolean confirmada) {
+        synchronized (reservas) {
+            Reserva reserva = reservas.get(venta.getProducto().getIdProducto());
+            if (reserva == null) {
+                return;
+            }
+            reserva.unidades -= venta.getCantidad();
+            if (confirmada) {
+                reserva.stock -= venta.getCantidad();
+            }
+            if (reserva.unidades <= 0) {
+                reservas.remove(venta.getProducto().getIdProducto());
+            }
+        }
+    }
+
+    /**
+     * Unidades reservadas en un producto
+     */
+    int getReservado(int idProducto) {
+        synchronized (reservas) {
+            Reserva reserva = reservas.get(idProducto);
+            return reserva != null ? reserva.unidades : 0;
+        }
+    }
+
+    /**
+     * Stock de un producto al reservar (descontadas las ventas ya
+     * confirmadas) y unidades reservadas sin confirmar
+     */
+    private static class Reserva {
+        private int stock;
+        private int unidades;
+
+        Reserva(int stock) {
+            this.stock = stock;
+        }
+
+        int getDisponible() {
+            return stock - unidades;
+        }
+    }
+
+    private static class VentaPendiente {
+        private final Venta venta;
+        private final CompletableFuture<Venta> resultado;
+
+        VentaPendiente(Venta venta, CompletableFuture<Venta> resultado) {
+            this.venta = venta;
+            this.resultado = resultado;
+        }
+    }
+}
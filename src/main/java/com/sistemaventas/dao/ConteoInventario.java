@@ -0,0 +1,293 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Dinero;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de un conteo físico de inventario: la cantidad contada de cada
+ * producto, identificado por su código o por su nombre.
+ * <p>
+ * El archivo tiene una línea por producto con la clave y la cantidad,
+ * separadas por punto y coma, coma o tabulación (por ejemplo
+ * <code>7791234567890;12</code> o <code>Mouse Logitech;3</code>). Se
+ * ignoran las líneas vacías, las que empiezan con <code>#</code> y un
+ * encabezado en la primera línea. Si una clave aparece varias veces (el
+ * mismo producto contado en distintos lugares) las cantidades se suman.
+ * </p>
+ * <p>
+ * {@link InventarioDAO} compara el conteo con el stock del sistema en una
+ * sola lectura del catálogo y aplica todas las diferencias en una
+ * transacción.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see InventarioDAO
+ */
+public class ConteoInventario {
+
+    /**
+     * Stock máximo admitido para un producto
+     */
+    public static final int STOCK_MAXIMO = 999_999;
+
+    private final String origen;
+    private final Map<String, Integer> cantidades = new LinkedHashMap<>();
+
+    /**
+     * @param origen descripción del conteo que queda registrada con cada
+     *               ajuste (por ejemplo el nombre del archivo)
+     */
+    public ConteoInventario(String origen) {
+        this.origen = origen;
+    }
+
+    /**
+     * Lee un archivo de conteo (UTF-8)
+     *
+     * @param archivo archivo a leer
+     * @return conteo con las cantidades del archivo
+     * @throws IOException si no se puede leer el archivo
+     * @throws IllegalArgumentException si una línea no tiene el formato
+     *                                  esperado (indica el número de línea)
+     */
+    public static ConteoInventario leer(Path archivo) throws IOException {
+        ConteoInventario conteo = new ConteoInventario(archivo.getFileName().toString());
+
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (numero == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                String texto = linea.trim();
+                if (texto.isEmpty() || texto.startsWith("#")) {
+                    continue;
+                }
+
+                int separador = ultimoSeparador(texto);
+                String clave = separador > 0 ? texto.substring(0, separador).trim() : "";
+                String cantidad = separador > 0 ? texto.substring(separador + 1).trim() : "";
+                int valor;
+                try {
+                    valor = Integer.parseInt(cantidad);
+                } catch (NumberFormatException e) {
+                    if (numero == 1) {
+                        continue; // Encabezado ("codigo;cantidad")
+                    }
+                    throw new IllegalArgumentException(String.format(
+                        "Línea %d: se esperaba \"código o nombre;cantidad\" y se encontró \"%s\"", numero, texto));
+                }
+                if (clave.isEmpty()) {
+                    throw new IllegalArgumentException(String.format(
+                        "Línea %d: falta el código o nombre del producto", numero));
+                }
+                try {
+                    conteo.agregar(clave, valor);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Línea " + numero + ": " + e.getMessage());
+                }
+            }
+        }
+        return conteo;
+    }
+
+    // La cantidad va al final: el nombre puede contener comas
+    private static int ultimoSeparador(String texto) {
+        return Math.max(texto.lastIndexOf(';'), Math.max(texto.lastIndexOf(','), texto.lastIndexOf('\t')));
+    }
+
+    /**
+     * Suma una cantidad contada a la clave (código o nombre del producto)
+     *
+     * @throws IllegalArgumentException si la cantidad es negativa o el total
+     *                                  supera {@link #STOCK_MAXIMO}
+     */
+    public void agregar(String clave, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad contada no puede ser negativa (" + clave + ")");
+        }
+        int total = cantidades.getOrDefault(clave.trim(), 0) + cantidad;
+        if (total > STOCK_MAXIMO) {
+            throw new IllegalArgumentException("La cantidad contada de " + clave + " supera las 999,999 unidades");
+        }
+        cantidades.put(clave.trim(), total);
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    /**
+     * Cantidades contadas por clave, en el orden del archivo
+     */
+    public Map<String, Integer> getCantidades() {
+        return Collections.unmodifiableMap(cantidades);
+    }
+
+    public boolean estaVacio() {
+        return cantidades.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ConteoInventario{" + origen + ", " + cantidades.size() + " clave(s)}";
+    }
+
+    /**
+     * Diferencia entre el stock del sistema y el contado para un producto
+     */
+    public static class Diferencia {
+        private final int idProducto;
+        private final String nombre;
+        private final int stockSistema;
+        private final int stockContado;
+        private final long precioCentavos;
+
+        Diferencia(int idProducto, String nombre, int stockSistema, int stockContado, long precioCentavos) {
+            this.idProducto = idProducto;
+            this.nombre = nombre;
+            this.stockSistema = stockSistema;
+            this.stockContado = stockContado;
+            this.precioCentavos = precioCentavos;
+        }
+
+        public int getIdProducto() {
+            return idProducto;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public int getStockSistema() {
+            return stockSistema;
+        }
+
+        public int getStockContado() {
+            return stockContado;
+        }
+
+        /**
+         * Unidades contadas menos las del sistema (negativo si faltan)
+         */
+        public int getDiferencia() {
+            return stockContado - stockSistema;
+        }
+
+        long getPrecioCentavos() {
+            return precioCentavos;
+        }
+
+        /**
+         * Diferencia valorizada al precio de venta actual
+         */
+        public BigDecimal getValorDiferencia() {
+            return Dinero.aBigDecimal(Dinero.multiplicarCentavos(precioCentavos, getDiferencia()));
+        }
+    }
+
+    /**
+     * Comparación del conteo con el stock del sistema: lo que cambiaría
+     * (vista previa) o lo que cambió, si se aplicó
+     */
+    public static class Resultado {
+        private final int productosContados;
+        private final List<Diferencia> diferencias;
+        private final List<String> noEncontrados;
+        private final boolean aplicado;
+
+        Resultado(int productosContados, List<Diferencia> diferencias, List<String> noEncontrados, boolean aplicado) {
+            this.productosContados = productosContados;
+            this.diferencias = Collections.unmodifiableList(diferencias);
+            this.noEncontrados = Collections.unmodifiableList(noEncontrados);
+            this.aplicado = aplicado;
+        }
+
+        /**
+         * El mismo resultado, marcado como aplicado
+         */
+        Resultado comoAplicado() {
+            return new Resultado(productosContados, new ArrayList<>(diferencias), new ArrayList<>(noEncontrados), true);
+        }
+
+        /**
+         * Productos del catálogo que figuran en el conteo
+         */
+        public int getProductosContados() {
+            return productosContados;
+        }
+
+        /**
+         * Productos contados cuyo stock no coincide con el del sistema, por nombre
+         */
+        public List<Diferencia> getDiferencias() {
+            return diferencias;
+        }
+
+        /**
+         * Claves del archivo que no corresponden a ningún producto (no se aplican)
+         */
+        public List<String> getNoEncontrados() {
+            return noEncontrados;
+        }
+
+        /**
+         * Unidades que faltan respecto del sistema
+         */
+        public int getUnidadesFaltantes() {
+            int faltantes = 0;
+            for (Diferencia diferencia : diferencias) {
+                faltantes += Math.max(0, -diferencia.getDiferencia());
+            }
+            return faltantes;
+        }
+
+        /**
+         * Unidades que sobran respecto del sistema
+         */
+        public int getUnidadesSobrantes() {
+            int sobrantes = 0;
+            for (Diferencia diferencia : diferencias) {
+                sobrantes += Math.max(0, diferencia.getDiferencia());
+            }
+            return sobrantes;
+        }
+
+        /**
+         * Suma de las diferencias valorizadas (negativo si el faltante pesa más)
+         */
+        public BigDecimal getValorDiferencia() {
+            long total = 0;
+            for (Diferencia diferencia : diferencias) {
+                total = Dinero.sumarCentavos(total,
+                    Dinero.multiplicarCentavos(diferencia.getPrecioCentavos(), diferencia.getDiferencia()));
+            }
+            return Dinero.aBigDecimal(total);
+        }
+
+        public boolean isAplicado() {
+            return aplicado;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Resultado{contados=%d, diferencias=%d, noEncontrados=%d, -%d/+%d, $%s%s}",
+                productosContados, diferencias.size(), noEncontrados.size(),
+                getUnidadesFaltantes(), getUnidadesSobrantes(), getValorDiferencia(), aplicado ? ", aplicado" : "");
+        }
+    }
+}
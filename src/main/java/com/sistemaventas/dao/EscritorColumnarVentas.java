@@ -0,0 +1,225 @@
+package com.sistemaventas.dao;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Escribe ventas en formato columnar para análisis histórico.
+ * <p>
+ * Cada columna va en su propio archivo dentro de un directorio, con
+ * codificaciones pensadas para recorrerse con bucles sobre primitivos
+ * (ver {@link LectorColumnarVentas}):
+ * </p>
+ * <ul>
+ *   <li><code>fecha.bin</code> - días desde 1970-01-01, como diferencia con la fila
+ *       anterior en varint (las filas van ordenadas por fecha, así que casi
+ *       siempre ocupa un byte)</li>
+ *   <li><code>fecha.idx</code> - cada {@value #FILAS_POR_BLOQUE} filas: día de la fila
+ *       anterior y posición en <code>fecha.bin</code>, para saltar directo a un rango</li>
+ *   <li><code>id_cliente.dic</code> / <code>id_producto.dic</code> - diccionario de IDs ordenados</li>
+ *   <li><code>id_cliente.bin</code> / <code>id_producto.bin</code> - posición en el diccionario,
+ *       en 1, 2 o 4 bytes según su tamaño</li>
+ *   <li><code>cantidad.bin</code> - en 1, 2 o 4 bytes según la cantidad máxima</li>
+ *   <li><code>total.bin</code> - total en centavos (long)</li>
+ *   <li><code>ventas.meta</code> - cantidad de filas, rango de fechas y anchos</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.dao.ArchivoVentasDAO#exportarColumnar(File)
+ */
+public class EscritorColumnarVentas implements Closeable {
+
+    static final String VERSION = "1";
+    static final int FILAS_POR_BLOQUE = 65_536;
+
+    static final String META = "ventas.meta";
+    static final String FECHA = "fecha.bin";
+    static final String FECHA_INDICE = "fecha.idx";
+    static final String CLIENTE = "id_cliente";
+    static final String PRODUCTO = "id_producto";
+    static final String CANTIDAD = "cantidad.bin";
+    static final String TOTAL = "total.bin";
+
+    private final File directorio;
+    private final int[] clientes;
+    private final int[] productos;
+    private final int anchoClientes;
+    private final int anchoProductos;
+    private final int anchoCantidad;
+    private final int maxCantidad;
+
+    private final OutputStream fecha;
+    private final DataOutputStream fechaIndice;
+    private final DataOutputStream cliente;
+    private final DataOutputStream producto;
+    private final DataOutputStream cantidad;
+    private final DataOutputStream total;
+
+    private long filas = 0;
+    private long bytesFecha = 0;
+    private long diaAnterior = Long.MIN_VALUE;
+    private long diaMinimo = 0;
+
+    /**
+     * Prepara la escritura. Los diccionarios deben contener todos los IDs
+     * que luego se agreguen.
+     *
+     * @param directorio directorio destino (se crea si no existe)
+     * @param idsClientes IDs de clientes posibles
+     * @param idsProductos IDs de productos posibles
+     * @param maxCantidad cantidad máxima que tendrá una venta
+     * @throws IOException si no se pueden crear los archivos
+     */
+    public EscritorColumnarVentas(File directorio, int[] idsClientes, int[] idsProductos, int maxCantidad)
+            throws IOException {
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio: " + directorio.getPath());
+        }
+
+        this.directorio = directorio;
+        this.clientes = ordenarSinRepetidos(idsClientes);
+        this.productos = ordenarSinRepetidos(idsProductos);
+        this.anchoClientes = anchoPara(clientes.length - 1L);
+        this.anchoProductos = anchoPara(productos.length - 1L);
+        this.maxCantidad = Math.max(0, maxCantidad);
+        this.anchoCantidad = anchoPara(this.maxCantidad);
+
+        escribirDiccionario(CLIENTE + ".dic", clientes);
+        escribirDiccionario(PRODUCTO + ".dic", productos);
+
+        this.fecha = new BufferedOutputStream(new FileOutputStream(new File(directorio, FECHA)), 1 << 16);
+        this.fechaIndice = abrir(FECHA_INDICE);
+        this.cliente = abrir(CLIENTE + ".bin");
+        this.producto = abrir(PRODUCTO + ".bin");
+        this.cantidad = abrir(CANTIDAD);
+        this.total = abrir(TOTAL);
+    }
+
+    /**
+     * Agrega una venta. Las ventas deben llegar ordenadas por fecha.
+     *
+     * @param diaEpoch fecha como días desde 1970-01-01 (<code>LocalDate.toEpochDay()</code>)
+     * @param idCliente ID del cliente (debe estar en el diccionario)
+     * @param idProducto ID del producto (debe estar en el diccionario)
+     * @param unidades cantidad vendida
+     * @param totalCentavos total de la venta en centavos
+     * @throws IOException si falla la escritura
+     * @throws IllegalArgumentException si la venta no respeta el orden o los diccionarios
+     */
+    public void agregar(long diaEpoch, int idCliente, int idProducto, int unidades, long totalCentavos)
+            throws IOException {
+        if (filas == 0) {
+            diaAnterior = diaEpoch;
+            diaMinimo = diaEpoch;
+        } else if (diaEpoch < diaAnterior) {
+            throw new IllegalArgumentException("Las ventas deben agregarse ordenadas por fecha");
+        }
+        if (unidades < 0 || unidades > maxCantidad) {
+            throw new IllegalArgumentException("Cantidad fuera de rango: " + unidades);
+        }
+
+        if (filas % FILAS_POR_BLOQUE == 0) {
+            fechaIndice.writeLong(diaAnterior);
+            fechaIndice.writeLong(bytesFecha);
+        }
+
+        bytesFecha += escribirVarint(diaEpoch - diaAnterior);
+        diaAnterior = diaEpoch;
+
+        escribirAncho(cliente, anchoClientes, codigo(clientes, idCliente, "cliente"));
+        escribirAncho(producto, anchoProductos, codigo(productos, idProducto, "producto"));
+        escribirAncho(cantidad, anchoCantidad, unidades);
+        total.writeLong(totalCentavos);
+        filas++;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Cierra los archivos y escribe los metadatos
+     */
+    @Override
+    public void close() throws IOException {
+        fecha.close();
+        fechaIndice.close();
+        cliente.close();
+        producto.close();
+        cantidad.close();
+        total.close();
+
+        Properties meta = new Properties();
+        meta.setProperty("version", VERSION);
+        meta.setProperty("filas", Long.toString(filas));
+        meta.setProperty("diaMinimo", Long.toString(diaMinimo));
+        meta.setProperty("diaMaximo", Long.toString(filas > 0 ? diaAnterior : diaMinimo));
+        meta.setProperty("anchoClientes", Integer.toString(anchoClientes));
+        meta.setProperty("anchoProductos", Integer.toString(anchoProductos));
+        meta.setProperty("anchoCantidad", Integer.toString(anchoCantidad));
+        meta.setProperty("filasPorBloque", Integer.toString(FILAS_POR_BLOQUE));
+
+        try (OutputStream out = new FileOutputStream(new File(directorio, META))) {
+            meta.store(out, "Ventas en formato columnar");
+        }
+    }
+
+    private int escribirVarint(long valor) throws IOException {
+        int bytes = 1;
+        while ((valor & ~0x7FL) != 0) {
+            fecha.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+            bytes++;
+        }
+        fecha.write((int) valor);
+        return bytes;
+    }
+
+    private static void escribirAncho(DataOutputStream out, int ancho, int valor) throws IOException {
+        switch (ancho) {
+            case 1 -> out.writeByte(valor);
+            case 2 -> out.writeShort(valor);
+            default -> out.writeInt(valor);
+        }
+    }
+
+    private static int codigo(int[] diccionario, int id, String tipo) {
+        int posicion = Arrays.binarySearch(diccionario, id);
+        if (posicion < 0) {
+            throw new IllegalArgumentException("ID de " + tipo + " fuera del diccionario: " + id);
+        }
+        return posicion;
+    }
+
+    private static int anchoPara(long maximo) {
+        if (maximo < 256) {
+            return 1;
+        }
+        return maximo < 65_536 ? 2 : 4;
+    }
+
+    private static int[] ordenarSinRepetidos(int[] ids) {
+        return Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    private void escribirDiccionario(String nombre, int[] ids) throws IOException {
+        try (DataOutputStream out = abrir(nombre)) {
+            for (int id : ids) {
+                out.writeInt(id);
+            }
+        }
+    }
+
+    private DataOutputStream abrir(String nombre) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(new File(directorio, nombre)), 1 << 16));
+    }
+}
@@ -0,0 +1,263 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.modelo.Venta;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criterios combinados para buscar ventas: rango de fechas, cliente,
+ * producto y rango de importe total. Los criterios sin valor (null) no
+ * filtran.
+ * <p>
+ * El mismo filtro se puede evaluar en memoria con
+ * {@link #acepta(long, int, int, long)} o traducir a SQL para
+ * {@link VentaDAO#buscar(FiltroVentas, Orden, boolean)}, así la tabla de
+ * ventas filtra sin consultar la base cuando los datos ya están cargados y
+ * delega en la base cuando son demasiados.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class FiltroVentas {
+
+    /**
+     * Columnas por las que se puede ordenar una búsqueda de ventas
+     */
+    public enum Orden {
+        ID("id_venta", Comparator.comparingInt(Venta::getIdVenta)),
+        FECHA("fecha", Comparator.comparing(Venta::getFecha)),
+        CLIENTE("cliente_nombre COLLATE NOCASE", Comparator.comparing(Venta::getNombreCliente, String.CASE_INSENSITIVE_ORDER)),
+        PRODUCTO("producto_nombre COLLATE NOCASE", Comparator.comparing(Venta::getNombreProducto, String.CASE_INSENSITIVE_ORDER)),
+        CANTIDAD("cantidad", Comparator.comparingInt(Venta::getCantidad)),
+        PRECIO_UNITARIO("precio_unitario_centavos", Comparator.comparingLong(Venta::getPrecioUnitarioCentavos)),
+        TOTAL("total_centavos", Comparator.comparingLong(Venta::getTotalCentavos));
+
+        private final String columna;
+        private final Comparator<Venta> comparador;
+
+        Orden(String columna, Comparator<Venta> comparador) {
+            this.columna = columna;
+            this.comparador = comparador;
+        }
+
+        /**
+         * Columna del resultado de la consulta (válida también en un UNION ALL)
+         */
+        String getColumna() {
+            return columna;
+        }
+
+        /**
+         * Comparador equivalente al ORDER BY, para ordenar en Java
+         */
+        Comparator<Venta> getComparador() {
+            return comparador;
+        }
+    }
+
+    private LocalDate desde;
+    private LocalDate hasta;
+    private Integer idCliente;
+    private Integer idProducto;
+    private Long montoMinimoCentavos;
+    private Long montoMaximoCentavos;
+
+    public FiltroVentas() {
+    }
+
+    /**
+     * Filtro por rango de fechas (inclusive)
+     */
+    public static FiltroVentas entreFechas(LocalDate desde, LocalDate hasta) {
+        FiltroVentas filtro = new FiltroVentas();
+        filtro.setDesde(desde);
+        filtro.setHasta(hasta);
+        return filtro;
+    }
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDate desde) {
+        this.desde = desde;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+
+    public Integer getIdCliente() {
+        return idCliente;
+    }
+
+    public void setIdCliente(Integer idCliente) {
+        this.idCliente = idCliente;
+    }
+
+    public Integer getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(Integer idProducto) {
+        this.idProducto = idProducto;
+    }
+
+    public BigDecimal getMontoMinimo() {
+        return montoMinimoCentavos != null ? Dinero.aBigDecimal(montoMinimoCentavos) : null;
+    }
+
+    public void setMontoMinimo(BigDecimal montoMinimo) {
+        this.montoMinimoCentavos = montoMinimo != null ? Dinero.aCentavos(montoMinimo) : null;
+    }
+
+    public BigDecimal getMontoMaximo() {
+        return montoMaximoCentavos != null ? Dinero.aBigDecimal(montoMaximoCentavos) : null;
+    }
+
+    public void setMontoMaximo(BigDecimal montoMaximo) {
+        this.montoMaximoCentavos = montoMaximo != null ? Dinero.aCentavos(montoMaximo) : null;
+    }
+
+    /**
+     * Indica si el filtro no tiene ningún criterio
+     */
+    public boolean estaVacio() {
+        return desde == null && hasta == null && idCliente == null && idProducto == null
+            && montoMinimoCentavos == null && montoMaximoCentavos == null;
+    }
+
+    /**
+     * Indica si el filtro restringe fechas (y por lo tanto puede alcanzar meses archivados)
+     */
+    public boolean tieneFechas() {
+        return desde != null || hasta != null;
+    }
+
+    /**
+     * Filtro que exige los criterios de ambos filtros. Si los dos fijan el
+     * mismo criterio se toma el más restrictivo.
+     *
+     * @param otro filtro a combinar (puede ser null)
+     * @return nuevo filtro con la intersección
+     */
+    public FiltroVentas combinar(FiltroVentas otro) {
+        FiltroVentas resultado = new FiltroVentas();
+        resultado.desde = desde;
+        resultado.hasta = hasta;
+        resultado.idCliente = idCliente;
+        resultado.idProducto = idProducto;
+        resultado.montoMinimoCentavos = montoMinimoCentavos;
+        resultado.montoMaximoCentavos = montoMaximoCentavos;
+
+        if (otro == null) {
+            return resultado;
+        }
+        if (otro.desde != null && (desde == null || otro.desde.isAfter(desde))) {
+            resultado.desde = otro.desde;
+        }
+        if (otro.hasta != null && (hasta == null || otro.hasta.isBefore(hasta))) {
+            resultado.hasta = otro.hasta;
+        }
+        if (otro.montoMinimoCentavos != null
+                && (montoMinimoCentavos == null || otro.montoMinimoCentavos > montoMinimoCentavos)) {
+            resultado.montoMinimoCentavos = otro.montoMinimoCentavos;
+        }
+        if (otro.montoMaximoCentavos != null
+                && (montoMaximoCentavos == null || otro.montoMaximoCentavos < montoMaximoCentavos)) {
+            resultado.montoMaximoCentavos = otro.montoMaximoCentavos;
+        }
+        // Dos IDs distintos no tienen intersección: -1 no coincide con ninguna fila
+        if (otro.idCliente != null) {
+            resultado.idCliente = idCliente == null || idCliente.equals(otro.idCliente) ? otro.idCliente : -1;
+        }
+        if (otro.idProducto != null) {
+            resultado.idProducto = idProducto == null || idProducto.equals(otro.idProducto) ? otro.idProducto : -1;
+        }
+        return resultado;
+    }
+
+    /**
+     * Evalúa el filtro sobre los valores primitivos de una fila
+     *
+     * @param dia fecha de la venta en días desde la época
+     * @param idCliente ID del cliente
+     * @param idProducto ID del producto
+     * @param totalCentavos total de la venta en centavos
+     * @return true si la fila cumple todos los criterios
+     */
+    public boolean acepta(long dia, int idCliente, int idProducto, long totalCentavos) {
+        return (desde == null || dia >= desde.toEpochDay())
+            && (hasta == null || dia <= hasta.toEpochDay())
+            && (this.idCliente == null || this.idCliente == idCliente)
+            && (this.idProducto == null || this.idProducto == idProducto)
+            && (montoMinimoCentavos == null || totalCentavos >= montoMinimoCentavos)
+            && (montoMaximoCentavos == null || totalCentavos <= montoMaximoCentavos);
+    }
+
+    /**
+     * Condiciones SQL del filtro sobre la tabla con alias <code>v</code>,
+     * unidas con AND (vacío si el filtro no tiene criterios)
+     */
+    String getCondicionSQL() {
+        List<String> condiciones = new ArrayList<>();
+        if (desde != null) condiciones.add("v.fecha >= ?");
+        if (hasta != null) condiciones.add("v.fecha <= ?");
+        if (idCliente != null) condiciones.add("v.id_cliente = ?");
+        if (idProducto != null) condiciones.add("v.id_producto = ?");
+        if (montoMinimoCentavos != null) condiciones.add("v.total_centavos >= ?");
+        if (montoMaximoCentavos != null) condiciones.add("v.total_centavos <= ?");
+        return String.join(" AND ", condiciones);
+    }
+
+    /**
+     * Asigna los parámetros de {@link #getCondicionSQL()} a partir de la posición indicada
+     *
+     * @return siguiente posición libre
+     */
+    int asignarParametros(PreparedStatement pstmt, int posicion) throws SQLException {
+        if (desde != null) pstmt.setLong(posicion++, desde.toEpochDay());
+        if (hasta != null) pstmt.setLong(posicion++, hasta.toEpochDay());
+        if (idCliente != null) pstmt.setInt(posicion++, idCliente);
+        if (idProducto != null) pstmt.setInt(posicion++, idProducto);
+        if (montoMinimoCentavos != null) pstmt.setLong(posicion++, montoMinimoCentavos);
+        if (montoMaximoCentavos != null) pstmt.setLong(posicion++, montoMaximoCentavos);
+        return posicion;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        FiltroVentas otro = (FiltroVentas) obj;
+        return Objects.equals(desde, otro.desde) && Objects.equals(hasta, otro.hasta)
+            && Objects.equals(idCliente, otro.idCliente) && Objects.equals(idProducto, otro.idProducto)
+            && Objects.equals(montoMinimoCentavos, otro.montoMinimoCentavos)
+            && Objects.equals(montoMaximoCentavos, otro.montoMaximoCentavos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(desde, hasta, idCliente, idProducto, montoMinimoCentavos, montoMaximoCentavos);
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroVentas{desde=" + desde + ", hasta=" + hasta + ", cliente=" + idCliente
+            + ", producto=" + idProducto + ", minimo=" + getMontoMinimo() + ", maximo=" + getMontoMaximo() + "}";
+    }
+}
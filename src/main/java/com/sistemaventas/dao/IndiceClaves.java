@@ -0,0 +1,173 @@
+package com.sistemaventas.dao;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice inmutable de claves de texto a IDs, guardado como dos arreglos
+ * paralelos ordenados por clave.
+ * <p>
+ * Las búsquedas exactas y por prefijo son búsquedas binarias sobre el
+ * arreglo de claves, sin objetos intermedios. Cada cambio crea un índice
+ * nuevo (copia de los arreglos), así quien lee nunca necesita sincronizar;
+ * sirve para datos que se leen mucho y se modifican de a una fila.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see IndicesCatalogo
+ */
+final class IndiceClaves {
+
+    /**
+     * Resultado de {@link #buscar(String)} cuando la clave no está
+     */
+    static final int NO_ENCONTRADO = -1;
+
+    static final IndiceClaves VACIO = new IndiceClaves(new String[0], new int[0]);
+
+    private final String[] claves;
+    private final int[] ids;
+
+    private IndiceClaves(String[] claves, int[] ids) {
+        this.claves = claves;
+        this.ids = ids;
+    }
+
+    /**
+     * Construye un índice a partir de pares clave / ID en cualquier orden.
+     * Las claves null se omiten.
+     *
+     * @param claves claves
+     * @param ids ID de cada clave
+     * @return índice ordenado
+     */
+    static IndiceClaves construir(List<String> claves, int[] ids) {
+        Integer[] orden = new Integer[claves.size()];
+        int cantidad = 0;
+        for (int i = 0; i < orden.length; i++) {
+            if (claves.get(i) != null) {
+                orden[cantidad++] = i;
+            }
+        }
+        Arrays.sort(orden, 0, cantidad, Comparator.comparing(claves::get));
+
+        String[] clavesOrdenadas = new String[cantidad];
+        int[] idsOrdenados = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            clavesOrdenadas[i] = claves.get(orden[i]);
+            idsOrdenados[i] = ids[orden[i]];
+        }
+        return new IndiceClaves(clavesOrdenadas, idsOrdenados);
+    }
+
+    /**
+     * ID de la primera entrada con la clave exacta
+     *
+     * @return ID encontrado, o {@link #NO_ENCONTRADO}
+     */
+    int buscar(String clave) {
+        int posicion = primeraPosicion(clave);
+        return posicion < claves.length && claves[posicion].equals(clave) ? ids[posicion] : NO_ENCONTRADO;
+    }
+
+    /**
+     * IDs de las entradas cuya clave empieza con el prefijo, en orden de clave
+     *
+     * @param prefijo comienzo de la clave
+     * @param limite cantidad máxima de IDs
+     */
+    int[] buscarPrefijo(String prefijo, int limite) {
+        int desde = primeraPosicion(prefijo);
+        int hasta = desde;
+        while (hasta < claves.length && hasta - desde < limite && claves[hasta].startsWith(prefijo)) {
+            hasta++;
+        }
+        return Arrays.copyOfRange(ids, desde, hasta);
+    }
+
+    /**
+     * Índice con la entrada de un ID reemplazada
+     *
+     * @param id ID a actualizar
+     * @param clave clave nueva (null para quitar la entrada)
+     * @return índice nuevo
+     */
+    IndiceClaves con(int id, String clave) {
+        IndiceClaves sinId = sin(id);
+        if (clave == null) {
+            return sinId;
+        }
+
+        int posicion = sinId.primeraPosicion(clave);
+        int total = sinId.claves.length;
+        String[] nuevasClaves = new String[total + 1];
+        int[] nuevosIds = new int[total + 1];
+        System.arraycopy(sinId.claves, 0, nuevasClaves, 0, posicion);
+        System.arraycopy(sinId.ids, 0, nuevosIds, 0, posicion);
+        nuevasClaves[posicion] = clave;
+        nuevosIds[posicion] = id;
+        System.arraycopy(sinId.claves, posicion, nuevasClaves, posicion + 1, total - posicion);
+        System.arraycopy(sinId.ids, posicion, nuevosIds, posicion + 1, total - posicion);
+        return new IndiceClaves(nuevasClaves, nuevosIds);
+    }
+
+    /**
+     * Índice sin la entrada de un ID (el mismo índice si no estaba)
+     */
+    IndiceClaves sin(int id) {
+        int posicion = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                posicion = i;
+                break;
+            }
+        }
+        if (posicion < 0) {
+            return this;
+        }
+
+        int total = claves.length;
+        String[] nuevasClaves = new String[total - 1];
+        int[] nuevosIds = new int[total - 1];
+        System.arraycopy(claves, 0, nuevasClaves, 0, posicion);
+        System.arraycopy(ids, 0, nuevosIds, 0, posicion);
+        System.arraycopy(claves, posicion + 1, nuevasClaves, posicion, total - posicion - 1);
+        System.arraycopy(ids, posicion + 1, nuevosIds, posicion, total - posicion - 1);
+        return new IndiceClaves(nuevasClaves, nuevosIds);
+    }
+
+    int tamanio() {
+        return claves.length;
+    }
+
+    /**
+     * Memoria aproximada del índice en bytes: los dos arreglos más las
+     * claves (cabecera de String y de su arreglo de bytes, 1 o 2 bytes por
+     * carácter), con referencias comprimidas de 4 bytes.
+     */
+    long getBytesEstimados() {
+        long bytes = 16 + 4L * claves.length + 16 + 4L * ids.length;
+        for (String clave : claves) {
+            boolean latin1 = clave.chars().allMatch(c -> c < 256);
+            bytes += 24 + 16 + (long) clave.length() * (latin1 ? 1 : 2);
+        }
+        return bytes;
+    }
+
+    // Primera posición cuya clave no es menor que la buscada
+    private int primeraPosicion(String clave) {
+        int bajo = 0;
+        int alto = claves.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (claves[medio].compareTo(clave) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
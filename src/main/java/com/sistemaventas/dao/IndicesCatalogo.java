@@ -0,0 +1,455 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.BusEventos;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índices en memoria para las búsquedas del mostrador: DNI y email de los
+ * clientes, nombre de los productos y código de producto (SKU / EAN).
+ * <p>
+ * Se cargan en segundo plano al iniciar la aplicación ({@link #iniciar()})
+ * y se mantienen al día con los eventos que publican los DAOs después de
+ * cada alta, modificación o baja. Quien publica el evento no espera: el ID
+ * se anota y un hilo aparte lo vuelve a leer, una sola vez aunque haya
+ * cambiado varias veces (un lote de ventas avisa el stock de cada
+ * producto). Una búsqueda es una búsqueda binaria sobre arreglos
+ * ordenados: no abre conexiones ni ejecuta consultas.
+ * </p>
+ * <p>
+ * Las claves se comparan igual que en la consulta equivalente del DAO: el
+ * texto buscado sin espacios al principio ni al final y, en los nombres de
+ * productos, sin distinguir mayúsculas solo en las letras A-Z, como
+ * <code>COLLATE NOCASE</code> (ver {@link BusquedaNombre#minusculasAscii}).
+ * Así el resultado no depende de si el índice está cargado.
+ * </p>
+ * <p>
+ * Cada cliente y producto se guarda completo (el producto con precio, stock
+ * y código) y las búsquedas devuelven una copia: el lector de códigos de
+ * barras y los controles de duplicados no van a la base de datos.
+ * </p>
+ * <p>
+ * Mientras los índices no están cargados {@link #isCargado()} devuelve
+ * false y los DAOs consultan la base de datos como siempre. Si falla una
+ * actualización se desactivan y se vuelven a cargar en segundo plano con
+ * el siguiente cambio.
+ * </p>
+ * <p>
+ * Solo reflejan los cambios hechos desde esta aplicación. Con varias
+ * terminales, una clave que no está puede existir en la base (los DAOs la
+ * consultan ante cada ausencia) y una copia encontrada puede tener datos
+ * viejos, por ejemplo el stock.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public final class IndicesCatalogo {
+
+    /**
+     * ID devuelto cuando la clave no está en el índice
+     */
+    public static final int NO_ENCONTRADO = IndiceClaves.NO_ENCONTRADO;
+
+    private static IndicesCatalogo instancia;
+
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final ProductoDAO productoDAO = new ProductoDAO();
+
+    private volatile IndiceClaves porDni = IndiceClaves.VACIO;
+    private volatile IndiceClaves porEmail = IndiceClaves.VACIO;
+    private volatile IndiceClaves porNombreProducto = IndiceClaves.VACIO;
+    // Al recargar, cada mapa se reemplaza por uno nuevo; los eventos los modifican en el lugar
+    private volatile Map<Integer, Cliente> clientes = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Producto> productos = new ConcurrentHashMap<>();
+    private volatile Map<String, Producto> porCodigo = new ConcurrentHashMap<>();
+    // Código actual de cada producto, para quitar el viejo cuando cambia (solo con el lock tomado)
+    private Map<Integer, String> codigoPorId = new HashMap<>();
+    private volatile boolean cargado = false;
+    private boolean iniciado = false;
+    // Falló una carga o una actualización: el próximo cambio vuelve a cargar
+    private boolean desactualizado = false;
+    private boolean cargando = false;
+
+    // Cambios anotados por los eventos y todavía no aplicados (con el lock de
+    // pendientes, separado del de la instancia para no esperar a una carga)
+    private final Object pendientes = new Object();
+    private Set<Integer> clientesPendientes = new LinkedHashSet<>();
+    // ID de producto y si puede haber cambiado su nombre
+    private Map<Integer, Boolean> productosPendientes = new LinkedHashMap<>();
+    private boolean masivoPendiente = false;
+    private boolean actualizando = false;
+
+    private IndicesCatalogo() {
+    }
+
+    public static synchronized IndicesCatalogo getInstancia() {
+        if (instancia == null) {
+            instancia = new IndicesCatalogo();
+        }
+        return instancia;
+    }
+
+    /**
+     * Se suscribe a los cambios y carga los índices en un hilo aparte
+     */
+    public synchronized void iniciar() {
+        if (iniciado) {
+            return;
+        }
+        iniciado = true;
+
+        // Suscribirse antes de cargar: un cambio que llegue durante la carga
+        // se aplica encima cuando termina
+        BusEventos.suscribir(this::alCambiarDatos);
+        cargarEnSegundoPlano();
+    }
+
+    /**
+     * Lanza {@link #cargar()} en un hilo de baja prioridad (uno a la vez)
+     */
+    private synchronized void cargarEnSegundoPlano() {
+        if (cargando) {
+            return;
+        }
+        cargando = true;
+
+        Thread hilo = new Thread(() -> {
+            try {
+                cargar();
+            } catch (SQLException e) {
+                synchronized (this) {
+                    desactualizado = true;
+                }
+                System.err.println("No se pudieron cargar los índices en memoria: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    cargando = false;
+                }
+            }
+        }, "indices-catalogo");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        hilo.start();
+    }
+
+    /**
+     * Vuelve a leer todos los índices de la base de datos
+     *
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public synchronized void cargar() throws SQLException {
+        long inicio = System.nanoTime();
+        List<String> dnis = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+
+        List<Cliente> todosClientes = clienteDAO.obtenerTodos();
+        int[] idsClientes = new int[todosClientes.size()];
+        Map<Integer, Cliente> nuevosClientes = new ConcurrentHashMap<>();
+        for (int i = 0; i < idsClientes.length; i++) {
+            Cliente cliente = todosClientes.get(i);
+            idsClientes[i] = cliente.getIdCliente();
+            dnis.add(cliente.getDni());
+            emails.add(cliente.getEmail());
+            nuevosClientes.put(cliente.getIdCliente(), cliente);
+        }
+
+        List<Producto> todosProductos = productoDAO.obtenerTodos();
+        int[] idsProductos = new int[todosProductos.size()];
+        Map<Integer, Producto> nuevosProductos = new ConcurrentHashMap<>();
+        Map<String, Producto> nuevosPorCodigo = new ConcurrentHashMap<>();
+        Map<Integer, String> nuevosCodigos = new HashMap<>();
+        for (int i = 0; i < idsProductos.length; i++) {
+            Producto producto = todosProductos.get(i);
+            idsProductos[i] = producto.getIdProducto();
+            nombres.add(claveNombre(producto.getNombre()));
+            nuevosProductos.put(producto.getIdProducto(), producto);
+            if (producto.getCodigo() != null) {
+                nuevosCodigos.put(producto.getIdProducto(), producto.getCodigo());
+                nuevosPorCodigo.put(producto.getCodigo(), producto);
+            }
+        }
+
+        IndiceClaves nuevoPorDni = IndiceClaves.construir(dnis, idsClientes);
+        IndiceClaves nuevoPorEmail = IndiceClaves.construir(emails, idsClientes);
+        IndiceClaves nuevoPorNombre = IndiceClaves.construir(nombres, idsProductos);
+
+        // Cada estructura se reemplaza con una sola asignación: quien lee
+        // durante la carga ve la versión anterior completa, nunca un mapa a
+        // medio llenar. Los mapas van antes que los índices, así todo ID que
+        // devuelva un índice ya tiene su cliente o producto.
+        clientes = nuevosClientes;
+        productos = nuevosProductos;
+        porCodigo = nuevosPorCodigo;
+        codigoPorId = nuevosCodigos;
+        porDni = nuevoPorDni;
+        porEmail = nuevoPorEmail;
+        porNombreProducto = nuevoPorNombre;
+        cargado = true;
+        desactualizado = false;
+
+        System.out.println(String.format("Índices en memoria cargados en %d ms: %s",
+            (System.nanoTime() - inicio) / 1_000_000, this));
+    }
+
+    /**
+     * Indica si los índices están completos y al día
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * ID del cliente con ese DNI, o {@link #NO_ENCONTRADO}
+     */
+    public int idPorDni(String dni) {
+        return porDni.buscar(dni.trim());
+    }
+
+    /**
+     * ID del cliente con ese email, o {@link #NO_ENCONTRADO}
+     */
+    public int idPorEmail(String email) {
+        return porEmail.buscar(email.trim());
+    }
+
+    /**
+     * ID del producto con ese nombre (sin distinguir mayúsculas), o {@link #NO_ENCONTRADO}
+     */
+    public int idPorNombreProducto(String nombre) {
+        return porNombreProducto.buscar(claveNombre(nombre.trim()));
+    }
+
+    /**
+     * Copia del cliente con ese DNI, o null si no hay ninguno
+     */
+    public Cliente clientePorDni(String dni) {
+        return copia(clientes.get(idPorDni(dni)));
+    }
+
+    /**
+     * Copia del cliente con ese email, o null si no hay ninguno
+     */
+    public Cliente clientePorEmail(String email) {
+        return copia(clientes.get(idPorEmail(email)));
+    }
+
+    /**
+     * Copia del producto con ese nombre (sin distinguir mayúsculas), o null si no hay ninguno
+     */
+    public Producto productoPorNombre(String nombre) {
+        return copia(productos.get(idPorNombreProducto(nombre)));
+    }
+
+    /**
+     * Copia del producto con ese código, o null si no hay ninguno
+     */
+    public Producto productoPorCodigo(String codigo) {
+        return copia(porCodigo.get(codigo.trim()));
+    }
+
+    /**
+     * IDs de los clientes cuyo DNI empieza con el prefijo, ordenados por DNI
+     */
+    public int[] idsPorPrefijoDni(String prefijo, int limite) {
+        return porDni.buscarPrefijo(prefijo.trim(), limite);
+    }
+
+    /**
+     * IDs de los clientes cuyo email empieza con el prefijo, ordenados por email
+     */
+    public int[] idsPorPrefijoEmail(String prefijo, int limite) {
+        return porEmail.buscarPrefijo(prefijo.trim(), limite);
+    }
+
+    /**
+     * IDs de los productos cuyo nombre empieza con el prefijo, ordenados por nombre
+     */
+    public int[] idsPorPrefijoNombreProducto(String prefijo, int limite) {
+        return porNombreProducto.buscarPrefijo(claveNombre(prefijo.trim()), limite);
+    }
+
+    /**
+     * Memoria aproximada ocupada por los tres índices, en bytes
+     */
+    public long getBytesEstimados() {
+        // Cada cliente o producto guardado: nodo del mapa, objeto y sus textos (~160 bytes);
+        // cada entrada por código, otro nodo (~48 bytes)
+        return porDni.getBytesEstimados() + porEmail.getBytesEstimados() + porNombreProducto.getBytesEstimados()
+            + 160L * (clientes.size() + productos.size()) + 48L * porCodigo.size();
+    }
+
+    /**
+     * Suscriptor del bus: corre en el hilo que publica (por ejemplo el que
+     * guarda un lote de ventas), así que solo anota el ID y deja la lectura
+     * a {@link #aplicarPendientes()}, en un hilo aparte
+     */
+    private void alCambiarDatos(BusEventos.Evento evento) {
+        synchronized (pendientes) {
+            if (evento.esDeCliente()) {
+                clientesPendientes.add(evento.getId());
+            } else if (evento.esMasivo()) {
+                masivoPendiente = true;
+            } else if (evento.esDeProducto()) {
+                // El stock no cambia el nombre; cualquier otro cambio puede hacerlo
+                productosPendientes.merge(evento.getId(),
+                    evento.getTipo() != BusEventos.Tipo.STOCK_CAMBIADO, Boolean::logicalOr);
+            } else {
+                return;
+            }
+            if (actualizando) {
+                return;
+            }
+            actualizando = true;
+        }
+
+        Thread hilo = new Thread(this::aplicarPendientes, "indices-catalogo-cambios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Aplica los cambios anotados hasta que no quede ninguno. Un ID que
+     * cambió varias veces mientras se aplicaba el grupo anterior se lee una
+     * sola vez.
+     */
+    private void aplicarPendientes() {
+        while (true) {
+            Set<Integer> idsClientes;
+            Map<Integer, Boolean> idsProductos;
+            boolean masivo;
+            synchronized (pendientes) {
+                if (clientesPendientes.isEmpty() && productosPendientes.isEmpty() && !masivoPendiente) {
+                    actualizando = false;
+                    return;
+                }
+                idsClientes = clientesPendientes;
+                idsProductos = productosPendientes;
+                masivo = masivoPendiente;
+                clientesPendientes = new LinkedHashSet<>();
+                productosPendientes = new LinkedHashMap<>();
+                masivoPendiente = false;
+            }
+            try {
+                aplicar(idsClientes, idsProductos, masivo);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    cargado = false;
+                    desactualizado = true;
+                }
+                System.err.println("Índices en memoria desactivados: " + e);
+            }
+        }
+    }
+
+    private synchronized void aplicar(Set<Integer> idsClientes, Map<Integer, Boolean> idsProductos,
+                                      boolean masivo) {
+        // Antes de la primera carga no hay nada que actualizar: la carga ya lo
+        // incluye. Si una carga o actualización anterior falló, se reintenta
+        if (!cargado) {
+            if (desactualizado) {
+                cargarEnSegundoPlano();
+            }
+            return;
+        }
+        try {
+            // Un ID que ya no está en la base fue eliminado
+            for (int id : idsClientes) {
+                Cliente cliente = clienteDAO.buscarPorId(id);
+                porDni = porDni.con(id, cliente != null ? cliente.getDni() : null);
+                porEmail = porEmail.con(id, cliente != null ? cliente.getEmail() : null);
+                if (cliente != null) {
+                    clientes.put(id, cliente);
+                } else {
+                    clientes.remove(id);
+                }
+            }
+            if (masivo) {
+                // Los nombres no cambian; solo hay que renovar las copias con precio y stock
+                for (Producto producto : productoDAO.obtenerTodos()) {
+                    ponerProducto(producto.getIdProducto(), producto);
+                }
+            }
+            for (Map.Entry<Integer, Boolean> pendiente : idsProductos.entrySet()) {
+                int id = pendiente.getKey();
+                boolean cambiaNombre = pendiente.getValue();
+                if (masivo && !cambiaNombre) {
+                    continue; // Ya se releyó con todo el catálogo
+                }
+                Producto producto = productoDAO.buscarPorId(id);
+                if (cambiaNombre || producto == null) {
+                    porNombreProducto = porNombreProducto.con(id,
+                        producto != null ? claveNombre(producto.getNombre()) : null);
+                }
+                ponerProducto(id, producto);
+            }
+        } catch (SQLException e) {
+            // Un índice desactualizado daría respuestas falsas: volver a la base
+            // de datos hasta que el próximo cambio lo vuelva a cargar
+            cargado = false;
+            desactualizado = true;
+            System.err.println("Índices en memoria desactivados tras actualizar "
+                + idsClientes.size() + " cliente(s) y " + idsProductos.size() + " producto(s): " + e.getMessage());
+        }
+    }
+
+    // Reemplaza la copia de un producto y su entrada por código (null para quitarlas)
+    private void ponerProducto(int idProducto, Producto producto) {
+        if (producto != null) {
+            productos.put(idProducto, producto);
+        } else {
+            productos.remove(idProducto);
+        }
+        String anterior = codigoPorId.remove(idProducto);
+        if (anterior != null) {
+            porCodigo.remove(anterior);
+        }
+        if (producto != null && producto.getCodigo() != null) {
+            codigoPorId.put(idProducto, producto.getCodigo());
+            porCodigo.put(producto.getCodigo(), producto);
+        }
+    }
+
+    private static Cliente copia(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        return new Cliente(cliente.getIdCliente(), cliente.getNombre(), cliente.getDni(),
+            cliente.getTelefono(), cliente.getEmail());
+    }
+
+    private static Producto copia(Producto producto) {
+        if (producto == null) {
+            return null;
+        }
+        return new Producto(producto.getIdProducto(), producto.getNombre(),
+            producto.getPrecioCentavos(), producto.getStock(), producto.getCodigo());
+    }
+
+    /**
+     * Clave de un nombre de producto: igual que <code>COLLATE NOCASE</code>.
+     * Los nombres guardados no se recortan, como en la columna; el texto
+     * buscado se recorta antes, como en la consulta.
+     */
+    private static String claveNombre(String nombre) {
+        return nombre == null ? null : BusquedaNombre.minusculasAscii(nombre);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IndicesCatalogo{dni=%d, email=%d, productos=%d, codigos=%d, ~%d KB}",
+            porDni.tamanio(), porEmail.tamanio(), porNombreProducto.tamanio(), porCodigo.size(),
+            getBytesEstimados() / 1024);
+    }
+}
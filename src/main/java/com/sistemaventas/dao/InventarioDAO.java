@@ -0,0 +1,188 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.util.BusEventos;
+import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.UnidadDeTrabajo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object (DAO) para la conciliación de inventario: compara un
+ * {@link ConteoInventario} con el stock del sistema y registra las
+ * diferencias en la tabla <code>ajustes_inventario</code>.
+ * <p>
+ * La comparación lee el catálogo una sola vez y cruza el conteo en memoria
+ * (por código y, si no coincide, por nombre sin distinguir mayúsculas A-Z,
+ * como el índice único del nombre). Al aplicar, el stock y el registro de
+ * cada diferencia se escriben por lotes en una única transacción y se
+ * publica un solo evento {@link BusEventos.Tipo#INVENTARIO_CONCILIADO}, en
+ * lugar de una consulta, una actualización y un evento por producto.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see ConteoInventario
+ */
+public class InventarioDAO {
+
+    // Filas por lote de executeBatch
+    private static final int TAMANIO_LOTE = 1000;
+
+    // Marca de un nombre que comparten varios productos (los IDs son positivos)
+    private static final int NOMBRE_AMBIGUO = -1;
+
+    /**
+     * Compara el conteo con el stock actual sin modificar nada.
+     *
+     * @param conteo cantidades contadas
+     * @return productos contados, diferencias (ordenadas por nombre) y claves
+     *         que no corresponden a ningún producto
+     * @throws SQLException si ocurre un error de base de datos
+     * @throws IllegalArgumentException si un producto contado por código y
+     *                                  por nombre supera en total
+     *                                  {@link ConteoInventario#STOCK_MAXIMO},
+     *                                  o si un nombre contado corresponde a
+     *                                  más de un producto
+     */
+    public ConteoInventario.Resultado comparar(ConteoInventario conteo) throws SQLException {
+        String sql = "SELECT id_producto, nombre, codigo, stock, precio_centavos FROM productos";
+
+        Map<String, Integer> porCodigo = new HashMap<>();
+        Map<String, Integer> porNombre = new HashMap<>();
+        Map<Integer, ConteoInventario.Diferencia> sistema = new HashMap<>();
+
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int id = rs.getInt("id_producto");
+                String nombre = rs.getString("nombre");
+                String codigo = rs.getString("codigo");
+                if (codigo != null) {
+                    porCodigo.put(codigo, id);
+                }
+                // Dos productos con la misma clave: el nombre no alcanza para elegir
+                porNombre.merge(claveNombre(nombre), id, (anterior, nuevo) -> NOMBRE_AMBIGUO);
+                sistema.put(id, new ConteoInventario.Diferencia(id, nombre, rs.getInt("stock"), 0,
+                    rs.getLong("precio_centavos")));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al comparar el conteo de inventario: " + e.getMessage());
+            throw e;
+        }
+
+        // Un producto puede figurar por código y por nombre: se suma, con el
+        // mismo límite que ConteoInventario aplica a cada clave
+        Map<Integer, Integer> contados = new LinkedHashMap<>();
+        List<String> noEncontrados = new ArrayList<>();
+        for (Map.Entry<String, Integer> linea : conteo.getCantidades().entrySet()) {
+            Integer id = porCodigo.get(linea.getKey());
+            if (id == null) {
+                id = porNombre.get(claveNombre(linea.getKey()));
+                if (id != null && id == NOMBRE_AMBIGUO) {
+                    throw new IllegalArgumentException("\"" + linea.getKey()
+                        + "\" corresponde a más de un producto: cuéntelo por su código");
+                }
+            }
+            if (id == null) {
+                noEncontrados.add(linea.getKey());
+            } else {
+                int total = contados.merge(id, linea.getValue(), Integer::sum);
+                if (total > ConteoInventario.STOCK_MAXIMO) {
+                    throw new IllegalArgumentException("La cantidad contada de " + sistema.get(id).getNombre()
+                        + " (por código y por nombre) supera las 999,999 unidades");
+                }
+            }
+        }
+
+        List<ConteoInventario.Diferencia> diferencias = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> contado : contados.entrySet()) {
+            ConteoInventario.Diferencia actual = sistema.get(contado.getKey());
+            if (actual.getStockSistema() != contado.getValue()) {
+                diferencias.add(new ConteoInventario.Diferencia(actual.getIdProducto(), actual.getNombre(),
+                    actual.getStockSistema(), contado.getValue(), actual.getPrecioCentavos()));
+            }
+        }
+        diferencias.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.getNombre(), b.getNombre()));
+
+        return new ConteoInventario.Resultado(contados.size(), diferencias, noEncontrados, false);
+    }
+
+    /**
+     * Lleva el stock de los productos contados a la cantidad del conteo.
+     * <p>
+     * La comparación se repite dentro de la transacción, así las ventas
+     * registradas entre la vista previa y la aplicación quedan incluidas.
+     * Cada diferencia queda registrada en <code>ajustes_inventario</code>
+     * con la fecha de hoy y el origen del conteo. Las claves no encontradas
+     * se ignoran.
+     * </p>
+     *
+     * @param conteo cantidades contadas
+     * @return diferencias aplicadas (ver {@link ConteoInventario.Resultado#isAplicado()})
+     * @throws SQLException si ocurre un error de base de datos; en ese caso no
+     *                      se modifica ningún stock
+     */
+    public ConteoInventario.Resultado aplicar(ConteoInventario conteo) throws SQLException {
+        String sqlStock = "UPDATE productos SET stock = ? WHERE id_producto = ?";
+        String sqlAjuste = "INSERT INTO ajustes_inventario (fecha, id_producto, stock_anterior, stock_contado, " +
+                           "precio_unitario_centavos, origen) VALUES (?, ?, ?, ?, ?, ?)";
+
+        return UnidadDeTrabajo.ejecutar(() -> {
+            ConteoInventario.Resultado resultado = comparar(conteo);
+            if (resultado.getDiferencias().isEmpty()) {
+                return resultado.comoAplicado();
+            }
+
+            long hoy = LocalDate.now().toEpochDay();
+            try (Connection conn = ConexionDB.getConexionEscritura();
+                 PreparedStatement pstmtStock = conn.prepareStatement(sqlStock);
+                 PreparedStatement pstmtAjuste = conn.prepareStatement(sqlAjuste)) {
+
+                int enLote = 0;
+                for (ConteoInventario.Diferencia diferencia : resultado.getDiferencias()) {
+                    pstmtStock.setInt(1, diferencia.getStockContado());
+                    pstmtStock.setInt(2, diferencia.getIdProducto());
+                    pstmtStock.addBatch();
+
+                    pstmtAjuste.setLong(1, hoy);
+                    pstmtAjuste.setInt(2, diferencia.getIdProducto());
+                    pstmtAjuste.setInt(3, diferencia.getStockSistema());
+                    pstmtAjuste.setInt(4, diferencia.getStockContado());
+                    pstmtAjuste.setLong(5, diferencia.getPrecioCentavos());
+                    pstmtAjuste.setString(6, conteo.getOrigen());
+                    pstmtAjuste.addBatch();
+
+                    if (++enLote == TAMANIO_LOTE) {
+                        pstmtStock.executeBatch();
+                        pstmtAjuste.executeBatch();
+                        enLote = 0;
+                    }
+                }
+                pstmtStock.executeBatch();
+                pstmtAjuste.executeBatch();
+            }
+
+            BusEventos.publicar(BusEventos.Tipo.INVENTARIO_CONCILIADO, 0);
+            System.out.println("✓ Inventario conciliado (" + conteo.getOrigen() + "): "
+                + resultado.getDiferencias().size() + " producto(s) ajustado(s)");
+            return resultado.comoAplicado();
+        });
+    }
+
+    // Misma regla que el índice UNIQUE NOCASE del nombre (solo A-Z), como IndicesCatalogo
+    private static String claveNombre(String nombre) {
+        return BusquedaNombre.minusculasAscii(nombre.trim());
+    }
+}
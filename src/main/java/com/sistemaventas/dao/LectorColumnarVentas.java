@@ -0,0 +1,203 @@
+package com.sistemaventas.dao;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Lee ventas en formato columnar (ver {@link EscritorColumnarVentas}).
+ * <p>
+ * Los archivos se mapean en memoria con {@link FileChannel#map} y las
+ * consultas recorren solo las columnas que necesitan, con bucles sobre
+ * primitivos y sin crear objetos por fila. Como las filas están ordenadas
+ * por fecha, el índice de <code>fecha.idx</code> permite ir directo al
+ * primer bloque del rango pedido.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class LectorColumnarVentas {
+
+    private final int filas;
+    private final long diaMinimo;
+    private final long diaMaximo;
+    private final int anchoProductos;
+    private final int filasPorBloque;
+
+    private final int[] productos;
+    private final ByteBuffer fecha;
+    private final LongBuffer fechaIndice;
+    private final ByteBuffer producto;
+    private final LongBuffer total;
+
+    private LectorColumnarVentas(File directorio) throws IOException {
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(new File(directorio, EscritorColumnarVentas.META))) {
+            meta.load(in);
+        }
+        if (!EscritorColumnarVentas.VERSION.equals(meta.getProperty("version"))) {
+            throw new IOException("Versión de formato columnar no soportada: " + meta.getProperty("version"));
+        }
+
+        long cantidadFilas = Long.parseLong(meta.getProperty("filas"));
+        // Un MappedByteBuffer direcciona hasta 2 GB: es el límite de total.bin
+        if (cantidadFilas > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IOException("Demasiadas filas para un único archivo columnar: " + cantidadFilas);
+        }
+
+        this.filas = (int) cantidadFilas;
+        this.diaMinimo = Long.parseLong(meta.getProperty("diaMinimo"));
+        this.diaMaximo = Long.parseLong(meta.getProperty("diaMaximo"));
+        this.anchoProductos = Integer.parseInt(meta.getProperty("anchoProductos"));
+        this.filasPorBloque = Integer.parseInt(meta.getProperty("filasPorBloque"));
+
+        IntBuffer diccionario = mapear(directorio, EscritorColumnarVentas.PRODUCTO + ".dic").asIntBuffer();
+        this.productos = new int[diccionario.remaining()];
+        diccionario.get(productos);
+
+        this.fecha = mapear(directorio, EscritorColumnarVentas.FECHA);
+        this.fechaIndice = mapear(directorio, EscritorColumnarVentas.FECHA_INDICE).asLongBuffer();
+        this.producto = mapear(directorio, EscritorColumnarVentas.PRODUCTO + ".bin");
+        this.total = mapear(directorio, EscritorColumnarVentas.TOTAL).asLongBuffer();
+    }
+
+    /**
+     * Abre un directorio generado por {@link EscritorColumnarVentas}
+     *
+     * @param directorio directorio con las columnas
+     * @return lector listo para consultar
+     * @throws IOException si faltan archivos o el formato no es compatible
+     */
+    public static LectorColumnarVentas abrir(File directorio) throws IOException {
+        return new LectorColumnarVentas(directorio);
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public LocalDate getFechaMinima() {
+        return LocalDate.ofEpochDay(diaMinimo);
+    }
+
+    public LocalDate getFechaMaxima() {
+        return LocalDate.ofEpochDay(diaMaximo);
+    }
+
+    /**
+     * Facturación de un año por producto
+     *
+     * @param anio año a consultar
+     * @return total en centavos por ID de producto (solo productos con ventas)
+     */
+    public Map<Integer, Long> ingresosPorProducto(int anio) {
+        return ingresosPorProducto(LocalDate.of(anio, 1, 1), LocalDate.of(anio, 12, 31));
+    }
+
+    /**
+     * Facturación por producto entre dos fechas (inclusive)
+     *
+     * @param desde fecha inicial
+     * @param hasta fecha final
+     * @return total en centavos por ID de producto (solo productos con ventas)
+     */
+    public Map<Integer, Long> ingresosPorProducto(LocalDate desde, LocalDate hasta) {
+        int inicio = primeraFilaDesde(desde.toEpochDay());
+        int fin = primeraFilaDesde(hasta.toEpochDay() + 1);
+
+        long[] acumulado = new long[productos.length];
+        switch (anchoProductos) {
+            case 1 -> {
+                for (int i = inicio; i < fin; i++) {
+                    acumulado[producto.get(i) & 0xFF] += total.get(i);
+                }
+            }
+            case 2 -> {
+                for (int i = inicio; i < fin; i++) {
+                    acumulado[producto.getChar(i << 1)] += total.get(i);
+                }
+            }
+            default -> {
+                for (int i = inicio; i < fin; i++) {
+                    acumulado[producto.getInt(i << 2)] += total.get(i);
+                }
+            }
+        }
+
+        Map<Integer, Long> resultado = new LinkedHashMap<>();
+        for (int codigo = 0; codigo < acumulado.length; codigo++) {
+            if (acumulado[codigo] != 0) {
+                resultado.put(productos[codigo], acumulado[codigo]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Índice de la primera fila con fecha mayor o igual al día indicado
+     * (o la cantidad de filas si no hay ninguna)
+     */
+    int primeraFilaDesde(long dia) {
+        if (filas == 0 || dia <= diaMinimo) {
+            return 0;
+        }
+        if (dia > diaMaximo) {
+            return filas;
+        }
+
+        // Último bloque cuya fila previa es anterior al día: el resultado está en ese bloque
+        int bloques = fechaIndice.limit() / 2;
+        int bajo = 0;
+        int alto = bloques - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (fechaIndice.get(medio * 2) < dia) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+
+        long actual = fechaIndice.get(bajo * 2);
+        int posicion = (int) fechaIndice.get(bajo * 2 + 1);
+        int fila = bajo * filasPorBloque;
+
+        while (fila < filas) {
+            // Decodificar el varint de la diferencia con la fila anterior
+            long delta = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = fecha.get(posicion++);
+                delta |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+
+            actual += delta;
+            if (actual >= dia) {
+                return fila;
+            }
+            fila++;
+        }
+        return filas;
+    }
+
+    private static MappedByteBuffer mapear(File directorio, String nombre) throws IOException {
+        try (FileChannel canal = FileChannel.open(new File(directorio, nombre).toPath(), StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.sistemaventas.dao;
 
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.BusEventos;
 import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.PoliticaReintentos;
+import com.sistemaventas.util.UnidadDeTrabajo;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -29,7 +32,7 @@ import java.util.List;
  * <p><strong>Características técnicas:</strong></p>
  * <ul>
  *   <li>Utiliza PreparedStatement para prevenir inyección SQL</li>
- *   <li>Manejo de BigDecimal para precisión monetaria</li>
+ *   <li>Precios guardados como centavos enteros (sin redondeos de punto flotante)</li>
  *   <li>Mapeo automático de ResultSet a objetos Producto</li>
  *   <li>Gestión automática de recursos con try-with-resources</li>
  *   <li>Operaciones específicas para gestión de inventario</li>
@@ -44,29 +47,32 @@ import java.util.List;
 public class ProductoDAO {
     
     public boolean guardar(Producto producto) throws SQLException {
-        String sql = "INSERT INTO productos (nombre, precio, stock) VALUES (?, ?, ?)";
+        boolean guardado = PoliticaReintentos.ejecutar(() -> guardarEnBase(producto));
+        if (guardado) {
+            BusEventos.publicar(BusEventos.Tipo.PRODUCTO_CREADO, producto.getIdProducto());
+        }
+        return guardado;
+    }
+    
+    private boolean guardarEnBase(Producto producto) throws SQLException {
+        // Una sola sentencia: el ID vuelve con RETURNING y un nombre o código
+        // repetido lo rechaza la restricción UNIQUE (SQLITE_CONSTRAINT_UNIQUE)
+        String sql = "INSERT INTO productos (nombre, precio_centavos, stock, codigo) VALUES (?, ?, ?, ?) RETURNING id_producto";
         
-        try (Connection conn = ConexionDB.getConexion();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = ConexionDB.getConexionEscritura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, producto.getNombre()); //Primer "?"
-            pstmt.setBigDecimal(2, producto.getPrecio());//Segundo "?"
+            pstmt.setLong(2, producto.getPrecioCentavos());//Segundo "?"
             pstmt.setInt(3, producto.getStock());//Tercer "?"
+            pstmt.setString(4, producto.getCodigo());
             
-            int filasAfectadas = pstmt.executeUpdate(); //Devuelve la cantidad de filas afectadas por la operacion
-            
-            if (filasAfectadas > 0) {
-                // Para SQLite, obtenemos el ID con una consulta separada
-                String sqlId = "SELECT last_insert_rowid() as id";
-                try (PreparedStatement pstmtId = conn.prepareStatement(sqlId);
-                     ResultSet rs = pstmtId.executeQuery()) {
-                    
-                    if (rs.next()) {
-                        producto.setIdProducto(rs.getInt("id"));
-                    }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    producto.setIdProducto(rs.getInt(1));
+                    return true;
                 }
-                return true;
-            } 
+            }
             return false;           
             //Si se guarda retorna true sino false.            
         } catch (SQLException e) {
@@ -78,7 +84,7 @@ public class ProductoDAO {
     public Producto buscarPorId(int id) throws SQLException {
         String sql = "SELECT * FROM productos WHERE id_producto = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -101,7 +107,7 @@ public class ProductoDAO {
         String sql = "SELECT * FROM productos ORDER BY nombre";
         List<Producto> productos = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -118,15 +124,24 @@ public class ProductoDAO {
     
 
     public boolean actualizar(Producto producto) throws SQLException {
-        String sql = "UPDATE productos SET nombre = ?, precio = ?, stock = ? WHERE id_producto = ?";
+        boolean actualizado = PoliticaReintentos.ejecutar(() -> actualizarEnBase(producto));
+        if (actualizado) {
+            BusEventos.publicar(BusEventos.Tipo.PRODUCTO_ACTUALIZADO, producto.getIdProducto());
+        }
+        return actualizado;
+    }
+    
+    private boolean actualizarEnBase(Producto producto) throws SQLException {
+        String sql = "UPDATE productos SET nombre = ?, precio_centavos = ?, stock = ?, codigo = ? WHERE id_producto = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, producto.getNombre());
-            pstmt.setBigDecimal(2, producto.getPrecio());
+            pstmt.setLong(2, producto.getPrecioCentavos());
             pstmt.setInt(3, producto.getStock());
-            pstmt.setInt(4, producto.getIdProducto());
+            pstmt.setString(4, producto.getCodigo());
+            pstmt.setInt(5, producto.getIdProducto());
             
             int filasAfectadas = pstmt.executeUpdate();
             
@@ -143,6 +158,14 @@ public class ProductoDAO {
     
 
     public boolean eliminar(int id) throws SQLException {
+        boolean eliminado = PoliticaReintentos.ejecutar(() -> eliminarEnBase(id));
+        if (eliminado) {
+            BusEventos.publicar(BusEventos.Tipo.PRODUCTO_ELIMINADO, id);
+        }
+        return eliminado;
+    }
+    
+    private boolean eliminarEnBase(int id) throws SQLException {
         // Primero verificar si el producto existe
         Producto producto = buscarPorId(id);
         if (producto == null) {
@@ -151,7 +174,7 @@ public class ProductoDAO {
         
         String sql = "DELETE FROM productos WHERE id_producto = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -171,13 +194,237 @@ public class ProductoDAO {
     
 
     public List<Producto> buscarPorNombre(String nombre) throws SQLException {
-        String sql = "SELECT * FROM productos WHERE nombre LIKE ? ORDER BY nombre";
+        String sql = "SELECT * FROM productos WHERE " + BusquedaNombre.CONDICION + " ORDER BY nombre";
+        List<Producto> productos = new ArrayList<>();
+        
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, BusquedaNombre.patronContiene(nombre));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    productos.add(mapearProducto(rs));
+                }
+            }
+            return productos;
+            
+        } catch (SQLException e) {
+            throw e;
+        }
+    }
+    
+
+    /**
+     * Busca un producto por su código (SKU / EAN), por ejemplo al leerlo con
+     * el lector de códigos de barras. Si el índice en memoria está cargado y
+     * tiene el código, la respuesta sale de ahí sin consultar la base de
+     * datos; si no lo tiene, se consulta la base.
+     * <p>
+     * La copia del índice solo refleja los cambios hechos desde esta
+     * aplicación: el precio y sobre todo el stock pueden estar
+     * desactualizados si se vendió o repuso desde otra terminal. La venta
+     * vuelve a verificar el stock al guardarse.
+     * </p>
+     *
+     * @param codigo código a buscar
+     * @return el producto (una copia, se puede modificar), o null si no existe
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public Producto buscarPorCodigo(String codigo) throws SQLException {
+        if (codigo == null || codigo.trim().isEmpty()) {
+            return null;
+        }
+        
+        // Un código que el índice no tiene puede ser de un producto dado de
+        // alta en otra terminal: se consulta la base
+        IndicesCatalogo indices = IndicesCatalogo.getInstancia();
+        if (indices.isCargado()) {
+            Producto producto = indices.productoPorCodigo(codigo);
+            if (producto != null) {
+                return producto;
+            }
+        }
+        
+        String sql = "SELECT * FROM productos WHERE codigo = ?";
+        
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, codigo.trim());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapearProducto(rs) : null;
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error al buscar producto por código: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Calcula el efecto de un ajuste de precios sin modificar nada.
+     *
+     * @param ajuste ajuste a evaluar
+     * @param ejemplos cantidad máxima de productos de ejemplo (primero los
+     *                 que quedarían con precio inválido, luego por nombre)
+     * @return vista previa del ajuste
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public AjustePrecios.Resultado previsualizarAjuste(AjustePrecios ajuste, int ejemplos) throws SQLException {
+        String nuevo = ajuste.getExpresionSQL();
+        String condicion = ajuste.getCondicionSQL();
+        String donde = condicion.isEmpty() ? "" : " WHERE " + condicion;
+        String invalido = "(nuevo <= 0 OR nuevo > " + AjustePrecios.PRECIO_MAXIMO_CENTAVOS + ")";
+        
+        String sqlTotales = "SELECT COUNT(*), COALESCE(SUM(nuevo <> precio_centavos), 0), " +
+                            "COALESCE(SUM(" + invalido + "), 0), " +
+                            "COALESCE(SUM(precio_centavos), 0), COALESCE(SUM(nuevo), 0) " +
+                            "FROM (SELECT precio_centavos, " + nuevo + " AS nuevo FROM productos" + donde + ")";
+        String sqlEjemplos = "SELECT id_producto, nombre, precio_centavos, nuevo FROM " +
+                             "(SELECT id_producto, nombre, precio_centavos, " + nuevo + " AS nuevo FROM productos" + donde + ") " +
+                             "WHERE nuevo <> precio_centavos " +
+                             "ORDER BY " + invalido + " DESC, nombre COLLATE NOCASE LIMIT ?";
+        
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+            
+            int productos, cambian, invalidos;
+            long valorAnterior, valorNuevo;
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlTotales)) {
+                ajuste.asignarParametros(pstmt, 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    productos = rs.getInt(1);
+                    cambian = rs.getInt(2);
+                    invalidos = rs.getInt(3);
+                    valorAnterior = rs.getLong(4);
+                    valorNuevo = rs.getLong(5);
+                }
+            }
+            
+            List<AjustePrecios.Cambio> cambios = new ArrayList<>();
+            if (ejemplos > 0 && cambian > 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlEjemplos)) {
+                    int posicion = ajuste.asignarParametros(pstmt, 1);
+                    pstmt.setInt(posicion, ejemplos);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            cambios.add(new AjustePrecios.Cambio(rs.getInt("id_producto"), rs.getString("nombre"),
+                                rs.getLong("precio_centavos"), rs.getLong("nuevo")));
+                        }
+                    }
+                }
+            }
+            
+            return new AjustePrecios.Resultado(productos, cambian, invalidos, valorAnterior, valorNuevo, cambios, false);
+            
+        } catch (SQLException e) {
+            System.err.println("Error al previsualizar el ajuste de precios: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Aplica un ajuste de precios con una sola sentencia UPDATE.
+     * <p>
+     * En la misma transacción se verifica que ningún precio quede en cero,
+     * negativo o sobre el máximo; si alguno quedaría inválido no se modifica
+     * nada y el resultado vuelve sin marcar como aplicado. Al confirmar se
+     * publica un único evento {@link BusEventos.Tipo#PRECIOS_ACTUALIZADOS}.
+     * </p>
+     *
+     * @param ajuste ajuste a aplicar
+     * @return efecto del ajuste (ver {@link AjustePrecios.Resultado#isAplicado()})
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public AjustePrecios.Resultado aplicarAjuste(AjustePrecios ajuste) throws SQLException {
+        String nuevo = ajuste.getExpresionSQL();
+        String condicion = ajuste.getCondicionSQL();
+        String sql = "UPDATE productos SET precio_centavos = " + nuevo + " WHERE " +
+                     (condicion.isEmpty() ? "" : condicion + " AND ") + nuevo + " <> precio_centavos";
+        
+        return UnidadDeTrabajo.ejecutar(() -> {
+            AjustePrecios.Resultado resultado = previsualizarAjuste(ajuste, 0);
+            if (resultado.getInvalidos() > 0) {
+                return resultado;
+            }
+            
+            int actualizados;
+            try (Connection conn = ConexionDB.getConexionEscritura();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ajuste.asignarParametros(pstmt, 1);
+                actualizados = pstmt.executeUpdate();
+            }
+            
+            if (actualizados > 0) {
+                BusEventos.publicar(BusEventos.Tipo.PRECIOS_ACTUALIZADOS, 0);
+            }
+            System.out.println("✓ Precios ajustados: " + actualizados + " producto(s), " + ajuste);
+            return resultado.comoAplicado();
+        });
+    }
+    
+    /**
+     * Busca el producto con exactamente ese nombre, sin distinguir mayúsculas
+     * (solo en las letras A-Z, como <code>COLLATE NOCASE</code>). Usa el
+     * índice en memoria si está cargado y tiene el nombre; si no, consulta
+     * la base. La copia del índice puede no reflejar un cambio hecho desde
+     * otra terminal (por ejemplo el stock).
+     *
+     * @param nombre nombre a buscar (se ignoran los espacios al principio y al final)
+     * @return el producto (una copia, se puede modificar), o null si no existe
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public Producto buscarPorNombreExacto(String nombre) throws SQLException {
+        IndicesCatalogo indices = IndicesCatalogo.getInstancia();
+        if (indices.isCargado()) {
+            Producto producto = indices.productoPorNombre(nombre);
+            if (producto != null) {
+                return producto;
+            }
+        }
+        
+        String sql = "SELECT * FROM productos WHERE nombre = ? COLLATE NOCASE LIMIT 1";
+        
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, nombre.trim());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapearProducto(rs) : null;
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error al buscar producto por nombre: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Busca productos para un selector con autocompletado: los que empiezan
+     * con el texto, sin distinguir mayúsculas, recorriendo idx_productos_nombre.
+     *
+     * @param texto comienzo del nombre
+     * @param limite cantidad máxima de resultados
+     * @return productos ordenados por nombre (vacía si el texto está vacío)
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<Producto> buscarPorPrefijo(String texto, int limite) throws SQLException {
         List<Producto> productos = new ArrayList<>();
+        String termino = texto == null ? "" : texto.trim();
+        if (termino.isEmpty()) {
+            return productos;
+        }
+        
+        String sql = "SELECT * FROM productos WHERE " + BusquedaNombre.CONDICION + " ORDER BY nombre COLLATE NOCASE LIMIT ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + nombre + "%");
+            pstmt.setString(1, BusquedaNombre.patronPrefijo(termino));
+            pstmt.setInt(2, limite);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -187,15 +434,24 @@ public class ProductoDAO {
             return productos;
             
         } catch (SQLException e) {
+            System.err.println("Error al buscar productos para autocompletar: " + e.getMessage());
             throw e;
         }
     }
     
 
     public boolean actualizarStock(int id, int nuevoStock) throws SQLException {
+        boolean actualizado = PoliticaReintentos.ejecutar(() -> actualizarStockEnBase(id, nuevoStock));
+        if (actualizado) {
+            BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, id);
+        }
+        return actualizado;
+    }
+    
+    private boolean actualizarStockEnBase(int id, int nuevoStock) throws SQLException {
         String sql = "UPDATE productos SET stock = ? WHERE id_producto = ?";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionEscritura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, nuevoStock);
@@ -215,11 +471,13 @@ public class ProductoDAO {
     }
     
     private Producto mapearProducto(ResultSet rs) throws SQLException {
+        // El código se lee sin validar: el formato se controla al guardarlo
         return new Producto(
             rs.getInt("id_producto"),
             rs.getString("nombre"),
-            rs.getBigDecimal("precio"),
-            rs.getInt("stock")
+            rs.getLong("precio_centavos"),
+            rs.getInt("stock"),
+            rs.getString("codigo")
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.util.ConexionDB;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DAO de consultas agregadas para reportes y el tablero de ventas.
+ * <p>
+ * Todas las consultas devuelven datos ya agrupados por la base de datos
+ * (SUM / COUNT con GROUP BY): nunca se traen las ventas una por una. Los
+ * meses archivados se leen de <code>ventas_resumen_mensual</code>, así un
+ * rango de varios años no adjunta ni recorre las particiones.
+ * </p>
+ * <p>
+ * Las series temporales se agrupan en períodos de varios días (o por mes)
+ * dentro de la misma consulta, de modo que la cantidad de puntos queda
+ * acotada sin importar cuántas ventas haya en el rango.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.dao.ArchivoVentasDAO
+ */
+public class ReporteDAO {
+
+    /**
+     * Total de un período de una serie temporal
+     */
+    public static class PuntoSerie {
+        private final LocalDate inicio;
+        private final int ventas;
+        private final long totalCentavos;
+
+        PuntoSerie(LocalDate inicio, int ventas, long totalCentavos) {
+            this.inicio = inicio;
+            this.ventas = ventas;
+            this.totalCentavos = totalCentavos;
+        }
+
+        /**
+         * Primer día del período
+         */
+        public LocalDate getInicio() {
+            return inicio;
+        }
+
+        public int getVentas() {
+            return ventas;
+        }
+
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        public BigDecimal getTotal() {
+            return Dinero.aBigDecimal(totalCentavos);
+        }
+    }
+
+    /**
+     * Posición de un producto o cliente en un ranking por importe vendido
+     */
+    public static class Ranking {
+        private final int id;
+        private final String nombre;
+        private final int unidades;
+        private final long totalCentavos;
+
+        Ranking(int id, String nombre, int unidades, long totalCentavos) {
+            this.id = id;
+            this.nombre = nombre;
+            this.unidades = unidades;
+            this.totalCentavos = totalCentavos;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public int getUnidades() {
+            return unidades;
+        }
+
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        public BigDecimal getTotal() {
+            return Dinero.aBigDecimal(totalCentavos);
+        }
+    }
+
+    /**
+     * Ingresos de la tabla viva agrupados en períodos de igual cantidad de
+     * días a partir de <code>desde</code>. Los períodos sin ventas no
+     * aparecen.
+     *
+     * @param desde primer día (inclusive)
+     * @param hasta último día (inclusive)
+     * @param diasPorPunto días de cada período (1 para una serie diaria)
+     * @return puntos ordenados por fecha
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<PuntoSerie> ingresosPorPeriodo(LocalDate desde, LocalDate hasta, int diasPorPunto) throws SQLException {
+        if (diasPorPunto < 1) {
+            throw new IllegalArgumentException("Los períodos deben tener al menos un día");
+        }
+
+        // fecha se guarda en días desde 1970-01-01: el período es una división entera
+        String sql = "SELECT (fecha - ?) / ? AS periodo, COUNT(*) AS ventas, " +
+                     "SUM(total_centavos) AS total_centavos " +
+                     "FROM ventas WHERE fecha BETWEEN ? AND ? " +
+                     "GROUP BY periodo ORDER BY periodo";
+
+        List<PuntoSerie> puntos = new ArrayList<>();
+
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, desde.toEpochDay());
+            pstmt.setInt(2, diasPorPunto);
+            pstmt.setLong(3, desde.toEpochDay());
+            pstmt.setLong(4, hasta.toEpochDay());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate inicio = desde.plusDays(rs.getLong("periodo") * diasPorPunto);
+                    puntos.add(new PuntoSerie(inicio, rs.getInt("ventas"), rs.getLong("total_centavos")));
+                }
+            }
+            return puntos;
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener ingresos por período: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Ingresos por mes, sumando la tabla viva y los resúmenes de los meses
+     * archivados. Los meses archivados se cuentan completos aunque el rango
+     * empiece o termine a mitad de mes.
+     *
+     * @param desde primer día (inclusive)
+     * @param hasta último día (inclusive)
+     * @return un punto por mes con ventas, ordenados por fecha
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<PuntoSerie> ingresosPorMes(LocalDate desde, LocalDate hasta) throws SQLException {
+        String sql = "SELECT strftime('%Y-%m', fecha * 86400, 'unixepoch') AS anio_mes, " +
+                     "COUNT(*) AS ventas, SUM(total_centavos) AS total_centavos " +
+                     "FROM ventas WHERE fecha BETWEEN ? AND ? GROUP BY anio_mes " +
+                     "UNION ALL " +
+                     "SELECT anio_mes, SUM(ventas), SUM(total_centavos) FROM ventas_resumen_mensual " +
+                     "WHERE anio_mes BETWEEN ? AND ? GROUP BY anio_mes";
+
+        // Un mes puede estar a la vez archivado y en la tabla viva (el mes de corte)
+        Map<YearMonth, long[]> meses = new TreeMap<>();
+
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, desde.toEpochDay());
+            pstmt.setLong(2, hasta.toEpochDay());
+            pstmt.setString(3, YearMonth.from(desde).toString());
+            pstmt.setString(4, YearMonth.from(hasta).toString());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long[] acumulado = meses.computeIfAbsent(YearMonth.parse(rs.getString("anio_mes")), m -> new long[2]);
+                    acumulado[0] += rs.getLong("ventas");
+                    acumulado[1] = Dinero.sumarCentavos(acumulado[1], rs.getLong("total_centavos"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener ingresos por mes: " + e.getMessage());
+            throw e;
+        }
+
+        List<PuntoSerie> puntos = new ArrayList<>(meses.size());
+        for (Map.Entry<YearMonth, long[]> mes : meses.entrySet()) {
+            puntos.add(new PuntoSerie(mes.getKey().atDay(1), (int) mes.getValue()[0], mes.getValue()[1]));
+        }
+        return puntos;
+    }
+
+    /**
+     * Productos con mayor importe vendido en el rango
+     *
+     * @param desde primer día (inclusive)
+     * @param hasta último día (inclusive)
+     * @param limite cantidad máxima de productos
+     * @return ranking de mayor a menor importe
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<Ranking> topProductos(LocalDate desde, LocalDate hasta, int limite) throws SQLException {
+        return ranking("id_producto", "productos", desde, hasta, limite);
+    }
+
+    /**
+     * Clientes con mayor importe comprado en el rango
+     *
+     * @param desde primer día (inclusive)
+     * @param hasta último día (inclusive)
+     * @param limite cantidad máxima de clientes
+     * @return ranking de mayor a menor importe
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public List<Ranking> topClientes(LocalDate desde, LocalDate hasta, int limite) throws SQLException {
+        return ranking("id_cliente", "clientes", desde, hasta, limite);
+    }
+
+    private List<Ranking> ranking(String columnaId, String tablaNombres,
+                                  LocalDate desde, LocalDate hasta, int limite) throws SQLException {
+        String sql = "SELECT r.id, COALESCE(n.nombre, '(eliminado)') AS nombre, " +
+                     "SUM(r.unidades) AS unidades, SUM(r.total_centavos) AS total_centavos " +
+                     "FROM (" +
+                     "  SELECT " + columnaId + " AS id, SUM(cantidad) AS unidades, " +
+                     "         SUM(total_centavos) AS total_centavos " +
+                     "  FROM ventas WHERE fecha BETWEEN ? AND ? GROUP BY " + columnaId +
+                     "  UNION ALL " +
+                     "  SELECT " + columnaId + ", SUM(unidades), SUM(total_centavos) " +
+                     "  FROM ventas_resumen_mensual WHERE anio_mes BETWEEN ? AND ? GROUP BY " + columnaId +
+                     ") r LEFT JOIN " + tablaNombres + " n ON n." + columnaId + " = r.id " +
+                     "GROUP BY r.id ORDER BY total_centavos DESC LIMIT ?";
+
+        List<Ranking> ranking = new ArrayList<>();
+
+        try (Connection conn = ConexionDB.getConexionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, desde.toEpochDay());
+            pstmt.setLong(2, hasta.toEpochDay());
+            pstmt.setString(3, YearMonth.from(desde).toString());
+            pstmt.setString(4, YearMonth.from(hasta).toString());
+            pstmt.setInt(5, limite);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ranking.add(new Ranking(rs.getInt("id"), rs.getString("nombre"),
+                                            rs.getInt("unidades"), rs.getLong("total_centavos")));
+                }
+            }
+            return ranking;
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener ranking de " + tablaNombres + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Fecha de la venta más antigua registrada, contando los meses archivados
+     *
+     * @return primer día con ventas, o null si no hay ventas
+     * @throws SQLException si ocurre un error de base de datos
+     */
+    public LocalDate obtenerPrimeraFecha() throws SQLException {
+        LocalDate primera = null;
+
+        try (Connection conn = ConexionDB.getConexionLectura();
+             Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(anio_mes) FROM ventas_resumen_mensual")) {
+                if (rs.next() && rs.getString(1) != null) {
+                    primera = YearMonth.parse(rs.getString(1)).atDay(1);
+                }
+            }
+            if (primera == null) {
+                try (ResultSet rs = stmt.executeQuery("SELECT MIN(fecha) FROM ventas")) {
+                    if (rs.next()) {
+                        long dia = rs.getLong(1);
+                        if (!rs.wasNull()) {
+                            primera = LocalDate.ofEpochDay(dia);
+                        }
+                    }
+                }
+            }
+            return primera;
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener la primera fecha de ventas: " + e.getMessage());
+            throw e;
+        }
+    }
+}
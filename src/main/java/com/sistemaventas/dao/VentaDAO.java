@@ -3,12 +3,22 @@ package com.sistemaventas.dao;
 import com.sistemaventas.modelo.Venta;
 import com.sistemaventas.modelo.Cliente;
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.BusEventos;
 import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.PoliticaReintentos;
+import com.sistemaventas.util.UnidadDeTrabajo;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * DAO refactorizado para Venta trabajando con objetos Cliente y Producto
@@ -19,10 +29,12 @@ public class VentaDAO {
     
     private ClienteDAO clienteDAO;
     private ProductoDAO productoDAO;
+    private ArchivoVentasDAO archivoDAO;
     
     public VentaDAO() {
         this.clienteDAO = new ClienteDAO();
         this.productoDAO = new ProductoDAO();
+        this.archivoDAO = new ArchivoVentasDAO();
     }
     
     public boolean guardar(Venta venta) throws SQLException {
@@ -30,21 +42,37 @@ public class VentaDAO {
             throw new IllegalArgumentException("La venta debe tener cliente y producto");
         }
         
-        String sql = "INSERT INTO ventas (fecha, id_cliente, id_producto, cantidad, precio_unitario, total) " +
+        // En modo de escritura diferida se espera a que el lote se confirme
+        // (salvo dentro de una unidad de trabajo: su turno de escritura
+        // bloquearía al escritor del lote)
+        if (ColaEscrituraVentas.estaHabilitada() && !UnidadDeTrabajo.enCurso()) {
+            return esperarConfirmacion(guardarDiferido(venta));
+        }
+        
+        boolean guardada = PoliticaReintentos.ejecutar(() -> guardarEnTransaccion(venta));
+        if (guardada) {
+            BusEventos.publicar(BusEventos.Tipo.VENTA_CREADA, venta.getIdVenta());
+            BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, venta.getProducto().getIdProducto());
+        }
+        return guardada;
+    }
+    
+    private boolean guardarEnTransaccion(Venta venta) throws SQLException {
+        String sql = "INSERT INTO ventas (fecha, id_cliente, id_producto, cantidad, precio_unitario_centavos, total_centavos) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
         Connection conn = null;
         try {
-            conn = ConexionDB.getConexion();
+            conn = ConexionDB.getConexionEscritura();
             conn.setAutoCommit(false);
             
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setDate(1, Date.valueOf(venta.getFecha()));
+                pstmt.setLong(1, venta.getFecha().toEpochDay());
                 pstmt.setInt(2, venta.getCliente().getIdCliente());
                 pstmt.setInt(3, venta.getProducto().getIdProducto());
                 pstmt.setInt(4, venta.getCantidad());
-                pstmt.setBigDecimal(5, venta.getPrecioUnitario());
-                pstmt.setBigDecimal(6, venta.getTotal());
+                pstmt.setLong(5, venta.getPrecioUnitarioCentavos());
+                pstmt.setLong(6, venta.getTotalCentavos());
                 
                 int filasAfectadas = pstmt.executeUpdate();
                 
@@ -59,10 +87,8 @@ public class VentaDAO {
                         }
                     }
                     
-                    // Actualizar stock del producto
-                    Producto producto = venta.getProducto();
-                    int nuevoStock = producto.getStock() - venta.getCantidad();
-                    actualizarStockProducto(conn, producto.getIdProducto(), nuevoStock);
+                    // Descontar stock sobre el valor actual de la fila, no sobre el leído antes
+                    ajustarStock(conn, venta.getProducto().getIdProducto(), -venta.getCantidad());
                     
                     conn.commit();
                     System.out.println("✓ Venta guardada con ID: " + venta.getIdVenta());
@@ -82,16 +108,151 @@ public class VentaDAO {
         } finally {
             if (conn != null) {
                 conn.setAutoCommit(true);
+                conn.close();  // Libera el turno de escritura
+            }
+        }
+    }
+    
+    /**
+     * Encola la venta en la cola de escritura diferida.
+     * <p>
+     * El stock se reserva en memoria inmediatamente y la venta se guarda
+     * junto con las demás ventas del mismo lote en una única transacción.
+     * </p>
+     * 
+     * @param venta venta con cliente y producto
+     * @return futuro que se completa cuando la venta fue confirmada en la BD
+     */
+    public CompletableFuture<Venta> guardarDiferido(Venta venta) {
+        return ColaEscrituraVentas.getInstancia().encolar(venta);
+    }
+    
+    /**
+     * Guarda un lote de ventas en una sola transacción (group commit).
+     * <p>
+     * Cada venta se aísla con un SAVEPOINT: si una falla (por ejemplo por
+     * falta de stock) se descarta solo esa venta y el resto del lote se
+     * confirma igual.
+     * </p>
+     * 
+     * @param ventas ventas a guardar
+     * @return lista paralela a <code>ventas</code> con null para cada venta
+     *         guardada o el error que impidió guardarla
+     * @throws SQLException si falla la transacción completa
+     */
+    List<SQLException> guardarLote(List<Venta> ventas) throws SQLException {
+        List<SQLException> errores = PoliticaReintentos.ejecutar(() -> guardarLoteEnTransaccion(ventas));
+        
+        Set<Integer> productosAfectados = new LinkedHashSet<>();
+        for (int i = 0; i < ventas.size(); i++) {
+            if (errores.get(i) == null) {
+                BusEventos.publicar(BusEventos.Tipo.VENTA_CREADA, ventas.get(i).getIdVenta());
+                productosAfectados.add(ventas.get(i).getProducto().getIdProducto());
+            }
+        }
+        for (int idProducto : productosAfectados) {
+            BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, idProducto);
+        }
+        return errores;
+    }
+    
+    private List<SQLException> guardarLoteEnTransaccion(List<Venta> ventas) throws SQLException {
+        String sqlVenta = "INSERT INTO ventas (fecha, id_cliente, id_producto, cantidad, precio_unitario_centavos, total_centavos) " +
+                          "VALUES (?, ?, ?, ?, ?, ?)";
+        String sqlStock = "UPDATE productos SET stock = stock - ? WHERE id_producto = ? AND stock >= ?";
+        
+        List<SQLException> errores = new ArrayList<>(ventas.size());
+        
+        try (Connection conn = ConexionDB.getConexionEscritura()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmtVenta = conn.prepareStatement(sqlVenta);
+                 PreparedStatement pstmtStock = conn.prepareStatement(sqlStock);
+                 PreparedStatement pstmtId = conn.prepareStatement("SELECT last_insert_rowid() as id");
+                 Statement stmt = conn.createStatement()) {
+                
+                for (Venta venta : ventas) {
+                    stmt.execute("SAVEPOINT venta");
+                    try {
+                        pstmtStock.setInt(1, venta.getCantidad());
+                        pstmtStock.setInt(2, venta.getProducto().getIdProducto());
+                        pstmtStock.setInt(3, venta.getCantidad());
+                        if (pstmtStock.executeUpdate() == 0) {
+                            throw new SQLException("Stock insuficiente para el producto ID " +
+                                                   venta.getProducto().getIdProducto());
+                        }
+                        
+                        pstmtVenta.setLong(1, venta.getFecha().toEpochDay());
+                        pstmtVenta.setInt(2, venta.getCliente().getIdCliente());
+                        pstmtVenta.setInt(3, venta.getProducto().getIdProducto());
+                        pstmtVenta.setInt(4, venta.getCantidad());
+                        pstmtVenta.setLong(5, venta.getPrecioUnitarioCentavos());
+                        pstmtVenta.setLong(6, venta.getTotalCentavos());
+                        pstmtVenta.executeUpdate();
+                        
+                        try (ResultSet rs = pstmtId.executeQuery()) {
+                            if (rs.next()) {
+                                venta.setIdVenta(rs.getInt("id"));
+                            }
+                        }
+                        
+                        stmt.execute("RELEASE venta");
+                        errores.add(null);
+                        
+                    } catch (SQLException e) {
+                        stmt.execute("ROLLBACK TO venta");
+                        stmt.execute("RELEASE venta");
+                        errores.add(e);
+                    }
+                }
+                
+                conn.commit();
+                System.out.println("✓ Lote de ventas confirmado: " + ventas.size() + " venta(s)");
+                return errores;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("Error al guardar lote de ventas: " + e.getMessage());
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
     }
     
+    private boolean esperarConfirmacion(CompletableFuture<Venta> futuro) throws SQLException {
+        try {
+            futuro.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Se interrumpió la espera de confirmación de la venta", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            if (causa instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) causa;
+            }
+            throw new SQLException("Error al guardar venta: " + causa.getMessage(), causa);
+        }
+    }
+    
+    /**
+     * Busca una venta por ID
+     * <p>
+     * Solo lee la tabla viva: las ventas de meses archivados se obtienen con
+     * {@link #buscar} indicando fechas o, por ID, con
+     * {@link #buscarArchivadaPorId(int)}.
+     * </p>
+     */
     public Venta buscarPorId(int id) throws SQLException {
         String sql = """
             SELECT v.*, 
                    c.nombre as cliente_nombre, c.dni as cliente_dni, 
                    c.telefono as cliente_telefono, c.email as cliente_email,
-                   p.nombre as producto_nombre, p.precio as producto_precio, 
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
                    p.stock as producto_stock
             FROM ventas v
             JOIN clientes c ON v.id_cliente = c.id_cliente
@@ -99,14 +260,14 @@ public class VentaDAO {
             WHERE v.id_venta = ?
         """;
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapearVentaCompleta(rs);
+                    return new MapeadorVentas().mapear(rs);
                 }
             }
             
@@ -118,12 +279,69 @@ public class VentaDAO {
         }
     }
     
+    /**
+     * Busca una venta que ya se movió a una partición del archivo
+     * <p>
+     * Recorre las particiones de a una, de la más reciente a la más antigua,
+     * hasta encontrarla. Las ventas archivadas son de solo lectura.
+     * </p>
+     *
+     * @param id ID de la venta
+     * @return la venta archivada, o null si no está en ninguna partición
+     */
+    public Venta buscarArchivadaPorId(int id) throws SQLException {
+        String consulta = """
+            SELECT v.*, 
+                   c.nombre as cliente_nombre, c.dni as cliente_dni, 
+                   c.telefono as cliente_telefono, c.email as cliente_email,
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
+                   p.stock as producto_stock
+            FROM %s.ventas v
+            JOIN main.clientes c ON v.id_cliente = c.id_cliente
+            JOIN main.productos p ON v.id_producto = p.id_producto
+            WHERE v.id_venta = ?
+        """;
+        
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+            
+            for (ArchivoVentasDAO.Particion particion : archivoDAO.buscarParticiones(conn, null, null)) {
+                archivoDAO.adjuntar(conn, particion);
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        String.format(consulta, particion.getAlias()))) {
+                    pstmt.setInt(1, id);
+                    
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            return new MapeadorVentas().mapear(rs);
+                        }
+                    }
+                } finally {
+                    // La conexión vuelve al pool: no dejar particiones adjuntas
+                    archivoDAO.separar(conn, particion);
+                }
+            }
+            
+            return null;
+            
+        } catch (SQLException e) {
+            System.err.println("Error al buscar venta archivada: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Obtiene todas las ventas, de la más reciente a la más antigua
+     * <p>
+     * Solo lee la tabla viva: las ventas de meses archivados se obtienen con
+     * {@link #buscar} indicando fechas.
+     * </p>
+     */
     public List<Venta> obtenerTodas() throws SQLException {
         String sql = """
             SELECT v.*, 
                    c.nombre as cliente_nombre, c.dni as cliente_dni, 
                    c.telefono as cliente_telefono, c.email as cliente_email,
-                   p.nombre as producto_nombre, p.precio as producto_precio, 
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
                    p.stock as producto_stock
             FROM ventas v
             JOIN clientes c ON v.id_cliente = c.id_cliente
@@ -133,12 +351,13 @@ public class VentaDAO {
         
         List<Venta> ventas = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            MapeadorVentas mapeador = new MapeadorVentas();
             while (rs.next()) {
-                ventas.add(mapearVentaCompleta(rs));
+                ventas.add(mapeador.mapear(rs));
             }
             
             System.out.println("✓ Ventas obtenidas: " + ventas.size());
@@ -155,27 +374,40 @@ public class VentaDAO {
             throw new IllegalArgumentException("La venta debe tener cliente y producto");
         }
         
-        // Primero obtenemos la venta original para ajustar el stock
-        Venta ventaOriginal = buscarPorId(venta.getIdVenta());
-        if (ventaOriginal == null) {
-            return false;
+        // La venta original (para ajustar el stock) se lee en la misma
+        // transacción que la modifica: nadie puede cambiarla en el medio
+        Venta[] original = new Venta[1];
+        boolean actualizada = UnidadDeTrabajo.ejecutar(() -> {
+            original[0] = buscarPorId(venta.getIdVenta());
+            return original[0] != null && actualizarEnTransaccion(venta, original[0]);
+        });
+        Venta ventaOriginal = original[0];
+        if (actualizada) {
+            BusEventos.publicar(BusEventos.Tipo.VENTA_ACTUALIZADA, venta.getIdVenta());
+            BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, ventaOriginal.getIdProducto());
+            if (venta.getProducto().getIdProducto() != ventaOriginal.getIdProducto()) {
+                BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, venta.getProducto().getIdProducto());
+            }
         }
-        
+        return actualizada;
+    }
+    
+    private boolean actualizarEnTransaccion(Venta venta, Venta ventaOriginal) throws SQLException {
         String sql = "UPDATE ventas SET fecha = ?, id_cliente = ?, id_producto = ?, " +
-                     "cantidad = ?, precio_unitario = ?, total = ? WHERE id_venta = ?";
+                     "cantidad = ?, precio_unitario_centavos = ?, total_centavos = ? WHERE id_venta = ?";
         
         Connection conn = null;
         try {
-            conn = ConexionDB.getConexion();
+            conn = ConexionDB.getConexionEscritura();
             conn.setAutoCommit(false);
             
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setDate(1, Date.valueOf(venta.getFecha()));
+                pstmt.setLong(1, venta.getFecha().toEpochDay());
                 pstmt.setInt(2, venta.getCliente().getIdCliente());
                 pstmt.setInt(3, venta.getProducto().getIdProducto());
                 pstmt.setInt(4, venta.getCantidad());
-                pstmt.setBigDecimal(5, venta.getPrecioUnitario());
-                pstmt.setBigDecimal(6, venta.getTotal());
+                pstmt.setLong(5, venta.getPrecioUnitarioCentavos());
+                pstmt.setLong(6, venta.getTotalCentavos());
                 pstmt.setInt(7, venta.getIdVenta());
                 
                 int filasAfectadas = pstmt.executeUpdate();
@@ -184,21 +416,14 @@ public class VentaDAO {
                     // Ajustar stock
                     if (ventaOriginal.getIdProducto() == venta.getProducto().getIdProducto()) {
                         // Mismo producto: ajustar diferencia
-                        Producto producto = venta.getProducto();
                         int diferencia = venta.getCantidad() - ventaOriginal.getCantidad();
                         if (diferencia != 0) {
-                            int nuevoStock = producto.getStock() - diferencia;
-                            actualizarStockProducto(conn, producto.getIdProducto(), nuevoStock);
+                            ajustarStock(conn, venta.getProducto().getIdProducto(), -diferencia);
                         }
                     } else {
                         // Producto diferente: devolver stock original y descontar nuevo
-                        Producto productoOriginal = ventaOriginal.getProducto();
-                        int stockDevuelto = productoOriginal.getStock() + ventaOriginal.getCantidad();
-                        actualizarStockProducto(conn, productoOriginal.getIdProducto(), stockDevuelto);
-                        
-                        Producto productoNuevo = venta.getProducto();
-                        int stockDescontado = productoNuevo.getStock() - venta.getCantidad();
-                        actualizarStockProducto(conn, productoNuevo.getIdProducto(), stockDescontado);
+                        ajustarStock(conn, ventaOriginal.getIdProducto(), ventaOriginal.getCantidad());
+                        ajustarStock(conn, venta.getProducto().getIdProducto(), -venta.getCantidad());
                     }
                     
                     conn.commit();
@@ -219,23 +444,37 @@ public class VentaDAO {
         } finally {
             if (conn != null) {
                 conn.setAutoCommit(true);
+                conn.close();  // Libera el turno de escritura
             }
         }
     }
     
     public boolean eliminar(int id) throws SQLException {
-        // Obtener la venta para devolver el stock
-        Venta venta = buscarPorId(id);
+        // Obtener la venta para devolver el stock, en la misma transacción
+        Venta[] encontrada = new Venta[1];
+        boolean eliminada = UnidadDeTrabajo.ejecutar(() -> {
+            encontrada[0] = buscarPorId(id);
+            return encontrada[0] != null && eliminarEnTransaccion(encontrada[0]);
+        });
+        Venta venta = encontrada[0];
         if (venta == null) {
             System.out.println("⚠ Venta con ID " + id + " no encontrada");
             return false;
         }
-        
+        if (eliminada) {
+            BusEventos.publicar(BusEventos.Tipo.VENTA_ELIMINADA, id);
+            BusEventos.publicar(BusEventos.Tipo.STOCK_CAMBIADO, venta.getIdProducto());
+        }
+        return eliminada;
+    }
+    
+    private boolean eliminarEnTransaccion(Venta venta) throws SQLException {
+        int id = venta.getIdVenta();
         String sql = "DELETE FROM ventas WHERE id_venta = ?";
         
         Connection conn = null;
         try {
-            conn = ConexionDB.getConexion();
+            conn = ConexionDB.getConexionEscritura();
             conn.setAutoCommit(false);
             
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -245,9 +484,7 @@ public class VentaDAO {
                 
                 if (filasAfectadas > 0) {
                     // Devolver el stock al producto
-                    Producto producto = venta.getProducto();
-                    int stockRestaurado = producto.getStock() + venta.getCantidad();
-                    actualizarStockProducto(conn, producto.getIdProducto(), stockRestaurado);
+                    ajustarStock(conn, venta.getIdProducto(), venta.getCantidad());
                     
                     conn.commit();
                     System.out.println("✓ Venta eliminada: ID " + id);
@@ -267,16 +504,24 @@ public class VentaDAO {
         } finally {
             if (conn != null) {
                 conn.setAutoCommit(true);
+                conn.close();  // Libera el turno de escritura
             }
         }
     }
     
+    /**
+     * Busca las ventas de un cliente
+     * <p>
+     * Solo lee la tabla viva: las ventas de meses archivados se obtienen con
+     * {@link #buscar} indicando fechas.
+     * </p>
+     */
     public List<Venta> buscarPorCliente(int idCliente) throws SQLException {
         String sql = """
             SELECT v.*, 
                    c.nombre as cliente_nombre, c.dni as cliente_dni, 
                    c.telefono as cliente_telefono, c.email as cliente_email,
-                   p.nombre as producto_nombre, p.precio as producto_precio, 
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
                    p.stock as producto_stock
             FROM ventas v
             JOIN clientes c ON v.id_cliente = c.id_cliente
@@ -287,14 +532,15 @@ public class VentaDAO {
         
         List<Venta> ventas = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, idCliente);
             
             try (ResultSet rs = pstmt.executeQuery()) {
+                MapeadorVentas mapeador = new MapeadorVentas();
                 while (rs.next()) {
-                    ventas.add(mapearVentaCompleta(rs));
+                    ventas.add(mapeador.mapear(rs));
                 }
             }
             
@@ -306,12 +552,19 @@ public class VentaDAO {
         }
     }
     
+    /**
+     * Busca las ventas de un producto
+     * <p>
+     * Solo lee la tabla viva: las ventas de meses archivados se obtienen con
+     * {@link #buscar} indicando fechas.
+     * </p>
+     */
     public List<Venta> buscarPorProducto(int idProducto) throws SQLException {
         String sql = """
             SELECT v.*, 
                    c.nombre as cliente_nombre, c.dni as cliente_dni, 
                    c.telefono as cliente_telefono, c.email as cliente_email,
-                   p.nombre as producto_nombre, p.precio as producto_precio, 
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
                    p.stock as producto_stock
             FROM ventas v
             JOIN clientes c ON v.id_cliente = c.id_cliente
@@ -322,14 +575,15 @@ public class VentaDAO {
         
         List<Venta> ventas = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, idProducto);
             
             try (ResultSet rs = pstmt.executeQuery()) {
+                MapeadorVentas mapeador = new MapeadorVentas();
                 while (rs.next()) {
-                    ventas.add(mapearVentaCompleta(rs));
+                    ventas.add(mapeador.mapear(rs));
                 }
             }
             
@@ -341,49 +595,177 @@ public class VentaDAO {
         }
     }
     
+    /**
+     * Busca ventas entre dos fechas (inclusive), de la más reciente a la más antigua
+     */
     public List<Venta> buscarPorFechas(LocalDate fechaInicio, LocalDate fechaFin) throws SQLException {
-        String sql = """
-            SELECT v.*, 
-                   c.nombre as cliente_nombre, c.dni as cliente_dni, 
-                   c.telefono as cliente_telefono, c.email as cliente_email,
-                   p.nombre as producto_nombre, p.precio as producto_precio, 
-                   p.stock as producto_stock
-            FROM ventas v
-            JOIN clientes c ON v.id_cliente = c.id_cliente
-            JOIN productos p ON v.id_producto = p.id_producto
-            WHERE v.fecha BETWEEN ? AND ?
-            ORDER BY v.fecha DESC
-        """;
+        return buscar(FiltroVentas.entreFechas(fechaInicio, fechaFin), FiltroVentas.Orden.FECHA, false);
+    }
+    
+    /**
+     * Busca ventas que cumplan un filtro, ordenadas por la base de datos.
+     * <p>
+     * Si el filtro restringe fechas y el rango incluye meses archivados, sus
+     * particiones se adjuntan a la conexión y se unen (UNION ALL) a la tabla
+     * viva, de a {@link ArchivoVentasDAO#MAX_ADJUNTAS} particiones por
+     * consulta. Sin fechas solo se consulta la tabla viva, igual que
+     * {@link #obtenerTodas()}.
+     * </p>
+     *
+     * @param filtro criterios de búsqueda
+     * @param orden columna de orden (null para fecha descendente)
+     * @param ascendente sentido del orden
+     * @return ventas encontradas
+     */
+    public List<Venta> buscar(FiltroVentas filtro, FiltroVentas.Orden orden, boolean ascendente) throws SQLException {
+        if (orden == null) {
+            orden = FiltroVentas.Orden.FECHA;
+            ascendente = false;
+        }
         
         List<Venta> ventas = new ArrayList<>();
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+            
+            List<ArchivoVentasDAO.Particion> particiones = filtro.tieneFechas()
+                ? archivoDAO.buscarParticiones(conn, filtro.getDesde(), filtro.getHasta())
+                : List.of();
+            
+            // Primer grupo: tabla viva más las particiones que entren
+            MapeadorVentas mapeador = new MapeadorVentas();
+            int desde = 0;
+            do {
+                int hasta = Math.min(particiones.size(), desde + ArchivoVentasDAO.MAX_ADJUNTAS);
+                List<ArchivoVentasDAO.Particion> grupo = particiones.subList(desde, hasta);
+                buscarEnGrupo(conn, desde == 0, grupo, filtro, orden, ascendente, mapeador, ventas);
+                desde = hasta;
+            } while (desde < particiones.size());
+            
+            if (particiones.size() > ArchivoVentasDAO.MAX_ADJUNTAS) {
+                Comparator<Venta> comparador = orden.getComparador();
+                ventas.sort(ascendente ? comparador : comparador.reversed());
+            }
+            
+            return ventas;
+            
+        } catch (SQLException e) {
+            System.err.println("Error al buscar ventas: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Cantidad aproximada de ventas que devolvería {@link #buscar}.
+     * <p>
+     * Cuenta exactamente en la tabla viva y suma las filas registradas de las
+     * particiones del rango (sin adjuntarlas), así que puede excederse. Sirve
+     * para decidir si conviene cargar las ventas en memoria.
+     * </p>
+     */
+    public int contar(FiltroVentas filtro) throws SQLException {
+        String condicion = filtro.getCondicionSQL();
+        String sql = "SELECT COUNT(*) FROM ventas v" + (condicion.isEmpty() ? "" : " WHERE " + condicion);
+        
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setDate(1, Date.valueOf(fechaInicio));
-            pstmt.setDate(2, Date.valueOf(fechaFin));
+            filtro.asignarParametros(pstmt, 1);
             
+            long total;
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    ventas.add(mapearVentaCompleta(rs));
+                total = rs.next() ? rs.getLong(1) : 0;
+            }
+            
+            if (filtro.tieneFechas()) {
+                for (ArchivoVentasDAO.Particion particion :
+                        archivoDAO.buscarParticiones(conn, filtro.getDesde(), filtro.getHasta())) {
+                    total += particion.getFilas();
                 }
             }
             
-            return ventas;
+            return (int) Math.min(total, Integer.MAX_VALUE);
             
         } catch (SQLException e) {
-            System.err.println("Error al buscar ventas por fechas: " + e.getMessage());
+            System.err.println("Error al contar ventas: " + e.getMessage());
             throw e;
         }
     }
     
+    private void buscarEnGrupo(Connection conn, boolean incluirTablaViva,
+                               List<ArchivoVentasDAO.Particion> grupo,
+                               FiltroVentas filtro, FiltroVentas.Orden orden, boolean ascendente,
+                               MapeadorVentas mapeador, List<Venta> ventas) throws SQLException {
+        String consultaTabla = """
+            SELECT v.*, 
+                   c.nombre as cliente_nombre, c.dni as cliente_dni, 
+                   c.telefono as cliente_telefono, c.email as cliente_email,
+                   p.nombre as producto_nombre, p.precio_centavos as producto_precio_centavos, 
+                   p.stock as producto_stock
+            FROM %s.ventas v
+            JOIN main.clientes c ON v.id_cliente = c.id_cliente
+            JOIN main.productos p ON v.id_producto = p.id_producto
+        """;
+        String condicion = filtro.getCondicionSQL();
+        if (!condicion.isEmpty()) {
+            consultaTabla += " WHERE " + condicion;
+        }
+        
+        List<String> tablas = new ArrayList<>();
+        if (incluirTablaViva) {
+            tablas.add("main");
+        }
+        
+        List<ArchivoVentasDAO.Particion> adjuntas = new ArrayList<>();
+        try {
+            for (ArchivoVentasDAO.Particion particion : grupo) {
+                archivoDAO.adjuntar(conn, particion);
+                adjuntas.add(particion);
+                tablas.add(particion.getAlias());
+            }
+            
+            StringBuilder sql = new StringBuilder();
+            for (String tabla : tablas) {
+                if (sql.length() > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append(String.format(consultaTabla, tabla));
+            }
+            String sentido = ascendente ? " ASC" : " DESC";
+            sql.append(" ORDER BY ").append(orden.getColumna()).append(sentido);
+            if (orden != FiltroVentas.Orden.ID) {
+                sql.append(", id_venta").append(sentido);
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int posicion = 1;
+                for (int i = 0; i < tablas.size(); i++) {
+                    posicion = filtro.asignarParametros(pstmt, posicion);
+                }
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ventas.add(mapeador.mapear(rs));
+                    }
+                }
+            }
+        } finally {
+            // La conexión vuelve al pool: no dejar particiones adjuntas
+            for (ArchivoVentasDAO.Particion particion : adjuntas) {
+                archivoDAO.separar(conn, particion);
+            }
+        }
+    }
+    
     public boolean clienteTieneVentas(int idCliente) throws SQLException {
-        String sql = "SELECT COUNT(*) as total FROM ventas WHERE id_cliente = ?";
+        // Incluye las ventas archivadas (a través de su resumen mensual)
+        String sql = "SELECT (SELECT COUNT(*) FROM ventas WHERE id_cliente = ?) + " +
+                     "(SELECT COUNT(*) FROM ventas_resumen_mensual WHERE id_cliente = ?) as total";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, idCliente);
+            pstmt.setInt(2, idCliente);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -400,12 +782,15 @@ public class VentaDAO {
     }
     
     public boolean productoTieneVentas(int idProducto) throws SQLException {
-        String sql = "SELECT COUNT(*) as total FROM ventas WHERE id_producto = ?";
+        // Incluye las ventas archivadas (a través de su resumen mensual)
+        String sql = "SELECT (SELECT COUNT(*) FROM ventas WHERE id_producto = ?) + " +
+                     "(SELECT COUNT(*) FROM ventas_resumen_mensual WHERE id_producto = ?) as total";
         
-        try (Connection conn = ConexionDB.getConexion();
+        try (Connection conn = ConexionDB.getConexionLectura();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, idProducto);
+            pstmt.setInt(2, idProducto);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -421,45 +806,76 @@ public class VentaDAO {
         }
     }
     
-    private void actualizarStockProducto(Connection conn, int idProducto, int nuevoStock) throws SQLException {
-        String sql = "UPDATE productos SET stock = ? WHERE id_producto = ?";
+    /**
+     * Suma (o resta, si es negativa) una cantidad al stock actual de la fila.
+     * Al ser relativo, dos ventas simultáneas del mismo producto no se pisan.
+     *
+     * @throws SQLException si el stock quedaría negativo o el producto no existe
+     */
+    private void ajustarStock(Connection conn, int idProducto, int cantidad) throws SQLException {
+        String sql = "UPDATE productos SET stock = stock + ? WHERE id_producto = ? AND stock + ? >= 0";
         
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, nuevoStock);
+            pstmt.setInt(1, cantidad);
             pstmt.setInt(2, idProducto);
-            pstmt.executeUpdate();
+            pstmt.setInt(3, cantidad);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("Stock insuficiente para el producto ID " + idProducto);
+            }
         }
     }
     
-    private Venta mapearVentaCompleta(ResultSet rs) throws SQLException {
-        // Crear cliente
-        Cliente cliente = new Cliente(
-            rs.getInt("id_cliente"),
-            rs.getString("cliente_nombre"),
-            rs.getString("cliente_dni"),
-            rs.getString("cliente_telefono"),
-            rs.getString("cliente_email")
-        );
+    /**
+     * Convierte las filas de una consulta de ventas en objetos Venta.
+     * <p>
+     * Cada consulta usa su propio mapeador: las ventas del mismo cliente o
+     * producto comparten una única instancia de {@link Cliente} y
+     * {@link Producto} en lugar de crear dos objetos nuevos por fila, así
+     * una lista grande solo tiene tantos clientes y productos como IDs
+     * distintos aparezcan en el resultado. Por eso esas instancias son de
+     * solo lectura: modificar el cliente de una venta cambiaría el de todas.
+     * </p>
+     */
+    private static final class MapeadorVentas {
         
-        // Crear producto
-        Producto producto = new Producto(
-            rs.getInt("id_producto"),
-            rs.getString("producto_nombre"),
-            rs.getBigDecimal("producto_precio"),
-            rs.getInt("producto_stock")
-        );
+        private final Map<Integer, Cliente> clientes = new HashMap<>();
+        private final Map<Integer, Producto> productos = new HashMap<>();
         
-        // Crear venta
-        Venta venta = new Venta(
-            rs.getInt("id_venta"),
-            rs.getDate("fecha").toLocalDate(),
-            cliente,
-            producto,
-            rs.getInt("cantidad"),
-            rs.getBigDecimal("precio_unitario"),
-            rs.getBigDecimal("total")
-        );
-        
-        return venta;
+        Venta mapear(ResultSet rs) throws SQLException {
+            int idCliente = rs.getInt("id_cliente");
+            Cliente cliente = clientes.get(idCliente);
+            if (cliente == null) {
+                cliente = new Cliente(
+                    idCliente,
+                    rs.getString("cliente_nombre"),
+                    rs.getString("cliente_dni"),
+                    rs.getString("cliente_telefono"),
+                    rs.getString("cliente_email")
+                ).marcarSoloLectura();
+                clientes.put(idCliente, cliente);
+            }
+            
+            int idProducto = rs.getInt("id_producto");
+            Producto producto = productos.get(idProducto);
+            if (producto == null) {
+                producto = new Producto(
+                    idProducto,
+                    rs.getString("producto_nombre"),
+                    rs.getLong("producto_precio_centavos"),
+                    rs.getInt("producto_stock")
+                ).marcarSoloLectura();
+                productos.put(idProducto, producto);
+            }
+            
+            return new Venta(
+                rs.getInt("id_venta"),
+                LocalDate.ofEpochDay(rs.getLong("fecha")),
+                cliente,
+                producto,
+                rs.getInt("cantidad"),
+                rs.getLong("precio_unitario_centavos"),
+                rs.getLong("total_centavos")
+            );
+        }
     }
-}
\ No newline at end of file
+}
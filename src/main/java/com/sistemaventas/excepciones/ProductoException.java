@@ -88,11 +88,12 @@ public class ProductoException extends SistemaVentasException {
     }
     
     /**
-     * Se lanza cuando se intenta crear un producto con nombre duplicado
+     * Se lanza cuando se intenta crear un producto con nombre o código duplicado
      */
     public static class ProductoDuplicadoException extends ProductoException {
         
-        private String nombreDuplicado;
+        private String campoDuplicado;
+        private String valorDuplicado;
         
         /**
          * Constructor
@@ -102,21 +103,42 @@ public class ProductoException extends SistemaVentasException {
             super("PROD-409", 
                 String.format("Ya existe un producto registrado con el nombre: '%s'. " +
                     "Por favor, utilice un nombre diferente o actualice el producto existente.", nombre));
-            this.nombreDuplicado = nombre;
+            this.campoDuplicado = "nombre";
+            this.valorDuplicado = nombre;
+        }
+        
+        /**
+         * Constructor genérico por campo duplicado
+         * @param campo Nombre del campo duplicado
+         * @param valor Valor duplicado
+         */
+        public ProductoDuplicadoException(String campo, String valor) {
+            super("PROD-409", 
+                String.format("Ya existe un producto con el %s: '%s'", campo, valor));
+            this.campoDuplicado = campo;
+            this.valorDuplicado = valor;
         }
         
         /**
          * Obtiene el nombre duplicado
-         * @return Nombre del producto duplicado
+         * @return Nombre del producto duplicado, o null si el duplicado es otro campo
          */
         public String getNombreDuplicado() {
-            return nombreDuplicado;
+            return "nombre".equals(campoDuplicado) ? valorDuplicado : null;
+        }
+        
+        /**
+         * Obtiene el campo que está duplicado
+         * @return Nombre del campo
+         */
+        public String getCampoDuplicado() {
+            return campoDuplicado;
         }
         
         @Override
         public String getMensajeUsuario() {
-            return String.format("Ya existe un producto con el nombre '%s'. " +
-                "Elija un nombre diferente.", nombreDuplicado);
+            return String.format("Ya existe un producto con el %s '%s'. " +
+                "Elija un %s diferente.", campoDuplicado, valorDuplicado, campoDuplicado);
         }
     }
     
@@ -1,8 +1,15 @@
 package com.sistemaventas.launcher;
 
+import com.sistemaventas.dao.ArchivoVentasDAO;
+import com.sistemaventas.dao.IndicesCatalogo;
 import com.sistemaventas.util.ConexionDB;
+import com.sistemaventas.util.MantenimientoDB;
+import com.sistemaventas.util.RespaldoDB;
 import com.sistemaventas.vista.MainView;
 
+import javax.swing.*;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Clase principal de la aplicación Sistema de Ventas de Sanitarios.
  * <p>
@@ -15,6 +22,7 @@ import com.sistemaventas.vista.MainView;
  * <ol>
  *   <li>Mostrar información del sistema</li>
  *   <li>Probar conexión a la base de datos SQLite</li>
+ *   <li>Iniciar el mantenimiento y los respaldos de la base de datos en segundo plano</li>
  *   <li>Inicializar la interfaz gráfica principal</li>
  * </ol>
  * 
@@ -68,9 +76,32 @@ public class App {
         System.out.println("=== SISTEMA DE VENTAS DE SANITARIOS ===");
         System.out.println("Base de datos: SQLite");
         
+        // Una configuración de BD inválida se informa antes de arrancar
+        try {
+            ConexionDB.getPerfil();
+        } catch (IllegalStateException e) {
+            System.err.println("✗ " + e.getMessage());
+            JOptionPane.showMessageDialog(null, e.getMessage(),
+                "Configuración inválida", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        
         // Probar conexión a SQLite
         ConexionDB.probarConexion();
         
+        // Checkpoints del WAL y estadísticas en segundo plano
+        MantenimientoDB mantenimiento = MantenimientoDB.getInstancia();
+        mantenimiento.registrarTareaInactiva("archivo de ventas",
+                                             new ArchivoVentasDAO()::archivarMesesCerrados,
+                                             TimeUnit.HOURS.toMillis(24));
+        mantenimiento.iniciar();
+        
+        // Respaldos en caliente programados
+        RespaldoDB.getInstancia().programar();
+        
+        // Índices de DNI, email y nombre de producto en memoria
+        IndicesCatalogo.getInstancia().iniciar();
+        
         // Iniciar la interfaz gráfica
         MainView.main(args);
     }
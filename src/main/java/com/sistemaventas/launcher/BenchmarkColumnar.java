@@ -0,0 +1,86 @@
+package com.sistemaventas.launcher;
+
+import com.sistemaventas.dao.EscritorColumnarVentas;
+import com.sistemaventas.dao.LectorColumnarVentas;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Mide el formato columnar de ventas con datos sintéticos.
+ * <p>
+ * Genera las ventas de varios años, las escribe con
+ * {@link EscritorColumnarVentas} en un directorio temporal y calcula la
+ * facturación anual por producto con {@link LectorColumnarVentas}. No usa
+ * la base de datos del sistema. Uso:
+ * <code>java -cp ... com.sistemaventas.launcher.BenchmarkColumnar [filas]</code>
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.dao.LectorColumnarVentas
+ */
+public class BenchmarkColumnar {
+
+    private static final int PRODUCTOS = 500;
+    private static final int CLIENTES = 20_000;
+    private static final int ANIOS = 5;
+    private static final int REPETICIONES = 5;
+
+    public static void main(String[] args) throws IOException {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        Path directorio = Files.createTempDirectory("benchmark-columnar");
+
+        try {
+            System.out.println("=== BENCHMARK FORMATO COLUMNAR ===");
+
+            long inicio = System.nanoTime();
+            escribir(directorio.toFile(), filas);
+            System.out.printf("Escritura de %,d ventas: %d ms%n", filas, (System.nanoTime() - inicio) / 1_000_000);
+
+            LectorColumnarVentas lector = LectorColumnarVentas.abrir(directorio.toFile());
+            int anio = lector.getFechaMaxima().getYear() - 1;
+
+            for (int i = 0; i < REPETICIONES; i++) {
+                inicio = System.nanoTime();
+                Map<Integer, Long> ingresos = lector.ingresosPorProducto(anio);
+                long total = ingresos.values().stream().mapToLong(Long::longValue).sum();
+                System.out.printf("Facturación %d por producto: %d productos, $%,.2f en %d ms%n",
+                                  anio, ingresos.size(), total / 100.0, (System.nanoTime() - inicio) / 1_000_000);
+            }
+        } finally {
+            try (var archivos = Files.list(directorio)) {
+                for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    private static void escribir(File directorio, int filas) throws IOException {
+        Random random = new Random(42);
+        int[] clientes = IntStream.rangeClosed(1, CLIENTES).toArray();
+        int[] productos = IntStream.rangeClosed(1, PRODUCTOS).toArray();
+        long primerDia = LocalDate.now().minusYears(ANIOS).toEpochDay();
+        double ventasPorDia = filas / (ANIOS * 365.0);
+
+        try (EscritorColumnarVentas escritor = new EscritorColumnarVentas(directorio, clientes, productos, 20)) {
+            for (int i = 0; i < filas; i++) {
+                int cantidad = 1 + random.nextInt(20);
+                long precioCentavos = 100_000 + random.nextInt(3_000_000);
+                escritor.agregar(primerDia + (long) (i / ventasPorDia),
+                                 1 + random.nextInt(CLIENTES),
+                                 1 + random.nextInt(PRODUCTOS),
+                                 cantidad,
+                                 precioCentavos * cantidad);
+            }
+        }
+    }
+}
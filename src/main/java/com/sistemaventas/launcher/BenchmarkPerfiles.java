@@ -0,0 +1,166 @@
+package com.sistemaventas.launcher;
+
+import com.sistemaventas.util.PerfilSQLite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Compara los presets de {@link PerfilSQLite} sobre la misma carga de trabajo.
+ * <p>
+ * Para cada preset crea una base temporal con el esquema de ventas y mide:
+ * </p>
+ * <ol>
+ *   <li>Ventas sueltas: una transacción por venta, como en la caja</li>
+ *   <li>Importación: muchas ventas en una única transacción</li>
+ *   <li>Reportes: consultas por rango de fechas y totales por producto</li>
+ * </ol>
+ * <p>
+ * No toca la base de datos real del sistema. Uso:
+ * <code>java -cp ... com.sistemaventas.launcher.BenchmarkPerfiles [ventasSueltas] [ventasImportadas]</code>
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.util.PerfilSQLite
+ */
+public class BenchmarkPerfiles {
+
+    private static final int PRODUCTOS = 200;
+    private static final int CLIENTES = 500;
+    private static final int DIAS = 730;
+    private static final int CONSULTAS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int ventasSueltas = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int ventasImportadas = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        Class.forName("org.sqlite.JDBC");
+        Path directorio = Files.createTempDirectory("benchmark-perfiles");
+
+        System.out.println("=== BENCHMARK DE PERFILES SQLITE ===");
+        System.out.printf("Ventas sueltas: %d, ventas importadas: %d, consultas: %d%n%n",
+                          ventasSueltas, ventasImportadas, CONSULTAS);
+        System.out.printf("%-20s %14s %14s %14s%n", "Perfil", "Sueltas (ms)", "Importar (ms)", "Reportes (ms)");
+
+        try {
+            for (PerfilSQLite.Preset preset : PerfilSQLite.Preset.values()) {
+                File archivo = directorio.resolve(preset.name().toLowerCase() + ".db").toFile();
+                PerfilSQLite perfil = PerfilSQLite.desdePreset(preset, archivo.getPath());
+
+                long[] tiempos = medir(perfil, ventasSueltas, ventasImportadas);
+                System.out.printf("%-20s %14d %14d %14d%n", preset.name(), tiempos[0], tiempos[1], tiempos[2]);
+            }
+        } finally {
+            borrar(directorio.toFile());
+        }
+    }
+
+    private static long[] medir(PerfilSQLite perfil, int ventasSueltas, int ventasImportadas) throws SQLException {
+        long[] tiempos = new long[3];
+        // Misma semilla para que todos los perfiles reciban los mismos datos
+        Random random = new Random(42);
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + perfil.getRutaBaseDatos())) {
+            perfil.aplicar(conn, true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("""
+                    CREATE TABLE ventas (
+                        id_venta INTEGER PRIMARY KEY AUTOINCREMENT,
+                        fecha INTEGER NOT NULL,
+                        id_cliente INTEGER NOT NULL,
+                        id_producto INTEGER NOT NULL,
+                        cantidad INTEGER NOT NULL,
+                        precio_unitario_centavos INTEGER NOT NULL,
+                        total_centavos INTEGER NOT NULL
+                    )
+                """);
+            }
+
+            String sqlInsertar = "INSERT INTO ventas (fecha, id_cliente, id_producto, cantidad, precio_unitario_centavos, total_centavos) "
+                               + "VALUES (?, ?, ?, ?, ?, ?)";
+            long hoy = LocalDate.now().toEpochDay();
+
+            // 1. Ventas sueltas en modo auto-commit
+            long inicio = System.nanoTime();
+            try (PreparedStatement stmt = conn.prepareStatement(sqlInsertar)) {
+                for (int i = 0; i < ventasSueltas; i++) {
+                    cargarVenta(stmt, random, hoy);
+                    stmt.executeUpdate();
+                }
+            }
+            tiempos[0] = (System.nanoTime() - inicio) / 1_000_000;
+
+            // 2. Importación en una sola transacción
+            inicio = System.nanoTime();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sqlInsertar)) {
+                for (int i = 0; i < ventasImportadas; i++) {
+                    cargarVenta(stmt, random, hoy);
+                    stmt.addBatch();
+                    if (i % 1000 == 999) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            tiempos[1] = (System.nanoTime() - inicio) / 1_000_000;
+
+            // 3. Reportes: rango de fechas y total por producto
+            inicio = System.nanoTime();
+            String sqlReporte = "SELECT id_producto, SUM(total_centavos) FROM ventas "
+                              + "WHERE fecha BETWEEN ? AND ? GROUP BY id_producto";
+            try (PreparedStatement stmt = conn.prepareStatement(sqlReporte)) {
+                for (int i = 0; i < CONSULTAS; i++) {
+                    long desde = hoy - random.nextInt(DIAS);
+                    stmt.setLong(1, desde);
+                    stmt.setLong(2, desde + 30);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getLong(2);
+                        }
+                    }
+                }
+            }
+            tiempos[2] = (System.nanoTime() - inicio) / 1_000_000;
+        }
+
+        return tiempos;
+    }
+
+    private static void cargarVenta(PreparedStatement stmt, Random random, long hoy) throws SQLException {
+        int cantidad = 1 + random.nextInt(5);
+        long precioCentavos = 100_000 + random.nextInt(3_000_000);
+
+        stmt.setLong(1, hoy - random.nextInt(DIAS));
+        stmt.setInt(2, 1 + random.nextInt(CLIENTES));
+        stmt.setInt(3, 1 + random.nextInt(PRODUCTOS));
+        stmt.setInt(4, cantidad);
+        stmt.setLong(5, precioCentavos);
+        stmt.setLong(6, precioCentavos * cantidad);
+    }
+
+    private static void borrar(File archivo) throws IOException {
+        File[] hijos = archivo.listFiles();
+        if (hijos != null) {
+            for (File hijo : hijos) {
+                borrar(hijo);
+            }
+        }
+        Files.deleteIfExists(archivo.toPath());
+    }
+}
@@ -70,6 +70,12 @@ public class Cliente {
      * </p>
      */
     private String email;
+    
+    /**
+     * Indica que la instancia se comparte entre varias ventas leídas juntas
+     * y no debe modificarse (ver {@link #marcarSoloLectura()}).
+     */
+    private boolean soloLectura;
 
     /**
      * Constructor por defecto.
@@ -147,6 +153,7 @@ public class Cliente {
      * @param idCliente el ID único del cliente
      */
     public void setIdCliente(int idCliente) {
+        verificarModificable();
         this.idCliente = idCliente;
     }
 
@@ -166,6 +173,7 @@ public class Cliente {
      * @throws IllegalArgumentException si el nombre es nulo o vacío
      */
     public void setNombre(String nombre) {
+        verificarModificable();
         this.nombre = nombre;
     }
 
@@ -188,6 +196,7 @@ public class Cliente {
      * @throws IllegalArgumentException si el DNI no tiene 8 dígitos o es nulo
      */
     public void setDni(String dni) {
+        verificarModificable();
         this.dni = dni;
     }
 
@@ -210,6 +219,7 @@ public class Cliente {
      * @throws IllegalArgumentException si el teléfono no tiene 10 dígitos o es nulo
      */
     public void setTelefono(String telefono) {
+        verificarModificable();
         this.telefono = telefono;
     }
 
@@ -232,9 +242,41 @@ public class Cliente {
      * @throws IllegalArgumentException si el email no tiene formato válido o es nulo
      */
     public void setEmail(String email) {
+        verificarModificable();
         this.email = email;
     }
 
+    /**
+     * Impide modificar el cliente desde este momento.
+     * <p>
+     * Se usa cuando una misma instancia representa el cliente de
+     * varias ventas: cambiarla desde una venta cambiaría todas. Para
+     * modificarlo hay que volver a leerlo de la base de datos.
+     * </p>
+     * 
+     * @return esta misma instancia
+     */
+    public Cliente marcarSoloLectura() {
+        this.soloLectura = true;
+        return this;
+    }
+    
+    /**
+     * Indica si la instancia es de solo lectura.
+     * 
+     * @return true si los setters lanzan UnsupportedOperationException
+     */
+    public boolean isSoloLectura() {
+        return soloLectura;
+    }
+    
+    private void verificarModificable() {
+        if (soloLectura) {
+            throw new UnsupportedOperationException(
+                "Cliente de solo lectura: compartido entre ventas, vuelva a leerlo para modificarlo");
+        }
+    }
+    
     /**
      * Calcula el código hash para este cliente.
      * <p>
@@ -0,0 +1,146 @@
+package com.sistemaventas.modelo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario representado como una cantidad entera de centavos.
+ * <p>
+ * Las operaciones son exactas: en lugar de desbordar en silencio lanzan
+ * {@link ArithmeticException}. Para sumar muchos importes sin crear objetos
+ * conviene acumular los centavos en un <code>long</code> con
+ * {@link #sumarCentavos(long, long)} y convertir una sola vez al final:
+ * </p>
+ * <pre>
+ * long total = 0;
+ * for (Venta v : ventas) {
+ *     total = Dinero.sumarCentavos(total, v.getTotalCentavos());
+ * }
+ * BigDecimal resultado = Dinero.aBigDecimal(total);
+ * </pre>
+ * <p>
+ * La conversión desde y hacia {@link BigDecimal} redondea a 2 decimales con
+ * RoundingMode.HALF_UP, igual que el resto del modelo.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see java.math.BigDecimal
+ */
+public final class Dinero implements Comparable<Dinero> {
+
+    /**
+     * Importe cero
+     */
+    public static final Dinero CERO = new Dinero(0);
+
+    private final long centavos;
+
+    private Dinero(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Crea un importe a partir de centavos
+     *
+     * @param centavos cantidad de centavos
+     * @return importe equivalente
+     */
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    /**
+     * Crea un importe a partir de un valor decimal
+     *
+     * @param monto valor en pesos (se redondea a 2 decimales)
+     * @return importe equivalente
+     * @throws ArithmeticException si no entra en un long de centavos
+     */
+    public static Dinero de(BigDecimal monto) {
+        return deCentavos(aCentavos(monto));
+    }
+
+    /**
+     * Convierte un valor decimal a centavos
+     *
+     * @param monto valor en pesos (se redondea a 2 decimales)
+     * @return cantidad de centavos
+     * @throws ArithmeticException si no entra en un long
+     */
+    public static long aCentavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convierte centavos a un valor decimal con 2 decimales
+     */
+    public static BigDecimal aBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Suma exacta de centavos, sin crear objetos
+     *
+     * @throws ArithmeticException si el resultado desborda
+     */
+    public static long sumarCentavos(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Producto exacto de un importe en centavos por una cantidad, sin crear objetos
+     *
+     * @throws ArithmeticException si el resultado desborda
+     */
+    public static long multiplicarCentavos(long centavos, int cantidad) {
+        return Math.multiplyExact(centavos, (long) cantidad);
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public Dinero multiplicar(int cantidad) {
+        return deCentavos(multiplicarCentavos(centavos, cantidad));
+    }
+
+    public boolean esPositivo() {
+        return centavos > 0;
+    }
+
+    public BigDecimal aBigDecimal() {
+        return aBigDecimal(centavos);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        return centavos == ((Dinero) obj).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("$%.2f", aBigDecimal());
+    }
+}
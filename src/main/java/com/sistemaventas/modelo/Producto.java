@@ -1,7 +1,7 @@
 package com.sistemaventas.modelo;
 
 import java.math.BigDecimal;    //valores decimales con precisión y vitar errores de redondeo típicos de double
-import java.math.RoundingMode; //redondear decimales
+import java.util.regex.Pattern;
 
 /**
  * Clase modelo que representa un Producto en el sistema de gestión de ventas.
@@ -58,14 +58,14 @@ public class Producto {
     private String nombre;
     
     /**
-     * Precio unitario del producto.
+     * Precio unitario del producto, en centavos.
      * <p>
-     * Utiliza BigDecimal para precisión en cálculos monetarios.
-     * Se redondea automáticamente a 2 decimales usando HALF_UP.
+     * Se recibe y se expone como BigDecimal, redondeado a 2 decimales
+     * usando HALF_UP, y se guarda como centavos exactos (ver {@link Dinero}).
      * Debe ser mayor a cero.
      * </p>
      */
-    private BigDecimal precio;
+    private long precioCentavos;
     
     /**
      * Cantidad disponible en inventario.
@@ -77,6 +77,24 @@ public class Producto {
      */
     private int stock;
     
+    /**
+     * Código del producto (SKU o código de barras EAN).
+     * <p>
+     * Campo opcional y único: el que lee el lector de códigos de barras
+     * en el mostrador. Solo letras, números y guiones, hasta 32 caracteres.
+     * Es null si el producto no tiene código.
+     * </p>
+     */
+    private String codigo;
+    
+    /**
+     * Indica que la instancia se comparte entre varias ventas leídas juntas
+     * y no debe modificarse (ver {@link #marcarSoloLectura()}).
+     */
+    private boolean soloLectura;
+    
+    private static final Pattern FORMATO_CODIGO = Pattern.compile("[A-Za-z0-9-]{1,32}");
+    
     /**
      * Constructor por defecto.
      * <p>
@@ -105,7 +123,7 @@ public class Producto {
      */
     public Producto(String nombre, BigDecimal precio, int stock) {
         this.nombre = nombre;
-        this.precio = precio.setScale(2, RoundingMode.HALF_UP);
+        this.precioCentavos = Dinero.aCentavos(precio);
         this.stock = stock;
     }
     
@@ -128,10 +146,45 @@ public class Producto {
     public Producto(int idProducto, String nombre, BigDecimal precio, int stock) {
         this.idProducto = idProducto;
         this.nombre = nombre;
-        this.precio = precio.setScale(2, RoundingMode.HALF_UP);
+        this.precioCentavos = Dinero.aCentavos(precio);
         this.stock = stock;
     }
     
+    /**
+     * Constructor para un producto leído de la base de datos, que guarda el
+     * precio en centavos: no crea objetos intermedios para el importe.
+     * 
+     * @param idProducto     Identificador único del producto en la BD
+     * @param nombre         Nombre del producto
+     * @param precioCentavos Precio unitario en centavos
+     * @param stock          Cantidad en inventario
+     */
+    public Producto(int idProducto, String nombre, long precioCentavos, int stock) {
+        this.idProducto = idProducto;
+        this.nombre = nombre;
+        this.precioCentavos = precioCentavos;
+        this.stock = stock;
+    }
+    
+    /**
+     * Constructor para un producto leído de la base de datos con su código.
+     * <p>
+     * El código se toma tal como está guardado, sin validarlo: el formato lo
+     * controla {@link #setCodigo(String)} al cargarlo desde el formulario, y
+     * un código viejo que no lo cumpla no debe impedir leer el producto.
+     * </p>
+     * 
+     * @param idProducto     Identificador único del producto en la BD
+     * @param nombre         Nombre del producto
+     * @param precioCentavos Precio unitario en centavos
+     * @param stock          Cantidad en inventario
+     * @param codigo         Código guardado (SKU / EAN), o null
+     */
+    public Producto(int idProducto, String nombre, long precioCentavos, int stock, String codigo) {
+        this(idProducto, nombre, precioCentavos, stock);
+        this.codigo = codigo;
+    }
+    
     // Getters y Setters con validaciones
     
     /**
@@ -153,6 +206,7 @@ public class Producto {
      * @param idProducto el ID único del producto
      */
     public void setIdProducto(int idProducto) {
+        verificarModificable();
         this.idProducto = idProducto;
     }
     
@@ -176,6 +230,7 @@ public class Producto {
      * @throws IllegalArgumentException si el nombre es nulo, vacío o solo espacios
      */
     public void setNombre(String nombre) {
+        verificarModificable();
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del producto no puede estar vacío");
         }
@@ -188,7 +243,16 @@ public class Producto {
      * @return el precio del producto con 2 decimales de precisión
      */
     public BigDecimal getPrecio() {
-        return precio;
+        return Dinero.aBigDecimal(precioCentavos);
+    }
+    
+    /**
+     * Obtiene el precio unitario en centavos.
+     * 
+     * @return el precio del producto en centavos
+     */
+    public long getPrecioCentavos() {
+        return precioCentavos;
     }
     
     /**
@@ -202,10 +266,11 @@ public class Producto {
      * @throws IllegalArgumentException si el precio es nulo o menor o igual a cero
      */
     public void setPrecio(BigDecimal precio) {
+        verificarModificable();
         if (precio == null || precio.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("El precio debe ser mayor a cero");
         }
-        this.precio = precio.setScale(2, RoundingMode.HALF_UP);
+        this.precioCentavos = Dinero.aCentavos(precio);
     }
     
     /**
@@ -228,13 +293,77 @@ public class Producto {
      * @throws IllegalArgumentException si el stock es negativo
      */
     public void setStock(int stock) {
+        verificarModificable();
         if (stock < 0) {
             throw new IllegalArgumentException("El stock no puede ser negativo");
         }
         this.stock = stock;
     }
     
+    /**
+     * Obtiene el código (SKU / EAN) del producto.
+     * 
+     * @return el código, o null si el producto no tiene
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    /**
+     * Establece el código (SKU / EAN) del producto.
+     * <p>
+     * Un valor nulo o vacío deja al producto sin código. Se eliminan
+     * los espacios al inicio y final.
+     * </p>
+     * 
+     * @param codigo el código del producto (letras, números y guiones, hasta 32)
+     * @throws IllegalArgumentException si el código tiene caracteres no permitidos
+     */
+    public void setCodigo(String codigo) {
+        verificarModificable();
+        if (codigo == null || codigo.trim().isEmpty()) {
+            this.codigo = null;
+            return;
+        }
+        String limpio = codigo.trim();
+        if (!FORMATO_CODIGO.matcher(limpio).matches()) {
+            throw new IllegalArgumentException("El código solo puede tener letras, números y guiones (hasta 32)");
+        }
+        this.codigo = limpio;
+    }
+    
 
+    /**
+     * Impide modificar el producto desde este momento.
+     * <p>
+     * Se usa cuando una misma instancia representa el producto de
+     * varias ventas: cambiarla desde una venta cambiaría todas. Para
+     * modificarlo hay que volver a leerlo de la base de datos.
+     * </p>
+     * 
+     * @return esta misma instancia
+     */
+    public Producto marcarSoloLectura() {
+        this.soloLectura = true;
+        return this;
+    }
+    
+    /**
+     * Indica si la instancia es de solo lectura.
+     * 
+     * @return true si los setters lanzan UnsupportedOperationException
+     */
+    public boolean isSoloLectura() {
+        return soloLectura;
+    }
+    
+    private void verificarModificable() {
+        if (soloLectura) {
+            throw new UnsupportedOperationException(
+                "Producto de solo lectura: compartido entre ventas, vuelva a leerlo para modificarlo");
+        }
+    }
+    
     /**
      * Verifica si hay suficiente stock disponible para la cantidad solicitada.
      * <p>
@@ -262,6 +391,7 @@ public class Producto {
      * @throws IllegalArgumentException si no hay suficiente stock disponible
      */
     public void reducirStock(int cantidad) {
+        verificarModificable();
         if (!hayStock(cantidad)) {
             throw new IllegalArgumentException(
                 "No hay suficiente stock. Disponible: " + this.stock + 
@@ -281,7 +411,7 @@ public class Producto {
      * @return el valor total del inventario (precio × stock)
      */
     public BigDecimal getValorInventario() {
-        return precio.multiply(BigDecimal.valueOf(stock));
+        return Dinero.aBigDecimal(Dinero.multiplicarCentavos(precioCentavos, stock));
     }
     
     /**
@@ -296,7 +426,7 @@ public class Producto {
     @Override
     public String toString() {
         return String.format("Producto{id=%d, nombre='%s', precio=$%.2f, stock=%d}", 
-                           idProducto, nombre, precio, stock);
+                           idProducto, nombre, getPrecio(), stock);
     }
     
     /**
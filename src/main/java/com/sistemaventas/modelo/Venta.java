@@ -1,7 +1,6 @@
 package com.sistemaventas.modelo;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -9,6 +8,8 @@ import java.util.Objects;
 /**
  * Clase modelo que representa una Venta en el sistema de gestión de ventas.
  * Refactorizada para usar objetos Cliente y Producto en lugar de solo IDs.
+ * Los importes se guardan en centavos (ver {@link Dinero}); los getters de
+ * BigDecimal se mantienen para la interfaz y la base de datos.
  * 
  * @author Matías Bravo, Tomás Llera, Alan Barbera
  * @version 2.0
@@ -20,8 +21,8 @@ public class Venta {
     private Cliente cliente;
     private Producto producto;
     private int cantidad;
-    private BigDecimal precioUnitario;
-    private BigDecimal total;
+    private long precioUnitarioCentavos;
+    private long totalCentavos;
     
     /**
      * Constructor por defecto.
@@ -44,8 +45,8 @@ public class Venta {
         this.cliente = cliente;
         this.producto = producto;
         this.cantidad = cantidad;
-        this.precioUnitario = precioUnitario.setScale(2, RoundingMode.HALF_UP);
-        this.total = calcularTotal();
+        this.precioUnitarioCentavos = Dinero.aCentavos(precioUnitario);
+        this.totalCentavos = calcularTotalCentavos();
     }
     
     /**
@@ -66,8 +67,31 @@ public class Venta {
         this.cliente = cliente;
         this.producto = producto;
         this.cantidad = cantidad;
-        this.precioUnitario = precioUnitario.setScale(2, RoundingMode.HALF_UP);
-        this.total = total.setScale(2, RoundingMode.HALF_UP);
+        this.precioUnitarioCentavos = Dinero.aCentavos(precioUnitario);
+        this.totalCentavos = Dinero.aCentavos(total);
+    }
+    
+    /**
+     * Constructor para una venta leída de la base de datos, con los importes
+     * en centavos tal como se guardan.
+     * 
+     * @param idVenta ID de la venta
+     * @param fecha Fecha de la venta
+     * @param cliente Cliente que realizó la compra
+     * @param producto Producto vendido
+     * @param cantidad Cantidad vendida
+     * @param precioUnitarioCentavos Precio unitario en centavos
+     * @param totalCentavos Total de la venta en centavos
+     */
+    public Venta(int idVenta, LocalDate fecha, Cliente cliente, Producto producto, 
+                 int cantidad, long precioUnitarioCentavos, long totalCentavos) {
+        this.idVenta = idVenta;
+        this.fecha = fecha != null ? fecha : LocalDate.now();
+        this.cliente = cliente;
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.precioUnitarioCentavos = precioUnitarioCentavos;
+        this.totalCentavos = totalCentavos;
     }
     
     // Getters y Setters
@@ -130,26 +154,37 @@ public class Venta {
     }
     
     public BigDecimal getPrecioUnitario() {
-        return precioUnitario;
+        return Dinero.aBigDecimal(precioUnitarioCentavos);
+    }
+    
+    public long getPrecioUnitarioCentavos() {
+        return precioUnitarioCentavos;
     }
     
     public void setPrecioUnitario(BigDecimal precioUnitario) {
         if (precioUnitario == null || precioUnitario.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("El precio unitario debe ser mayor a cero");
         }
-        this.precioUnitario = precioUnitario.setScale(2, RoundingMode.HALF_UP);
+        this.precioUnitarioCentavos = Dinero.aCentavos(precioUnitario);
         recalcularTotal();
     }
     
     public BigDecimal getTotal() {
-        return total;
+        return Dinero.aBigDecimal(totalCentavos);
+    }
+    
+    /**
+     * Total de la venta en centavos, para acumular sin crear objetos
+     */
+    public long getTotalCentavos() {
+        return totalCentavos;
     }
     
     public void setTotal(BigDecimal total) {
         if (total == null || total.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("El total debe ser mayor a cero");
         }
-        this.total = total.setScale(2, RoundingMode.HALF_UP);
+        this.totalCentavos = Dinero.aCentavos(total);
     }
     
     // Métodos de utilidad para compatibilidad con código existente
@@ -193,18 +228,21 @@ public class Venta {
      * @return Total calculado (precioUnitario × cantidad)
      */
     public BigDecimal calcularTotal() {
-        if (precioUnitario != null && cantidad > 0) {
-            return precioUnitario.multiply(BigDecimal.valueOf(cantidad))
-                               .setScale(2, RoundingMode.HALF_UP);
+        return Dinero.aBigDecimal(calcularTotalCentavos());
+    }
+    
+    private long calcularTotalCentavos() {
+        if (precioUnitarioCentavos > 0 && cantidad > 0) {
+            return Dinero.multiplicarCentavos(precioUnitarioCentavos, cantidad);
         }
-        return BigDecimal.ZERO;
+        return 0;
     }
     
     /**
      * Recalcula el total cuando cambian cantidad o precio unitario.
      */
     public void recalcularTotal() {
-        this.total = calcularTotal();
+        this.totalCentavos = calcularTotalCentavos();
     }
     
     /**
@@ -216,8 +254,7 @@ public class Venta {
             && cliente != null 
             && producto != null 
             && cantidad > 0 
-            && precioUnitario != null 
-            && precioUnitario.compareTo(BigDecimal.ZERO) > 0;
+            && precioUnitarioCentavos > 0;
     }
     
     @Override
@@ -228,7 +265,7 @@ public class Venta {
                            cliente != null ? cliente.getNombre() : "null",
                            producto != null ? producto.getNombre() : "null",
                            cantidad, 
-                           total);
+                           getTotal());
     }
     
     @Override
@@ -0,0 +1,165 @@
+package com.sistemaventas.util;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus de eventos de dominio dentro de la aplicación.
+ * <p>
+ * Los DAOs publican un evento cada vez que confirman un cambio (una venta
+ * registrada, un stock modificado, un cliente editado, etc.) y las ventanas
+ * abiertas lo reciben para actualizar solo la fila afectada, sin esperar a
+ * que el usuario presione "Actualizar" ni recargar toda la tabla.
+ * </p>
+ * <p>
+ * Los eventos se publican después del commit, con la conexión ya cerrada (los
+ * que se publican dentro de una {@link UnidadDeTrabajo} esperan a su commit), y
+ * se entregan en el hilo que confirmó el cambio (puede ser el escritor de
+ * {@link com.sistemaventas.dao.ColaEscrituraVentas}). Los suscriptores de
+ * Swing deben registrarse envueltos con {@link #enEDT(Suscriptor)} y
+ * desuscribirse al cerrar la ventana.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public final class BusEventos {
+
+    /**
+     * Tipos de cambio que se publican
+     */
+    public enum Tipo {
+        VENTA_CREADA,
+        VENTA_ACTUALIZADA,
+        VENTA_ELIMINADA,
+        STOCK_CAMBIADO,
+        PRODUCTO_CREADO,
+        PRODUCTO_ACTUALIZADO,
+        PRODUCTO_ELIMINADO,
+        /** Ajuste masivo: cambiaron los precios de varios productos (ID 0) */
+        PRECIOS_ACTUALIZADOS,
+        /** Conciliación de inventario: cambió el stock de varios productos (ID 0) */
+        INVENTARIO_CONCILIADO,
+        CLIENTE_CREADO,
+        CLIENTE_ACTUALIZADO,
+        CLIENTE_ELIMINADO
+    }
+
+    /**
+     * Cambio confirmado sobre una entidad, identificada por su ID
+     */
+    public static final class Evento {
+        private final Tipo tipo;
+        private final int id;
+
+        private Evento(Tipo tipo, int id) {
+            this.tipo = tipo;
+            this.id = id;
+        }
+
+        public Tipo getTipo() {
+            return tipo;
+        }
+
+        /**
+         * ID de la venta, producto o cliente afectado
+         */
+        public int getId() {
+            return id;
+        }
+
+        public boolean esDeVenta() {
+            return tipo == Tipo.VENTA_CREADA || tipo == Tipo.VENTA_ACTUALIZADA || tipo == Tipo.VENTA_ELIMINADA;
+        }
+
+        public boolean esDeProducto() {
+            return tipo == Tipo.STOCK_CAMBIADO || tipo == Tipo.PRODUCTO_CREADO
+                || tipo == Tipo.PRODUCTO_ACTUALIZADO || tipo == Tipo.PRODUCTO_ELIMINADO
+                || esMasivo();
+        }
+
+        /**
+         * Indica si el cambio alcanza a varios productos a la vez (ID 0): hay
+         * que volver a leerlos en lugar de buscar uno por su ID
+         */
+        public boolean esMasivo() {
+            return tipo == Tipo.PRECIOS_ACTUALIZADOS || tipo == Tipo.INVENTARIO_CONCILIADO;
+        }
+
+        public boolean esDeCliente() {
+            return tipo == Tipo.CLIENTE_CREADO || tipo == Tipo.CLIENTE_ACTUALIZADO || tipo == Tipo.CLIENTE_ELIMINADO;
+        }
+
+        @Override
+        public String toString() {
+            return tipo + "(" + id + ")";
+        }
+    }
+
+    /**
+     * Receptor de eventos
+     */
+    @FunctionalInterface
+    public interface Suscriptor {
+        void recibir(Evento evento);
+    }
+
+    private static final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    private BusEventos() {
+    }
+
+    /**
+     * Registra un suscriptor
+     */
+    public static void suscribir(Suscriptor suscriptor) {
+        suscriptores.add(suscriptor);
+    }
+
+    /**
+     * Quita un suscriptor (el mismo objeto que se pasó a {@link #suscribir})
+     */
+    public static void desuscribir(Suscriptor suscriptor) {
+        suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Publica un cambio ya confirmado en la base de datos
+     *
+     * @param tipo tipo de cambio
+     * @param id ID de la entidad afectada
+     */
+    public static void publicar(Tipo tipo, int id) {
+        Evento evento = new Evento(tipo, id);
+        
+        // Dentro de una unidad de trabajo el cambio todavía no se confirmó
+        if (!UnidadDeTrabajo.diferir(evento)) {
+            notificar(evento);
+        }
+    }
+
+    /**
+     * Entrega el evento a todos los suscriptores
+     */
+    static void notificar(Evento evento) {
+        for (Suscriptor suscriptor : suscriptores) {
+            try {
+                suscriptor.recibir(evento);
+            } catch (RuntimeException e) {
+                // Un suscriptor con errores no debe afectar a quien confirmó el cambio
+                System.err.println("Error al notificar " + evento + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Envuelve un suscriptor para que reciba los eventos en el hilo de Swing
+     *
+     * @param suscriptor suscriptor que modifica componentes Swing
+     * @return suscriptor a registrar (y a desuscribir al cerrar la ventana)
+     */
+    public static Suscriptor enEDT(Suscriptor suscriptor) {
+        return evento -> SwingUtilities.invokeLater(() -> suscriptor.recibir(evento));
+    }
+}
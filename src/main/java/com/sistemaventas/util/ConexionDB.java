@@ -1,10 +1,24 @@
 package com.sistemaventas.util;
 
+import org.sqlite.SQLiteConfig;
+
 import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Utilidad para la gestión de conexiones a la base de datos SQLite.
@@ -22,12 +36,25 @@ import java.sql.Statement;
  *   <li>Migración de esquema de base de datos</li>
  *   <li>Inserción de datos de prueba</li>
  *   <li>Gestión de directorios de base de datos</li>
+ *   <li>Topología de un escritor y varios lectores</li>
  * </ul>
  * 
- * <p><strong>Ubicación de la base de datos:</strong></p>
+ * <p><strong>Topología de conexiones:</strong></p>
+ * <p>
+ * SQLite admite un único escritor a la vez. Por eso todas las escrituras
+ * comparten una sola conexión dedicada, entregada por
+ * {@link #getConexionEscritura()} en orden de llegada (cola justa). Las
+ * lecturas usan un pool de conexiones de solo lectura obtenidas con
+ * {@link #getConexionLectura()}; bajo WAL nunca esperan a las escrituras.
+ * En ambos casos <code>close()</code> no cierra la conexión física sino que
+ * la devuelve (libera el turno de escritura o vuelve al pool).
+ * </p>
+ * 
+ * <p><strong>Ubicación y ajuste de la base de datos:</strong></p>
  * <p>
- * La base de datos se crea en el directorio del usuario:
- * <code>~/.SistemaVentas/sistemaventas.db</code>
+ * Por defecto la base de datos se crea en el directorio del usuario:
+ * <code>~/SistemaVentas/sistemaventas.db</code>. La ruta y los PRAGMAs de
+ * rendimiento se toman de {@link PerfilSQLite}.
  * </p>
  * 
  * <p><strong>Tablas gestionadas:</strong></p>
@@ -35,6 +62,8 @@ import java.sql.Statement;
  *   <li>clientes - Información de clientes</li>
  *   <li>productos - Catálogo de productos</li>
  *   <li>ventas - Registro de transacciones</li>
+ *   <li>ventas_particiones - Meses archivados en particiones mensuales</li>
+ *   <li>ventas_resumen_mensual - Totales de los meses archivados</li>
  * </ul>
  * 
  * @author Matías Bravo, Tomás Llera, Alan Barbera
@@ -45,29 +74,197 @@ import java.sql.Statement;
  */
 public class ConexionDB {
     
-    // Nombre del archivo de base de datos
-    private static final String DB_NAME = "sistemaventas.db";
+    // Perfil de ajuste (PRAGMAs y ubicación), leído de la configuración al primer uso
+    private static PerfilSQLite perfil;
+    
+    // Fecha máxima representable en días (año 4707); un valor mayor es milisegundos o texto
+    private static final long MAXIMO_EPOCH_DIA = 1_000_000L;
+    
+    // Cantidad máxima de conexiones de solo lectura en el pool
+    private static final int MAX_LECTORES = Math.max(1, Integer.getInteger("sistemaventas.db.lectores", 4));
+    
+    // Conexión física única para escrituras y su cola de turnos (FIFO)
+    private static Connection conexionEscritura;
+    private static final ReentrantLock turnoEscritura = new ReentrantLock(true);
+    
+    // Una operación anidada dentro de la transacción del turno pidió deshacer (solo con el turno tomado)
+    private static boolean deshacerTurno = false;
     
-    // Directorio donde se guardará la base de datos
-    private static final String DB_DIRECTORY = System.getProperty("user.home") + File.separator + "SistemaVentas";
+    // Pool de conexiones físicas de solo lectura
+    private static final BlockingQueue<Connection> lectoresLibres = new ArrayBlockingQueue<>(MAX_LECTORES);
+    private static final List<Connection> lectores = new ArrayList<>();
     
-    // Ruta completa del archivo de base de datos
-    private static final String DB_PATH = DB_DIRECTORY + File.separator + DB_NAME;
+    // Lugares del pool reservados por hilos que están abriendo su conexión
+    private static int lectoresAbriendose = 0;
     
-    // URL de conexión a SQLite
-    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
+    // Conexión de lectura que ya tiene prestada cada hilo: los pedidos anidados la reusan
+    private static final ThreadLocal<LectorDelHilo> lectorDelHilo = new ThreadLocal<>();
+    
+    // Se lee sin tomar el lock en cada préstamo: volatile para ver la conexión ya abierta
+    private static volatile boolean inicializada = false;
+    
+    // Momento (System.nanoTime) en que se devolvió por última vez el turno de escritura
+    private static volatile long ultimaEscritura = System.nanoTime();
     
     // Constructor privado para patrón Singleton
     private ConexionDB() {
     }
     
     /**
-     * Obtiene una nueva conexión a la base de datos SQLite
-     * IMPORTANTE: Cada operación debe usar su propia conexión
+     * Obtiene una conexión a la base de datos SQLite para escritura.
+     * <p>
+     * Se mantiene por compatibilidad: equivale a {@link #getConexionEscritura()}.
+     * </p>
      */
     public static Connection getConexion() throws SQLException {
+        return getConexionEscritura();
+    }
+    
+    /**
+     * Obtiene el turno sobre la conexión de escritura.
+     * <p>
+     * Los pedidos se atienden en orden de llegada. El turno se libera al
+     * cerrar la conexión devuelta; si quedó una transacción abierta se
+     * revierte. Dentro de una {@link UnidadDeTrabajo} devuelve la conexión
+     * de la unidad.
+     * </p>
+     * <p>
+     * Un mismo hilo puede pedir el turno de forma anidada. Si quien tiene el
+     * turno ya abrió una transacción, el pedido anidado se suma a ella: su
+     * <code>commit()</code>, <code>setAutoCommit()</code> y
+     * <code>close()</code> no la terminan, y su <code>rollback()</code> hace
+     * que el <code>commit()</code> de afuera la deshaga y falle.
+     * </p>
+     * 
+     * @return conexión de escritura (cerrarla libera el turno)
+     * @throws SQLException si no se pudo inicializar la base de datos
+     */
+    public static Connection getConexionEscritura() throws SQLException {
+        Connection unida = UnidadDeTrabajo.conexionActual();
+        if (unida != null) {
+            return unida;
+        }
+        return tomarTurnoEscritura(true);
+    }
+    
+    /**
+     * Turno de escritura para tareas de mantenimiento: no cuenta como
+     * actividad, así no posterga la detección de inactividad
+     */
+    static Connection getConexionMantenimiento() throws SQLException {
+        return tomarTurnoEscritura(false);
+    }
+    
+    private static Connection tomarTurnoEscritura(boolean registrarActividad) throws SQLException {
+        inicializar();
+        
+        boolean anidado = turnoEscritura.isHeldByCurrentThread();
+        
+        // Si otro hilo tiene el turno, registrar cuánto se esperó
+        if (!turnoEscritura.tryLock()) {
+            long inicio = System.nanoTime();
+            turnoEscritura.lock();
+            PoliticaReintentos.registrarEsperaTurno(System.nanoTime() - inicio);
+        }
+        
+        boolean unida;
+        try {
+            unida = anidado && !conexionEscritura.getAutoCommit();
+        } catch (SQLException e) {
+            turnoEscritura.unlock();
+            throw e;
+        }
+        ConexionPrestada prestada = new ConexionPrestada(conexionEscritura, true, registrarActividad);
+        prestada.anidada = anidado;
+        prestada.unida = unida;
+        return (Connection) Proxy.newProxyInstance(
+            ConexionDB.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            prestada);
+    }
+    
+    /**
+     * Obtiene una conexión de solo lectura del pool.
+     * <p>
+     * Si todas las conexiones del pool están en uso y ya se alcanzó el
+     * máximo configurado (<code>sistemaventas.db.lectores</code>), espera a
+     * que se libere una, como mucho el tiempo de espera por bloqueo de la
+     * base de datos. Si el hilo ya tiene una conexión de lectura prestada
+     * (un pedido anidado) se reusa esa, así nunca espera por sí mismo.
+     * Dentro de una {@link UnidadDeTrabajo} devuelve la conexión de la
+     * unidad, para leer dentro de su transacción.
+     * </p>
+     * 
+     * @return conexión de solo lectura (cerrarla la devuelve al pool)
+     * @throws SQLException si no se pudo abrir la conexión o no se liberó
+     *                      ninguna a tiempo
+     */
+    public static Connection getConexionLectura() throws SQLException {
+        Connection unida = UnidadDeTrabajo.conexionActual();
+        if (unida != null) {
+            return unida;
+        }
+        inicializar();
+        
+        LectorDelHilo lector = lectorDelHilo.get();
+        if (lector == null || lector.prestamos == 0) {
+            lector = new LectorDelHilo(tomarLector());
+            lectorDelHilo.set(lector);
+        }
+        lector.prestamos++;
+        
+        ConexionPrestada prestada = new ConexionPrestada(lector.fisica, false, false);
+        prestada.lector = lector;
+        return (Connection) Proxy.newProxyInstance(
+            ConexionDB.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            prestada);
+    }
+    
+    private static Connection tomarLector() throws SQLException {
+        Connection fisica = lectoresLibres.poll();
+        if (fisica == null) {
+            fisica = abrirLectorSiHayLugar();
+        }
+        if (fisica == null) {
+            try {
+                fisica = lectoresLibres.poll(PoliticaReintentos.getBusyTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Se interrumpió la espera de una conexión de lectura", e);
+            }
+            if (fisica == null) {
+                throw new SQLException("No se liberó ninguna conexión de lectura en "
+                    + PoliticaReintentos.getBusyTimeoutMs() + " ms (" + MAX_LECTORES + " en uso)");
+            }
+        }
+        return fisica;
+    }
+    
+    /**
+     * Abre la conexión de escritura y crea el esquema la primera vez. Se
+     * llama en cada préstamo: una vez abierta la base no toma el lock.
+     */
+    private static void inicializar() throws SQLException {
+        if (!inicializada) {
+            inicializarBloqueado();
+        }
+    }
+    
+    private static synchronized void inicializarBloqueado() throws SQLException {
+        if (inicializada) {
+            return;
+        }
+        
         Connection conn = null;
         
+        PerfilSQLite perfilConfigurado;
+        try {
+            perfilConfigurado = getPerfil();
+        } catch (IllegalStateException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        
         try {
             // Crear el directorio si no existe
             crearDirectorioSiNoExiste();
@@ -76,22 +273,35 @@ public class ConexionDB {
             Class.forName("org.sqlite.JDBC");
             
             // Crear conexión con configuraciones específicas
-            conn = DriverManager.getConnection(DB_URL);
+            conn = DriverManager.getConnection(getUrl());
             
             // Configuraciones importantes para SQLite
             conn.setAutoCommit(true);  // Auto-commit habilitado
             
+            // El perfil va antes del WAL: page_size no puede cambiarse después
+            perfilConfigurado.aplicar(conn, true);
+            
+            // En bases nuevas, permitir liberar páginas con incremental_vacuum
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            }
+            
             // Configurar SQLite para mejor rendimiento y consistencia
             try (Statement stmt = conn.createStatement()) {
                 stmt.execute("PRAGMA foreign_keys = ON");          // Activar claves foráneas
                 stmt.execute("PRAGMA journal_mode = WAL");         // Write-Ahead Logging
-                stmt.execute("PRAGMA synchronous = NORMAL");       // Sincronización normal
-                stmt.execute("PRAGMA temp_store = MEMORY");        // Tablas temporales en memoria
+                stmt.execute("PRAGMA busy_timeout = " + PoliticaReintentos.getBusyTimeoutMs()); // Esperar si otra terminal escribe
             }
+            System.out.println("Perfil de BD: " + perfilConfigurado);
             
             // Crear tablas si es la primera conexión
             crearTablasSiNoExisten(conn);
             
+            conexionEscritura = conn;
+            inicializada = true;
+            
+            Runtime.getRuntime().addShutdownHook(new Thread(ConexionDB::cerrar, "cierre-db"));
+            
         } catch (ClassNotFoundException e) {
             throw new SQLException("Error: Driver SQLite no encontrado", e);
         } catch (SQLException e) {
@@ -104,52 +314,300 @@ public class ConexionDB {
             }
             throw new SQLException("Error al conectar con SQLite: " + e.getMessage(), e);
         }
+    }
+    
+    /**
+     * Abre una nueva conexión de solo lectura si el pool no está completo.
+     * El lugar se reserva con el lock tomado, pero la conexión se abre y se
+     * configura fuera de él, para no frenar a los demás préstamos.
+     */
+    private static Connection abrirLectorSiHayLugar() throws SQLException {
+        synchronized (ConexionDB.class) {
+            if (lectores.size() + lectoresAbriendose >= MAX_LECTORES) {
+                return null;
+            }
+            lectoresAbriendose++;
+        }
         
+        Connection conn = null;
+        try {
+            SQLiteConfig config = new SQLiteConfig();
+            config.setReadOnly(true);
+            config.setBusyTimeout(PoliticaReintentos.getBusyTimeoutMs());
+            
+            conn = DriverManager.getConnection(getUrl(), config.toProperties());
+            getPerfil().aplicar(conn, false);
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException closeEx) {
+                    e.addSuppressed(closeEx);
+                }
+                conn = null;
+            }
+            throw e;
+        } finally {
+            synchronized (ConexionDB.class) {
+                lectoresAbriendose--;
+                if (conn != null) {
+                    lectores.add(conn);
+                }
+            }
+        }
         return conn;
     }
     
+    /**
+     * Cierra las conexiones físicas (escritura y pool de lectura)
+     */
+    public static synchronized void cerrar() {
+        for (Connection conn : lectores) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar conexión de lectura: " + e.getMessage());
+            }
+        }
+        lectores.clear();
+        lectoresLibres.clear();
+        
+        if (conexionEscritura != null) {
+            try {
+                conexionEscritura.close();
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar conexión de escritura: " + e.getMessage());
+            }
+            conexionEscritura = null;
+        }
+        inicializada = false;
+    }
+    
+    /**
+     * Conexión de lectura prestada a un hilo y cuántos pedidos la comparten
+     */
+    private static final class LectorDelHilo {
+        private final Connection fisica;
+        private int prestamos = 0;
+        
+        LectorDelHilo(Connection fisica) {
+            this.fisica = fisica;
+        }
+    }
+    
+    /**
+     * Conexión entregada a un DAO: cerrarla la devuelve en lugar de cerrarla
+     */
+    private static class ConexionPrestada implements InvocationHandler {
+        
+        private final Connection fisica;
+        private final boolean escritura;
+        private final boolean registrarActividad;
+        private boolean devuelta = false;
+        
+        // Escritura: pedida por el hilo que ya tenía el turno, y si se sumó a su transacción
+        private boolean anidada = false;
+        private boolean unida = false;
+        
+        // Lectura: préstamo del hilo al que pertenece
+        private LectorDelHilo lector;
+        
+        ConexionPrestada(Connection fisica, boolean escritura, boolean registrarActividad) {
+            this.fisica = fisica;
+            this.escritura = escritura;
+            this.registrarActividad = registrarActividad;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    devolver();
+                    return null;
+                case "isClosed":
+                    return devuelta || fisica.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            
+            if (devuelta) {
+                throw new SQLException("La conexión ya fue devuelta");
+            }
+            
+            if (unida) {
+                // La transacción es de quien tiene el turno: solo él la termina
+                switch (method.getName()) {
+                    case "commit":
+                    case "setAutoCommit":
+                        return null;
+                    case "getAutoCommit":
+                        return false;
+                    case "rollback":
+                        if (args == null) {
+                            deshacerTurno = true;
+                            return null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (escritura && !anidada && deshacerTurno && terminaTransaccion(method, args)) {
+                deshacerTurno = false;
+                fisica.rollback();
+                if ("setAutoCommit".equals(method.getName())) {
+                    fisica.setAutoCommit(true);
+                }
+                throw new SQLException("Se deshizo la transacción: una operación anidada pidió revertirla");
+            } else if (escritura && !anidada && "rollback".equals(method.getName()) && args == null) {
+                deshacerTurno = false;
+            }
+            
+            try {
+                return method.invoke(fisica, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        
+        // commit(), o setAutoCommit(true) con una transacción abierta (que la confirmaría)
+        private boolean terminaTransaccion(Method method, Object[] args) throws SQLException {
+            if ("commit".equals(method.getName())) {
+                return true;
+            }
+            return "setAutoCommit".equals(method.getName()) && Boolean.TRUE.equals(args[0]) && !fisica.getAutoCommit();
+        }
+        
+        private void devolver() throws SQLException {
+            if (devuelta) {
+                return;
+            }
+            devuelta = true;
+            
+            if (unida) {
+                turnoEscritura.unlock();
+                return;
+            }
+            if (lector != null && --lector.prestamos > 0) {
+                return;
+            }
+            
+            try {
+                // Nunca devolver una conexión con una transacción a medias
+                if (!fisica.getAutoCommit()) {
+                    fisica.rollback();
+                    fisica.setAutoCommit(true);
+                }
+            } finally {
+                if (escritura) {
+                    if (!anidada) {
+                        deshacerTurno = false;
+                    }
+                    if (registrarActividad) {
+                        ultimaEscritura = System.nanoTime();
+                    }
+                    turnoEscritura.unlock();
+                } else {
+                    if (lectorDelHilo.get() == lector) {
+                        lectorDelHilo.remove();
+                    }
+                    lectoresLibres.offer(fisica);
+                }
+            }
+        }
+    }
+    
     /**
      * Crea el directorio para la base de datos si no existe
      */
     private static void crearDirectorioSiNoExiste() {
-        File directory = new File(DB_DIRECTORY);
+        String directorio = getDirectorioBaseDatos();
+        File directory = new File(directorio);
         if (!directory.exists()) {
             boolean created = directory.mkdirs();
             if (created) {
-                System.out.println("Directorio creado: " + DB_DIRECTORY);
+                System.out.println("Directorio creado: " + directorio);
             } else {
-                System.err.println("No se pudo crear el directorio: " + DB_DIRECTORY);
+                System.err.println("No se pudo crear el directorio: " + directorio);
             }
         }
         
         // Mostrar información sobre el archivo de base de datos
-        File dbFile = new File(DB_PATH);
+        String ruta = getRutaBaseDatos();
+        File dbFile = new File(ruta);
         if (dbFile.exists()) {
-            System.out.println("Archivo de BD encontrado: " + DB_PATH);
+            System.out.println("Archivo de BD encontrado: " + ruta);
         } else {
-            System.out.println("Se creará nuevo archivo de BD: " + DB_PATH);
+            System.out.println("Se creará nuevo archivo de BD: " + ruta);
         }
     }
     
     /**
      * Obtiene la ruta completa del archivo de base de datos
+     * 
+     * @throws IllegalStateException si la configuración de la BD es inválida
      */
     public static String getRutaBaseDatos() {
-        return DB_PATH;
+        return new File(getPerfil().getRutaBaseDatos()).getAbsolutePath();
+    }
+    
+    /**
+     * URL de conexión a SQLite
+     */
+    private static String getUrl() {
+        return "jdbc:sqlite:" + getRutaBaseDatos();
+    }
+    
+    /**
+     * Milisegundos transcurridos desde que terminó la última escritura
+     */
+    public static long getMilisDesdeUltimaEscritura() {
+        return (System.nanoTime() - ultimaEscritura) / 1_000_000L;
+    }
+    
+    /**
+     * Indica si algún hilo tiene tomado el turno de escritura en este momento
+     */
+    public static boolean hayEscrituraEnCurso() {
+        return turnoEscritura.isLocked();
+    }
+    
+    /**
+     * Obtiene el perfil de ajuste aplicado a las conexiones. Se lee de la
+     * configuración la primera vez; si es inválida se informa qué valor
+     * revisar y se vuelve a leer en el próximo intento.
+     * 
+     * @throws IllegalStateException si la configuración de la BD es inválida
+     */
+    public static synchronized PerfilSQLite getPerfil() {
+        if (perfil == null) {
+            try {
+                perfil = PerfilSQLite.cargar();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Configuración de base de datos inválida: " + e.getMessage()
+                    + "\nRevise sistemaventas.properties o las propiedades -Dsistemaventas.db.*", e);
+            }
+        }
+        return perfil;
     }
     
     /**
      * Obtiene el directorio donde está la base de datos
+     * 
+     * @throws IllegalStateException si la configuración de la BD es inválida
      */
     public static String getDirectorioBaseDatos() {
-        return DB_DIRECTORY;
+        return new File(getRutaBaseDatos()).getParent();
     }
     
     /**
      * Verifica si el archivo de base de datos existe
      */
     public static boolean existeBaseDatos() {
-        File dbFile = new File(DB_PATH);
+        File dbFile = new File(getRutaBaseDatos());
         return dbFile.exists() && dbFile.length() > 0;
     }
     
@@ -164,8 +622,9 @@ public class ConexionDB {
                 CREATE TABLE IF NOT EXISTS productos (
                     id_producto INTEGER PRIMARY KEY AUTOINCREMENT,
                     nombre VARCHAR(100) NOT NULL UNIQUE,
-                    precio DECIMAL(10,2) NOT NULL CHECK(precio > 0),
-                    stock INTEGER NOT NULL DEFAULT 0 CHECK(stock >= 0)
+                    precio_centavos INTEGER NOT NULL CHECK(precio_centavos > 0),
+                    stock INTEGER NOT NULL DEFAULT 0 CHECK(stock >= 0),
+                    codigo VARCHAR(32)
                 )
             """;
             
@@ -184,25 +643,82 @@ public class ConexionDB {
             String sqlVentas = """
                 CREATE TABLE IF NOT EXISTS ventas (
                     id_venta INTEGER PRIMARY KEY AUTOINCREMENT,
-                    fecha DATE NOT NULL DEFAULT (DATE('now')),
+                    fecha INTEGER NOT NULL,
                     id_cliente INTEGER NOT NULL,
                     id_producto INTEGER NOT NULL,
                     cantidad INTEGER NOT NULL CHECK(cantidad > 0),
-                    precio_unitario DECIMAL(10,2) NOT NULL,
-                    total DECIMAL(10,2) NOT NULL,
+                    precio_unitario_centavos INTEGER NOT NULL,
+                    total_centavos INTEGER NOT NULL,
                     FOREIGN KEY (id_cliente) REFERENCES clientes(id_cliente),
                     FOREIGN KEY (id_producto) REFERENCES productos(id_producto)
                 )
             """;
             
+            // Tabla VENTAS_PARTICIONES (meses archivados fuera de la tabla viva)
+            String sqlParticiones = """
+                CREATE TABLE IF NOT EXISTS ventas_particiones (
+                    anio_mes TEXT PRIMARY KEY,
+                    archivo TEXT NOT NULL,
+                    desde INTEGER NOT NULL,
+                    hasta INTEGER NOT NULL,
+                    filas INTEGER NOT NULL,
+                    total_centavos INTEGER NOT NULL
+                )
+            """;
+            
+            // Tabla VENTAS_RESUMEN_MENSUAL (totales de los meses archivados)
+            String sqlResumenMensual = """
+                CREATE TABLE IF NOT EXISTS ventas_resumen_mensual (
+                    anio_mes TEXT NOT NULL,
+                    id_cliente INTEGER NOT NULL,
+                    id_producto INTEGER NOT NULL,
+                    ventas INTEGER NOT NULL,
+                    unidades INTEGER NOT NULL,
+                    total_centavos INTEGER NOT NULL,
+                    PRIMARY KEY (anio_mes, id_cliente, id_producto)
+                )
+            """;
+            
+            // Tabla AJUSTES_INVENTARIO (diferencias registradas al conciliar un conteo físico)
+            String sqlAjustesInventario = """
+                CREATE TABLE IF NOT EXISTS ajustes_inventario (
+                    id_ajuste INTEGER PRIMARY KEY AUTOINCREMENT,
+                    fecha INTEGER NOT NULL,
+                    id_producto INTEGER NOT NULL,
+                    stock_anterior INTEGER NOT NULL,
+                    stock_contado INTEGER NOT NULL CHECK(stock_contado >= 0),
+                    precio_unitario_centavos INTEGER NOT NULL,
+                    origen TEXT,
+                    FOREIGN KEY (id_producto) REFERENCES productos(id_producto) ON DELETE RESTRICT
+                )
+            """;
+            
             // Ejecutar creación de tablas
             stmt.execute(sqlProductos);
             stmt.execute(sqlClientes);
             stmt.execute(sqlVentas);
+            stmt.execute(sqlParticiones);
+            stmt.execute(sqlResumenMensual);
+            stmt.execute(sqlAjustesInventario);
             
             // Migrar estructura de base de datos existente si es necesario
             migrarBaseDatosSiEsNecesario(conn);
             
+            // Índices de las búsquedas por prefijo: LIKE 'texto%' solo usa un índice NOCASE
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_clientes_nombre ON clientes(nombre COLLATE NOCASE)");
+            crearIndiceNombreProductoUnico(stmt);
+            
+            // Código único; los productos sin código (NULL) no chocan entre sí
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_productos_codigo ON productos(codigo)");
+            
+            // Historial de ajustes de un producto (y la verificación al borrar el producto)
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ajustes_inventario_producto ON ajustes_inventario(id_producto)");
+            
+            // Rangos de fechas (búsquedas, reportes, archivo): recorrido por índice
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ventas_fecha ON ventas(fecha)");
+            migrarFechasAEpochDias(conn);
+            migrarParticionesArchivadas(conn);
+            
             // Insertar datos de prueba solo si las tablas están vacías
             insertarDatosPruebaSiEsNecesario(conn);
             
@@ -211,6 +727,23 @@ public class ConexionDB {
         }
     }
     
+    /**
+     * El nombre de producto es único sin distinguir mayúsculas: lo garantiza
+     * un índice UNIQUE NOCASE (el UNIQUE de la columna compara exacto), que
+     * además sirve a las búsquedas por prefijo. Si la base ya tiene nombres
+     * que solo difieren en mayúsculas, se deja un índice común y se avisa.
+     */
+    private static void crearIndiceNombreProductoUnico(Statement stmt) throws SQLException {
+        try {
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_productos_nombre_unico ON productos(nombre COLLATE NOCASE)");
+            stmt.execute("DROP INDEX IF EXISTS idx_productos_nombre");
+        } catch (SQLException e) {
+            System.err.println("Hay productos con nombres repetidos (mayúsculas/minúsculas), "
+                + "no se pudo crear el índice único: " + e.getMessage());
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_productos_nombre ON productos(nombre COLLATE NOCASE)");
+        }
+    }
+    
     /**
      * Migra la estructura de la base de datos si es necesario
      */
@@ -240,6 +773,16 @@ public class ConexionDB {
                 }
             }
             
+            // Código de producto (SKU / EAN) para el lector de códigos de barras
+            try {
+                stmt.executeQuery("SELECT codigo FROM productos LIMIT 1").close();
+            } catch (SQLException e) {
+                if (e.getMessage().contains("no such column: codigo")) {
+                    System.out.println("Migrando tabla productos: agregando columna codigo...");
+                    stmt.execute("ALTER TABLE productos ADD COLUMN codigo VARCHAR(32)");
+                }
+            }
+            
             // Verificar si los campos telefono y email son NOT NULL
             // Esto se maneja en la migración completa de la tabla
             
@@ -247,6 +790,124 @@ public class ConexionDB {
             System.out.println("Advertencia: Error durante la migración: " + e.getMessage());
             // No lanzar la excepción para no interrumpir el funcionamiento
         }
+        
+        // Los importes pasaron de DECIMAL (REAL en SQLite) a centavos enteros.
+        // Un cambio de formato a medias deja tablas que ningún DAO puede leer:
+        // si falla, la aplicación no arranca
+        migrarColumnaACentavos(conn, "productos", "precio");
+        migrarColumnaACentavos(conn, "ventas", "precio_unitario");
+        migrarColumnaACentavos(conn, "ventas", "total");
+        migrarColumnaACentavos(conn, "ventas_particiones", "total");
+        migrarColumnaACentavos(conn, "ventas_resumen_mensual", "total");
+    }
+    
+    /**
+     * Renombra una columna de importes a <code>columna_centavos</code> y
+     * convierte sus valores, en una sola transacción para que un corte no
+     * deje la columna renombrada sin convertir. No hace nada si la tabla ya
+     * tiene la columna en centavos.
+     */
+    private static void migrarColumnaACentavos(Connection conn, String tabla, String columna) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try {
+                stmt.executeQuery("SELECT " + columna + " FROM " + tabla + " LIMIT 1").close();
+            } catch (SQLException e) {
+                return; // La columna ya está en centavos
+            }
+            
+            System.out.println("Migrando tabla " + tabla + ": " + columna + " a centavos...");
+            String columnaCentavos = columna + "_centavos";
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("ALTER TABLE " + tabla + " RENAME COLUMN " + columna + " TO " + columnaCentavos);
+                stmt.execute("UPDATE " + tabla + " SET " + columnaCentavos
+                    + " = CAST(ROUND(" + columnaCentavos + " * 100) AS INTEGER)");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    /**
+     * Las fechas de venta se guardan como días desde 1970-01-01
+     * (<code>LocalDate.toEpochDay()</code>). Antes se guardaban como
+     * milisegundos de la medianoche local (<code>setDate</code>) o como texto
+     * 'AAAA-MM-DD' (el DEFAULT de la columna): se convierten las filas de la
+     * tabla viva y del registro de particiones (las particiones archivadas,
+     * en {@link #migrarParticionesArchivadas(Connection)}).
+     * <p>
+     * Un día cabe de sobra debajo de {@value #MAXIMO_EPOCH_DIA} y en SQLite
+     * todo texto es mayor que cualquier número, así que la condición usa el
+     * índice de fecha y al arrancar con datos ya convertidos no recorre nada.
+     * </p>
+     */
+    private static void migrarFechasAEpochDias(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            int ventas = stmt.executeUpdate("UPDATE ventas SET fecha = " + aEpochDia("fecha")
+                + " WHERE fecha > " + MAXIMO_EPOCH_DIA);
+            int particiones = stmt.executeUpdate("UPDATE ventas_particiones SET desde = " + aEpochDia("desde")
+                + ", hasta = " + aEpochDia("hasta") + " WHERE hasta > " + MAXIMO_EPOCH_DIA);
+            if (ventas > 0 || particiones > 0) {
+                System.out.println("Migración: fechas de " + ventas + " venta(s) y "
+                    + particiones + " partición(es) pasadas a días");
+            }
+        } catch (SQLException e) {
+            throw new SQLException("No se pudieron migrar las fechas de ventas: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Aplica a cada partición archivada los mismos cambios de formato que a
+     * la tabla viva: fechas en días e importes en centavos
+     */
+    private static void migrarParticionesArchivadas(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            List<String> archivos = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT archivo FROM ventas_particiones")) {
+                while (rs.next()) {
+                    archivos.add(rs.getString("archivo"));
+                }
+            }
+            for (String nombre : archivos) {
+                File archivo = new File(new File(getDirectorioBaseDatos(), "archivo"), nombre);
+                if (archivo.isFile()) {
+                    migrarParticion(conn, archivo);
+                }
+            }
+        } catch (SQLException e) {
+            throw new SQLException("No se pudieron migrar las particiones archivadas: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void migrarParticion(Connection conn, File archivo) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("ATTACH DATABASE ? AS migracion")) {
+            pstmt.setString(1, archivo.getPath());
+            pstmt.execute();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX IF NOT EXISTS migracion.idx_ventas_fecha ON ventas(fecha)");
+            int filas = stmt.executeUpdate("UPDATE migracion.ventas SET fecha = " + aEpochDia("fecha")
+                + " WHERE fecha > " + MAXIMO_EPOCH_DIA);
+            if (filas > 0) {
+                System.out.println("Migración: " + archivo.getName() + ", " + filas + " fecha(s) pasadas a días");
+            }
+            migrarColumnaACentavos(conn, "migracion.ventas", "precio_unitario");
+            migrarColumnaACentavos(conn, "migracion.ventas", "total");
+        } finally {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DETACH DATABASE migracion");
+            }
+        }
+    }
+    
+    // Milisegundos de medianoche local o texto 'AAAA-MM-DD' a días desde 1970-01-01
+    private static String aEpochDia(String columna) {
+        return "CAST(julianday(CASE WHEN typeof(" + columna + ") = 'text' THEN date(" + columna + ") "
+            + "ELSE date(" + columna + " / 1000, 'unixepoch', 'localtime') END) - 2440587.5 AS INTEGER)";
     }
     
     /**
@@ -308,12 +969,12 @@ public class ConexionDB {
                 
                 // Insertar productos de prueba
                 String insertProductos = """
-                    INSERT INTO productos (nombre, precio, stock) VALUES 
-                    ('Inodoro Ferrum Andina', 25750.50, 8),
-                    ('Lavatorio Ferrum Bari', 18900.00, 12),
-                    ('Grifería FV Arizona', 8450.25, 25),
-                    ('Ducha Hansgrohe Basic', 12300.75, 15),
-                    ('Bidet Roca Meridian', 22450.00, 6);
+                    INSERT INTO productos (nombre, precio_centavos, stock) VALUES 
+                    ('Inodoro Ferrum Andina', 2575050, 8),
+                    ('Lavatorio Ferrum Bari', 1890000, 12),
+                    ('Grifería FV Arizona', 845025, 25),
+                    ('Ducha Hansgrohe Basic', 1230075, 15),
+                    ('Bidet Roca Meridian', 2245000, 6);
                 """;
                 
                 // Insertar clientes de prueba
@@ -326,9 +987,6 @@ public class ConexionDB {
                 
                 stmt.execute(insertProductos);
                 stmt.execute(insertClientes);
-                
-                // Confirmar explícitamente
-                conn.commit();
             }
             
         } catch (SQLException e) {
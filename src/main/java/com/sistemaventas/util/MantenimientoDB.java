@@ -0,0 +1,338 @@
+package com.sistemaventas.util;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Planificador de mantenimiento de la base de datos SQLite.
+ * <p>
+ * En modo WAL las escrituras se acumulan en el archivo <code>-wal</code>
+ * hasta que un checkpoint las pasa a la base. Sin gestión, en los días de
+ * mucho movimiento ese archivo crece sin límite y las lecturas se vuelven
+ * más lentas. Este planificador corre en un hilo de fondo y, en cada ciclo:
+ * </p>
+ * <ul>
+ *   <li>Hace un checkpoint PASSIVE si el WAL supera un umbral (no bloquea a nadie)</li>
+ *   <li>Hace un checkpoint TRUNCATE si el WAL es muy grande y no hay escrituras recientes</li>
+ *   <li>Con la base inactiva, actualiza estadísticas (<code>PRAGMA optimize</code> y
+ *       <code>ANALYZE</code> periódico) y libera páginas con <code>incremental_vacuum</code></li>
+ *   <li>Con la base inactiva, ejecuta las tareas registradas con
+ *       {@link #registrarTareaInactiva(String, PoliticaReintentos.OperacionSQL, long)}</li>
+ * </ul>
+ *
+ * <p><strong>Configuración (propiedades del sistema):</strong></p>
+ * <ul>
+ *   <li><code>sistemaventas.mantenimiento.intervaloSeg</code> - período del ciclo (por defecto 30)</li>
+ *   <li><code>sistemaventas.mantenimiento.inactividadSeg</code> - segundos sin escrituras para considerar la base inactiva (por defecto 60)</li>
+ *   <li><code>sistemaventas.mantenimiento.walPasivoKb</code> - tamaño del WAL para un checkpoint PASSIVE (por defecto 4096)</li>
+ *   <li><code>sistemaventas.mantenimiento.walTruncateKb</code> - tamaño del WAL para un checkpoint TRUNCATE (por defecto 65536)</li>
+ *   <li><code>sistemaventas.mantenimiento.optimizarMin</code> - minutos entre <code>PRAGMA optimize</code> (por defecto 60)</li>
+ *   <li><code>sistemaventas.mantenimiento.analyzeHoras</code> - horas entre <code>ANALYZE</code> completos (por defecto 24)</li>
+ *   <li><code>sistemaventas.mantenimiento.vacuumPaginas</code> - páginas libres para ejecutar incremental_vacuum (por defecto 1000)</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.util.ConexionDB
+ */
+public class MantenimientoDB {
+
+    private static final String PREFIJO = "sistemaventas.mantenimiento.";
+
+    // Páginas liberadas por cada llamada a incremental_vacuum
+    private static final int PAGINAS_POR_VACUUM = 500;
+
+    private static MantenimientoDB instancia;
+
+    private final long intervaloSeg = Long.getLong(PREFIJO + "intervaloSeg", 30L);
+    private final long inactividadMs = TimeUnit.SECONDS.toMillis(Long.getLong(PREFIJO + "inactividadSeg", 60L));
+    private final long walPasivoBytes = Long.getLong(PREFIJO + "walPasivoKb", 4096L) * 1024L;
+    private final long walTruncateBytes = Long.getLong(PREFIJO + "walTruncateKb", 65536L) * 1024L;
+    private final long optimizarMs = TimeUnit.MINUTES.toMillis(Long.getLong(PREFIJO + "optimizarMin", 60L));
+    private final long analyzeMs = TimeUnit.HOURS.toMillis(Long.getLong(PREFIJO + "analyzeHoras", 24L));
+    private final long vacuumPaginas = Long.getLong(PREFIJO + "vacuumPaginas", 1000L);
+
+    private ScheduledExecutorService planificador;
+
+    // Tareas de otros módulos que solo se ejecutan con la base inactiva
+    private final List<TareaInactiva> tareas = new CopyOnWriteArrayList<>();
+
+    // Momentos (System.currentTimeMillis) de las últimas tareas de estadísticas
+    private long ultimoOptimize = 0;
+    private long ultimoAnalyze = 0;
+    private boolean avisoSinAutoVacuum = false;
+
+    // Métricas
+    private volatile long tamanioWal;
+    private volatile long tamanioWalMaximo;
+    private final AtomicLong checkpointsPasivos = new AtomicLong();
+    private final AtomicLong checkpointsTruncate = new AtomicLong();
+    private volatile long ultimaDuracionCheckpointMs;
+    private volatile long maximaDuracionCheckpointMs;
+    private final AtomicLong totalDuracionCheckpointMs = new AtomicLong();
+    private final AtomicLong paginasLiberadas = new AtomicLong();
+    private final AtomicLong optimizaciones = new AtomicLong();
+
+    private MantenimientoDB() {
+    }
+
+    /**
+     * Obtiene el planificador compartido
+     */
+    public static synchronized MantenimientoDB getInstancia() {
+        if (instancia == null) {
+            instancia = new MantenimientoDB();
+        }
+        return instancia;
+    }
+
+    /**
+     * Inicia el ciclo periódico en un hilo de fondo (si no estaba iniciado)
+     */
+    public synchronized void iniciar() {
+        if (planificador != null) {
+            return;
+        }
+
+        planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "mantenimiento-db");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+        long periodo = Math.max(1L, intervaloSeg);
+        planificador.scheduleWithFixedDelay(this::ejecutarCiclo, periodo, periodo, TimeUnit.SECONDS);
+        System.out.println("Mantenimiento de BD iniciado (cada " + periodo + " s)");
+    }
+
+    /**
+     * Registra una tarea pesada que se ejecuta, como mucho una vez por
+     * período, en un ciclo en que la base esté inactiva
+     *
+     * @param nombre nombre para los mensajes de consola
+     * @param tarea operación a ejecutar
+     * @param periodoMs tiempo mínimo entre ejecuciones
+     */
+    public void registrarTareaInactiva(String nombre, PoliticaReintentos.OperacionSQL<?> tarea, long periodoMs) {
+        tareas.add(new TareaInactiva(nombre, tarea, periodoMs));
+    }
+
+    /**
+     * Detiene el ciclo periódico
+     */
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    /**
+     * Ejecuta un ciclo de mantenimiento. Los errores se informan por consola
+     * y no interrumpen los ciclos siguientes.
+     */
+    public void ejecutarCiclo() {
+        try {
+            long wal = medirWal();
+            boolean inactiva = !ConexionDB.hayEscrituraEnCurso()
+                && ConexionDB.getMilisDesdeUltimaEscritura() >= inactividadMs;
+
+            if (wal >= walTruncateBytes && inactiva) {
+                checkpoint("TRUNCATE");
+            } else if (wal >= walPasivoBytes) {
+                checkpoint("PASSIVE");
+            }
+
+            if (inactiva) {
+                actualizarEstadisticas();
+                liberarPaginas();
+                ejecutarTareas();
+            }
+        } catch (SQLException e) {
+            if (PoliticaReintentos.esContencion(e)) {
+                // La base está ocupada: se reintenta en el próximo ciclo
+                return;
+            }
+            System.err.println("Error en el mantenimiento de BD: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error inesperado en el mantenimiento de BD: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta un checkpoint del WAL y registra su duración
+     *
+     * @param modo PASSIVE, FULL, RESTART o TRUNCATE
+     * @return páginas del WAL pasadas a la base
+     * @throws SQLException si falla el checkpoint
+     */
+    public int checkpoint(String modo) throws SQLException {
+        long inicio = System.nanoTime();
+        int copiadas = 0;
+
+        try (Connection conn = ConexionDB.getConexionMantenimiento();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + modo + ")")) {
+            if (rs.next()) {
+                // Columnas: bloqueado, páginas en el WAL, páginas copiadas
+                copiadas = rs.getInt(3);
+            }
+        }
+
+        long duracion = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        ultimaDuracionCheckpointMs = duracion;
+        maximaDuracionCheckpointMs = Math.max(maximaDuracionCheckpointMs, duracion);
+        totalDuracionCheckpointMs.addAndGet(duracion);
+        if ("TRUNCATE".equals(modo)) {
+            checkpointsTruncate.incrementAndGet();
+        } else {
+            checkpointsPasivos.incrementAndGet();
+        }
+        medirWal();
+        return copiadas;
+    }
+
+    private void actualizarEstadisticas() throws SQLException {
+        long ahora = System.currentTimeMillis();
+        boolean tocaAnalyze = ahora - ultimoAnalyze >= analyzeMs;
+        boolean tocaOptimize = ahora - ultimoOptimize >= optimizarMs;
+        if (!tocaAnalyze && !tocaOptimize) {
+            return;
+        }
+
+        try (Connection conn = ConexionDB.getConexionMantenimiento();
+             Statement stmt = conn.createStatement()) {
+            if (tocaAnalyze) {
+                stmt.execute("ANALYZE");
+                ultimoAnalyze = ahora;
+            } else {
+                // Solo vuelve a analizar las tablas cuyas estadísticas quedaron viejas
+                stmt.execute("PRAGMA optimize");
+            }
+            ultimoOptimize = ahora;
+            optimizaciones.incrementAndGet();
+        }
+    }
+
+    private void liberarPaginas() throws SQLException {
+        try (Connection conn = ConexionDB.getConexionMantenimiento();
+             Statement stmt = conn.createStatement()) {
+
+            if (leerEntero(stmt, "PRAGMA auto_vacuum") != 2) {
+                // Bases creadas antes de habilitar auto_vacuum = INCREMENTAL
+                if (!avisoSinAutoVacuum) {
+                    System.out.println("La BD no usa auto_vacuum incremental: se omite incremental_vacuum");
+                    avisoSinAutoVacuum = true;
+                }
+                return;
+            }
+
+            long libres = leerEntero(stmt, "PRAGMA freelist_count");
+            if (libres >= vacuumPaginas) {
+                // Lotes chicos para no retener el turno de escritura mucho tiempo
+                stmt.execute("PRAGMA incremental_vacuum(" + PAGINAS_POR_VACUUM + ")");
+                paginasLiberadas.addAndGet(Math.min(libres, PAGINAS_POR_VACUUM));
+            }
+        }
+    }
+
+    private void ejecutarTareas() {
+        long ahora = System.currentTimeMillis();
+        for (TareaInactiva tarea : tareas) {
+            if (ahora - tarea.ultimaEjecucion < tarea.periodoMs) {
+                continue;
+            }
+            try {
+                tarea.operacion.ejecutar();
+                tarea.ultimaEjecucion = ahora;
+            } catch (SQLException e) {
+                // Se vuelve a intentar en el próximo ciclo inactivo
+                System.err.println("Error en la tarea de mantenimiento '" + tarea.nombre + "': " + e.getMessage());
+            }
+        }
+    }
+
+    private long medirWal() {
+        long bytes = new File(ConexionDB.getRutaBaseDatos() + "-wal").length();
+        tamanioWal = bytes;
+        tamanioWalMaximo = Math.max(tamanioWalMaximo, bytes);
+        return bytes;
+    }
+
+    private static long leerEntero(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Tamaño del archivo WAL en la última medición, en bytes
+     */
+    public long getTamanioWal() {
+        return tamanioWal;
+    }
+
+    public long getTamanioWalMaximo() {
+        return tamanioWalMaximo;
+    }
+
+    public long getCheckpointsPasivos() {
+        return checkpointsPasivos.get();
+    }
+
+    public long getCheckpointsTruncate() {
+        return checkpointsTruncate.get();
+    }
+
+    public long getUltimaDuracionCheckpointMs() {
+        return ultimaDuracionCheckpointMs;
+    }
+
+    public long getMaximaDuracionCheckpointMs() {
+        return maximaDuracionCheckpointMs;
+    }
+
+    public long getPaginasLiberadas() {
+        return paginasLiberadas.get();
+    }
+
+    public long getOptimizaciones() {
+        return optimizaciones.get();
+    }
+
+    /**
+     * Resumen de las métricas para mostrar en logs
+     */
+    public String getResumen() {
+        long checkpoints = getCheckpointsPasivos() + getCheckpointsTruncate();
+        long promedio = checkpoints > 0 ? totalDuracionCheckpointMs.get() / checkpoints : 0;
+        return String.format("WAL: %d KB (máx %d KB), checkpoints: %d pasivos / %d truncate, "
+                           + "duración última/promedio/máx: %d/%d/%d ms, optimizaciones: %d, páginas liberadas: %d",
+                             getTamanioWal() / 1024, getTamanioWalMaximo() / 1024,
+                             getCheckpointsPasivos(), getCheckpointsTruncate(),
+                             getUltimaDuracionCheckpointMs(), promedio, getMaximaDuracionCheckpointMs(),
+                             getOptimizaciones(), getPaginasLiberadas());
+    }
+
+    private static class TareaInactiva {
+        private final String nombre;
+        private final PoliticaReintentos.OperacionSQL<?> operacion;
+        private final long periodoMs;
+        private volatile long ultimaEjecucion = 0;
+
+        TareaInactiva(String nombre, PoliticaReintentos.OperacionSQL<?> operacion, long periodoMs) {
+            this.nombre = nombre;
+            this.operacion = operacion;
+            this.periodoMs = periodoMs;
+        }
+    }
+}
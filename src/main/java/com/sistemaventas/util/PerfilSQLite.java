@@ -0,0 +1,282 @@
+package com.sistemaventas.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Perfil de ajuste de SQLite (PRAGMAs de rendimiento y ubicación de la BD).
+ * <p>
+ * Reemplaza los valores fijos que tenía {@link ConexionDB}. El perfil se arma
+ * en capas, donde cada una pisa a la anterior:
+ * </p>
+ * <ol>
+ *   <li>El preset elegido con <code>sistemaventas.db.perfil</code> (por defecto <code>POS_UNICO</code>)</li>
+ *   <li>El archivo de propiedades: <code>sistemaventas.config</code> si se indica, si no
+ *       <code>~/SistemaVentas/sistemaventas.properties</code>, si no el recurso
+ *       <code>/sistemaventas.properties</code> del classpath</li>
+ *   <li>Las propiedades del sistema (<code>-Dsistemaventas.db.cacheSize=...</code>)</li>
+ * </ol>
+ *
+ * <p><strong>Claves reconocidas:</strong></p>
+ * <ul>
+ *   <li><code>sistemaventas.db.ruta</code> - archivo de la base de datos</li>
+ *   <li><code>sistemaventas.db.mmapSize</code> - bytes mapeados en memoria (<code>mmap_size</code>)</li>
+ *   <li><code>sistemaventas.db.cacheSize</code> - <code>cache_size</code> (negativo = KiB, positivo = páginas)</li>
+ *   <li><code>sistemaventas.db.pageSize</code> - <code>page_size</code> (solo tiene efecto al crear la BD)</li>
+ *   <li><code>sistemaventas.db.walAutocheckpoint</code> - páginas de WAL antes de un checkpoint automático</li>
+ *   <li><code>sistemaventas.db.synchronous</code> - OFF, NORMAL, FULL o EXTRA</li>
+ *   <li><code>sistemaventas.db.tempStore</code> - DEFAULT, FILE o MEMORY</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.util.ConexionDB
+ */
+public class PerfilSQLite {
+
+    private static final String PREFIJO = "sistemaventas.db.";
+
+    /**
+     * Presets documentados para los usos habituales del sistema
+     */
+    public enum Preset {
+
+        /**
+         * Una caja registrando ventas: transacciones cortas, poca memoria
+         * y durabilidad razonable (WAL + synchronous NORMAL).
+         */
+        POS_UNICO(64L * 1024 * 1024, -8_000, 4096, 1000, "NORMAL", "MEMORY"),
+
+        /**
+         * Back office con reportes sobre muchos datos: caché y mmap grandes,
+         * páginas de 8 KiB y checkpoints menos frecuentes para no frenar lecturas.
+         */
+        ANALITICA(1024L * 1024 * 1024, -262_144, 8192, 4000, "NORMAL", "MEMORY"),
+
+        /**
+         * Carga masiva puntual (importaciones, migraciones): sin sync al disco
+         * y checkpoints espaciados. Ante un corte de luz pueden perderse las
+         * últimas transacciones, por eso no debe usarse para operar la caja.
+         */
+        IMPORTACION_MASIVA(256L * 1024 * 1024, -131_072, 4096, 10_000, "OFF", "MEMORY");
+
+        private final long mmapSize;
+        private final int cacheSize;
+        private final int pageSize;
+        private final int walAutocheckpoint;
+        private final String synchronous;
+        private final String tempStore;
+
+        Preset(long mmapSize, int cacheSize, int pageSize, int walAutocheckpoint,
+               String synchronous, String tempStore) {
+            this.mmapSize = mmapSize;
+            this.cacheSize = cacheSize;
+            this.pageSize = pageSize;
+            this.walAutocheckpoint = walAutocheckpoint;
+            this.synchronous = synchronous;
+            this.tempStore = tempStore;
+        }
+    }
+
+    private String rutaBaseDatos;
+    private long mmapSize;
+    private int cacheSize;
+    private int pageSize;
+    private int walAutocheckpoint;
+    private String synchronous;
+    private String tempStore;
+    private String nombre;
+
+    private PerfilSQLite() {
+    }
+
+    /**
+     * Crea un perfil con los valores exactos de un preset
+     *
+     * @param preset preset base
+     * @param rutaBaseDatos archivo de la base de datos
+     * @return perfil nuevo
+     */
+    public static PerfilSQLite desdePreset(Preset preset, String rutaBaseDatos) {
+        PerfilSQLite perfil = new PerfilSQLite();
+        perfil.nombre = preset.name();
+        perfil.rutaBaseDatos = rutaBaseDatos;
+        perfil.mmapSize = preset.mmapSize;
+        perfil.cacheSize = preset.cacheSize;
+        perfil.pageSize = preset.pageSize;
+        perfil.walAutocheckpoint = preset.walAutocheckpoint;
+        perfil.synchronous = preset.synchronous;
+        perfil.tempStore = preset.tempStore;
+        return perfil;
+    }
+
+    /**
+     * Carga el perfil combinando preset, archivo de propiedades y propiedades del sistema
+     *
+     * @return perfil configurado
+     * @throws IllegalArgumentException si algún valor configurado es inválido
+     */
+    public static PerfilSQLite cargar() {
+        String directorioPorDefecto = System.getProperty("user.home") + File.separator + "SistemaVentas";
+
+        Properties config = new Properties();
+        leerArchivo(config, directorioPorDefecto);
+        config.putAll(System.getProperties());
+
+        String nombrePreset = config.getProperty(PREFIJO + "perfil", Preset.POS_UNICO.name());
+        Preset preset;
+        try {
+            preset = Preset.valueOf(nombrePreset.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Perfil de SQLite desconocido: " + nombrePreset, e);
+        }
+
+        String ruta = config.getProperty(PREFIJO + "ruta",
+                                         directorioPorDefecto + File.separator + "sistemaventas.db");
+
+        PerfilSQLite perfil = desdePreset(preset, ruta);
+        perfil.mmapSize = leerLong(config, "mmapSize", perfil.mmapSize);
+        perfil.cacheSize = leerInt(config, "cacheSize", perfil.cacheSize);
+        perfil.pageSize = leerInt(config, "pageSize", perfil.pageSize);
+        perfil.walAutocheckpoint = leerInt(config, "walAutocheckpoint", perfil.walAutocheckpoint);
+        perfil.synchronous = leerOpcion(config, "synchronous", perfil.synchronous, "OFF", "NORMAL", "FULL", "EXTRA");
+        perfil.tempStore = leerOpcion(config, "tempStore", perfil.tempStore, "DEFAULT", "FILE", "MEMORY");
+
+        if (Integer.bitCount(perfil.pageSize) != 1 || perfil.pageSize < 512 || perfil.pageSize > 65536) {
+            throw new IllegalArgumentException("page_size debe ser potencia de 2 entre 512 y 65536: " + perfil.pageSize);
+        }
+
+        return perfil;
+    }
+
+    /**
+     * Aplica los PRAGMAs del perfil a una conexión.
+     * <p>
+     * <code>page_size</code> solo se aplica a la conexión de escritura y
+     * únicamente tiene efecto si la base todavía está vacía; para cambiarlo
+     * en una base existente hace falta un VACUUM fuera del modo WAL.
+     * </p>
+     *
+     * @param conn conexión recién abierta
+     * @param escritura true si es la conexión de escritura
+     * @throws SQLException si SQLite rechaza algún PRAGMA
+     */
+    public void aplicar(Connection conn, boolean escritura) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (escritura) {
+                stmt.execute("PRAGMA page_size = " + pageSize);
+                stmt.execute("PRAGMA synchronous = " + synchronous);
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutocheckpoint);
+            }
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getRutaBaseDatos() {
+        return rutaBaseDatos;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getWalAutocheckpoint() {
+        return walAutocheckpoint;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PerfilSQLite{%s, mmap=%d, cache=%d, page=%d, autocheckpoint=%d, synchronous=%s, temp=%s}",
+                             nombre, mmapSize, cacheSize, pageSize, walAutocheckpoint, synchronous, tempStore);
+    }
+
+    private static void leerArchivo(Properties config, String directorioPorDefecto) {
+        String rutaConfig = System.getProperty("sistemaventas.config");
+        File archivo = new File(rutaConfig != null ? rutaConfig
+                                                   : directorioPorDefecto + File.separator + "sistemaventas.properties");
+
+        try {
+            if (archivo.isFile()) {
+                try (InputStream in = new FileInputStream(archivo)) {
+                    config.load(in);
+                }
+                System.out.println("Configuración de BD leída de: " + archivo.getPath());
+                return;
+            }
+            if (rutaConfig != null) {
+                System.err.println("No existe el archivo de configuración: " + rutaConfig);
+            }
+
+            try (InputStream in = PerfilSQLite.class.getResourceAsStream("/sistemaventas.properties")) {
+                if (in != null) {
+                    config.load(in);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo leer la configuración de BD: " + e.getMessage());
+        }
+    }
+
+    private static long leerLong(Properties config, String clave, long valorPorDefecto) {
+        String valor = config.getProperty(PREFIJO + clave);
+        if (valor == null || valor.trim().isEmpty()) {
+            return valorPorDefecto;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido para " + PREFIJO + clave + ": " + valor, e);
+        }
+    }
+
+    private static int leerInt(Properties config, String clave, int valorPorDefecto) {
+        long valor = leerLong(config, clave, valorPorDefecto);
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Valor fuera de rango para " + PREFIJO + clave + ": " + valor);
+        }
+        return (int) valor;
+    }
+
+    private static String leerOpcion(Properties config, String clave, String valorPorDefecto, String... opciones) {
+        String valor = config.getProperty(PREFIJO + clave);
+        if (valor == null || valor.trim().isEmpty()) {
+            return valorPorDefecto;
+        }
+        String normalizado = valor.trim().toUpperCase(Locale.ROOT);
+        for (String opcion : opciones) {
+            if (opcion.equals(normalizado)) {
+                return opcion;
+            }
+        }
+        throw new IllegalArgumentException("Valor inválido para " + PREFIJO + clave + ": " + valor);
+    }
+}
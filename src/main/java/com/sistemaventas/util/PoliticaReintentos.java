@@ -0,0 +1,168 @@
+package com.sistemaventas.util;
+
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Política de manejo de contención para SQLite (SQLITE_BUSY / SQLITE_LOCKED).
+ * <p>
+ * Cuando otra terminal tiene tomada la base de datos, SQLite primero espera
+ * hasta <code>busy_timeout</code> milisegundos. Si aun así la operación
+ * falla por contención, esta clase reintenta la transacción completa una
+ * cantidad acotada de veces, esperando entre intentos un tiempo aleatorio
+ * con crecimiento exponencial (backoff con jitter) para que las terminales
+ * no vuelvan a chocar al mismo tiempo.
+ * </p>
+ *
+ * <p><strong>Configuración (propiedades del sistema):</strong></p>
+ * <ul>
+ *   <li><code>sistemaventas.db.busyTimeoutMs</code> - espera interna de SQLite (por defecto 5000)</li>
+ *   <li><code>sistemaventas.db.reintentos</code> - reintentos máximos por transacción (por defecto 5)</li>
+ *   <li><code>sistemaventas.db.backoffInicialMs</code> - espera base del primer reintento (por defecto 20)</li>
+ *   <li><code>sistemaventas.db.backoffMaximoMs</code> - tope de espera entre reintentos (por defecto 1000)</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.util.ConexionDB
+ */
+public final class PoliticaReintentos {
+
+    private static final int BUSY_TIMEOUT_MS = Integer.getInteger("sistemaventas.db.busyTimeoutMs", 5000);
+    private static final int MAX_REINTENTOS = Integer.getInteger("sistemaventas.db.reintentos", 5);
+    private static final long BACKOFF_INICIAL_MS = Long.getLong("sistemaventas.db.backoffInicialMs", 20L);
+    private static final long BACKOFF_MAXIMO_MS = Long.getLong("sistemaventas.db.backoffMaximoMs", 1000L);
+
+    // Contadores de contención
+    private static final AtomicLong reintentos = new AtomicLong();
+    private static final AtomicLong fallosPorContencion = new AtomicLong();
+    private static final AtomicLong esperasTurno = new AtomicLong();
+    private static final AtomicLong nanosEsperaTurno = new AtomicLong();
+
+    /**
+     * Operación de base de datos que puede reintentarse completa
+     */
+    @FunctionalInterface
+    public interface OperacionSQL<T> {
+        T ejecutar() throws SQLException;
+    }
+
+    private PoliticaReintentos() {
+    }
+
+    /**
+     * Ejecuta la operación reintentándola si falla por contención.
+     * <p>
+     * La operación debe ser una transacción completa que, al fallar, no deje
+     * cambios aplicados (por ejemplo, porque hace rollback), ya que se vuelve
+     * a ejecutar desde el principio.
+     * </p>
+     *
+     * @param operacion transacción a ejecutar
+     * @return el resultado de la operación
+     * @throws SQLException el último error si se agotaron los reintentos, o
+     *                      cualquier error que no sea de contención
+     */
+    public static <T> T ejecutar(OperacionSQL<T> operacion) throws SQLException {
+        int intento = 0;
+
+        while (true) {
+            try {
+                return operacion.ejecutar();
+            } catch (SQLException e) {
+                // Dentro de una unidad de trabajo se reintenta la unidad completa, no una parte
+                if (!esContencion(e) || UnidadDeTrabajo.enCurso()) {
+                    throw e;
+                }
+                if (intento >= MAX_REINTENTOS) {
+                    fallosPorContencion.incrementAndGet();
+                    throw e;
+                }
+
+                reintentos.incrementAndGet();
+                esperar(intento++);
+            }
+        }
+    }
+
+    /**
+     * Indica si el error se debe a que la base de datos estaba ocupada
+     *
+     * @param e error a analizar (se revisa toda la cadena de causas)
+     * @return true si es SQLITE_BUSY o SQLITE_LOCKED en cualquiera de sus variantes
+     */
+    public static boolean esContencion(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLiteException) {
+                SQLiteErrorCode codigo = ((SQLiteException) t).getResultCode();
+                if (codigo != null && (codigo.name().startsWith("SQLITE_BUSY")
+                        || codigo.name().startsWith("SQLITE_LOCKED"))) {
+                    return true;
+                }
+            }
+            String mensaje = t.getMessage();
+            if (mensaje != null && (mensaje.contains("database is locked")
+                    || mensaje.contains("SQLITE_BUSY"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registra el tiempo que un hilo esperó su turno de escritura
+     */
+    static void registrarEsperaTurno(long nanos) {
+        esperasTurno.incrementAndGet();
+        nanosEsperaTurno.addAndGet(nanos);
+    }
+
+    /**
+     * Valor configurado para <code>PRAGMA busy_timeout</code>
+     */
+    public static int getBusyTimeoutMs() {
+        return BUSY_TIMEOUT_MS;
+    }
+
+    public static long getReintentos() {
+        return reintentos.get();
+    }
+
+    public static long getFallosPorContencion() {
+        return fallosPorContencion.get();
+    }
+
+    public static long getEsperasTurno() {
+        return esperasTurno.get();
+    }
+
+    public static long getMilisEsperaTurno() {
+        return TimeUnit.NANOSECONDS.toMillis(nanosEsperaTurno.get());
+    }
+
+    /**
+     * Resumen de los contadores para mostrar en logs
+     */
+    public static String getResumen() {
+        return String.format("Reintentos: %d, fallos por contención: %d, esperas de turno: %d (%d ms)",
+                             getReintentos(), getFallosPorContencion(), getEsperasTurno(), getMilisEsperaTurno());
+    }
+
+    private static void esperar(int intento) throws SQLException {
+        // Backoff exponencial con jitter completo: aleatorio entre 0 y el tope del intento
+        long tope = Math.min(BACKOFF_MAXIMO_MS, BACKOFF_INICIAL_MS << Math.min(intento, 20));
+        long espera = ThreadLocalRandom.current().nextLong(tope + 1);
+
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Se interrumpió la espera entre reintentos", e);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.sistemaventas.util;
+
+import org.sqlite.SQLiteConnection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respaldo en caliente de la base de datos con la API de backup de SQLite.
+ * <p>
+ * Copiar el archivo <code>.db</code> mientras la aplicación está abierta no
+ * es seguro en modo WAL: parte de los datos todavía está en el archivo
+ * <code>-wal</code>. Este servicio copia las páginas de a pocas por vez
+ * desde una conexión de lectura que mantiene una transacción abierta, de
+ * modo que la copia corresponde a un único instante y las escrituras de
+ * las cajas nunca quedan bloqueadas. Entre paso y paso se hace una pausa
+ * para no competir por disco con la operación normal.
+ * </p>
+ * <p>
+ * La copia se escribe primero en un archivo temporal, se verifica con
+ * <code>PRAGMA quick_check</code> y recién entonces se renombra, así nunca
+ * queda un respaldo a medias con nombre válido.
+ * </p>
+ *
+ * <p><strong>Configuración (propiedades del sistema):</strong></p>
+ * <ul>
+ *   <li><code>sistemaventas.respaldo.directorio</code> - carpeta de respaldos (por defecto <code>respaldos</code> junto a la BD)</li>
+ *   <li><code>sistemaventas.respaldo.paginasPorPaso</code> - páginas copiadas por paso (por defecto 100)</li>
+ *   <li><code>sistemaventas.respaldo.pausaMs</code> - pausa entre pasos (por defecto 10)</li>
+ *   <li><code>sistemaventas.respaldo.intervaloHoras</code> - período del respaldo programado, 0 lo desactiva (por defecto 24)</li>
+ *   <li><code>sistemaventas.respaldo.conservar</code> - cantidad de respaldos que se conservan (por defecto 7)</li>
+ * </ul>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see com.sistemaventas.util.ConexionDB
+ */
+public class RespaldoDB {
+
+    private static final String PREFIJO = "sistemaventas.respaldo.";
+    private static final String PREFIJO_ARCHIVO = "sistemaventas_";
+
+    private static RespaldoDB instancia;
+
+    private final File directorio;
+    private final int paginasPorPaso = Math.max(1, Integer.getInteger(PREFIJO + "paginasPorPaso", 100));
+    private final long pausaMs = Math.max(0L, Long.getLong(PREFIJO + "pausaMs", 10L));
+    private final long intervaloHoras = Long.getLong(PREFIJO + "intervaloHoras", 24L);
+    private final int conservar = Math.max(1, Integer.getInteger(PREFIJO + "conservar", 7));
+
+    private ScheduledExecutorService planificador;
+    private volatile Resultado ultimoResultado;
+
+    /**
+     * Recibe el avance de un respaldo en curso
+     */
+    @FunctionalInterface
+    public interface ObservadorProgreso {
+        void progreso(int paginasCopiadas, int paginasTotales);
+    }
+
+    /**
+     * Datos de un respaldo terminado
+     */
+    public static class Resultado {
+        private final File archivo;
+        private final int paginas;
+        private final long bytes;
+        private final long duracionMs;
+
+        Resultado(File archivo, int paginas, long bytes, long duracionMs) {
+            this.archivo = archivo;
+            this.paginas = paginas;
+            this.bytes = bytes;
+            this.duracionMs = duracionMs;
+        }
+
+        public File getArchivo() {
+            return archivo;
+        }
+
+        public int getPaginas() {
+            return paginas;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Respaldo %s: %d páginas (%d KB) en %d ms",
+                                 archivo.getName(), paginas, bytes / 1024, duracionMs);
+        }
+    }
+
+    private RespaldoDB() {
+        String configurado = System.getProperty(PREFIJO + "directorio");
+        this.directorio = configurado != null
+            ? new File(configurado)
+            : new File(ConexionDB.getDirectorioBaseDatos(), "respaldos");
+    }
+
+    /**
+     * Obtiene el servicio de respaldo compartido
+     */
+    public static synchronized RespaldoDB getInstancia() {
+        if (instancia == null) {
+            instancia = new RespaldoDB();
+        }
+        return instancia;
+    }
+
+    /**
+     * Programa respaldos periódicos según <code>sistemaventas.respaldo.intervaloHoras</code>
+     */
+    public synchronized void programar() {
+        if (planificador != null || intervaloHoras <= 0) {
+            return;
+        }
+
+        planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "respaldo-db");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+        planificador.scheduleWithFixedDelay(() -> {
+            try {
+                System.out.println(respaldarAhora(null));
+            } catch (SQLException e) {
+                System.err.println("Error en el respaldo programado: " + e.getMessage());
+            }
+        }, intervaloHoras, intervaloHoras, TimeUnit.HOURS);
+        System.out.println("Respaldo de BD programado cada " + intervaloHoras + " h en: " + directorio.getPath());
+    }
+
+    /**
+     * Cancela los respaldos programados
+     */
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    /**
+     * Genera un respaldo con fecha y hora en el directorio configurado y
+     * elimina los más viejos que excedan la cantidad a conservar
+     *
+     * @param observador recibe el avance (puede ser null)
+     * @return datos del respaldo generado
+     * @throws SQLException si falla la copia o la verificación
+     */
+    public Resultado respaldarAhora(ObservadorProgreso observador) throws SQLException {
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new SQLException("No se pudo crear el directorio de respaldos: " + directorio.getPath());
+        }
+
+        String marca = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        Resultado resultado = respaldar(new File(directorio, PREFIJO_ARCHIVO + marca + ".db"), observador);
+        rotar();
+        return resultado;
+    }
+
+    /**
+     * Copia la base de datos a un archivo mientras la aplicación sigue operando
+     *
+     * @param destino archivo a generar (se reemplaza si existe)
+     * @param observador recibe el avance (puede ser null)
+     * @return datos del respaldo generado
+     * @throws SQLException si falla la copia o la verificación
+     */
+    public synchronized Resultado respaldar(File destino, ObservadorProgreso observador) throws SQLException {
+        long inicio = System.nanoTime();
+        File temporal = new File(destino.getPath() + ".tmp");
+        int[] paginas = {0};
+
+        try (Connection conn = ConexionDB.getConexionLectura()) {
+            // Transacción de lectura abierta: todos los pasos ven la misma versión
+            // y los cambios de otras conexiones no obligan a reiniciar la copia
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+                rs.next();
+            }
+
+            SQLiteConnection sqlite = conn.unwrap(SQLiteConnection.class);
+            int rc = sqlite.getDatabase().backup("main", temporal.getPath(), (restantes, total) -> {
+                paginas[0] = total;
+                if (observador != null) {
+                    observador.progreso(total - restantes, total);
+                }
+                pausar(restantes);
+            }, 100, 50, paginasPorPaso);
+
+            if (rc != 0 && rc != 101) {
+                throw new SQLException("El respaldo terminó con código de SQLite " + rc);
+            }
+        } catch (SQLException e) {
+            borrar(temporal);
+            throw new SQLException("Error al respaldar la base de datos: " + e.getMessage(), e);
+        }
+
+        verificar(temporal);
+
+        try {
+            Files.move(temporal.toPath(), destino.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            borrar(temporal);
+            throw new SQLException("No se pudo guardar el respaldo: " + e.getMessage(), e);
+        }
+
+        long duracion = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        ultimoResultado = new Resultado(destino, paginas[0], destino.length(), duracion);
+        return ultimoResultado;
+    }
+
+    /**
+     * Último respaldo generado en esta ejecución (null si todavía no hubo)
+     */
+    public Resultado getUltimoResultado() {
+        return ultimoResultado;
+    }
+
+    public File getDirectorio() {
+        return directorio;
+    }
+
+    private void pausar(int restantes) {
+        if (pausaMs == 0 || restantes == 0 || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            // Se termina la copia sin pausas y se conserva la interrupción
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void verificar(File archivo) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + archivo.getPath());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            String estado = rs.next() ? rs.getString(1) : "sin resultado";
+            if (!"ok".equalsIgnoreCase(estado)) {
+                throw new SQLException("El respaldo no pasó la verificación: " + estado);
+            }
+        } catch (SQLException e) {
+            borrar(archivo);
+            throw e;
+        }
+    }
+
+    private void rotar() {
+        File[] respaldos = directorio.listFiles(
+            (dir, nombre) -> nombre.startsWith(PREFIJO_ARCHIVO) && nombre.endsWith(".db"));
+        if (respaldos == null || respaldos.length <= conservar) {
+            return;
+        }
+
+        // El nombre lleva la fecha, así que el orden alfabético es cronológico
+        Arrays.sort(respaldos, Comparator.comparing(File::getName));
+        for (int i = 0; i < respaldos.length - conservar; i++) {
+            borrar(respaldos[i]);
+        }
+    }
+
+    private static void borrar(File archivo) {
+        try {
+            Files.deleteIfExists(archivo.toPath());
+        } catch (IOException e) {
+            System.err.println("No se pudo borrar " + archivo.getPath() + ": " + e.getMessage());
+        }
+    }
+}
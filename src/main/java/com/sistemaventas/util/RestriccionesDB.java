@@ -0,0 +1,59 @@
+package com.sistemaventas.util;
+
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.sql.SQLException;
+
+/**
+ * Interpreta los errores de restricciones de SQLite.
+ * <p>
+ * Los DAOs no consultan antes de escribir si un nombre, DNI o email ya
+ * existe: intentan la escritura y dejan que la restricción UNIQUE la
+ * rechace. Con esta clase los controladores reconocen ese rechazo y
+ * saben qué columna lo provocó, para lanzar la excepción de negocio que
+ * corresponda.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see PoliticaReintentos
+ */
+public final class RestriccionesDB {
+
+    private static final String PREFIJO_UNIQUE = "UNIQUE constraint failed: ";
+
+    private RestriccionesDB() {
+    }
+
+    /**
+     * Columna cuya restricción UNIQUE rechazó la escritura
+     *
+     * @param e error a analizar (se revisa toda la cadena de causas)
+     * @return nombre de la columna sin la tabla (por ejemplo "email"), o null
+     *         si el error no es una violación de UNIQUE
+     */
+    public static String columnaDuplicada(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLiteException
+                    && ((SQLiteException) t).getResultCode() != SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                continue;
+            }
+            String mensaje = t.getMessage();
+            int inicio = mensaje != null ? mensaje.indexOf(PREFIJO_UNIQUE) : -1;
+            if (inicio < 0) {
+                continue;
+            }
+
+            // "UNIQUE constraint failed: productos.nombre)" -> "nombre"
+            int fin = inicio + PREFIJO_UNIQUE.length();
+            while (fin < mensaje.length() && (Character.isLetterOrDigit(mensaje.charAt(fin))
+                    || mensaje.charAt(fin) == '_' || mensaje.charAt(fin) == '.')) {
+                fin++;
+            }
+            String columna = mensaje.substring(inicio + PREFIJO_UNIQUE.length(), fin);
+            return columna.substring(columna.lastIndexOf('.') + 1);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.sistemaventas.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unidad de trabajo: una operación de negocio completa (leer, validar y
+ * escribir) sobre una sola conexión y en una sola transacción.
+ * <p>
+ * {@link #ejecutar(PoliticaReintentos.OperacionSQL)} toma el turno de
+ * escritura y abre la transacción con <code>BEGIN IMMEDIATE</code>, así
+ * nadie puede modificar lo que se lee hasta el commit. Mientras dura, en el
+ * mismo hilo {@link ConexionDB#getConexionLectura()} y
+ * {@link ConexionDB#getConexionEscritura()} devuelven esa misma conexión:
+ * los DAOs se suman sin cambios. En ella <code>commit()</code>,
+ * <code>setAutoCommit()</code> y <code>close()</code> no hacen nada, y
+ * <code>rollback()</code> marca la unidad para deshacerse completa al final:
+ * aunque la operación termine sin error, {@link #ejecutar} lanza una
+ * SQLException avisando que no se aplicó nada.
+ * </p>
+ * <p>
+ * Los eventos que los DAOs publican en {@link BusEventos} se guardan y se
+ * entregan recién después del commit (y se descartan si se deshace). Una
+ * unidad dentro de otra se suma a la de afuera. La operación no debe
+ * esperar al usuario (diálogos) porque retiene el turno de escritura.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see ConexionDB
+ */
+public final class UnidadDeTrabajo {
+
+    private static final ThreadLocal<UnidadDeTrabajo> actual = new ThreadLocal<>();
+
+    private final Connection unida;
+    private final List<BusEventos.Evento> eventos = new ArrayList<>();
+    private boolean deshacer = false;
+
+    private UnidadDeTrabajo(Connection prestada) {
+        this.unida = (Connection) Proxy.newProxyInstance(
+            UnidadDeTrabajo.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new ConexionUnida(prestada));
+    }
+
+    /**
+     * Ejecuta la operación en una transacción, o dentro de la unidad en curso
+     * si ya hay una en este hilo.
+     * <p>
+     * La unidad más externa se reintenta completa si la base de datos estaba
+     * ocupada (ver {@link PoliticaReintentos}).
+     * </p>
+     *
+     * @param operacion operación de negocio (sin interacción con el usuario)
+     * @return el resultado de la operación
+     * @throws SQLException si falla la operación o la confirmación, o si algún
+     *                      DAO pidió <code>rollback()</code>; en ese caso no
+     *                      queda ningún cambio aplicado
+     */
+    public static <T> T ejecutar(PoliticaReintentos.OperacionSQL<T> operacion) throws SQLException {
+        if (actual.get() != null) {
+            return operacion.ejecutar();
+        }
+        return PoliticaReintentos.ejecutar(() -> ejecutarEnTransaccion(operacion));
+    }
+
+    /**
+     * Indica si el hilo actual está dentro de una unidad de trabajo
+     */
+    public static boolean enCurso() {
+        return actual.get() != null;
+    }
+
+    /**
+     * Conexión de la unidad en curso en este hilo, o null si no hay
+     */
+    static Connection conexionActual() {
+        UnidadDeTrabajo unidad = actual.get();
+        return unidad != null ? unidad.unida : null;
+    }
+
+    /**
+     * Guarda el evento para publicarlo después del commit
+     *
+     * @return false si no hay una unidad en curso (el evento se publica ya)
+     */
+    static boolean diferir(BusEventos.Evento evento) {
+        UnidadDeTrabajo unidad = actual.get();
+        if (unidad == null) {
+            return false;
+        }
+        for (BusEventos.Evento pendiente : unidad.eventos) {
+            if (pendiente.getTipo() == evento.getTipo() && pendiente.getId() == evento.getId()) {
+                return true;
+            }
+        }
+        unidad.eventos.add(evento);
+        return true;
+    }
+
+    private static <T> T ejecutarEnTransaccion(PoliticaReintentos.OperacionSQL<T> operacion) throws SQLException {
+        UnidadDeTrabajo unidad;
+        T resultado;
+
+        try (Connection conn = ConexionDB.getConexionEscritura()) {
+            ejecutarSQL(conn, "BEGIN IMMEDIATE");
+            unidad = new UnidadDeTrabajo(conn);
+            actual.set(unidad);
+
+            try {
+                resultado = operacion.ejecutar();
+            } catch (SQLException | RuntimeException | Error e) {
+                actual.remove();
+                deshacer(conn, e);
+                throw e;
+            }
+            actual.remove();
+
+            if (unidad.deshacer) {
+                // El resultado no vale: describe cambios que se acaban de deshacer
+                SQLException deshecha = new SQLException(
+                    "La unidad de trabajo se deshizo: una operación pidió rollback() y no se aplicó ningún cambio");
+                deshacer(conn, deshecha);
+                throw deshecha;
+            }
+
+            try {
+                ejecutarSQL(conn, "COMMIT");
+            } catch (SQLException e) {
+                deshacer(conn, e);
+                throw e;
+            }
+        }
+
+        // Confirmado y con el turno devuelto: recién ahora se avisa
+        for (BusEventos.Evento evento : unidad.eventos) {
+            BusEventos.notificar(evento);
+        }
+        return resultado;
+    }
+
+    private static void deshacer(Connection conn, Throwable causa) {
+        try {
+            ejecutarSQL(conn, "ROLLBACK");
+        } catch (SQLException e) {
+            if (causa != null) {
+                causa.addSuppressed(e);
+            } else {
+                System.err.println("Error al deshacer la unidad de trabajo: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void ejecutarSQL(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Conexión entregada a los DAOs dentro de la unidad: la transacción la
+     * maneja la unidad, no quien la pidió
+     */
+    private final class ConexionUnida implements InvocationHandler {
+
+        private final Connection prestada;
+
+        ConexionUnida(Connection prestada) {
+            this.prestada = prestada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null) {
+                        deshacer = true;
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            try {
+                return method.invoke(prestada, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
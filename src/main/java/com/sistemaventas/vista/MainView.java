@@ -2,6 +2,7 @@ package com.sistemaventas.vista;
 
 import com.sistemaventas.vista.cliente.ClienteView;
 import com.sistemaventas.vista.producto.ProductoView;
+import com.sistemaventas.vista.reporte.TableroVentasView;
 import com.sistemaventas.vista.venta.VentaView;
 
 import javax.swing.*;
@@ -11,23 +12,26 @@ public class MainView extends JFrame {
     public MainView() {
         setTitle("Sistema de Ventas - Menú Principal");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setSize(500, 300);
+        setSize(500, 380);
         setLocationRelativeTo(null);
 
-        JPanel p = new JPanel(new GridLayout(3,1,10,10));
+        JPanel p = new JPanel(new GridLayout(4,1,10,10));
         p.setBorder(BorderFactory.createEmptyBorder(20,20,20,20));
 
         JButton btnClientes = new JButton("ABM Clientes");
         JButton btnProductos = new JButton("ABM Productos");
         JButton btnVentas = new JButton("ABM Ventas");
+        JButton btnTablero = new JButton("Tablero de Ventas");
 
         btnClientes.addActionListener(e -> new ClienteView().setVisible(true));
         btnProductos.addActionListener(e -> new ProductoView().setVisible(true));
         btnVentas.addActionListener(e -> new VentaView().setVisible(true));
+        btnTablero.addActionListener(e -> new TableroVentasView().setVisible(true));
 
         p.add(btnClientes);
         p.add(btnProductos);
         p.add(btnVentas);
+        p.add(btnTablero);
 
         add(p);
     }
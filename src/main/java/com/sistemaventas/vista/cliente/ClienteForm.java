@@ -1,7 +1,9 @@
 package com.sistemaventas.vista.cliente;
 
-import com.sistemaventas.dao.ClienteDAO;
+import com.sistemaventas.controlador.ClienteController;
+import com.sistemaventas.excepcion.ClienteException;
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,7 +17,7 @@ public class ClienteForm extends JDialog {
     private JTextField txtEmail;
     private Cliente clienteEditando;
     private boolean clienteGuardado = false;
-    private ClienteDAO clienteDAO;
+    private ClienteController clienteController;
     
     // Constructor para nuevo cliente
     public ClienteForm(JFrame owner) {
@@ -26,7 +28,7 @@ public class ClienteForm extends JDialog {
     public ClienteForm(JFrame owner, Cliente cliente) {
         super(owner, cliente == null ? "Nuevo Cliente" : "Editar Cliente", true);
         this.clienteEditando = cliente;
-        this.clienteDAO = new ClienteDAO();
+        this.clienteController = new ClienteController();
         
         initComponents();
         setupLayout();
@@ -222,63 +224,67 @@ public class ClienteForm extends JDialog {
             }
             
             // Crear o actualizar cliente
-            if (clienteEditando == null) {
-                // Nuevo cliente
-                Cliente nuevoCliente = new Cliente(
+            boolean nuevo = clienteEditando == null;
+            Cliente cliente;
+            if (nuevo) {
+                cliente = new Cliente(
                     txtNombre.getText().trim(),
                     dni,
                     telefono,
                     email
                 );
-                
-                if (clienteDAO.guardar(nuevoCliente)) {
-                    clienteGuardado = true;
-                    JOptionPane.showMessageDialog(this, 
-                        "Cliente guardado exitosamente", 
-                        "Guardado exitoso", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "No se pudo guardar el cliente", 
-                        "Error al guardar", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
-                
             } else {
-                // Actualizar cliente existente
-                clienteEditando.setNombre(txtNombre.getText().trim());
-                clienteEditando.setDni(dni);
-                clienteEditando.setTelefono(telefono);
-                clienteEditando.setEmail(email);
-                
-                if (clienteDAO.actualizar(clienteEditando)) {
-                    clienteGuardado = true;
-                    JOptionPane.showMessageDialog(this, 
-                        "Cliente actualizado exitosamente", 
-                        "Actualización exitosa", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "No se pudo actualizar el cliente", 
-                        "Error al actualizar", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
+                cliente = clienteEditando;
+                cliente.setNombre(txtNombre.getText().trim());
+                cliente.setDni(dni);
+                cliente.setTelefono(telefono);
+                cliente.setEmail(email);
             }
             
-        } catch (SQLException e) {
-            String mensaje = "Error de base de datos: " + e.getMessage();
-            
-            // Manejar errores específicos
-            if (e.getMessage().contains("UNIQUE constraint failed")) {
-                if (e.getMessage().contains("email")) {
-                    mensaje = "Ya existe un cliente con ese email";
-                }
-            }
+            // La escritura va fuera del EDT: puede esperar a otra terminal
+            EscrituraEnSegundoPlano.ejecutar(this,
+                () -> nuevo ? clienteController.guardarCliente(cliente)
+                            : clienteController.actualizarCliente(cliente),
+                guardado -> alGuardar(nuevo, guardado),
+                this::mostrarErrorAlGuardar);
             
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, 
+                e.getMessage(), 
+                "Datos inválidos", 
+                JOptionPane.WARNING_MESSAGE);
+        }
+    }
+    
+    private void alGuardar(boolean nuevo, boolean guardado) {
+        if (guardado) {
+            clienteGuardado = true;
+            JOptionPane.showMessageDialog(this, 
+                nuevo ? "Cliente guardado exitosamente" : "Cliente actualizado exitosamente", 
+                nuevo ? "Guardado exitoso" : "Actualización exitosa", 
+                JOptionPane.INFORMATION_MESSAGE);
+            dispose();
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                nuevo ? "No se pudo guardar el cliente" : "No se pudo actualizar el cliente", 
+                nuevo ? "Error al guardar" : "Error al actualizar", 
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void mostrarErrorAlGuardar(Exception error) {
+        try {
+            throw error;
+        } catch (ClienteException e) {
+            // DNI o email repetido, o un cliente que ya no existe
+            JOptionPane.showMessageDialog(this, 
+                e.getMensajeUsuario(), 
+                "No se pudo guardar", 
+                JOptionPane.WARNING_MESSAGE);
+                
+        } catch (SQLException e) {
             JOptionPane.showMessageDialog(this, 
-                mensaje, 
+                "Error de base de datos: " + e.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
                 
@@ -1,6 +1,11 @@
 package com.sistemaventas.vista.cliente;
 
+import com.sistemaventas.controlador.ClienteController;
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.util.BusEventos;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
+import com.sistemaventas.vista.tables.RendererCeldas;
+import com.sistemaventas.vista.tables.OrdenadorCatalogo;
 import com.sistemaventas.vista.tables.ClienteTableModel;
 
 import javax.swing.*;
@@ -9,9 +14,13 @@ import java.awt.*;
 public class ClienteView extends JFrame {
     
     private ClienteTableModel tableModel;
+    private final ClienteController clienteController = new ClienteController();
     private JTable tabla;
     private JTextField txtBuscar;
     
+    // Recibe los cambios confirmados desde otras ventanas
+    private final BusEventos.Suscriptor suscriptor = BusEventos.enEDT(this::alCambiarDatos);
+    
     public ClienteView() {
         setTitle("ABM Clientes");
         setSize(900, 600);
@@ -24,12 +33,15 @@ public class ClienteView extends JFrame {
         
         // Cargar datos iniciales
         actualizarLista();
+        BusEventos.suscribir(suscriptor);
     }
     
     private void initComponents() {
         // Modelo y tabla
         tableModel = new ClienteTableModel();
         tabla = new JTable(tableModel);
+        RendererCeldas.instalar(tabla);
+        tabla.setRowSorter(new OrdenadorCatalogo<>(tableModel));
         
         // Configurar tabla
         tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -211,9 +223,8 @@ public class ClienteView extends JFrame {
         ClienteForm form = new ClienteForm(this, null);
         form.setVisible(true);
         
-        // Actualizar la lista automáticamente después de cerrar el formulario
+        // La fila nueva llega por el bus de eventos
         if (form.isClienteGuardado()) {
-            actualizarLista();
             JOptionPane.showMessageDialog(this, 
                 "Cliente agregado exitosamente", 
                 "Operación exitosa", 
@@ -222,7 +233,7 @@ public class ClienteView extends JFrame {
     }
     
     private void editarCliente() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -238,9 +249,8 @@ public class ClienteView extends JFrame {
             ClienteForm form = new ClienteForm(this, clienteSeleccionado);
             form.setVisible(true);
             
-            // Actualizar la lista automáticamente después de cerrar el formulario
+            // La fila se actualiza por el bus de eventos
             if (form.isClienteGuardado()) {
-                actualizarLista();
                 JOptionPane.showMessageDialog(this, 
                     "Cliente actualizado exitosamente", 
                     "Operación exitosa", 
@@ -250,7 +260,7 @@ public class ClienteView extends JFrame {
     }
     
     private void eliminarCliente() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -282,29 +292,24 @@ public class ClienteView extends JFrame {
                 JOptionPane.WARNING_MESSAGE);
             
             if (respuesta == JOptionPane.YES_OPTION) {
-                try {
-                    setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                    tableModel.eliminarCliente(selectedRow);
-                    
-                    JOptionPane.showMessageDialog(this, 
+                // La fila se quita cuando el bus avisa la eliminación
+                int idCliente = clienteSeleccionado.getIdCliente();
+                EscrituraEnSegundoPlano.ejecutar(this,
+                    () -> clienteController.eliminarCliente(idCliente),
+                    eliminado -> JOptionPane.showMessageDialog(this, 
                         "Cliente eliminado exitosamente", 
                         "Eliminación exitosa", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                        
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, 
+                        JOptionPane.INFORMATION_MESSAGE),
+                    e -> JOptionPane.showMessageDialog(this, 
                         "Error al eliminar cliente:\n" + e.getMessage(), 
                         "Error", 
-                        JOptionPane.ERROR_MESSAGE);
-                } finally {
-                    setCursor(Cursor.getDefaultCursor());
-                }
+                        JOptionPane.ERROR_MESSAGE));
             }
         }
     }
     
     private void verDetallesCliente() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -335,6 +340,26 @@ public class ClienteView extends JFrame {
         }
     }
     
+    /**
+     * Al cerrar la ventana deja de recibir eventos del bus
+     */
+    @Override
+    public void dispose() {
+        BusEventos.desuscribir(suscriptor);
+        super.dispose();
+    }
+    
+    private void alCambiarDatos(BusEventos.Evento evento) {
+        if (!isDisplayable()) {
+            return;
+        }
+        try {
+            tableModel.aplicarEvento(evento);
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo aplicar " + evento + ": " + e.getMessage());
+        }
+    }
+    
     public void actualizarLista() {
         try {
             setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
@@ -354,4 +379,13 @@ public class ClienteView extends JFrame {
             setCursor(Cursor.getDefaultCursor());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Fila del modelo seleccionada en la tabla (-1 si no hay selección).
+     * La tabla puede estar ordenada, así que el índice visible se convierte.
+     */
+    private int getFilaSeleccionada() {
+        int filaVista = tabla.getSelectedRow();
+        return filaVista == -1 ? -1 : tabla.convertRowIndexToModel(filaVista);
+    }
+}
@@ -0,0 +1,251 @@
+package com.sistemaventas.vista.componentes;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Campo de texto con sugerencias para elegir un cliente, un producto, etc.
+ * <p>
+ * No carga ningún dato al crearse: mientras el usuario escribe, y después
+ * de una pausa corta, pide a la base de datos los primeros resultados que
+ * empiezan con el texto (ver <code>buscarPorPrefijo</code> en los DAOs) y
+ * los muestra en una lista desplegable. La consulta corre en un
+ * SwingWorker, y si llega la respuesta de un texto viejo se descarta.
+ * </p>
+ * <p>
+ * Con el teclado: flechas para recorrer la lista, Enter para elegir y
+ * Escape para cerrarla. Al volver a escribir se pierde la selección.
+ * </p>
+ *
+ * @param <T> tipo de los elementos que se eligen
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class CampoAutocompletar<T> extends JTextField {
+
+    /**
+     * Búsqueda de los elementos que empiezan con un texto
+     */
+    @FunctionalInterface
+    public interface Buscador<T> {
+        List<T> buscar(String texto, int limite) throws Exception;
+    }
+
+    private static final int LIMITE = 20;
+    private static final int FILAS_VISIBLES = 8;
+    private static final int DEMORA_MS = 250;
+
+    private final Buscador<T> buscador;
+    private final Function<T, String> texto;
+    private Consumer<T> alSeleccionar = elemento -> { };
+
+    private final DefaultListModel<T> sugerencias = new DefaultListModel<>();
+    private final JList<T> lista = new JList<>(sugerencias);
+    private final JPopupMenu popup = new JPopupMenu();
+    private final Timer timerBusqueda;
+
+    private T seleccionado;
+    private boolean escribiendoSeleccion = false;
+    private int busquedaActual = 0;
+
+    /**
+     * @param buscador consulta de sugerencias (corre fuera del hilo de Swing)
+     * @param texto texto que se muestra para cada elemento
+     */
+    public CampoAutocompletar(Buscador<T> buscador, Function<T, String> texto) {
+        super(25);
+        this.buscador = buscador;
+        this.texto = texto;
+
+        timerBusqueda = new Timer(DEMORA_MS, e -> buscar());
+        timerBusqueda.setRepeats(false);
+
+        // Altura fija: la lista solo mide y pinta las filas visibles
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lista.setFocusable(false);
+        lista.setFixedCellHeight(22);
+        lista.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public java.awt.Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                                   boolean isSelected, boolean cellHasFocus) {
+                @SuppressWarnings("unchecked")
+                String mostrado = texto.apply((T) value);
+                return super.getListCellRendererComponent(list, mostrado, index, isSelected, cellHasFocus);
+            }
+        });
+        lista.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                elegir(lista.getSelectedValue());
+            }
+        });
+
+        JScrollPane scroll = new JScrollPane(lista);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        popup.add(scroll);
+        popup.setFocusable(false);
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                alEscribir();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                alEscribir();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                alEscribir();
+            }
+        });
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                alPresionarTecla(e);
+            }
+        });
+    }
+
+    /**
+     * Acción a ejecutar cuando cambia el elemento elegido (null si se borra)
+     */
+    public void setAlSeleccionar(Consumer<T> alSeleccionar) {
+        this.alSeleccionar = alSeleccionar;
+    }
+
+    /**
+     * Elemento elegido, o null si el texto no corresponde a una sugerencia
+     */
+    public T getSeleccionado() {
+        return seleccionado;
+    }
+
+    /**
+     * Elige un elemento sin buscar (por ejemplo, para refrescar sus datos)
+     */
+    public void setSeleccionado(T elemento) {
+        seleccionado = elemento;
+        escribiendoSeleccion = true;
+        try {
+            setText(elemento != null ? texto.apply(elemento) : "");
+        } finally {
+            escribiendoSeleccion = false;
+        }
+    }
+
+    private void alEscribir() {
+        if (escribiendoSeleccion) {
+            return;
+        }
+        if (seleccionado != null) {
+            seleccionado = null;
+            alSeleccionar.accept(null);
+        }
+        timerBusqueda.restart();
+    }
+
+    private void buscar() {
+        String termino = getText().trim();
+        int busqueda = ++busquedaActual;
+
+        if (termino.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        new SwingWorker<List<T>, Void>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                return buscador.buscar(termino, LIMITE);
+            }
+
+            @Override
+            protected void done() {
+                // Llegó tarde: el usuario siguió escribiendo
+                if (busqueda != busquedaActual || !isDisplayable()) {
+                    return;
+                }
+                try {
+                    mostrarSugerencias(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Error al buscar sugerencias: " + causa.getMessage());
+                    popup.setVisible(false);
+                }
+            }
+        }.execute();
+    }
+
+    private void mostrarSugerencias(List<T> resultados) {
+        sugerencias.clear();
+        sugerencias.addAll(resultados);
+
+        if (resultados.isEmpty() || !isShowing() || !hasFocus()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        lista.setSelectedIndex(0);
+        lista.setVisibleRowCount(Math.min(FILAS_VISIBLES, resultados.size()));
+        popup.setPopupSize(getWidth(), lista.getPreferredScrollableViewportSize().height + 4);
+        if (popup.isVisible()) {
+            popup.pack();
+        } else {
+            popup.show(this, 0, getHeight());
+        }
+    }
+
+    private void alPresionarTecla(KeyEvent e) {
+        if (!popup.isVisible()) {
+            return;
+        }
+        int indice = lista.getSelectedIndex();
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_DOWN:
+                seleccionarFila(Math.min(indice + 1, sugerencias.size() - 1));
+                e.consume();
+                break;
+            case KeyEvent.VK_UP:
+                seleccionarFila(Math.max(indice - 1, 0));
+                e.consume();
+                break;
+            case KeyEvent.VK_ENTER:
+                elegir(lista.getSelectedValue());
+                e.consume();
+                break;
+            case KeyEvent.VK_ESCAPE:
+                popup.setVisible(false);
+                e.consume();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void seleccionarFila(int indice) {
+        lista.setSelectedIndex(indice);
+        lista.ensureIndexIsVisible(indice);
+    }
+
+    private void elegir(T elemento) {
+        popup.setVisible(false);
+        if (elemento == null) {
+            return;
+        }
+        setSeleccionado(elemento);
+        alSeleccionar.accept(elemento);
+    }
+}
@@ -0,0 +1,94 @@
+package com.sistemaventas.vista.componentes;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Ejecuta una escritura en la base de datos fuera del hilo de Swing (EDT).
+ * <p>
+ * Las escrituras pueden esperar a otra terminal (<code>busy_timeout</code>)
+ * y reintentarse con pausas (ver
+ * {@link com.sistemaventas.util.PoliticaReintentos}); hechas en el EDT
+ * congelarían la ventana. Mientras corre, la ventana queda deshabilitada y
+ * con cursor de espera para que no se repita la operación, y el resultado
+ * o el error se entregan de vuelta en el EDT. Las filas de las tablas se
+ * actualizan por el bus de eventos, como con cualquier otro cambio.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public final class EscrituraEnSegundoPlano {
+
+    /**
+     * Operación que se ejecuta fuera del EDT (no debe tocar componentes Swing)
+     */
+    @FunctionalInterface
+    public interface Operacion<T> {
+        T ejecutar() throws Exception;
+    }
+
+    /**
+     * Recibe el resultado en el EDT
+     */
+    @FunctionalInterface
+    public interface AlTerminar<T> {
+        void recibir(T resultado);
+    }
+
+    /**
+     * Recibe en el EDT el error que lanzó la operación
+     */
+    @FunctionalInterface
+    public interface AlFallar {
+        void recibir(Exception error);
+    }
+
+    private EscrituraEnSegundoPlano() {
+    }
+
+    /**
+     * Ejecuta la operación en segundo plano con la ventana deshabilitada
+     *
+     * @param ventana ventana que se bloquea mientras tanto
+     * @param operacion escritura a ejecutar
+     * @param alTerminar qué hacer con el resultado (en el EDT)
+     * @param alFallar qué hacer si la operación lanzó una excepción (en el EDT)
+     */
+    public static <T> void ejecutar(Window ventana, Operacion<T> operacion,
+                                    AlTerminar<T> alTerminar, AlFallar alFallar) {
+        ventana.setEnabled(false);
+        ventana.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return operacion.ejecutar();
+            }
+
+            @Override
+            protected void done() {
+                ventana.setCursor(Cursor.getDefaultCursor());
+                ventana.setEnabled(true);
+
+                T resultado;
+                try {
+                    resultado = get();
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    if (causa instanceof Exception) {
+                        alFallar.recibir((Exception) causa);
+                        return;
+                    }
+                    throw new IllegalStateException(causa);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    alFallar.recibir(e);
+                    return;
+                }
+                alTerminar.recibir(resultado);
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,339 @@
+package com.sistemaventas.vista.producto;
+
+import com.sistemaventas.controlador.ProductoController;
+import com.sistemaventas.dao.AjustePrecios;
+import com.sistemaventas.excepcion.ProductoException;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+/**
+ * Formulario para ajustar en bloque los precios del catálogo: porcentaje o
+ * monto fijo, con filtro y redondeo, y una vista previa antes de aplicar.
+ * Las filas de la lista de productos se actualizan por el bus de eventos.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class AjustePreciosForm extends JDialog {
+
+    private static final String[] MULTIPLOS = {"Sin redondeo", "$1", "$5", "$10", "$50", "$100"};
+    private static final String[] SENTIDOS = {"Al más cercano", "Hacia arriba", "Hacia abajo"};
+
+    private JRadioButton rbPorcentaje;
+    private JRadioButton rbMontoFijo;
+    private JTextField txtValor;
+    private JComboBox<String> cmbMultiplo;
+    private JComboBox<String> cmbSentido;
+    private JTextField txtNombre;
+    private JTextField txtPrecioMinimo;
+    private JTextField txtPrecioMaximo;
+    private JLabel lblResumen;
+    private DefaultTableModel modeloEjemplos;
+    private JButton btnAplicar;
+
+    private final ProductoController productoController;
+
+    public AjustePreciosForm(JFrame owner) {
+        super(owner, "Ajuste de Precios", true);
+        this.productoController = new ProductoController();
+
+        initComponents();
+        setupLayout();
+
+        setSize(560, 560);
+        setLocationRelativeTo(owner);
+    }
+
+    private void initComponents() {
+        rbPorcentaje = new JRadioButton("Porcentaje (%)", true);
+        rbMontoFijo = new JRadioButton("Monto fijo ($)");
+        ButtonGroup grupoTipo = new ButtonGroup();
+        grupoTipo.add(rbPorcentaje);
+        grupoTipo.add(rbMontoFijo);
+
+        txtValor = new JTextField(10);
+        cmbMultiplo = new JComboBox<>(MULTIPLOS);
+        cmbSentido = new JComboBox<>(SENTIDOS);
+        txtNombre = new JTextField(20);
+        txtPrecioMinimo = new JTextField(8);
+        txtPrecioMaximo = new JTextField(8);
+
+        lblResumen = new JLabel("Complete el ajuste y presione \"Vista previa\"");
+        modeloEjemplos = new DefaultTableModel(new String[]{"Producto", "Precio actual", "Precio nuevo"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        txtValor.setToolTipText("Negativo para bajar precios (ejemplo: 12.5 o -10)");
+        txtNombre.setToolTipText("Solo productos cuyo nombre contiene este texto (vacío: todos)");
+        cmbSentido.setEnabled(false);
+        cmbMultiplo.addActionListener(e -> cmbSentido.setEnabled(cmbMultiplo.getSelectedIndex() > 0));
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        // Ajuste
+        gbc.gridx = 0; gbc.gridy = 0;
+        JLabel lblAjuste = new JLabel("Ajuste *:");
+        lblAjuste.setFont(lblAjuste.getFont().deriveFont(Font.BOLD));
+        formPanel.add(lblAjuste, gbc);
+
+        gbc.gridx = 1;
+        JPanel ajustePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        ajustePanel.add(rbPorcentaje);
+        ajustePanel.add(rbMontoFijo);
+        ajustePanel.add(txtValor);
+        formPanel.add(ajustePanel, gbc);
+
+        // Redondeo
+        gbc.gridx = 0; gbc.gridy = 1;
+        formPanel.add(new JLabel("Redondear a:"), gbc);
+
+        gbc.gridx = 1;
+        JPanel redondeoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        redondeoPanel.add(cmbMultiplo);
+        redondeoPanel.add(cmbSentido);
+        formPanel.add(redondeoPanel, gbc);
+
+        // Filtro
+        gbc.gridx = 0; gbc.gridy = 2;
+        formPanel.add(new JLabel("Nombre contiene:"), gbc);
+
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL; gbc.weightx = 1.0;
+        formPanel.add(txtNombre, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.NONE; gbc.weightx = 0.0;
+        formPanel.add(new JLabel("Precio actual:"), gbc);
+
+        gbc.gridx = 1;
+        JPanel rangoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        rangoPanel.add(new JLabel("desde $"));
+        rangoPanel.add(txtPrecioMinimo);
+        rangoPanel.add(new JLabel("hasta $"));
+        rangoPanel.add(txtPrecioMaximo);
+        formPanel.add(rangoPanel, gbc);
+
+        // Vista previa
+        JPanel previaPanel = new JPanel(new BorderLayout(5, 5));
+        previaPanel.setBorder(BorderFactory.createTitledBorder("Vista previa"));
+        previaPanel.add(lblResumen, BorderLayout.NORTH);
+        previaPanel.add(new JScrollPane(new JTable(modeloEjemplos)), BorderLayout.CENTER);
+
+        JPanel centro = new JPanel(new BorderLayout());
+        centro.add(formPanel, BorderLayout.NORTH);
+        centro.add(previaPanel, BorderLayout.CENTER);
+
+        // Panel de botones
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton btnPrevia = new JButton("Vista previa");
+        btnAplicar = new JButton("Aplicar");
+        JButton btnCancelar = new JButton("Cancelar");
+
+        btnPrevia.setPreferredSize(new Dimension(120, 30));
+        btnAplicar.setPreferredSize(new Dimension(120, 30));
+        btnCancelar.setPreferredSize(new Dimension(120, 30));
+
+        btnAplicar.setBackground(new Color(46, 125, 50));
+        btnAplicar.setForeground(Color.WHITE);
+        btnAplicar.setEnabled(false);
+
+        getRootPane().setDefaultButton(btnPrevia);
+
+        buttonPanel.add(btnPrevia);
+        buttonPanel.add(btnAplicar);
+        buttonPanel.add(btnCancelar);
+
+        btnPrevia.addActionListener(e -> previsualizar());
+        btnAplicar.addActionListener(e -> aplicar());
+        btnCancelar.addActionListener(e -> dispose());
+
+        // Cualquier cambio invalida la vista previa mostrada
+        rbPorcentaje.addActionListener(e -> btnAplicar.setEnabled(false));
+        rbMontoFijo.addActionListener(e -> btnAplicar.setEnabled(false));
+        cmbMultiplo.addActionListener(e -> btnAplicar.setEnabled(false));
+        cmbSentido.addActionListener(e -> btnAplicar.setEnabled(false));
+        for (JTextField campo : new JTextField[]{txtValor, txtNombre, txtPrecioMinimo, txtPrecioMaximo}) {
+            campo.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+                public void insertUpdate(javax.swing.event.DocumentEvent e) { btnAplicar.setEnabled(false); }
+                public void removeUpdate(javax.swing.event.DocumentEvent e) { btnAplicar.setEnabled(false); }
+                public void changedUpdate(javax.swing.event.DocumentEvent e) { btnAplicar.setEnabled(false); }
+            });
+        }
+
+        // Escape para cancelar
+        KeyStroke escapeKeyStroke = KeyStroke.getKeyStroke("ESCAPE");
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(escapeKeyStroke, "ESCAPE");
+        getRootPane().getActionMap().put("ESCAPE", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                dispose();
+            }
+        });
+
+        add(centro, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Arma el ajuste con los datos del formulario, o null si hay un dato inválido
+     */
+    private AjustePrecios leerAjuste() {
+        BigDecimal valor = leerImporte(txtValor, "el valor del ajuste", true);
+        if (valor == null) {
+            return null;
+        }
+
+        AjustePrecios ajuste = rbPorcentaje.isSelected()
+            ? AjustePrecios.porcentaje(valor)
+            : AjustePrecios.montoFijo(valor);
+
+        int multiplo = cmbMultiplo.getSelectedIndex();
+        if (multiplo > 0) {
+            AjustePrecios.Redondeo[] sentidos = {
+                AjustePrecios.Redondeo.CERCANO, AjustePrecios.Redondeo.ARRIBA, AjustePrecios.Redondeo.ABAJO
+            };
+            ajuste.setRedondeo(sentidos[cmbSentido.getSelectedIndex()],
+                new BigDecimal(MULTIPLOS[multiplo].substring(1)));
+        }
+
+        ajuste.setNombreContiene(txtNombre.getText());
+        if (!txtPrecioMinimo.getText().trim().isEmpty()) {
+            BigDecimal minimo = leerImporte(txtPrecioMinimo, "el precio desde", false);
+            if (minimo == null) {
+                return null;
+            }
+            ajuste.setPrecioMinimo(minimo);
+        }
+        if (!txtPrecioMaximo.getText().trim().isEmpty()) {
+            BigDecimal maximo = leerImporte(txtPrecioMaximo, "el precio hasta", false);
+            if (maximo == null) {
+                return null;
+            }
+            ajuste.setPrecioMaximo(maximo);
+        }
+        return ajuste;
+    }
+
+    private BigDecimal leerImporte(JTextField campo, String descripcion, boolean admiteNegativo) {
+        try {
+            BigDecimal valor = new BigDecimal(campo.getText().trim());
+            if (admiteNegativo || valor.signum() >= 0) {
+                return valor;
+            }
+        } catch (NumberFormatException e) {
+            // Se informa abajo
+        }
+        JOptionPane.showMessageDialog(this,
+            "Ingrese un número válido para " + descripcion + " (ejemplo: 12.5)",
+            "Dato inválido",
+            JOptionPane.WARNING_MESSAGE);
+        campo.requestFocus();
+        return null;
+    }
+
+    private void previsualizar() {
+        AjustePrecios ajuste = leerAjuste();
+        if (ajuste == null) {
+            return;
+        }
+
+        try {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            AjustePrecios.Resultado resultado = productoController.previsualizarAjustePrecios(ajuste);
+
+            modeloEjemplos.setRowCount(0);
+            for (AjustePrecios.Cambio cambio : resultado.getEjemplos()) {
+                modeloEjemplos.addRow(new Object[]{
+                    cambio.getNombre(),
+                    String.format("$%.2f", cambio.getPrecioAnterior()),
+                    (cambio.esInvalido() ? "⚠ " : "") + String.format("$%.2f", cambio.getPrecioNuevo())
+                });
+            }
+
+            String resumen = String.format(
+                "<html>%d producto(s) cumplen el filtro, %d cambian de precio.<br>"
+                + "Suma de precios: $%.2f → $%.2f%s</html>",
+                resultado.getProductos(), resultado.getCambian(),
+                resultado.getValorAnterior(), resultado.getValorNuevo(),
+                resultado.getInvalidos() > 0
+                    ? String.format("<br><font color='red'>%d producto(s) quedarían con un precio inválido</font>",
+                        resultado.getInvalidos())
+                    : "");
+            lblResumen.setText(resumen);
+            btnAplicar.setEnabled(resultado.getCambian() > 0 && resultado.getInvalidos() == 0);
+
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Ajuste inválido", JOptionPane.WARNING_MESSAGE);
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al calcular la vista previa:\n" + e.getMessage(),
+                "Error de Base de Datos",
+                JOptionPane.ERROR_MESSAGE);
+        } finally {
+            setCursor(Cursor.getDefaultCursor());
+        }
+    }
+
+    private void aplicar() {
+        AjustePrecios ajuste = leerAjuste();
+        if (ajuste == null) {
+            return;
+        }
+
+        int confirmacion = JOptionPane.showConfirmDialog(this,
+            "¿Aplicar el ajuste a los productos de la vista previa?\nEsta acción no se puede deshacer.",
+            "Confirmar ajuste de precios",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.WARNING_MESSAGE);
+        if (confirmacion != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        EscrituraEnSegundoPlano.ejecutar(this,
+            () -> productoController.aplicarAjustePrecios(ajuste),
+            cambiados -> {
+                JOptionPane.showMessageDialog(this,
+                    "Se actualizó el precio de " + cambiados + " producto(s)",
+                    "Ajuste aplicado",
+                    JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+            },
+            this::mostrarErrorAlAplicar);
+    }
+
+    private void mostrarErrorAlAplicar(Exception error) {
+        try {
+            throw error;
+        } catch (ProductoException e) {
+            JOptionPane.showMessageDialog(this, e.getMensajeUsuario(), "No se pudo ajustar", JOptionPane.WARNING_MESSAGE);
+            btnAplicar.setEnabled(false);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Ajuste inválido", JOptionPane.WARNING_MESSAGE);
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al aplicar el ajuste:\n" + e.getMessage(),
+                "Error de Base de Datos",
+                JOptionPane.ERROR_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                "Error inesperado: " + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
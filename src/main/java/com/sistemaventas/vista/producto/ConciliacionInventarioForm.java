@@ -0,0 +1,222 @@
+package com.sistemaventas.vista.producto;
+
+import com.sistemaventas.controlador.ProductoController;
+import com.sistemaventas.dao.ConteoInventario;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Formulario para conciliar el inventario con un conteo físico: se elige el
+ * archivo del conteo, se revisan las diferencias con el stock del sistema y
+ * se aplican todas juntas. Las filas de la lista de productos se actualizan
+ * por el bus de eventos.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class ConciliacionInventarioForm extends JDialog {
+
+    private JTextField txtArchivo;
+    private JLabel lblResumen;
+    private DefaultTableModel modeloDiferencias;
+    private JButton btnAplicar;
+
+    private final ProductoController productoController;
+    private ConteoInventario conteo;
+
+    public ConciliacionInventarioForm(JFrame owner) {
+        super(owner, "Conciliación de Inventario", true);
+        this.productoController = new ProductoController();
+
+        initComponents();
+        setupLayout();
+
+        setSize(680, 560);
+        setLocationRelativeTo(owner);
+    }
+
+    private void initComponents() {
+        txtArchivo = new JTextField(30);
+        txtArchivo.setEditable(false);
+
+        lblResumen = new JLabel("<html>Elija el archivo del conteo: una línea por producto con "
+            + "<b>código o nombre;cantidad</b></html>");
+        modeloDiferencias = new DefaultTableModel(
+                new String[]{"Producto", "Sistema", "Contado", "Diferencia", "Valor"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        JPanel archivoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        archivoPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        JLabel lblArchivo = new JLabel("Archivo *:");
+        lblArchivo.setFont(lblArchivo.getFont().deriveFont(Font.BOLD));
+        JButton btnElegir = new JButton("Elegir...");
+        archivoPanel.add(lblArchivo);
+        archivoPanel.add(txtArchivo);
+        archivoPanel.add(btnElegir);
+
+        JPanel diferenciasPanel = new JPanel(new BorderLayout(5, 5));
+        diferenciasPanel.setBorder(BorderFactory.createTitledBorder("Diferencias con el sistema"));
+        diferenciasPanel.add(lblResumen, BorderLayout.NORTH);
+        diferenciasPanel.add(new JScrollPane(new JTable(modeloDiferencias)), BorderLayout.CENTER);
+
+        // Panel de botones
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        btnAplicar = new JButton("Aplicar");
+        JButton btnCancelar = new JButton("Cancelar");
+
+        btnAplicar.setPreferredSize(new Dimension(120, 30));
+        btnCancelar.setPreferredSize(new Dimension(120, 30));
+
+        btnAplicar.setBackground(new Color(46, 125, 50));
+        btnAplicar.setForeground(Color.WHITE);
+        btnAplicar.setEnabled(false);
+
+        buttonPanel.add(btnAplicar);
+        buttonPanel.add(btnCancelar);
+
+        btnElegir.addActionListener(e -> elegirArchivo());
+        btnAplicar.addActionListener(e -> aplicar());
+        btnCancelar.addActionListener(e -> dispose());
+
+        // Escape para cancelar
+        KeyStroke escapeKeyStroke = KeyStroke.getKeyStroke("ESCAPE");
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(escapeKeyStroke, "ESCAPE");
+        getRootPane().getActionMap().put("ESCAPE", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                dispose();
+            }
+        });
+
+        add(archivoPanel, BorderLayout.NORTH);
+        add(diferenciasPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void elegirArchivo() {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new FileNameExtensionFilter("Conteos (*.csv, *.txt)", "csv", "txt"));
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        conteo = null;
+        btnAplicar.setEnabled(false);
+        modeloDiferencias.setRowCount(0);
+        txtArchivo.setText(selector.getSelectedFile().getName());
+
+        try {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            ConteoInventario leido = ConteoInventario.leer(selector.getSelectedFile().toPath());
+            ConteoInventario.Resultado resultado = productoController.compararConteo(leido);
+            mostrar(resultado);
+            conteo = leido;
+            btnAplicar.setEnabled(!resultado.getDiferencias().isEmpty());
+
+        } catch (IllegalArgumentException e) {
+            lblResumen.setText("El archivo no se puede usar");
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Archivo inválido", JOptionPane.WARNING_MESSAGE);
+        } catch (IOException e) {
+            lblResumen.setText("El archivo no se puede usar");
+            JOptionPane.showMessageDialog(this,
+                "No se pudo leer el archivo:\n" + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al comparar el conteo:\n" + e.getMessage(),
+                "Error de Base de Datos",
+                JOptionPane.ERROR_MESSAGE);
+        } finally {
+            setCursor(Cursor.getDefaultCursor());
+        }
+    }
+
+    private void mostrar(ConteoInventario.Resultado resultado) {
+        for (ConteoInventario.Diferencia diferencia : resultado.getDiferencias()) {
+            modeloDiferencias.addRow(new Object[]{
+                diferencia.getNombre(),
+                diferencia.getStockSistema(),
+                diferencia.getStockContado(),
+                String.format("%+d", diferencia.getDiferencia()),
+                String.format("$%.2f", diferencia.getValorDiferencia())
+            });
+        }
+
+        String noEncontrados = "";
+        if (!resultado.getNoEncontrados().isEmpty()) {
+            int mostrar = Math.min(5, resultado.getNoEncontrados().size());
+            noEncontrados = String.format("<br><font color='red'>%d línea(s) no corresponden a ningún producto "
+                + "y se ignoran: %s%s</font>",
+                resultado.getNoEncontrados().size(),
+                String.join(", ", resultado.getNoEncontrados().subList(0, mostrar)),
+                resultado.getNoEncontrados().size() > mostrar ? ", ..." : "");
+        }
+
+        lblResumen.setText(String.format(
+            "<html>%d producto(s) contados, %d con diferencias: faltan %d y sobran %d unidad(es) "
+            + "(valor $%.2f)%s</html>",
+            resultado.getProductosContados(), resultado.getDiferencias().size(),
+            resultado.getUnidadesFaltantes(), resultado.getUnidadesSobrantes(),
+            resultado.getValorDiferencia(), noEncontrados));
+    }
+
+    private void aplicar() {
+        if (conteo == null) {
+            return;
+        }
+
+        int confirmacion = JOptionPane.showConfirmDialog(this,
+            "¿Reemplazar el stock de los productos contados por las cantidades del conteo?\n"
+            + "Las diferencias quedan registradas como ajustes de inventario.",
+            "Confirmar conciliación",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.WARNING_MESSAGE);
+        if (confirmacion != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        EscrituraEnSegundoPlano.ejecutar(this,
+            () -> productoController.conciliarInventario(conteo),
+            resultado -> {
+                JOptionPane.showMessageDialog(this,
+                    "Se ajustó el stock de " + resultado.getDiferencias().size() + " producto(s)",
+                    "Inventario conciliado",
+                    JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+            },
+            this::mostrarErrorAlAplicar);
+    }
+
+    private void mostrarErrorAlAplicar(Exception error) {
+        try {
+            throw error;
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Conteo inválido", JOptionPane.WARNING_MESSAGE);
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al aplicar el conteo (no se modificó ningún stock):\n" + e.getMessage(),
+                "Error de Base de Datos",
+                JOptionPane.ERROR_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                "Error inesperado: " + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
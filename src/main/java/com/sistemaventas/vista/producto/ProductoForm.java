@@ -1,7 +1,9 @@
 package com.sistemaventas.vista.producto;
 
 import com.sistemaventas.controlador.ProductoController;
+import com.sistemaventas.excepcion.ProductoException;
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
 
 import javax.swing.*;
 import java.awt.*;
@@ -17,6 +19,7 @@ public class ProductoForm extends JDialog {
     private JTextField txtNombre;
     private JTextField txtPrecio;
     private JSpinner spnStock;
+    private JTextField txtCodigo;
     private Producto productoEditando;
     private boolean productoGuardado = false;
     private ProductoController productoController;
@@ -36,7 +39,7 @@ public class ProductoForm extends JDialog {
         setupLayout();
         cargarDatos();
         
-        setSize(450, 280);
+        setSize(450, 320);
         setLocationRelativeTo(owner);
         setResizable(false);
     }
@@ -51,10 +54,13 @@ public class ProductoForm extends JDialog {
         JSpinner.NumberEditor editor = new JSpinner.NumberEditor(spnStock, "#");
         spnStock.setEditor(editor);
         
+        txtCodigo = new JTextField(20);
+        
         // Configurar tooltips
         txtNombre.setToolTipText("Ingrese el nombre del producto");
         txtPrecio.setToolTipText("Ingrese el precio (ejemplo: 1500.50)");
         spnStock.setToolTipText("Ingrese la cantidad en stock");
+        txtCodigo.setToolTipText("Código SKU o de barras (opcional, se puede leer con el lector)");
     }
     
     private void setupLayout() {
@@ -107,9 +113,16 @@ public class ProductoForm extends JDialog {
         stockPanel.add(lblUnidades);
         formPanel.add(stockPanel, gbc);
         
+        // Código (opcional)
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.NONE;
+        formPanel.add(new JLabel("Código (SKU/EAN):"), gbc);
+        
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(txtCodigo, gbc);
+        
         // Información adicional si es edición
         if (productoEditando != null) {
-            gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 2;
+            gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
             gbc.fill = GridBagConstraints.HORIZONTAL;
             
             JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -126,7 +139,7 @@ public class ProductoForm extends JDialog {
         }
         
         // Nota de campos obligatorios
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2;
         gbc.fill = GridBagConstraints.NONE;
         JLabel lblNota = new JLabel("* Campos obligatorios");
         lblNota.setFont(lblNota.getFont().deriveFont(Font.ITALIC, 10f));
@@ -173,6 +186,7 @@ public class ProductoForm extends JDialog {
             txtNombre.setText(productoEditando.getNombre());
             txtPrecio.setText(productoEditando.getPrecio().toString());
             spnStock.setValue(productoEditando.getStock());
+            txtCodigo.setText(productoEditando.getCodigo() != null ? productoEditando.getCodigo() : "");
         } else {
             // Valores por defecto para nuevo producto
             spnStock.setValue(0);
@@ -230,59 +244,66 @@ public class ProductoForm extends JDialog {
             int stock = (Integer) spnStock.getValue();
             
             // Crear o actualizar producto
-            if (productoEditando == null) {
-                // Nuevo producto
-                Producto nuevoProducto = new Producto(
+            boolean nuevo = productoEditando == null;
+            Producto producto;
+            if (nuevo) {
+                producto = new Producto(
                     txtNombre.getText().trim(),
                     precio,
                     stock
                 );
-                
-                if (productoController.guardarProducto(nuevoProducto)) {
-                    productoGuardado = true;
-                    JOptionPane.showMessageDialog(this, 
-                        "Producto guardado exitosamente", 
-                        "Guardado exitoso", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "No se pudo guardar el producto", 
-                        "Error al guardar", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
-                
             } else {
-                // Actualizar producto existente
-                productoEditando.setNombre(txtNombre.getText().trim());
-                productoEditando.setPrecio(precio);
-                productoEditando.setStock(stock);
-                
-                if (productoController.actualizarProducto(productoEditando)) {
-                    productoGuardado = true;
-                    JOptionPane.showMessageDialog(this, 
-                        "Producto actualizado exitosamente", 
-                        "Actualización exitosa", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "No se pudo actualizar el producto", 
-                        "Error al actualizar", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
+                producto = productoEditando;
+                producto.setNombre(txtNombre.getText().trim());
+                producto.setPrecio(precio);
+                producto.setStock(stock);
             }
+            producto.setCodigo(txtCodigo.getText());
             
-        } catch (SQLException e) {
-            String mensaje = "Error de base de datos: " + e.getMessage();
-            
-            // Manejar errores específicos
-            if (e.getMessage().contains("UNIQUE constraint failed")) {
-                mensaje = "Ya existe un producto con ese nombre";
-            }
+            // La escritura va fuera del EDT: puede esperar a otra terminal
+            EscrituraEnSegundoPlano.ejecutar(this,
+                () -> nuevo ? productoController.guardarProducto(producto)
+                            : productoController.actualizarProducto(producto),
+                guardado -> alGuardar(nuevo, guardado),
+                this::mostrarErrorAlGuardar);
             
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, 
+                e.getMessage(), 
+                "Datos inválidos", 
+                JOptionPane.WARNING_MESSAGE);
+        }
+    }
+    
+    private void alGuardar(boolean nuevo, boolean guardado) {
+        if (guardado) {
+            productoGuardado = true;
+            JOptionPane.showMessageDialog(this, 
+                nuevo ? "Producto guardado exitosamente" : "Producto actualizado exitosamente", 
+                nuevo ? "Guardado exitoso" : "Actualización exitosa", 
+                JOptionPane.INFORMATION_MESSAGE);
+            dispose();
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                nuevo ? "No se pudo guardar el producto" : "No se pudo actualizar el producto", 
+                nuevo ? "Error al guardar" : "Error al actualizar", 
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void mostrarErrorAlGuardar(Exception error) {
+        try {
+            throw error;
+        } catch (ProductoException e) {
+            // Nombre o código repetido, o un producto que ya no existe
+            JOptionPane.showMessageDialog(this, 
+                e.getMensajeUsuario(), 
+                "No se pudo guardar", 
+                JOptionPane.WARNING_MESSAGE);
+                
+        } catch (SQLException e) {
             JOptionPane.showMessageDialog(this, 
-                mensaje, 
+                "Error de base de datos: " + e.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
                 
@@ -322,7 +343,8 @@ public class ProductoForm extends JDialog {
             // Producto nuevo - hay cambios si algún campo tiene datos
             return !txtNombre.getText().trim().isEmpty() ||
                    !txtPrecio.getText().trim().isEmpty() ||
-                   (Integer) spnStock.getValue() != 0;
+                   (Integer) spnStock.getValue() != 0 ||
+                   !txtCodigo.getText().trim().isEmpty();
         } else {
             // Producto existente - comparar valores
             String nombreActual = txtNombre.getText().trim();
@@ -332,10 +354,13 @@ public class ProductoForm extends JDialog {
             String nombreOriginal = productoEditando.getNombre() != null ? productoEditando.getNombre() : "";
             String precioOriginal = productoEditando.getPrecio().toString();
             int stockOriginal = productoEditando.getStock();
+            String codigoActual = txtCodigo.getText().trim();
+            String codigoOriginal = productoEditando.getCodigo() != null ? productoEditando.getCodigo() : "";
             
             return !nombreActual.equals(nombreOriginal) ||
                    !precioActual.equals(precioOriginal) ||
-                   stockActual != stockOriginal;
+                   stockActual != stockOriginal ||
+                   !codigoActual.equals(codigoOriginal);
         }
     }
     
@@ -1,6 +1,11 @@
 package com.sistemaventas.vista.producto;
 
+import com.sistemaventas.controlador.ProductoController;
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.BusEventos;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
+import com.sistemaventas.vista.tables.RendererCeldas;
+import com.sistemaventas.vista.tables.OrdenadorCatalogo;
 import com.sistemaventas.vista.tables.ProductoTableModel;
 
 import javax.swing.*;
@@ -14,13 +19,17 @@ import java.math.BigDecimal;
 public class ProductoView extends JFrame {
     
     private ProductoTableModel tableModel;
+    private final ProductoController productoController = new ProductoController();
     private JTable tabla;
     private JTextField txtBuscar;
     private JLabel lblValorTotal;
     
+    // Recibe los cambios confirmados desde otras ventanas
+    private final BusEventos.Suscriptor suscriptor = BusEventos.enEDT(this::alCambiarDatos);
+    
     public ProductoView() {
         setTitle("ABM Productos");
-        setSize(1000, 600);
+        setSize(1250, 600);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         
@@ -30,12 +39,15 @@ public class ProductoView extends JFrame {
         
         // Cargar datos iniciales
         actualizarLista();
+        BusEventos.suscribir(suscriptor);
     }
     
     private void initComponents() {
         // Modelo y tabla
         tableModel = new ProductoTableModel();
         tabla = new JTable(tableModel);
+        RendererCeldas.instalar(tabla);
+        tabla.setRowSorter(new OrdenadorCatalogo<>(tableModel));
         
         // Configurar tabla
         tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -119,6 +131,8 @@ public class ProductoView extends JFrame {
         JButton btnEliminar = new JButton("🗑️ Eliminar");
         JButton btnVerDetalles = new JButton("👁️ Ver Detalles");
         JButton btnAjustarStock = new JButton("📦 Ajustar Stock");
+        JButton btnAjustarPrecios = new JButton("💲 Ajustar Precios");
+        JButton btnConciliar = new JButton("📋 Conciliar Conteo");
         JButton btnVolver = new JButton("← Volver al Menú");
         
         // Colores para los botones
@@ -137,6 +151,12 @@ public class ProductoView extends JFrame {
         btnAjustarStock.setBackground(new Color(255, 152, 0));
         btnAjustarStock.setForeground(Color.WHITE);
         
+        btnAjustarPrecios.setBackground(new Color(0, 121, 107));
+        btnAjustarPrecios.setForeground(Color.WHITE);
+        
+        btnConciliar.setBackground(new Color(94, 53, 177));
+        btnConciliar.setForeground(Color.WHITE);
+        
         btnVolver.setBackground(new Color(96, 96, 96));
         btnVolver.setForeground(Color.WHITE);
         
@@ -147,6 +167,8 @@ public class ProductoView extends JFrame {
         btnEliminar.setPreferredSize(buttonSize);
         btnVerDetalles.setPreferredSize(buttonSize);
         btnAjustarStock.setPreferredSize(buttonSize);
+        btnAjustarPrecios.setPreferredSize(buttonSize);
+        btnConciliar.setPreferredSize(buttonSize);
         btnVolver.setPreferredSize(buttonSize);
         
         panelBotones.add(btnNuevo);
@@ -154,6 +176,8 @@ public class ProductoView extends JFrame {
         panelBotones.add(btnEliminar);
         panelBotones.add(btnVerDetalles);
         panelBotones.add(btnAjustarStock);
+        panelBotones.add(btnAjustarPrecios);
+        panelBotones.add(btnConciliar);
         panelBotones.add(btnVolver);
         
         // Eventos de botones
@@ -162,6 +186,8 @@ public class ProductoView extends JFrame {
         btnEliminar.addActionListener(e -> eliminarProducto());
         btnVerDetalles.addActionListener(e -> verDetallesProducto());
         btnAjustarStock.addActionListener(e -> ajustarStock());
+        btnAjustarPrecios.addActionListener(e -> ajustarPrecios());
+        btnConciliar.addActionListener(e -> conciliarInventario());
         btnVolver.addActionListener(e -> dispose());
         
         // Agregar paneles al frame
@@ -281,16 +307,13 @@ public class ProductoView extends JFrame {
     }
     
     private void nuevoProducto() {
+        // Al guardar, la fila nueva llega por el bus de eventos
         ProductoForm form = new ProductoForm(this, null);
         form.setVisible(true);
-        
-        if (form.isProductoGuardado()) {
-            actualizarLista();
-        }
     }
     
     private void editarProducto() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -303,17 +326,14 @@ public class ProductoView extends JFrame {
         Producto productoSeleccionado = tableModel.getProductoAt(selectedRow);
         
         if (productoSeleccionado != null) {
+            // Al guardar, la fila se actualiza por el bus de eventos
             ProductoForm form = new ProductoForm(this, productoSeleccionado);
             form.setVisible(true);
-            
-            if (form.isProductoGuardado()) {
-                actualizarLista();
-            }
         }
     }
     
     private void eliminarProducto() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -346,29 +366,24 @@ public class ProductoView extends JFrame {
                 JOptionPane.WARNING_MESSAGE);
             
             if (respuesta == JOptionPane.YES_OPTION) {
-                try {
-                    setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                    tableModel.eliminarProducto(selectedRow);
-                    
-                    JOptionPane.showMessageDialog(this, 
+                // La fila se quita cuando el bus avisa la eliminación
+                int idProducto = productoSeleccionado.getIdProducto();
+                EscrituraEnSegundoPlano.ejecutar(this,
+                    () -> productoController.eliminarProducto(idProducto),
+                    eliminado -> JOptionPane.showMessageDialog(this, 
                         "Producto eliminado exitosamente", 
                         "Eliminación exitosa", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                        
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, 
+                        JOptionPane.INFORMATION_MESSAGE),
+                    e -> JOptionPane.showMessageDialog(this, 
                         "Error al eliminar producto:\n" + e.getMessage(), 
                         "Error", 
-                        JOptionPane.ERROR_MESSAGE);
-                } finally {
-                    setCursor(Cursor.getDefaultCursor());
-                }
+                        JOptionPane.ERROR_MESSAGE));
             }
         }
     }
     
     private void verDetallesProducto() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -409,8 +424,20 @@ public class ProductoView extends JFrame {
         }
     }
     
+    private void ajustarPrecios() {
+        // Los precios nuevos llegan a la tabla por el bus de eventos
+        AjustePreciosForm form = new AjustePreciosForm(this);
+        form.setVisible(true);
+    }
+    
+    private void conciliarInventario() {
+        // El stock conciliado llega a la tabla por el bus de eventos
+        ConciliacionInventarioForm form = new ConciliacionInventarioForm(this);
+        form.setVisible(true);
+    }
+    
     private void ajustarStock() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, 
@@ -446,30 +473,49 @@ public class ProductoView extends JFrame {
                         return;
                     }
                     
-                    // Actualizar el stock del producto
-                    productoSeleccionado.setStock(nuevoStock);
-                    tableModel.actualizarProducto(productoSeleccionado);
-                    
-                    JOptionPane.showMessageDialog(this, 
-                        "Stock actualizado exitosamente", 
-                        "Actualización exitosa", 
-                        JOptionPane.INFORMATION_MESSAGE);
+                    // Actualizar el stock del producto; la fila se repinta por el bus
+                    int idProducto = productoSeleccionado.getIdProducto();
+                    EscrituraEnSegundoPlano.ejecutar(this,
+                        () -> productoController.actualizarStock(idProducto, nuevoStock),
+                        actualizado -> JOptionPane.showMessageDialog(this, 
+                            "Stock actualizado exitosamente", 
+                            "Actualización exitosa", 
+                            JOptionPane.INFORMATION_MESSAGE),
+                        e -> JOptionPane.showMessageDialog(this, 
+                            "Error al actualizar stock:\n" + e.getMessage(), 
+                            "Error", 
+                            JOptionPane.ERROR_MESSAGE));
                     
                 } catch (NumberFormatException e) {
                     JOptionPane.showMessageDialog(this, 
                         "Por favor ingrese un número válido", 
                         "Valor inválido", 
                         JOptionPane.WARNING_MESSAGE);
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, 
-                        "Error al actualizar stock:\n" + e.getMessage(), 
-                        "Error", 
-                        JOptionPane.ERROR_MESSAGE);
                 }
             }
         }
     }
     
+    /**
+     * Al cerrar la ventana deja de recibir eventos del bus
+     */
+    @Override
+    public void dispose() {
+        BusEventos.desuscribir(suscriptor);
+        super.dispose();
+    }
+    
+    private void alCambiarDatos(BusEventos.Evento evento) {
+        if (!isDisplayable()) {
+            return;
+        }
+        try {
+            tableModel.aplicarEvento(evento);
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo aplicar " + evento + ": " + e.getMessage());
+        }
+    }
+    
     public void actualizarLista() {
         try {
             setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
@@ -489,4 +535,13 @@ public class ProductoView extends JFrame {
             setCursor(Cursor.getDefaultCursor());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Fila del modelo seleccionada en la tabla (-1 si no hay selección).
+     * La tabla puede estar ordenada, así que el índice visible se convierte.
+     */
+    private int getFilaSeleccionada() {
+        int filaVista = tabla.getSelectedRow();
+        return filaVista == -1 ? -1 : tabla.convertRowIndexToModel(filaVista);
+    }
+}
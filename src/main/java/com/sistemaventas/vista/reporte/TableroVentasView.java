@@ -0,0 +1,312 @@
+package com.sistemaventas.vista.reporte;
+
+import com.sistemaventas.dao.ArchivoVentasDAO;
+import com.sistemaventas.dao.ReporteDAO;
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.util.BusEventos;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.time.Day;
+import org.jfree.data.time.Month;
+import org.jfree.data.time.RegularTimePeriod;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tablero de ventas: ingresos por período, productos más vendidos y mejores
+ * clientes para un rango de fechas.
+ * <p>
+ * Los datos salen de consultas agregadas de {@link ReporteDAO} (nunca de la
+ * lista completa de ventas) y los gráficos se arman en un SwingWorker, fuera
+ * del hilo de Swing. En rangos largos la serie se agrupa en períodos de
+ * varios días, o por mes si el rango incluye meses archivados, para no
+ * dibujar más de {@link #MAX_PUNTOS} puntos.
+ * </p>
+ * <p>
+ * El tablero se actualiza solo cuando otra ventana registra, modifica o
+ * elimina una venta; los eventos seguidos se agrupan en un único refresco.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class TableroVentasView extends JFrame {
+
+    /**
+     * Máximo de puntos de la serie de ingresos
+     */
+    static final int MAX_PUNTOS = 370;
+
+    private static final int TOP = 10;
+    private static final int DEMORA_REFRESCO_MS = 1000;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private enum Rango {
+        DIAS_30("Últimos 30 días"),
+        DIAS_90("Últimos 90 días"),
+        ANIO("Último año"),
+        ANIOS_3("Últimos 3 años"),
+        TODO("Todo");
+
+        private final String texto;
+
+        Rango(String texto) {
+            this.texto = texto;
+        }
+
+        @Override
+        public String toString() {
+            return texto;
+        }
+    }
+
+    /**
+     * Gráficos y totales calculados por el SwingWorker
+     */
+    private static class Resultado {
+        JFreeChart ingresos;
+        JFreeChart productos;
+        JFreeChart clientes;
+        String resumen;
+    }
+
+    private final ReporteDAO reporteDAO = new ReporteDAO();
+
+    private JComboBox<Rango> cmbRango;
+    private JButton btnActualizar;
+    private JLabel lblResumen;
+    private ChartPanel panelIngresos;
+    private ChartPanel panelProductos;
+    private ChartPanel panelClientes;
+
+    private SwingWorker<Resultado, Void> trabajo;
+    private boolean refrescoPendiente = false;
+    private Timer timerRefresco;
+
+    // Recibe los cambios confirmados desde otras ventanas
+    private final BusEventos.Suscriptor suscriptor = BusEventos.enEDT(this::alCambiarDatos);
+
+    public TableroVentasView() {
+        setTitle("Tablero de Ventas");
+        setSize(1200, 750);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        initComponents();
+        setupLayout();
+
+        actualizar();
+        BusEventos.suscribir(suscriptor);
+    }
+
+    private void initComponents() {
+        cmbRango = new JComboBox<>(Rango.values());
+        cmbRango.setSelectedItem(Rango.DIAS_90);
+        cmbRango.addActionListener(e -> actualizar());
+
+        btnActualizar = new JButton("🔄 Actualizar");
+        btnActualizar.addActionListener(e -> actualizar());
+
+        lblResumen = new JLabel("Cargando...");
+        lblResumen.setFont(lblResumen.getFont().deriveFont(Font.BOLD, 14f));
+
+        // Con buffer, repintar la ventana no vuelve a dibujar el gráfico
+        panelIngresos = new ChartPanel(null, true);
+        panelProductos = new ChartPanel(null, true);
+        panelClientes = new ChartPanel(null, true);
+
+        timerRefresco = new Timer(DEMORA_REFRESCO_MS, e -> actualizar());
+        timerRefresco.setRepeats(false);
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        JPanel panelSuperior = new JPanel(new BorderLayout());
+        panelSuperior.setBorder(BorderFactory.createEmptyBorder(10, 10, 5, 10));
+
+        JLabel lblTitulo = new JLabel("Tablero de Ventas");
+        lblTitulo.setFont(lblTitulo.getFont().deriveFont(Font.BOLD, 18f));
+
+        JPanel panelRango = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        panelRango.add(new JLabel("Período:"));
+        panelRango.add(cmbRango);
+        panelRango.add(btnActualizar);
+
+        panelSuperior.add(lblTitulo, BorderLayout.WEST);
+        panelSuperior.add(panelRango, BorderLayout.EAST);
+        panelSuperior.add(lblResumen, BorderLayout.SOUTH);
+
+        JPanel panelRankings = new JPanel(new GridLayout(1, 2, 10, 10));
+        panelRankings.add(panelProductos);
+        panelRankings.add(panelClientes);
+
+        JPanel panelCentral = new JPanel(new GridLayout(2, 1, 10, 10));
+        panelCentral.setBorder(BorderFactory.createEmptyBorder(5, 10, 10, 10));
+        panelCentral.add(panelIngresos);
+        panelCentral.add(panelRankings);
+
+        JPanel panelBotones = new JPanel(new FlowLayout());
+        JButton btnVolver = new JButton("⬅️ Volver");
+        btnVolver.addActionListener(e -> dispose());
+        panelBotones.add(btnVolver);
+
+        add(panelSuperior, BorderLayout.NORTH);
+        add(panelCentral, BorderLayout.CENTER);
+        add(panelBotones, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Recalcula el tablero en segundo plano. Si ya hay un cálculo en curso,
+     * se repite al terminar para no mostrar datos viejos.
+     */
+    private void actualizar() {
+        if (trabajo != null && !trabajo.isDone()) {
+            refrescoPendiente = true;
+            return;
+        }
+
+        Rango rango = (Rango) cmbRango.getSelectedItem();
+        btnActualizar.setEnabled(false);
+
+        trabajo = new SwingWorker<Resultado, Void>() {
+            @Override
+            protected Resultado doInBackground() throws Exception {
+                return calcular(rango);
+            }
+
+            @Override
+            protected void done() {
+                btnActualizar.setEnabled(true);
+                if (!isDisplayable() || isCancelled()) {
+                    return;
+                }
+                try {
+                    Resultado resultado = get();
+                    panelIngresos.setChart(resultado.ingresos);
+                    panelProductos.setChart(resultado.productos);
+                    panelClientes.setChart(resultado.clientes);
+                    lblResumen.setText(resultado.resumen);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Error al calcular el tablero: " + causa.getMessage());
+                    lblResumen.setText("No se pudieron cargar los datos: " + causa.getMessage());
+                }
+
+                if (refrescoPendiente) {
+                    refrescoPendiente = false;
+                    actualizar();
+                }
+            }
+        };
+        trabajo.execute();
+    }
+
+    /**
+     * Consulta los agregados y arma los gráficos (fuera del hilo de Swing)
+     */
+    private Resultado calcular(Rango rango) throws Exception {
+        LocalDate hasta = LocalDate.now();
+        LocalDate desde = calcularDesde(rango, hasta);
+
+        // Si el rango incluye meses archivados solo hay totales mensuales
+        LocalDate inicioVivo = YearMonth.from(ArchivoVentasDAO.getFechaCorte()).atDay(1);
+        long dias = ChronoUnit.DAYS.between(desde, hasta) + 1;
+        boolean mensual = desde.isBefore(inicioVivo) || dias > (long) MAX_PUNTOS * 28;
+        int diasPorPunto = mensual ? 0 : (int) ((dias + MAX_PUNTOS - 1) / MAX_PUNTOS);
+
+        List<ReporteDAO.PuntoSerie> serie = mensual
+            ? reporteDAO.ingresosPorMes(desde, hasta)
+            : reporteDAO.ingresosPorPeriodo(desde, hasta, diasPorPunto);
+        List<ReporteDAO.Ranking> productos = reporteDAO.topProductos(desde, hasta, TOP);
+        List<ReporteDAO.Ranking> clientes = reporteDAO.topClientes(desde, hasta, TOP);
+
+        long totalCentavos = 0;
+        int ventas = 0;
+        TimeSeries ingresos = new TimeSeries("Ingresos");
+        for (ReporteDAO.PuntoSerie punto : serie) {
+            LocalDate inicio = punto.getInicio();
+            RegularTimePeriod periodo = mensual
+                ? new Month(inicio.getMonthValue(), inicio.getYear())
+                : new Day(inicio.getDayOfMonth(), inicio.getMonthValue(), inicio.getYear());
+            ingresos.add(periodo, punto.getTotal());
+            totalCentavos = Dinero.sumarCentavos(totalCentavos, punto.getTotalCentavos());
+            ventas += punto.getVentas();
+        }
+
+        String agrupacion = mensual ? "por mes"
+            : diasPorPunto == 1 ? "por día" : "cada " + diasPorPunto + " días";
+
+        Resultado resultado = new Resultado();
+        resultado.ingresos = ChartFactory.createTimeSeriesChart(
+            "Ingresos (" + agrupacion + ")", "Fecha", "Ingresos ($)",
+            new TimeSeriesCollection(ingresos), false, true, false);
+        resultado.productos = crearRanking("Productos más vendidos", "Producto", productos);
+        resultado.clientes = crearRanking("Mejores clientes", "Cliente", clientes);
+        resultado.resumen = String.format("Total: $%.2f  |  Ventas: %d  |  Del %s al %s",
+            Dinero.aBigDecimal(totalCentavos), ventas,
+            desde.format(FORMATO_FECHA), hasta.format(FORMATO_FECHA));
+        return resultado;
+    }
+
+    private LocalDate calcularDesde(Rango rango, LocalDate hasta) throws Exception {
+        switch (rango) {
+            case DIAS_30: return hasta.minusDays(29);
+            case DIAS_90: return hasta.minusDays(89);
+            case ANIO: return hasta.minusYears(1).plusDays(1);
+            case ANIOS_3: return hasta.minusYears(3).plusDays(1);
+            default:
+                LocalDate primera = reporteDAO.obtenerPrimeraFecha();
+                return primera != null && primera.isBefore(hasta) ? primera : hasta;
+        }
+    }
+
+    private JFreeChart crearRanking(String titulo, String eje, List<ReporteDAO.Ranking> ranking) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (ReporteDAO.Ranking fila : ranking) {
+            // Las categorías deben ser únicas aunque dos nombres coincidan
+            String etiqueta = fila.getNombre();
+            if (dataset.getColumnIndex(etiqueta) >= 0) {
+                etiqueta += " (#" + fila.getId() + ")";
+            }
+            dataset.addValue(fila.getTotal(), "Importe", etiqueta);
+        }
+        return ChartFactory.createBarChart(titulo, eje, "Importe ($)", dataset,
+                                           PlotOrientation.HORIZONTAL, false, true, false);
+    }
+
+    @Override
+    public void dispose() {
+        BusEventos.desuscribir(suscriptor);
+        timerRefresco.stop();
+        if (trabajo != null) {
+            trabajo.cancel(false);
+        }
+        super.dispose();
+    }
+
+    private void alCambiarDatos(BusEventos.Evento evento) {
+        if (!isDisplayable()) {
+            return;
+        }
+        // Los nombres de los rankings cambian si se edita un producto o cliente
+        if (evento.esDeVenta()
+                || evento.getTipo() == BusEventos.Tipo.PRODUCTO_ACTUALIZADO
+                || evento.getTipo() == BusEventos.Tipo.CLIENTE_ACTUALIZADO) {
+            timerRefresco.restart();
+        }
+    }
+}
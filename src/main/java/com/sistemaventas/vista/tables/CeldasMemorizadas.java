@@ -0,0 +1,169 @@
+package com.sistemaventas.vista.tables;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Valores y textos de las celdas de un modelo de tabla, calculados una sola
+ * vez por fila.
+ * <p>
+ * La JTable pide el valor de cada celda visible en cada repintado; formatear
+ * importes y fechas en ese momento crea objetos nuevos en cada scroll. Aquí
+ * la fila se calcula la primera vez que se pide y se reutiliza mientras su
+ * fuente (el objeto del que salen los datos) sea la misma instancia: cuando
+ * el modelo reemplaza la fila, o todas sus columnas, la fuente cambia y la
+ * fila se vuelve a calcular. Si el modelo cambia una fila sin cambiar la
+ * fuente, avisa con {@link #descartar}, {@link #quitar} o {@link #insertar}.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+final class CeldasMemorizadas {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Calcula el valor tipado de una celda
+     */
+    interface Calculo {
+        Object valor(int fila, int columna);
+    }
+
+    private final int columnas;
+    private final Calculo calculo;
+
+    private Object[] fuentes = new Object[0];
+    private Object[][] valores = new Object[0][];
+    private String[][] textos = new String[0][];
+
+    CeldasMemorizadas(int columnas, Calculo calculo) {
+        this.columnas = columnas;
+        this.calculo = calculo;
+    }
+
+    /**
+     * Valor tipado de una celda (Integer, String, BigDecimal o LocalDate)
+     *
+     * @param fila fila en el modelo
+     * @param columna columna en el modelo
+     * @param fuente objeto del que sale la fila; si cambia se recalcula
+     */
+    Object getValor(int fila, int columna, Object fuente) {
+        preparar(fila, fuente);
+        return valores[fila][columna];
+    }
+
+    /**
+     * Texto a mostrar en una celda
+     *
+     * @param fila fila en el modelo
+     * @param columna columna en el modelo
+     * @param fuente objeto del que sale la fila; si cambia se recalcula
+     */
+    String getTexto(int fila, int columna, Object fuente) {
+        preparar(fila, fuente);
+        return textos[fila][columna];
+    }
+
+    /**
+     * Descarta todas las filas calculadas
+     */
+    void vaciar() {
+        fuentes = new Object[0];
+        valores = new Object[0][];
+        textos = new String[0][];
+    }
+
+    /**
+     * Descarta la fila calculada de una fila que cambió
+     */
+    void descartar(int fila) {
+        if (fila < fuentes.length) {
+            fuentes[fila] = null;
+        }
+    }
+
+    /**
+     * Corre hacia arriba las filas calculadas que siguen a una fila quitada
+     */
+    void quitar(int fila) {
+        if (fila >= fuentes.length) {
+            return;
+        }
+        int ultima = fuentes.length - 1;
+        Object[] valoresFila = valores[fila];
+        String[] textosFila = textos[fila];
+        System.arraycopy(fuentes, fila + 1, fuentes, fila, ultima - fila);
+        System.arraycopy(valores, fila + 1, valores, fila, ultima - fila);
+        System.arraycopy(textos, fila + 1, textos, fila, ultima - fila);
+        // Los arreglos de la fila quitada quedan al final para reutilizarlos
+        fuentes[ultima] = null;
+        valores[ultima] = valoresFila;
+        textos[ultima] = textosFila;
+    }
+
+    /**
+     * Corre hacia abajo las filas calculadas desde una fila insertada
+     */
+    void insertar(int fila) {
+        if (fila >= fuentes.length) {
+            return;
+        }
+        int ultima = fuentes.length - 1;
+        Object[] valoresUltima = valores[ultima];
+        String[] textosUltima = textos[ultima];
+        System.arraycopy(fuentes, fila, fuentes, fila + 1, ultima - fila);
+        System.arraycopy(valores, fila, valores, fila + 1, ultima - fila);
+        System.arraycopy(textos, fila, textos, fila + 1, ultima - fila);
+        // La última fila calculada se pierde; sus arreglos pasan a la nueva
+        fuentes[fila] = null;
+        valores[fila] = valoresUltima;
+        textos[fila] = textosUltima;
+    }
+
+    private void preparar(int fila, Object fuente) {
+        if (fila >= fuentes.length) {
+            int capacidad = Math.max(fila + 1, fuentes.length + (fuentes.length >> 1));
+            fuentes = Arrays.copyOf(fuentes, capacidad);
+            valores = Arrays.copyOf(valores, capacidad);
+            textos = Arrays.copyOf(textos, capacidad);
+        }
+        if (fuentes[fila] == fuente && valores[fila] != null) {
+            return;
+        }
+
+        // Los arreglos de la fila se reutilizan al recalcular
+        Object[] valoresFila = valores[fila];
+        String[] textosFila = textos[fila];
+        if (valoresFila == null) {
+            valoresFila = new Object[columnas];
+            textosFila = new String[columnas];
+            valores[fila] = valoresFila;
+            textos[fila] = textosFila;
+        }
+        for (int columna = 0; columna < columnas; columna++) {
+            valoresFila[columna] = calculo.valor(fila, columna);
+            textosFila[columna] = formatear(valoresFila[columna]);
+        }
+        fuentes[fila] = fuente;
+    }
+
+    /**
+     * Texto de un valor: importes con dos decimales y fechas dd/MM/yyyy
+     */
+    static String formatear(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor instanceof BigDecimal) {
+            return String.format("$%.2f", valor);
+        }
+        if (valor instanceof LocalDate) {
+            return ((LocalDate) valor).format(FORMATO_FECHA);
+        }
+        return valor.toString();
+    }
+}
@@ -1,17 +1,29 @@
 package com.sistemaventas.vista.tables;
 
+import com.sistemaventas.dao.BusquedaNombre;
 import com.sistemaventas.dao.ClienteDAO;
 import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.util.BusEventos;
 
 import javax.swing.table.AbstractTableModel;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
-public class ClienteTableModel extends AbstractTableModel {
+public class ClienteTableModel extends AbstractTableModel implements OrdenadorCatalogo.ClavesOrden, TextosCelda {
     
     private String[] columns = {"ID", "Nombre", "DNI", "Teléfono", "Email"};
     private List<Cliente> clientes = new ArrayList<>();
+    private int[] huellas = new int[0];
+    
+    // Valores y textos de las filas ya mostradas, válidos mientras la fila sea el mismo objeto
+    private final CeldasMemorizadas celdas = new CeldasMemorizadas(5, this::calcularValor);
+    
+    // Condición de la consulta mostrada, para saber si un cliente modificado sigue en la lista
+    private Predicate<Cliente> criterio = c -> true;
     private ClienteDAO clienteDAO = new ClienteDAO();
     
     public ClienteTableModel() {
@@ -25,22 +37,16 @@ public class ClienteTableModel extends AbstractTableModel {
         try {
             System.out.println("Cargando clientes desde la base de datos...");
             List<Cliente> nuevosClientes = clienteDAO.obtenerTodos();
+            criterio = c -> true;
             
-            // Limpiar la lista actual
-            clientes.clear();
-            
-            // Agregar los nuevos datos
-            clientes.addAll(nuevosClientes);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            // Reemplazar los datos avisando solo las filas que cambiaron
+            reemplazar(nuevosClientes);
             
         } catch (SQLException e) {
             e.printStackTrace();
             
             // En caso de error, mantener una lista vacía
-            clientes.clear();
-            fireTableDataChanged();
+            reemplazar(new ArrayList<>());
             
             // Re-lanzar como RuntimeException para que la vista pueda manejarlo
             throw new RuntimeException("Error al cargar datos de clientes: " + e.getMessage(), e);
@@ -56,18 +62,17 @@ public class ClienteTableModel extends AbstractTableModel {
             
             if (nombre == null || nombre.trim().isEmpty()) {
                 clientesEncontrados = clienteDAO.obtenerTodos();
+                criterio = c -> true;
             } else {
                 clientesEncontrados = clienteDAO.buscarPorNombre(nombre.trim());
+                // Misma regla que la consulta, para que una fila modificada
+                // quede o salga de la lista igual que al volver a buscar
+                String termino = nombre.trim();
+                criterio = c -> BusquedaNombre.contiene(c.getNombre(), termino);
             }
             
-            // Limpiar la lista actual
-            clientes.clear();
-            
-            // Agregar los resultados de la búsqueda
-            clientes.addAll(clientesEncontrados);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            // Reemplazar los datos avisando solo las filas que cambiaron
+            reemplazar(clientesEncontrados);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -75,6 +80,43 @@ public class ClienteTableModel extends AbstractTableModel {
         }
     }
     
+    /**
+     * Aplica un cambio de clientes publicado en el {@link BusEventos}
+     */
+    public void aplicarEvento(BusEventos.Evento evento) {
+        if (evento.esDeCliente()) {
+            refrescarCliente(evento.getId());
+        }
+    }
+    
+    /**
+     * Vuelve a leer un cliente y actualiza solo su fila: la modifica, la
+     * quita si el cliente se eliminó o dejó de cumplir la búsqueda mostrada,
+     * o la inserta en orden si ahora la cumple.
+     *
+     * @param idCliente ID del cliente que cambió
+     */
+    public void refrescarCliente(int idCliente) {
+        try {
+            Cliente cliente = clienteDAO.buscarPorId(idCliente);
+            if (cliente != null && !criterio.test(cliente)) {
+                cliente = null;
+            }
+            reemplazar(DiferenciasPorId.conFila(clientes, idCliente, cliente,
+                Cliente::getIdCliente, Comparator.comparing(Cliente::getNombre)));
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al refrescar cliente: " + e.getMessage(), e);
+        }
+    }
+    
+    private void reemplazar(List<Cliente> nuevosClientes) {
+        huellas = DiferenciasPorId.reemplazar(this, clientes, huellas, nuevosClientes,
+            Cliente::getIdCliente,
+            c -> Objects.hash(c.getNombre(), c.getDni(), c.getTelefono(), c.getEmail()));
+    }
+    
     @Override
     public int getRowCount() { 
         return clientes.size(); 
@@ -96,6 +138,18 @@ public class ClienteTableModel extends AbstractTableModel {
             return null;
         }
         
+        return celdas.getValor(row, col, clientes.get(row));
+    }
+    
+    @Override
+    public String getTextoCelda(int row, int col) {
+        if (row < 0 || row >= clientes.size()) {
+            return "";
+        }
+        return celdas.getTexto(row, col, clientes.get(row));
+    }
+    
+    private Object calcularValor(int row, int col) {
         Cliente cliente = clientes.get(row);
         
         switch (col) {
@@ -108,6 +162,12 @@ public class ClienteTableModel extends AbstractTableModel {
         }
     }
     
+    @Override
+    public Comparable<?> getClaveOrden(int row, int col) {
+        // Las columnas de clientes ya son números o textos
+        return (Comparable<?>) getValueAt(row, col);
+    }
+    
     @Override
     public Class<?> getColumnClass(int col) {
         switch (col) {
@@ -136,21 +196,15 @@ public class ClienteTableModel extends AbstractTableModel {
     }
     
     /**
-     * Agrega un nuevo cliente a la base de datos y actualiza la tabla
+     * Agrega un nuevo cliente a la base de datos (la tabla se actualiza por
+     * el {@link BusEventos}, como con cualquier otro cambio)
      */
     public boolean agregarCliente(Cliente cliente) {
         try {
             System.out.println("Agregando nuevo cliente: " + cliente.getNombre());
             
-            boolean guardado = clienteDAO.guardar(cliente);
-            
-            if (guardado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return clienteDAO.guardar(cliente);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -163,15 +217,8 @@ public class ClienteTableModel extends AbstractTableModel {
      */
     public boolean actualizarCliente(Cliente cliente) {
         try {
-            boolean actualizado = clienteDAO.actualizar(cliente);
-            
-            if (actualizado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return clienteDAO.actualizar(cliente);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -187,15 +234,8 @@ public class ClienteTableModel extends AbstractTableModel {
             Cliente cliente = clientes.get(row);
             
             try {
-                boolean eliminado = clienteDAO.eliminar(cliente.getIdCliente());
-                
-                if (eliminado) {
-                    // Recargar todos los datos para asegurar consistencia
-                    cargarDatos();
-                    return true;
-                } else {
-                    return false;
-                }
+                // La fila se quita por el evento que publica el DAO
+                return clienteDAO.eliminar(cliente.getIdCliente());
                 
             } catch (SQLException e) {
                 e.printStackTrace();
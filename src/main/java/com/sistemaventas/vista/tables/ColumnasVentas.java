@@ -0,0 +1,543 @@
+package com.sistemaventas.vista.tables;
+
+import com.sistemaventas.dao.FiltroVentas;
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.modelo.Venta;
+
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacenamiento por columnas de las ventas que muestra {@link VentaTableModel}.
+ * <p>
+ * En lugar de una lista de objetos Venta (cada uno con su LocalDate, sus
+ * importes y sus referencias), cada campo se guarda en un arreglo de
+ * primitivos: IDs, días desde la época, cantidades e importes en centavos.
+ * Clientes y productos se codifican como índices a un diccionario, así cada
+ * uno aparece una sola vez aunque tenga miles de ventas. Una fila ocupa unos
+ * 36 bytes y recorrer una columna (para totalizar u ordenar) lee memoria
+ * contigua.
+ * </p>
+ * <p>
+ * Para ordenar, cada columna se reduce a una clave <code>long</code> que se
+ * calcula una sola vez y queda guardada (ver {@link #claves(int)}); los
+ * nombres se reemplazan por su posición en el diccionario ordenado
+ * alfabéticamente, así ordenar nunca compara cadenas fila por fila.
+ * </p>
+ * <p>
+ * Los objetos Venta se reconstruyen solo cuando se piden con
+ * {@link #getVenta(int)}.
+ * </p>
+ * <p>
+ * Al recargar se crean columnas nuevas con {@link #desde(List)}; el cambio
+ * de una sola venta se aplica sobre estas mismas columnas
+ * ({@link #modificarFila}, {@link #quitarFila}, {@link #insertarFila}) sin
+ * copiarlas: los arreglos guardan lugar libre al final para las altas.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+final class ColumnasVentas {
+
+    private int filas;
+    private int[] ids;
+    private int[] dias;
+    private int[] clientes;
+    private int[] productos;
+    private int[] cantidades;
+    private long[] precios;
+    private long[] totales;
+
+    private Cliente[] diccionarioClientes;
+    private Producto[] diccionarioProductos;
+
+    private final long[][] clavesOrden = new long[VentaTableModel.COLUMNAS][];
+
+    private ColumnasVentas(int filas, int[] ids, int[] dias, int[] clientes, int[] productos,
+                           int[] cantidades, long[] precios, long[] totales,
+                           Cliente[] diccionarioClientes, Producto[] diccionarioProductos) {
+        this.filas = filas;
+        this.ids = ids;
+        this.dias = dias;
+        this.clientes = clientes;
+        this.productos = productos;
+        this.cantidades = cantidades;
+        this.precios = precios;
+        this.totales = totales;
+        this.diccionarioClientes = diccionarioClientes;
+        this.diccionarioProductos = diccionarioProductos;
+    }
+
+    /**
+     * Pasa una lista de ventas a columnas, respetando su orden
+     *
+     * @param ventas ventas a almacenar
+     * @return almacenamiento por columnas
+     */
+    static ColumnasVentas desde(List<Venta> ventas) {
+        int filas = ventas.size();
+        int[] ids = new int[filas];
+        int[] dias = new int[filas];
+        int[] clientes = new int[filas];
+        int[] productos = new int[filas];
+        int[] cantidades = new int[filas];
+        long[] precios = new long[filas];
+        long[] totales = new long[filas];
+
+        List<Cliente> diccionarioClientes = new ArrayList<>();
+        List<Producto> diccionarioProductos = new ArrayList<>();
+        Map<Integer, Integer> codigosClientes = new HashMap<>();
+        Map<Integer, Integer> codigosProductos = new HashMap<>();
+
+        for (int i = 0; i < filas; i++) {
+            Venta venta = ventas.get(i);
+            ids[i] = venta.getIdVenta();
+            dias[i] = (int) venta.getFecha().toEpochDay();
+            cantidades[i] = venta.getCantidad();
+            precios[i] = venta.getPrecioUnitarioCentavos();
+            totales[i] = venta.getTotalCentavos();
+
+            Integer codigo = codigosClientes.get(venta.getIdCliente());
+            if (codigo == null) {
+                codigo = diccionarioClientes.size();
+                codigosClientes.put(venta.getIdCliente(), codigo);
+                diccionarioClientes.add(venta.getCliente());
+            }
+            clientes[i] = codigo;
+
+            codigo = codigosProductos.get(venta.getIdProducto());
+            if (codigo == null) {
+                codigo = diccionarioProductos.size();
+                codigosProductos.put(venta.getIdProducto(), codigo);
+                diccionarioProductos.add(venta.getProducto());
+            }
+            productos[i] = codigo;
+        }
+
+        return new ColumnasVentas(filas, ids, dias, clientes, productos, cantidades, precios, totales,
+                                  diccionarioClientes.toArray(new Cliente[0]),
+                                  diccionarioProductos.toArray(new Producto[0]));
+    }
+
+    /**
+     * Columnas sin filas (cada llamada crea unas nuevas, que se pueden modificar)
+     */
+    static ColumnasVentas vacias() {
+        return desde(List.of());
+    }
+
+    int getFilas() {
+        return filas;
+    }
+
+    /**
+     * IDs de venta de todas las filas, en orden (no modificar)
+     */
+    int[] getIds() {
+        return ids.length == filas ? ids : Arrays.copyOf(ids, filas);
+    }
+
+    int getIdVenta(int fila) {
+        return ids[fila];
+    }
+
+    int getDia(int fila) {
+        return dias[fila];
+    }
+
+    Cliente getCliente(int fila) {
+        return diccionarioClientes[clientes[fila]];
+    }
+
+    Producto getProducto(int fila) {
+        return diccionarioProductos[productos[fila]];
+    }
+
+    int getCantidad(int fila) {
+        return cantidades[fila];
+    }
+
+    long getPrecioUnitarioCentavos(int fila) {
+        return precios[fila];
+    }
+
+    long getTotalCentavos(int fila) {
+        return totales[fila];
+    }
+
+    /**
+     * Suma los totales de todas las filas
+     *
+     * @return total en centavos
+     */
+    long sumarTotales() {
+        long suma = 0;
+        for (int i = 0; i < filas; i++) {
+            suma = Dinero.sumarCentavos(suma, totales[i]);
+        }
+        return suma;
+    }
+
+    /**
+     * Claves de orden de una columna de la tabla, una por fila. Se calculan
+     * la primera vez que se piden.
+     *
+     * @param columna índice de columna de {@link VentaTableModel}
+     * @return arreglo de claves (no modificar)
+     */
+    long[] claves(int columna) {
+        long[] claves = clavesOrden[columna];
+        if (claves != null) {
+            return claves;
+        }
+
+        switch (columna) {
+            case 0: claves = ampliar(ids, filas); break;
+            case 1: claves = ampliar(dias, filas); break;
+            case 2: claves = decodificar(clientes, filas, rangosNombres(diccionarioClientes)); break;
+            case 3: claves = decodificar(productos, filas, rangosNombres(diccionarioProductos)); break;
+            case 4: claves = ampliar(cantidades, filas); break;
+            case 5: claves = precios.length == filas ? precios : Arrays.copyOf(precios, filas); break;
+            case 6: claves = totales.length == filas ? totales : Arrays.copyOf(totales, filas); break;
+            default: throw new IllegalArgumentException("Columna inválida: " + columna);
+        }
+        clavesOrden[columna] = claves;
+        return claves;
+    }
+
+    /**
+     * Filas que cumplen un filtro, en el orden almacenado
+     *
+     * @param filtro criterios (null para todas las filas)
+     * @param seleccion filas a considerar, en orden (null para todas)
+     * @return posiciones aceptadas (dentro de la selección, si se indicó)
+     */
+    int[] filtrar(FiltroVentas filtro, int[] seleccion) {
+        int total = seleccion == null ? filas : seleccion.length;
+        int[] aceptadas = new int[total];
+        int cantidad = 0;
+        for (int k = 0; k < total; k++) {
+            int i = seleccion == null ? k : seleccion[k];
+            if (filtro == null || filtro.acepta(dias[i], getCliente(i).getIdCliente(),
+                                                getProducto(i).getIdProducto(), totales[i])) {
+                aceptadas[cantidad++] = k;
+            }
+        }
+        return cantidad == total ? aceptadas : Arrays.copyOf(aceptadas, cantidad);
+    }
+
+    /**
+     * Ordena índices de filas según una columna de claves. El orden es
+     * estable: las filas con la misma clave conservan su posición relativa.
+     *
+     * @param indices índices a ordenar (se modifica)
+     * @param claves claves de {@link #claves(int)}
+     * @param descendente true para ordenar de mayor a menor
+     */
+    static void ordenar(int[] indices, long[] claves, boolean descendente) {
+        int[] auxiliar = new int[indices.length];
+        int[] origen = indices;
+        int[] destino = auxiliar;
+
+        // Mergesort de abajo hacia arriba sobre int[], sin crear objetos por comparación
+        for (int ancho = 1; ancho < indices.length; ancho <<= 1) {
+            for (int inicio = 0; inicio < indices.length; inicio += ancho << 1) {
+                int medio = Math.min(inicio + ancho, indices.length);
+                int fin = Math.min(inicio + (ancho << 1), indices.length);
+                int i = inicio;
+                int j = medio;
+                int k = inicio;
+                while (i < medio && j < fin) {
+                    long a = claves[origen[i]];
+                    long b = claves[origen[j]];
+                    boolean tomarDerecha = descendente ? b > a : b < a;
+                    destino[k++] = tomarDerecha ? origen[j++] : origen[i++];
+                }
+                while (i < medio) destino[k++] = origen[i++];
+                while (j < fin) destino[k++] = origen[j++];
+            }
+            int[] temporal = origen;
+            origen = destino;
+            destino = temporal;
+        }
+
+        if (origen != indices) {
+            System.arraycopy(origen, 0, indices, 0, indices.length);
+        }
+    }
+
+    private static long[] ampliar(int[] valores, int filas) {
+        long[] resultado = new long[filas];
+        for (int i = 0; i < filas; i++) {
+            resultado[i] = valores[i];
+        }
+        return resultado;
+    }
+
+    private static long[] decodificar(int[] codigos, int filas, int[] rangos) {
+        long[] resultado = new long[filas];
+        for (int i = 0; i < filas; i++) {
+            resultado[i] = rangos[codigos[i]];
+        }
+        return resultado;
+    }
+
+    /**
+     * Posición alfabética de cada entrada del diccionario
+     */
+    private static int[] rangosNombres(Object[] diccionario) {
+        Collator collator = Collator.getInstance();
+        Integer[] orden = new Integer[diccionario.length];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> collator.compare(nombre(diccionario[a]), nombre(diccionario[b])));
+
+        int[] rangos = new int[diccionario.length];
+        for (int posicion = 0; posicion < orden.length; posicion++) {
+            rangos[orden[posicion]] = posicion;
+        }
+        return rangos;
+    }
+
+    /**
+     * Nombre con el que se muestra y ordena una entrada del diccionario, o
+     * su ID si el cliente o producto ya no existe
+     */
+    static String nombre(Object entrada) {
+        if (entrada instanceof Cliente) {
+            Cliente cliente = (Cliente) entrada;
+            return cliente.getNombre() != null ? cliente.getNombre() : "ID: " + cliente.getIdCliente();
+        }
+        Producto producto = (Producto) entrada;
+        return producto.getNombre() != null ? producto.getNombre() : "ID: " + producto.getIdProducto();
+    }
+
+    /**
+     * Fila de una venta
+     * <p>
+     * Recorre la columna de IDs: se usa solo cuando no se conoce la fecha con
+     * la que la venta está guardada (bajas o cambios de fecha); si se conoce,
+     * {@link #posicionPorFecha} la ubica por búsqueda binaria.
+     * </p>
+     *
+     * @param idVenta ID de la venta
+     * @return índice de la fila, o -1 si no está
+     */
+    int buscarFila(int idVenta) {
+        for (int i = 0; i < filas; i++) {
+            if (ids[i] == idVenta) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Posición que le corresponde a una venta en el orden por defecto de las
+     * consultas (fecha descendente, después ID descendente), por búsqueda binaria
+     *
+     * @param dia fecha de la venta en días desde la época
+     * @param idVenta ID de la venta
+     * @return fila de la venta si ya está con esa fecha; si no, fila en la
+     *         que habría que insertarla
+     */
+    int posicionPorFecha(int dia, int idVenta) {
+        int desde = 0;
+        int hasta = filas;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (dias[medio] > dia || (dias[medio] == dia && ids[medio] > idVenta)) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Reemplaza los datos de una fila, sin moverla
+     *
+     * @param fila índice de la fila
+     * @param venta datos nuevos (la fecha debe conservar la fila en su lugar)
+     */
+    void modificarFila(int fila, Venta venta) {
+        escribir(fila, venta);
+        descartarClaves();
+    }
+
+    /**
+     * Quita una fila corriendo las siguientes un lugar hacia arriba
+     *
+     * @param fila índice de la fila
+     */
+    void quitarFila(int fila) {
+        int siguientes = filas - fila - 1;
+        System.arraycopy(ids, fila + 1, ids, fila, siguientes);
+        System.arraycopy(dias, fila + 1, dias, fila, siguientes);
+        System.arraycopy(clientes, fila + 1, clientes, fila, siguientes);
+        System.arraycopy(productos, fila + 1, productos, fila, siguientes);
+        System.arraycopy(cantidades, fila + 1, cantidades, fila, siguientes);
+        System.arraycopy(precios, fila + 1, precios, fila, siguientes);
+        System.arraycopy(totales, fila + 1, totales, fila, siguientes);
+        filas--;
+        descartarClaves();
+    }
+
+    /**
+     * Inserta una venta corriendo las filas siguientes un lugar hacia abajo
+     *
+     * @param posicion índice que tendrá la fila nueva
+     * @param venta venta a insertar
+     */
+    void insertarFila(int posicion, Venta venta) {
+        if (filas == ids.length) {
+            ampliarCapacidad();
+        }
+        int siguientes = filas - posicion;
+        System.arraycopy(ids, posicion, ids, posicion + 1, siguientes);
+        System.arraycopy(dias, posicion, dias, posicion + 1, siguientes);
+        System.arraycopy(clientes, posicion, clientes, posicion + 1, siguientes);
+        System.arraycopy(productos, posicion, productos, posicion + 1, siguientes);
+        System.arraycopy(cantidades, posicion, cantidades, posicion + 1, siguientes);
+        System.arraycopy(precios, posicion, precios, posicion + 1, siguientes);
+        System.arraycopy(totales, posicion, totales, posicion + 1, siguientes);
+        filas++;
+        escribir(posicion, venta);
+        descartarClaves();
+    }
+
+    private void escribir(int fila, Venta venta) {
+        ids[fila] = venta.getIdVenta();
+        dias[fila] = (int) venta.getFecha().toEpochDay();
+        clientes[fila] = codigoCliente(venta.getCliente());
+        productos[fila] = codigoProducto(venta.getProducto());
+        cantidades[fila] = venta.getCantidad();
+        precios[fila] = venta.getPrecioUnitarioCentavos();
+        totales[fila] = venta.getTotalCentavos();
+    }
+
+    private void ampliarCapacidad() {
+        int capacidad = Math.max(8, filas + (filas >> 1));
+        ids = Arrays.copyOf(ids, capacidad);
+        dias = Arrays.copyOf(dias, capacidad);
+        clientes = Arrays.copyOf(clientes, capacidad);
+        productos = Arrays.copyOf(productos, capacidad);
+        cantidades = Arrays.copyOf(cantidades, capacidad);
+        precios = Arrays.copyOf(precios, capacidad);
+        totales = Arrays.copyOf(totales, capacidad);
+    }
+
+    /**
+     * Las claves de orden guardadas dejan de valer cuando cambia una fila;
+     * se vuelven a calcular la próxima vez que se piden
+     */
+    private void descartarClaves() {
+        Arrays.fill(clavesOrden, null);
+    }
+
+    /**
+     * Código del cliente en el diccionario; si no está se agrega al final.
+     * Una entrada existente no se reemplaza: los cambios de nombre llegan
+     * por {@link #conCliente}.
+     */
+    private int codigoCliente(Cliente cliente) {
+        int codigo = buscarEntrada(diccionarioClientes, cliente);
+        if (codigo < 0) {
+            diccionarioClientes = conEntrada(diccionarioClientes, cliente);
+            codigo = diccionarioClientes.length - 1;
+        }
+        return codigo;
+    }
+
+    private int codigoProducto(Producto producto) {
+        int codigo = buscarEntrada(diccionarioProductos, producto);
+        if (codigo < 0) {
+            diccionarioProductos = conEntrada(diccionarioProductos, producto);
+            codigo = diccionarioProductos.length - 1;
+        }
+        return codigo;
+    }
+
+    /**
+     * Copia de las columnas con los datos de un cliente reemplazados en el
+     * diccionario (por ejemplo, después de cambiarle el nombre). La copia
+     * comparte las filas con estas columnas, que dejan de usarse.
+     *
+     * @return columnas nuevas, o estas mismas si el cliente no aparece
+     */
+    ColumnasVentas conCliente(Cliente cliente) {
+        if (buscarEntrada(diccionarioClientes, cliente) < 0) {
+            return this;
+        }
+        return new ColumnasVentas(filas, ids, dias, clientes, productos, cantidades, precios, totales,
+                                  conEntrada(diccionarioClientes, cliente), diccionarioProductos);
+    }
+
+    /**
+     * Copia de las columnas con los datos de un producto reemplazados en el diccionario
+     *
+     * @return columnas nuevas, o estas mismas si el producto no aparece
+     */
+    ColumnasVentas conProducto(Producto producto) {
+        if (buscarEntrada(diccionarioProductos, producto) < 0) {
+            return this;
+        }
+        return new ColumnasVentas(filas, ids, dias, clientes, productos, cantidades, precios, totales,
+                                  diccionarioClientes, conEntrada(diccionarioProductos, producto));
+    }
+
+    /**
+     * Copia del diccionario con la entrada del mismo ID reemplazada, o agregada al final
+     */
+    private static <T> T[] conEntrada(T[] diccionario, T entrada) {
+        int codigo = buscarEntrada(diccionario, entrada);
+        T[] resultado = Arrays.copyOf(diccionario, diccionario.length + (codigo < 0 ? 1 : 0));
+        resultado[codigo < 0 ? diccionario.length : codigo] = entrada;
+        return resultado;
+    }
+
+    private static int buscarEntrada(Object[] diccionario, Object entrada) {
+        int id = idEntrada(entrada);
+        for (int i = 0; i < diccionario.length; i++) {
+            if (idEntrada(diccionario[i]) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int idEntrada(Object entrada) {
+        if (entrada instanceof Cliente) {
+            return ((Cliente) entrada).getIdCliente();
+        }
+        return ((Producto) entrada).getIdProducto();
+    }
+
+    /**
+     * Reconstruye la venta de una fila
+     *
+     * @param fila índice de la fila
+     * @return venta con el cliente y el producto del diccionario
+     */
+    Venta getVenta(int fila) {
+        return new Venta(
+            ids[fila],
+            LocalDate.ofEpochDay(dias[fila]),
+            getCliente(fila),
+            getProducto(fila),
+            cantidades[fila],
+            Dinero.aBigDecimal(precios[fila]),
+            Dinero.aBigDecimal(totales[fila])
+        );
+    }
+}
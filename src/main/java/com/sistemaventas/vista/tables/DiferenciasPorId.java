@@ -0,0 +1,290 @@
+package com.sistemaventas.vista.tables;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Diferencias entre dos versiones de las filas de una tabla, identificando
+ * cada fila por su ID.
+ * <p>
+ * Se usa al recargar un modelo de tabla para avisar a la JTable solo de las
+ * filas que cambiaron (fireTableRowsDeleted / Inserted / Updated) en lugar de
+ * reconstruir toda la vista. Los rangos se expresan así:
+ * </p>
+ * <ul>
+ *   <li>eliminadas: índices de la versión anterior</li>
+ *   <li>insertadas y actualizadas: índices de la versión nueva</li>
+ * </ul>
+ * <p>
+ * Aplicar primero las bajas (de la última a la primera), después las altas
+ * (de la primera a la última) y por último las actualizaciones lleva de una
+ * versión a la otra. Si las filas que están en ambas versiones cambiaron de
+ * orden, o hay demasiados rangos, conviene un refresco completo
+ * (ver {@link #convieneAplicar()}).
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+final class DiferenciasPorId {
+
+    /**
+     * Máximo de eventos para los que vale la pena avisar fila por fila
+     */
+    static final int MAX_EVENTOS = 64;
+
+    /**
+     * Compara el contenido de una fila que está en las dos versiones
+     */
+    interface Comparacion {
+        boolean mismoContenido(int filaAnterior, int filaNueva);
+    }
+
+    /**
+     * Recibe una fila que está en las dos versiones con contenido distinto
+     */
+    interface FilaActualizada {
+        void recibir(int filaAnterior, int filaNueva);
+    }
+
+    private final List<int[]> eliminadas = new ArrayList<>();
+    private final List<int[]> insertadas = new ArrayList<>();
+    private final List<int[]> actualizadas = new ArrayList<>();
+    private boolean reordenado;
+
+    // Pares (fila anterior, fila nueva) de las filas actualizadas, uno detrás del otro
+    private int[] paresActualizados = new int[0];
+    private int cantidadActualizadas;
+
+    private DiferenciasPorId() {
+    }
+
+    /**
+     * Calcula las diferencias entre dos versiones.
+     * <p>
+     * Las filas iguales al principio y al final de ambas versiones (lo usual
+     * cuando cambia una sola venta o un solo producto) se recorren una vez;
+     * solo el tramo del medio se ordena para buscar qué IDs faltan de cada
+     * lado.
+     * </p>
+     *
+     * @param anteriores IDs de la versión anterior, en orden de fila
+     * @param nuevos IDs de la versión nueva, en orden de fila
+     * @param comparacion compara las filas presentes en ambas versiones
+     * @return diferencias encontradas
+     */
+    static DiferenciasPorId calcular(int[] anteriores, int[] nuevos, Comparacion comparacion) {
+        DiferenciasPorId diferencias = new DiferenciasPorId();
+
+        // Tramo del medio: lo que queda sin el prefijo y el sufijo de IDs comunes
+        int prefijo = 0;
+        while (prefijo < anteriores.length && prefijo < nuevos.length && anteriores[prefijo] == nuevos[prefijo]) {
+            prefijo++;
+        }
+        int finAnteriores = anteriores.length;
+        int finNuevos = nuevos.length;
+        while (finAnteriores > prefijo && finNuevos > prefijo
+                && anteriores[finAnteriores - 1] == nuevos[finNuevos - 1]) {
+            finAnteriores--;
+            finNuevos--;
+        }
+
+        int[] anterioresOrdenados = Arrays.copyOfRange(anteriores, prefijo, finAnteriores);
+        int[] nuevosOrdenados = Arrays.copyOfRange(nuevos, prefijo, finNuevos);
+        Arrays.sort(anterioresOrdenados);
+        Arrays.sort(nuevosOrdenados);
+
+        boolean[] eliminada = new boolean[anteriores.length];
+        for (int i = prefijo; i < finAnteriores; i++) {
+            eliminada[i] = Arrays.binarySearch(nuevosOrdenados, anteriores[i]) < 0;
+        }
+        boolean[] insertada = new boolean[nuevos.length];
+        for (int j = prefijo; j < finNuevos; j++) {
+            insertada[j] = Arrays.binarySearch(anterioresOrdenados, nuevos[j]) < 0;
+        }
+
+        agregarRangos(eliminada, diferencias.eliminadas);
+        agregarRangos(insertada, diferencias.insertadas);
+
+        // Las filas comunes deben aparecer en el mismo orden en ambas versiones
+        boolean[] actualizada = new boolean[nuevos.length];
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < anteriores.length && eliminada[i]) i++;
+            while (j < nuevos.length && insertada[j]) j++;
+            if (i >= anteriores.length || j >= nuevos.length) {
+                break;
+            }
+            if (anteriores[i] != nuevos[j]) {
+                diferencias.reordenado = true;
+                break;
+            }
+            if (!comparacion.mismoContenido(i, j)) {
+                actualizada[j] = true;
+                diferencias.agregarActualizada(i, j);
+            }
+            i++;
+            j++;
+        }
+
+        agregarRangos(actualizada, diferencias.actualizadas);
+        return diferencias;
+    }
+
+    private void agregarActualizada(int filaAnterior, int filaNueva) {
+        if (cantidadActualizadas * 2 == paresActualizados.length) {
+            paresActualizados = Arrays.copyOf(paresActualizados, Math.max(8, paresActualizados.length * 2));
+        }
+        paresActualizados[cantidadActualizadas * 2] = filaAnterior;
+        paresActualizados[cantidadActualizadas * 2 + 1] = filaNueva;
+        cantidadActualizadas++;
+    }
+
+    /**
+     * Reemplaza las filas de un modelo basado en una lista, avisando a la
+     * tabla solo de los cambios.
+     * <p>
+     * El contenido se compara por huella (un hash de los campos visibles)
+     * tomada al cargar cada fila: las vistas a veces modifican el objeto de
+     * la fila antes de guardarlo, y compararlo con la versión nueva no
+     * mostraría diferencias.
+     * </p>
+     *
+     * @param modelo modelo que dispara los eventos
+     * @param filas lista de filas del modelo (se modifica)
+     * @param huellas huellas de las filas actuales
+     * @param nuevas filas nuevas
+     * @param id ID de una fila
+     * @param huella huella del contenido de una fila
+     * @return huellas de las filas nuevas
+     */
+    static <T> int[] reemplazar(AbstractTableModel modelo, List<T> filas, int[] huellas, List<T> nuevas,
+                                ToIntFunction<T> id, ToIntFunction<T> huella) {
+        int[] huellasNuevas = new int[nuevas.size()];
+        for (int j = 0; j < huellasNuevas.length; j++) {
+            huellasNuevas[j] = huella.applyAsInt(nuevas.get(j));
+        }
+
+        DiferenciasPorId diferencias = calcular(
+            filas.stream().mapToInt(id).toArray(),
+            nuevas.stream().mapToInt(id).toArray(),
+            (i, j) -> huellas[i] == huellasNuevas[j]);
+
+        if (!diferencias.convieneAplicar()) {
+            filas.clear();
+            filas.addAll(nuevas);
+            modelo.fireTableDataChanged();
+            return huellasNuevas;
+        }
+
+        // Bajas de la última a la primera, así los índices anteriores siguen valiendo
+        List<int[]> eliminadas = diferencias.getEliminadas();
+        for (int k = eliminadas.size() - 1; k >= 0; k--) {
+            int[] rango = eliminadas.get(k);
+            filas.subList(rango[0], rango[1] + 1).clear();
+            modelo.fireTableRowsDeleted(rango[0], rango[1]);
+        }
+
+        for (int[] rango : diferencias.getInsertadas()) {
+            filas.addAll(rango[0], nuevas.subList(rango[0], rango[1] + 1));
+            modelo.fireTableRowsInserted(rango[0], rango[1]);
+        }
+
+        // Mismos IDs en el mismo orden: quedarse con las instancias nuevas
+        for (int j = 0; j < nuevas.size(); j++) {
+            filas.set(j, nuevas.get(j));
+        }
+        for (int[] rango : diferencias.getActualizadas()) {
+            modelo.fireTableRowsUpdated(rango[0], rango[1]);
+        }
+        return huellasNuevas;
+    }
+
+    /**
+     * Copia de las filas con la fila de un ID reemplazada. La fila se quita
+     * de su lugar y, si se indica una nueva, se inserta en la posición que
+     * le corresponde según el orden de la consulta.
+     *
+     * @param filas filas actuales, ordenadas según <code>orden</code>
+     * @param id ID de la fila que cambió
+     * @param nueva versión nueva (null si ya no debe mostrarse)
+     * @param idDe ID de una fila
+     * @param orden orden de las filas
+     * @return nueva lista de filas
+     */
+    static <T> List<T> conFila(List<T> filas, int id, T nueva, ToIntFunction<T> idDe, Comparator<T> orden) {
+        List<T> resultado = new ArrayList<>(filas);
+        resultado.removeIf(fila -> idDe.applyAsInt(fila) == id);
+        if (nueva != null) {
+            int posicion = 0;
+            while (posicion < resultado.size() && orden.compare(resultado.get(posicion), nueva) <= 0) {
+                posicion++;
+            }
+            resultado.add(posicion, nueva);
+        }
+        return resultado;
+    }
+
+    private static void agregarRangos(boolean[] marcas, List<int[]> rangos) {
+        int inicio = -1;
+        for (int k = 0; k <= marcas.length; k++) {
+            boolean marcada = k < marcas.length && marcas[k];
+            if (marcada && inicio < 0) {
+                inicio = k;
+            } else if (!marcada && inicio >= 0) {
+                rangos.add(new int[]{inicio, k - 1});
+                inicio = -1;
+            }
+        }
+    }
+
+    /**
+     * Rangos [primera, última] eliminados, en índices de la versión anterior (ascendentes)
+     */
+    List<int[]> getEliminadas() {
+        return eliminadas;
+    }
+
+    /**
+     * Rangos [primera, última] insertados, en índices de la versión nueva (ascendentes)
+     */
+    List<int[]> getInsertadas() {
+        return insertadas;
+    }
+
+    /**
+     * Rangos [primera, última] con contenido distinto, en índices de la versión nueva
+     */
+    List<int[]> getActualizadas() {
+        return actualizadas;
+    }
+
+    /**
+     * Recorre las filas actualizadas con su índice en cada versión, en orden
+     */
+    void recorrerActualizadas(FilaActualizada fila) {
+        for (int k = 0; k < cantidadActualizadas; k++) {
+            fila.recibir(paresActualizados[k * 2], paresActualizados[k * 2 + 1]);
+        }
+    }
+
+    boolean isReordenado() {
+        return reordenado;
+    }
+
+    boolean sinCambios() {
+        return !reordenado && eliminadas.isEmpty() && insertadas.isEmpty() && actualizadas.isEmpty();
+    }
+
+    /**
+     * Indica si conviene avisar fila por fila en lugar de un refresco completo
+     */
+    boolean convieneAplicar() {
+        return !reordenado && eliminadas.size() + insertadas.size() + actualizadas.size() <= MAX_EVENTOS;
+    }
+}
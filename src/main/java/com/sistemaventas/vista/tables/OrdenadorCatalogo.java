@@ -0,0 +1,99 @@
+package com.sistemaventas.vista.tables;
+
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import java.text.Collator;
+import java.util.Comparator;
+
+/**
+ * Ordenador para las tablas de catálogo (productos y clientes).
+ * <p>
+ * A diferencia de un {@link TableRowSorter} común no compara los textos que
+ * se muestran (por ejemplo "$1.234,50"), sino las claves que entrega el
+ * modelo con {@link ClavesOrden}: importes en centavos, números y nombres.
+ * Los textos se comparan con un {@link Collator}, sin distinguir acentos ni
+ * mayúsculas.
+ * </p>
+ *
+ * @param <M> modelo de tabla que expone claves de orden
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class OrdenadorCatalogo<M extends TableModel & OrdenadorCatalogo.ClavesOrden> extends TableRowSorter<M> {
+
+    /**
+     * Modelo que sabe dar una clave de orden para cada celda
+     */
+    public interface ClavesOrden {
+
+        /**
+         * Clave de orden de una celda. Todas las claves de una columna deben
+         * ser del mismo tipo y {@link Comparable}.
+         */
+        Comparable<?> getClaveOrden(int fila, int columna);
+    }
+
+    private static final Comparator<Object> COMPARADOR_CLAVES = new Comparator<>() {
+        private final Collator collator = crearCollator();
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compare(Object a, Object b) {
+            if (a instanceof String && b instanceof String) {
+                return collator.compare(a, b);
+            }
+            return ((Comparable) a).compareTo(b);
+        }
+    };
+
+    public OrdenadorCatalogo(M modelo) {
+        super(modelo);
+        setModelWrapper(new ModelWrapper<M, Integer>() {
+            @Override
+            public M getModel() {
+                return modelo;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return modelo.getColumnCount();
+            }
+
+            @Override
+            public int getRowCount() {
+                return modelo.getRowCount();
+            }
+
+            @Override
+            public Object getValueAt(int fila, int columna) {
+                return modelo.getClaveOrden(fila, columna);
+            }
+
+            @Override
+            public Integer getIdentifier(int fila) {
+                return fila;
+            }
+        });
+        setSortsOnUpdates(true);
+    }
+
+    /**
+     * Los comparadores por defecto de TableRowSorter dependen de la clase de
+     * la columna, no de la clave: todas las columnas usan el comparador de claves.
+     */
+    @Override
+    public Comparator<?> getComparator(int columna) {
+        return COMPARADOR_CLAVES;
+    }
+
+    @Override
+    protected boolean useToString(int columna) {
+        return false;
+    }
+
+    private static Collator crearCollator() {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    }
+}
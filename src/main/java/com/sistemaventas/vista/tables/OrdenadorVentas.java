@@ -0,0 +1,242 @@
+package com.sistemaventas.vista.tables;
+
+import com.sistemaventas.dao.FiltroVentas;
+import com.sistemaventas.modelo.Dinero;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ordena y filtra las filas de un {@link VentaTableModel}.
+ * <p>
+ * Mientras las ventas entran en memoria trabaja sobre las columnas del
+ * modelo: filtra con {@link FiltroVentas#acepta} y ordena índices
+ * <code>int</code> con las claves precalculadas de cada columna, sin
+ * comparar objetos. Si la consulta base supera
+ * {@link VentaTableModel#UMBRAL_CONSULTA} filas, el orden y el filtro se
+ * delegan en la base de datos (ORDER BY / WHERE) y la vista muestra las
+ * filas tal como llegan.
+ * </p>
+ * <p>
+ * Solo se ordena por una columna a la vez.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class OrdenadorVentas extends RowSorter<VentaTableModel> {
+
+    private static final FiltroVentas.Orden[] ORDEN_COLUMNAS = {
+        FiltroVentas.Orden.ID,
+        FiltroVentas.Orden.FECHA,
+        FiltroVentas.Orden.CLIENTE,
+        FiltroVentas.Orden.PRODUCTO,
+        FiltroVentas.Orden.CANTIDAD,
+        FiltroVentas.Orden.PRECIO_UNITARIO,
+        FiltroVentas.Orden.TOTAL
+    };
+
+    private final VentaTableModel modelo;
+    private List<SortKey> claves = List.of();
+    private FiltroVentas filtro;
+
+    // null cuando la vista muestra las filas del modelo sin cambios
+    private int[] vistaAModelo;
+    private int[] modeloAVista;
+    private long totalVisibleCentavos;
+
+    public OrdenadorVentas(VentaTableModel modelo) {
+        this.modelo = modelo;
+    }
+
+    @Override
+    public VentaTableModel getModel() {
+        return modelo;
+    }
+
+    /**
+     * Filtro aplicado a la vista (null si no hay)
+     */
+    public FiltroVentas getFiltro() {
+        return filtro;
+    }
+
+    /**
+     * Cambia el filtro de la vista
+     *
+     * @param filtro criterios (null o vacío para mostrar todas las filas)
+     */
+    public void setFiltro(FiltroVentas filtro) {
+        this.filtro = filtro == null || filtro.estaVacio() ? null : filtro;
+        aplicar();
+    }
+
+    /**
+     * Suma de los totales de las filas visibles (con el filtro aplicado)
+     */
+    public BigDecimal calcularTotalVisible() {
+        if (vistaAModelo == null) {
+            return modelo.calcularTotalVentas();
+        }
+        return Dinero.aBigDecimal(totalVisibleCentavos);
+    }
+
+    @Override
+    public void toggleSortOrder(int columna) {
+        if (columna < 0 || columna >= modelo.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Columna inválida: " + columna);
+        }
+
+        SortOrder orden = SortOrder.ASCENDING;
+        if (!claves.isEmpty() && claves.get(0).getColumn() == columna
+                && claves.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            orden = SortOrder.DESCENDING;
+        }
+        setSortKeys(List.of(new SortKey(columna, orden)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> nuevas) {
+        List<SortKey> anteriores = claves;
+        claves = List.of();
+        if (nuevas != null) {
+            for (SortKey clave : nuevas) {
+                if (clave.getSortOrder() != SortOrder.UNSORTED) {
+                    claves = List.of(clave);
+                    break;
+                }
+            }
+        }
+
+        if (!claves.equals(anteriores)) {
+            fireSortOrderChanged();
+            aplicar();
+        }
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return claves;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int indice) {
+        if (vistaAModelo == null) {
+            if (indice < 0 || indice >= modelo.getRowCount()) {
+                throw new IndexOutOfBoundsException("Fila inválida: " + indice);
+            }
+            return indice;
+        }
+        return vistaAModelo[indice];
+    }
+
+    @Override
+    public int convertRowIndexToView(int indice) {
+        if (vistaAModelo == null) {
+            if (indice < 0 || indice >= modelo.getRowCount()) {
+                throw new IndexOutOfBoundsException("Fila inválida: " + indice);
+            }
+            return indice;
+        }
+        return modeloAVista[indice];
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modelo.getRowCount();
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return vistaAModelo == null ? modelo.getRowCount() : vistaAModelo.length;
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        ordenar();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        ordenar();
+    }
+
+    @Override
+    public void rowsInserted(int primera, int ultima) {
+        ordenar();
+    }
+
+    @Override
+    public void rowsDeleted(int primera, int ultima) {
+        ordenar();
+    }
+
+    @Override
+    public void rowsUpdated(int primera, int ultima) {
+        ordenar();
+    }
+
+    @Override
+    public void rowsUpdated(int primera, int ultima, int columna) {
+        ordenar();
+    }
+
+    /**
+     * Aplica el filtro y el orden actuales: en la base de datos si el modelo
+     * lo requiere (el modelo avisa del cambio y se llega a {@link #ordenar()}),
+     * o en memoria.
+     */
+    private void aplicar() {
+        SortKey clave = claves.isEmpty() ? null : claves.get(0);
+        boolean recargado = modelo.aplicarCriterios(filtro,
+            clave != null ? ORDEN_COLUMNAS[clave.getColumn()] : null,
+            clave != null && clave.getSortOrder() == SortOrder.ASCENDING);
+
+        if (!recargado) {
+            ordenar();
+        }
+    }
+
+    /**
+     * Recalcula la correspondencia entre filas de la vista y del modelo
+     */
+    private void ordenar() {
+        int[] anterior = vistaAModelo;
+        int filasAnteriores = getViewRowCount();
+
+        if (modelo.isConsultaEnBase() || (filtro == null && claves.isEmpty())) {
+            vistaAModelo = null;
+            modeloAVista = null;
+        } else {
+            int[] indices = modelo.filtrarFilas(filtro);
+            if (!claves.isEmpty()) {
+                SortKey clave = claves.get(0);
+                ColumnasVentas.ordenar(indices, modelo.clavesOrden(clave.getColumn()),
+                                       clave.getSortOrder() == SortOrder.DESCENDING);
+            }
+
+            int[] inverso = new int[modelo.getRowCount()];
+            Arrays.fill(inverso, -1);
+            long total = 0;
+            for (int i = 0; i < indices.length; i++) {
+                inverso[indices[i]] = i;
+                total = Dinero.sumarCentavos(total, modelo.getTotalCentavos(indices[i]));
+            }
+            totalVisibleCentavos = total;
+            vistaAModelo = indices;
+            modeloAVista = inverso;
+        }
+
+        if (anterior == null) {
+            // Sin orden previo la vista coincidía con el modelo
+            anterior = new int[filasAnteriores];
+            for (int i = 0; i < anterior.length; i++) {
+                anterior[i] = i;
+            }
+        }
+        fireRowSorterChanged(anterior);
+    }
+}
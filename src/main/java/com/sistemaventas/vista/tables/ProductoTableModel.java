@@ -1,22 +1,35 @@
 package com.sistemaventas.vista.tables;
 
+import com.sistemaventas.dao.BusquedaNombre;
 import com.sistemaventas.dao.ProductoDAO;
+import com.sistemaventas.modelo.Dinero;
 import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.util.BusEventos;
 
 import javax.swing.table.AbstractTableModel;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Modelo de tabla para mostrar productos en JTable
  * @author Matt_
  */
-public class ProductoTableModel extends AbstractTableModel {
+public class ProductoTableModel extends AbstractTableModel implements OrdenadorCatalogo.ClavesOrden, TextosCelda {
     
     private String[] columns = {"ID", "Nombre", "Precio", "Stock", "Valor Inventario"};
     private List<Producto> productos = new ArrayList<>();
+    private int[] huellas = new int[0];
+    
+    // Valores y textos de las filas ya mostradas, válidos mientras la fila sea el mismo objeto
+    private final CeldasMemorizadas celdas = new CeldasMemorizadas(5, this::calcularValor);
+    
+    // Condición de la consulta mostrada, para saber si un producto modificado sigue en la lista
+    private Predicate<Producto> criterio = p -> true;
     private ProductoDAO productoDAO = new ProductoDAO();
     
     public ProductoTableModel() {
@@ -30,22 +43,16 @@ public class ProductoTableModel extends AbstractTableModel {
         try {
             System.out.println("Cargando productos desde la base de datos...");
             List<Producto> nuevosProductos = productoDAO.obtenerTodos();
+            criterio = p -> true;
             
-            // Limpiar la lista actual
-            productos.clear();
-            
-            // Agregar los nuevos datos
-            productos.addAll(nuevosProductos);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            // Reemplazar los datos avisando solo las filas que cambiaron
+            reemplazar(nuevosProductos);
             
         } catch (SQLException e) {
             e.printStackTrace();
             
             // En caso de error, mantener una lista vacía
-            productos.clear();
-            fireTableDataChanged();
+            reemplazar(new ArrayList<>());
             
             // Re-lanzar como RuntimeException para que la vista pueda manejarlo
             throw new RuntimeException("Error al cargar datos de productos: " + e.getMessage(), e);
@@ -61,18 +68,17 @@ public class ProductoTableModel extends AbstractTableModel {
             
             if (nombre == null || nombre.trim().isEmpty()) {
                 productosEncontrados = productoDAO.obtenerTodos();
+                criterio = p -> true;
             } else {
                 productosEncontrados = productoDAO.buscarPorNombre(nombre.trim());
+                // Misma regla que la consulta, para que una fila modificada
+                // quede o salga de la lista igual que al volver a buscar
+                String termino = nombre.trim();
+                criterio = p -> BusquedaNombre.contiene(p.getNombre(), termino);
             }
             
-            // Limpiar la lista actual
-            productos.clear();
-            
-            // Agregar los resultados de la búsqueda
-            productos.addAll(productosEncontrados);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            // Reemplazar los datos avisando solo las filas que cambiaron
+            reemplazar(productosEncontrados);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -87,18 +93,18 @@ public class ProductoTableModel extends AbstractTableModel {
         try {
             List<Producto> todosProductos = productoDAO.obtenerTodos();
             
-            // Limpiar la lista actual
-            productos.clear();
-            
             // Filtrar productos con stock bajo
+            List<Producto> conStockBajo = new ArrayList<>();
             for (Producto p : todosProductos) {
                 if (p.getStock() < umbral) {
-                    productos.add(p);
+                    conStockBajo.add(p);
                 }
             }
             
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            criterio = p -> p.getStock() < umbral;
+            
+            // Reemplazar los datos avisando solo las filas que cambiaron
+            reemplazar(conStockBajo);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -106,6 +112,66 @@ public class ProductoTableModel extends AbstractTableModel {
         }
     }
     
+    /**
+     * Aplica un cambio de productos publicado en el {@link BusEventos}
+     */
+    public void aplicarEvento(BusEventos.Evento evento) {
+        if (evento.esMasivo()) {
+            refrescarTodos();
+        } else if (evento.esDeProducto()) {
+            refrescarProducto(evento.getId());
+        }
+    }
+    
+    /**
+     * Vuelve a leer un producto y actualiza solo su fila: la modifica, la
+     * quita si el producto se eliminó o dejó de cumplir la consulta
+     * mostrada, o la inserta en orden si ahora la cumple.
+     *
+     * @param idProducto ID del producto que cambió
+     */
+    public void refrescarProducto(int idProducto) {
+        try {
+            Producto producto = productoDAO.buscarPorId(idProducto);
+            if (producto != null && !criterio.test(producto)) {
+                producto = null;
+            }
+            reemplazar(DiferenciasPorId.conFila(productos, idProducto, producto,
+                Producto::getIdProducto, Comparator.comparing(Producto::getNombre)));
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al refrescar producto: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Vuelve a leer los productos que cumplen la consulta mostrada, después
+     * de un cambio que afecta a muchos a la vez; solo se repintan las filas
+     * que cambiaron.
+     */
+    public void refrescarTodos() {
+        try {
+            List<Producto> nuevosProductos = new ArrayList<>();
+            for (Producto producto : productoDAO.obtenerTodos()) {
+                if (criterio.test(producto)) {
+                    nuevosProductos.add(producto);
+                }
+            }
+            reemplazar(nuevosProductos);
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al refrescar productos: " + e.getMessage(), e);
+        }
+    }
+    
+    private void reemplazar(List<Producto> nuevosProductos) {
+        huellas = DiferenciasPorId.reemplazar(this, productos, huellas, nuevosProductos,
+            Producto::getIdProducto,
+            p -> Objects.hash(p.getNombre(), p.getPrecioCentavos(), p.getStock()));
+    }
+    
     @Override
     public int getRowCount() { 
         return productos.size(); 
@@ -127,14 +193,40 @@ public class ProductoTableModel extends AbstractTableModel {
             return null;
         }
         
+        return celdas.getValor(row, col, productos.get(row));
+    }
+    
+    @Override
+    public String getTextoCelda(int row, int col) {
+        if (row < 0 || row >= productos.size()) {
+            return "";
+        }
+        return celdas.getTexto(row, col, productos.get(row));
+    }
+    
+    private Object calcularValor(int row, int col) {
         Producto producto = productos.get(row);
         
         switch (col) {
             case 0: return producto.getIdProducto();
             case 1: return producto.getNombre();
-            case 2: return String.format("$%.2f", producto.getPrecio());
+            case 2: return producto.getPrecio();
             case 3: return producto.getStock();
-            case 4: return String.format("$%.2f", producto.getValorInventario());
+            case 4: return producto.getValorInventario();
+            default: return null;
+        }
+    }
+    
+    @Override
+    public Comparable<?> getClaveOrden(int row, int col) {
+        Producto producto = productos.get(row);
+        
+        switch (col) {
+            case 0: return producto.getIdProducto();
+            case 1: return producto.getNombre();
+            case 2: return producto.getPrecioCentavos();
+            case 3: return producto.getStock();
+            case 4: return Dinero.multiplicarCentavos(producto.getPrecioCentavos(), producto.getStock());
             default: return null;
         }
     }
@@ -144,9 +236,9 @@ public class ProductoTableModel extends AbstractTableModel {
         switch (col) {
             case 0:
             case 3: return Integer.class;
-            case 1:
+            case 1: return String.class;
             case 2:
-            case 4: return String.class;
+            case 4: return BigDecimal.class;
             default: return Object.class;
         }
     }
@@ -167,21 +259,15 @@ public class ProductoTableModel extends AbstractTableModel {
     }
     
     /**
-     * Agrega un nuevo producto a la base de datos y actualiza la tabla
+     * Agrega un nuevo producto a la base de datos (la tabla se actualiza por
+     * el {@link BusEventos}, como con cualquier otro cambio)
      */
     public boolean agregarProducto(Producto producto) {
         try {
             System.out.println("Agregando nuevo producto: " + producto.getNombre());
             
-            boolean guardado = productoDAO.guardar(producto);
-            
-            if (guardado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return productoDAO.guardar(producto);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -194,15 +280,8 @@ public class ProductoTableModel extends AbstractTableModel {
      */
     public boolean actualizarProducto(Producto producto) {
         try {
-            boolean actualizado = productoDAO.actualizar(producto);
-            
-            if (actualizado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return productoDAO.actualizar(producto);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -218,15 +297,8 @@ public class ProductoTableModel extends AbstractTableModel {
             Producto producto = productos.get(row);
             
             try {
-                boolean eliminado = productoDAO.eliminar(producto.getIdProducto());
-                
-                if (eliminado) {
-                    // Recargar todos los datos para asegurar consistencia
-                    cargarDatos();
-                    return true;
-                } else {
-                    return false;
-                }
+                // La fila se quita por el evento que publica el DAO
+                return productoDAO.eliminar(producto.getIdProducto());
                 
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -241,12 +313,12 @@ public class ProductoTableModel extends AbstractTableModel {
      * Calcula el valor total del inventario
      */
     public BigDecimal calcularValorTotalInventario() {
-        BigDecimal total = BigDecimal.ZERO;
+        long total = 0;
         
         for (Producto p : productos) {
-            total = total.add(p.getValorInventario());
+            total = Dinero.sumarCentavos(total, Dinero.multiplicarCentavos(p.getPrecioCentavos(), p.getStock()));
         }
         
-        return total;
+        return Dinero.aBigDecimal(total);
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.sistemaventas.vista.tables;
+
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
+import java.awt.Component;
+
+/**
+ * Renderer de celdas que muestra el texto ya formateado por el modelo
+ * ({@link TextosCelda}) en lugar de convertir el valor en cada repintado.
+ * Los números se alinean a la derecha.
+ * <p>
+ * Tampoco avisa los cambios de texto: el label solo los escucha para
+ * interpretar HTML, y cada aviso crea un evento por celda pintada.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class RendererCeldas extends DefaultTableCellRenderer {
+
+    /**
+     * Usa este renderer para todas las columnas de la tabla
+     *
+     * @param tabla tabla cuyo modelo implementa {@link TextosCelda}
+     */
+    public static void instalar(JTable tabla) {
+        RendererCeldas renderer = new RendererCeldas();
+        tabla.setDefaultRenderer(Object.class, renderer);
+        tabla.setDefaultRenderer(Number.class, renderer);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        Object texto = value;
+        TableModel modelo = table.getModel();
+        if (modelo instanceof TextosCelda && row >= 0) {
+            texto = ((TextosCelda) modelo).getTextoCelda(table.convertRowIndexToModel(row),
+                                                         table.convertColumnIndexToModel(column));
+        }
+        setHorizontalAlignment(value instanceof Number ? SwingConstants.RIGHT : SwingConstants.LEADING);
+        return super.getTableCellRendererComponent(table, texto, isSelected, hasFocus, row, column);
+    }
+
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+        if ("text".equals(propertyName) && !esHTML(oldValue) && !esHTML(newValue)) {
+            return;
+        }
+        super.firePropertyChange(propertyName, oldValue, newValue);
+    }
+
+    private static boolean esHTML(Object texto) {
+        return texto instanceof String && BasicHTML.isHTMLString((String) texto);
+    }
+}
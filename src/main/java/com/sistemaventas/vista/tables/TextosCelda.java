@@ -0,0 +1,20 @@
+package com.sistemaventas.vista.tables;
+
+/**
+ * Modelo de tabla que ya tiene formateado el texto de sus celdas
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ * @see RendererCeldas
+ */
+public interface TextosCelda {
+
+    /**
+     * Texto a mostrar en una celda, sin crear objetos nuevos
+     *
+     * @param row fila en el modelo
+     * @param col columna en el modelo
+     * @return texto formateado
+     */
+    String getTextoCelda(int row, int col);
+}
@@ -1,26 +1,77 @@
 package com.sistemaventas.vista.tables;
 
+import com.sistemaventas.dao.ClienteDAO;
+import com.sistemaventas.dao.FiltroVentas;
+import com.sistemaventas.dao.ProductoDAO;
 import com.sistemaventas.dao.VentaDAO;
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Dinero;
+import com.sistemaventas.modelo.Producto;
 import com.sistemaventas.modelo.Venta;
+import com.sistemaventas.util.BusEventos;
 
 import javax.swing.table.AbstractTableModel;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Modelo de tabla para mostrar ventas en JTable
+ * Modelo de tabla para mostrar ventas en JTable.
+ * <p>
+ * Las filas se guardan por columnas en un {@link ColumnasVentas}; los textos
+ * de cada celda se generan recién cuando la tabla los pide.
+ * </p>
+ * <p>
+ * El orden y el filtro de la vista los resuelve {@link OrdenadorVentas}.
+ * Cuando la consulta base devuelve más de {@link #UMBRAL_CONSULTA} filas
+ * el modelo no las filtra en memoria: vuelve a consultar la base con el
+ * filtro y el orden pedidos (ver {@link #aplicarCriterios}).
+ * </p>
+ * <p>
+ * Al recargar, las filas nuevas se comparan por ID con las actuales y la
+ * tabla recibe solo las bajas, altas y modificaciones (ver
+ * {@link DiferenciasPorId}); el total de las ventas se ajusta con esas
+ * mismas diferencias en lugar de volver a sumar todas las filas. El
+ * cambio de una sola venta (eventos del {@link BusEventos}) se aplica sobre
+ * esa fila, sin recargar ni comparar las demás (ver {@link #refrescarVenta}).
+ * </p>
  * @author Matt_
  */
-public class VentaTableModel extends AbstractTableModel {
+public class VentaTableModel extends AbstractTableModel implements TextosCelda {
+    
+    /**
+     * Cantidad de columnas de la tabla
+     */
+    static final int COLUMNAS = 7;
+    
+    /**
+     * Filas a partir de las cuales el orden y el filtro se delegan en la base
+     * de datos. Se configura con <code>-Dsistemaventas.tabla.umbralConsulta</code>.
+     */
+    public static final int UMBRAL_CONSULTA = Integer.getInteger("sistemaventas.tabla.umbralConsulta", 200_000);
     
     private String[] columns = {"ID", "Fecha", "Cliente", "Producto", "Cantidad", "Precio Unit.", "Total"};
-    private List<Venta> ventas = new ArrayList<>();
+    private ColumnasVentas columnas = ColumnasVentas.vacias();
+    private long totalCentavos;
+    
+    // Filas de 'columnas' visibles mientras se avisan los cambios de una
+    // recarga, una a una; null fuera de ese momento (se ven todas)
+    private int[] filas;
     private VentaDAO ventaDAO = new VentaDAO();
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private ClienteDAO clienteDAO = new ClienteDAO();
+    private ProductoDAO productoDAO = new ProductoDAO();
+    
+    // Valores y textos de las filas ya mostradas, válidos mientras no cambien las columnas
+    private final CeldasMemorizadas celdas = new CeldasMemorizadas(COLUMNAS, this::calcularValor);
+    
+    // Consulta base (botones de la vista) y criterios del ordenador
+    private FiltroVentas filtroBase = new FiltroVentas();
+    private FiltroVentas filtroVista;
+    private FiltroVentas.Orden orden;
+    private boolean ascendente;
+    private boolean consultaEnBase;
     
     public VentaTableModel() {
         // No cargar datos automáticamente en el constructor
@@ -32,23 +83,13 @@ public class VentaTableModel extends AbstractTableModel {
     public void cargarDatos() {
         try {
             System.out.println("Cargando ventas desde la base de datos...");
-            List<Venta> nuevasVentas = ventaDAO.obtenerTodas();
-            
-            // Limpiar la lista actual
-            ventas.clear();
-            
-            // Agregar los nuevos datos
-            ventas.addAll(nuevasVentas);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            cargar(new FiltroVentas());
             
         } catch (SQLException e) {
             e.printStackTrace();
             
             // En caso de error, mantener una lista vacía
-            ventas.clear();
-            fireTableDataChanged();
+            reemplazar(ColumnasVentas.vacias());
             
             // Re-lanzar como RuntimeException para que la vista pueda manejarlo
             throw new RuntimeException("Error al cargar datos de ventas: " + e.getMessage(), e);
@@ -60,16 +101,9 @@ public class VentaTableModel extends AbstractTableModel {
      */
     public void buscarPorCliente(int idCliente) {
         try {
-            List<Venta> ventasEncontradas = ventaDAO.buscarPorCliente(idCliente);
-            
-            // Limpiar la lista actual
-            ventas.clear();
-            
-            // Agregar los resultados
-            ventas.addAll(ventasEncontradas);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            FiltroVentas filtro = new FiltroVentas();
+            filtro.setIdCliente(idCliente);
+            cargar(filtro);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -82,16 +116,9 @@ public class VentaTableModel extends AbstractTableModel {
      */
     public void buscarPorProducto(int idProducto) {
         try {
-            List<Venta> ventasEncontradas = ventaDAO.buscarPorProducto(idProducto);
-            
-            // Limpiar la lista actual
-            ventas.clear();
-            
-            // Agregar los resultados
-            ventas.addAll(ventasEncontradas);
-            
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            FiltroVentas filtro = new FiltroVentas();
+            filtro.setIdProducto(idProducto);
+            cargar(filtro);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -104,26 +131,375 @@ public class VentaTableModel extends AbstractTableModel {
      */
     public void buscarPorFechas(LocalDate fechaInicio, LocalDate fechaFin) {
         try {
-            List<Venta> ventasEncontradas = ventaDAO.buscarPorFechas(fechaInicio, fechaFin);
+            cargar(FiltroVentas.entreFechas(fechaInicio, fechaFin));
             
-            // Limpiar la lista actual
-            ventas.clear();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error en la búsqueda: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Carga una nueva consulta base. Si es chica se trae completa y el
+     * ordenador filtra en memoria; si supera el umbral se trae ya filtrada y
+     * ordenada por la base de datos.
+     */
+    private void cargar(FiltroVentas base) throws SQLException {
+        filtroBase = base;
+        consultaEnBase = ventaDAO.contar(base) > UMBRAL_CONSULTA;
+        
+        List<Venta> nuevasVentas;
+        if (consultaEnBase) {
+            System.out.println("Consulta grande: orden y filtro en la base de datos");
+            nuevasVentas = ventaDAO.buscar(base.combinar(filtroVista), orden, ascendente);
+        } else if (base.estaVacio()) {
+            nuevasVentas = ventaDAO.obtenerTodas();
+        } else {
+            nuevasVentas = ventaDAO.buscar(base, null, false);
+        }
+        
+        // Reemplazar los datos avisando solo las filas que cambiaron
+        reemplazar(ColumnasVentas.desde(nuevasVentas));
+    }
+    
+    /**
+     * Pasa de las columnas actuales a las nuevas. Si las filas en común
+     * conservan el orden y hay pocos cambios, se avisan primero las bajas,
+     * después las altas y por último las modificaciones; cada aviso se
+     * dispara con el modelo ya en el estado intermedio correspondiente, como
+     * espera la JTable. Si no, se avisa un cambio completo.
+     */
+    private void reemplazar(ColumnasVentas nuevas) {
+        ColumnasVentas anteriores = columnas;
+        DiferenciasPorId diferencias = DiferenciasPorId.calcular(anteriores.getIds(), nuevas.getIds(),
+            (i, j) -> mismoContenido(anteriores, i, nuevas, j));
+        
+        if (!diferencias.convieneAplicar()) {
+            columnas = nuevas;
+            filas = null;
+            totalCentavos = nuevas.sumarTotales();
+            fireTableDataChanged();
+            return;
+        }
+        
+        // Entre las filas comunes, solo las actualizadas pueden cambiar el total
+        long[] diferenciaComunes = new long[1];
+        diferencias.recorrerActualizadas((i, j) ->
+            diferenciaComunes[0] += nuevas.getTotalCentavos(j) - anteriores.getTotalCentavos(i));
+        
+        // Bajas, de la última a la primera, sobre las filas anteriores
+        int[] visibles = null;
+        List<int[]> eliminadas = diferencias.getEliminadas();
+        for (int k = eliminadas.size() - 1; k >= 0; k--) {
+            int[] rango = eliminadas.get(k);
+            if (visibles == null) {
+                visibles = secuencia(0, anteriores.getFilas() - 1);
+            }
+            for (int i = rango[0]; i <= rango[1]; i++) {
+                totalCentavos -= anteriores.getTotalCentavos(i);
+            }
+            visibles = quitar(visibles, rango[0], rango[1]);
+            filas = visibles;
+            fireTableRowsDeleted(rango[0], rango[1]);
+        }
+        
+        // Las filas comunes quedan en el mismo lugar: se pasa a las columnas
+        // nuevas mostrando solo esas y se agregan las altas
+        List<int[]> insertadas = diferencias.getInsertadas();
+        columnas = nuevas;
+        totalCentavos += diferenciaComunes[0];
+        if (!insertadas.isEmpty()) {
+            visibles = comunes(nuevas.getFilas(), insertadas);
+            filas = visibles;
+            for (int[] rango : insertadas) {
+                for (int j = rango[0]; j <= rango[1]; j++) {
+                    totalCentavos += nuevas.getTotalCentavos(j);
+                }
+                visibles = insertar(visibles, rango[0], secuencia(rango[0], rango[1]));
+                filas = visibles;
+                fireTableRowsInserted(rango[0], rango[1]);
+            }
+        }
+        filas = null;
+        
+        for (int[] rango : diferencias.getActualizadas()) {
+            fireTableRowsUpdated(rango[0], rango[1]);
+        }
+    }
+    
+    private static boolean mismoContenido(ColumnasVentas a, int i, ColumnasVentas b, int j) {
+        return a.getDia(i) == b.getDia(j)
+            && a.getCantidad(i) == b.getCantidad(j)
+            && a.getPrecioUnitarioCentavos(i) == b.getPrecioUnitarioCentavos(j)
+            && a.getTotalCentavos(i) == b.getTotalCentavos(j)
+            && a.getCliente(i).getIdCliente() == b.getCliente(j).getIdCliente()
+            && a.getProducto(i).getIdProducto() == b.getProducto(j).getIdProducto()
+            && Objects.equals(a.getCliente(i).getNombre(), b.getCliente(j).getNombre())
+            && Objects.equals(a.getProducto(i).getNombre(), b.getProducto(j).getNombre());
+    }
+    
+    private static int[] secuencia(int desde, int hasta) {
+        int[] resultado = new int[hasta - desde + 1];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = desde + i;
+        }
+        return resultado;
+    }
+    
+    private static int[] quitar(int[] valores, int desde, int hasta) {
+        int[] resultado = new int[valores.length - (hasta - desde + 1)];
+        System.arraycopy(valores, 0, resultado, 0, desde);
+        System.arraycopy(valores, hasta + 1, resultado, desde, valores.length - hasta - 1);
+        return resultado;
+    }
+    
+    private static int[] insertar(int[] valores, int posicion, int[] nuevos) {
+        int[] resultado = new int[valores.length + nuevos.length];
+        System.arraycopy(valores, 0, resultado, 0, posicion);
+        System.arraycopy(nuevos, 0, resultado, posicion, nuevos.length);
+        System.arraycopy(valores, posicion, resultado, posicion + nuevos.length, valores.length - posicion);
+        return resultado;
+    }
+    
+    /**
+     * Índices de 0 a filas-1 que no caen en ninguno de los rangos
+     */
+    private static int[] comunes(int filas, List<int[]> rangos) {
+        int excluidas = 0;
+        for (int[] rango : rangos) {
+            excluidas += rango[1] - rango[0] + 1;
+        }
+        int[] resultado = new int[filas - excluidas];
+        int cantidad = 0;
+        int siguiente = 0;
+        for (int[] rango : rangos) {
+            for (int i = siguiente; i < rango[0]; i++) {
+                resultado[cantidad++] = i;
+            }
+            siguiente = rango[1] + 1;
+        }
+        for (int i = siguiente; i < filas; i++) {
+            resultado[cantidad++] = i;
+        }
+        return resultado;
+    }
+    
+    /**
+     * Aplica un cambio publicado en el {@link BusEventos}: ventas creadas,
+     * modificadas o eliminadas y cambios de nombre de clientes o productos
+     */
+    public void aplicarEvento(BusEventos.Evento evento) {
+        switch (evento.getTipo()) {
+            case VENTA_CREADA:
+            case VENTA_ACTUALIZADA:
+                refrescarVenta(evento.getId());
+                break;
+            case VENTA_ELIMINADA:
+                quitarVenta(evento.getId());
+                break;
+            case CLIENTE_ACTUALIZADO:
+                refrescarCliente(evento.getId());
+                break;
+            case PRODUCTO_ACTUALIZADO:
+                refrescarProducto(evento.getId());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Vuelve a leer una venta y actualiza solo su fila: la modifica, la
+     * quita si la venta se eliminó o ya no cumple la consulta base, o la
+     * inserta en el lugar que le corresponde por fecha.
+     * <p>
+     * La fila se ubica por búsqueda binaria sobre el orden de las consultas
+     * (fecha y después ID, descendentes) y se cambia sobre las mismas
+     * columnas; la tabla recibe un único aviso de fila (o una baja y un alta
+     * si la venta cambió de fecha) y el total se ajusta con la diferencia.
+     * </p>
+     * <p>
+     * Si el orden lo resuelve la base de datos no se puede ubicar la fila
+     * en memoria, así que se repite la consulta actual (la tabla igual recibe
+     * solo las filas que cambiaron).
+     * </p>
+     *
+     * @param idVenta ID de la venta que cambió
+     */
+    public void refrescarVenta(int idVenta) {
+        try {
+            if (consultaEnBase) {
+                reemplazar(ColumnasVentas.desde(ventaDAO.buscar(filtroBase.combinar(filtroVista), orden, ascendente)));
+                return;
+            }
             
-            // Agregar los resultados
-            ventas.addAll(ventasEncontradas);
+            Venta venta = ventaDAO.buscarPorId(idVenta);
+            if (venta == null || !filtroBase.acepta(venta.getFecha().toEpochDay(), venta.getIdCliente(),
+                                                    venta.getIdProducto(), venta.getTotalCentavos())) {
+                quitarVenta(idVenta);
+                return;
+            }
             
-            // Notificar que los datos cambiaron
-            fireTableDataChanged();
+            int dia = (int) venta.getFecha().toEpochDay();
+            int posicion = columnas.posicionPorFecha(dia, idVenta);
+            if (posicion < columnas.getFilas() && columnas.getIdVenta(posicion) == idVenta) {
+                // Misma fecha: la fila queda en su lugar
+                totalCentavos += venta.getTotalCentavos() - columnas.getTotalCentavos(posicion);
+                columnas.modificarFila(posicion, venta);
+                celdas.descartar(posicion);
+                fireTableRowsUpdated(posicion, posicion);
+                return;
+            }
+            
+            // Venta nueva o con otra fecha: se quita de donde estaba y se inserta
+            if (quitarFila(columnas.buscarFila(idVenta))) {
+                posicion = columnas.posicionPorFecha(dia, idVenta);
+            }
+            columnas.insertarFila(posicion, venta);
+            totalCentavos += venta.getTotalCentavos();
+            celdas.insertar(posicion);
+            fireTableRowsInserted(posicion, posicion);
             
         } catch (SQLException e) {
             e.printStackTrace();
-            throw new RuntimeException("Error en la búsqueda: " + e.getMessage(), e);
+            throw new RuntimeException("Error al refrescar venta: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Quita la fila de una venta eliminada, sin volver a consultarla
+     *
+     * @param idVenta ID de la venta
+     */
+    private void quitarVenta(int idVenta) {
+        if (consultaEnBase) {
+            refrescarVenta(idVenta);
+            return;
+        }
+        quitarFila(columnas.buscarFila(idVenta));
+    }
+    
+    /**
+     * Quita una fila de las columnas y avisa la baja
+     *
+     * @return false si la fila no existe (-1)
+     */
+    private boolean quitarFila(int fila) {
+        if (fila < 0) {
+            return false;
+        }
+        totalCentavos -= columnas.getTotalCentavos(fila);
+        columnas.quitarFila(fila);
+        celdas.quitar(fila);
+        fireTableRowsDeleted(fila, fila);
+        return true;
+    }
+    
+    /**
+     * Actualiza las filas de las ventas de un cliente (por ejemplo, si cambió su nombre)
+     */
+    public void refrescarCliente(int idCliente) {
+        try {
+            Cliente cliente = clienteDAO.buscarPorId(idCliente);
+            if (cliente != null) {
+                reemplazar(columnas.conCliente(cliente));
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al refrescar cliente: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Actualiza las filas de las ventas de un producto (por ejemplo, si cambió su nombre)
+     */
+    public void refrescarProducto(int idProducto) {
+        try {
+            Producto producto = productoDAO.buscarPorId(idProducto);
+            if (producto != null) {
+                reemplazar(columnas.conProducto(producto));
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al refrescar producto: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Registra el filtro y el orden de la vista. Si la consulta base supera
+     * el umbral, vuelve a consultar la base con esos criterios.
+     *
+     * @return true si se recargaron los datos
+     */
+    boolean aplicarCriterios(FiltroVentas filtro, FiltroVentas.Orden orden, boolean ascendente) {
+        this.filtroVista = filtro;
+        this.orden = orden;
+        this.ascendente = ascendente;
+        
+        if (!consultaEnBase) {
+            return false;
+        }
+        
+        try {
+            reemplazar(ColumnasVentas.desde(ventaDAO.buscar(filtroBase.combinar(filtro), orden, ascendente)));
+            return true;
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al ordenar o filtrar ventas: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Indica si el orden y el filtro se resuelven en la base de datos
+     */
+    boolean isConsultaEnBase() {
+        return consultaEnBase;
+    }
+    
+    /**
+     * Filas del modelo que cumplen un filtro, en orden
+     *
+     * @param filtro criterios (null para todas las filas)
+     * @return índices de fila del modelo
+     */
+    int[] filtrarFilas(FiltroVentas filtro) {
+        return columnas.filtrar(filtro, filas);
+    }
+    
+    /**
+     * Claves de orden de una columna, una por fila del modelo
+     *
+     * @return arreglo de claves (no modificar)
+     */
+    long[] clavesOrden(int columna) {
+        long[] claves = columnas.claves(columna);
+        if (filas == null) {
+            return claves;
+        }
+        long[] visibles = new long[filas.length];
+        for (int i = 0; i < filas.length; i++) {
+            visibles[i] = claves[filas[i]];
+        }
+        return visibles;
+    }
+    
+    /**
+     * Total en centavos de una fila del modelo
+     */
+    long getTotalCentavos(int row) {
+        return columnas.getTotalCentavos(fila(row));
+    }
+    
+    private int fila(int row) {
+        return filas == null ? row : filas[row];
+    }
+    
     @Override
     public int getRowCount() { 
-        return ventas.size(); 
+        return filas == null ? columnas.getFilas() : filas.length; 
     }
 
     @Override
@@ -138,20 +514,33 @@ public class VentaTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int row, int col) {
-        if (row < 0 || row >= ventas.size()) {
+        if (row < 0 || row >= getRowCount()) {
             return null;
         }
         
-        Venta venta = ventas.get(row);
-        
+        return celdas.getValor(fila(row), col, columnas);
+    }
+    
+    @Override
+    public String getTextoCelda(int row, int col) {
+        if (row < 0 || row >= getRowCount()) {
+            return "";
+        }
+        return celdas.getTexto(fila(row), col, columnas);
+    }
+    
+    /**
+     * Valor de una celda, a partir de una fila de las columnas actuales
+     */
+    private Object calcularValor(int fila, int col) {
         switch (col) {
-            case 0: return venta.getIdVenta();
-            case 1: return venta.getFecha().format(dateFormatter);
-            case 2: return venta.getNombreCliente() != null ? venta.getNombreCliente() : "ID: " + venta.getIdCliente();
-            case 3: return venta.getNombreProducto() != null ? venta.getNombreProducto() : "ID: " + venta.getIdProducto();
-            case 4: return venta.getCantidad();
-            case 5: return String.format("$%.2f", venta.getPrecioUnitario());
-            case 6: return String.format("$%.2f", venta.getTotal());
+            case 0: return columnas.getIdVenta(fila);
+            case 1: return LocalDate.ofEpochDay(columnas.getDia(fila));
+            case 2: return ColumnasVentas.nombre(columnas.getCliente(fila));
+            case 3: return ColumnasVentas.nombre(columnas.getProducto(fila));
+            case 4: return columnas.getCantidad(fila);
+            case 5: return Dinero.aBigDecimal(columnas.getPrecioUnitarioCentavos(fila));
+            case 6: return Dinero.aBigDecimal(columnas.getTotalCentavos(fila));
             default: return null;
         }
     }
@@ -161,11 +550,11 @@ public class VentaTableModel extends AbstractTableModel {
         switch (col) {
             case 0:
             case 4: return Integer.class;
-            case 1:
+            case 1: return LocalDate.class;
             case 2:
-            case 3:
+            case 3: return String.class;
             case 5:
-            case 6: return String.class;
+            case 6: return BigDecimal.class;
             default: return Object.class;
         }
     }
@@ -176,31 +565,25 @@ public class VentaTableModel extends AbstractTableModel {
     }
     
     /**
-     * Obtiene la venta en la fila especificada
+     * Obtiene la venta en la fila especificada (se reconstruye a partir de las columnas)
      */
     public Venta getVentaAt(int row) {
-        if (row >= 0 && row < ventas.size()) {
-            return ventas.get(row);
+        if (row >= 0 && row < getRowCount()) {
+            return columnas.getVenta(fila(row));
         }
         return null;
     }
     
     /**
-     * Agrega una nueva venta a la base de datos y actualiza la tabla
+     * Agrega una nueva venta a la base de datos (la tabla se actualiza por
+     * el {@link BusEventos}, como con cualquier otro cambio)
      */
     public boolean agregarVenta(Venta venta) {
         try {
             System.out.println("Agregando nueva venta");
             
-            boolean guardado = ventaDAO.guardar(venta);
-            
-            if (guardado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return ventaDAO.guardar(venta);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -213,15 +596,8 @@ public class VentaTableModel extends AbstractTableModel {
      */
     public boolean actualizarVenta(Venta venta) {
         try {
-            boolean actualizado = ventaDAO.actualizar(venta);
-            
-            if (actualizado) {
-                // Recargar todos los datos para asegurar consistencia
-                cargarDatos();
-                return true;
-            } else {
-                return false;
-            }
+            // La fila llega por el evento que publica el DAO
+            return ventaDAO.actualizar(venta);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -233,19 +609,11 @@ public class VentaTableModel extends AbstractTableModel {
      * Elimina una venta de la base de datos
      */
     public boolean eliminarVenta(int row) {
-        if (row >= 0 && row < ventas.size()) {
-            Venta venta = ventas.get(row);
-            
+        if (row >= 0 && row < getRowCount()) {
+            int id = columnas.getIdVenta(fila(row));
             try {
-                boolean eliminado = ventaDAO.eliminar(venta.getIdVenta());
-                
-                if (eliminado) {
-                    // Recargar todos los datos para asegurar consistencia
-                    cargarDatos();
-                    return true;
-                } else {
-                    return false;
-                }
+                // La fila se quita por el evento que publica el DAO
+                return ventaDAO.eliminar(id);
                 
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -257,15 +625,9 @@ public class VentaTableModel extends AbstractTableModel {
     }
     
     /**
-     * Calcula el total de todas las ventas mostradas
+     * Total de todas las ventas mostradas (se mantiene al recargar, sin recorrer las filas)
      */
     public BigDecimal calcularTotalVentas() {
-        BigDecimal total = BigDecimal.ZERO;
-        
-        for (Venta v : ventas) {
-            total = total.add(v.getTotal());
-        }
-        
-        return total;
+        return Dinero.aBigDecimal(totalCentavos);
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.sistemaventas.vista.venta;
+
+import com.sistemaventas.dao.ClienteDAO;
+import com.sistemaventas.dao.FiltroVentas;
+import com.sistemaventas.dao.ProductoDAO;
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.vista.componentes.CampoAutocompletar;
+
+import javax.swing.*;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Diálogo para filtrar la lista de ventas por rango de fechas, cliente,
+ * producto y rango de importe. Los campos vacíos no filtran.
+ * <p>
+ * Cliente y producto se eligen con {@link CampoAutocompletar}: abrir el
+ * diálogo no carga los catálogos completos, solo el cliente y el producto
+ * del filtro actual si los tiene.
+ * </p>
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+public class FiltroVentasDialog extends JDialog {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private JTextField txtDesde;
+    private JTextField txtHasta;
+    private CampoAutocompletar<Cliente> txtCliente;
+    private CampoAutocompletar<Producto> txtProducto;
+    private JTextField txtMontoMinimo;
+    private JTextField txtMontoMaximo;
+
+    private FiltroVentas filtro;
+    private boolean aceptado = false;
+
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final ProductoDAO productoDAO = new ProductoDAO();
+
+    public FiltroVentasDialog(JFrame owner, FiltroVentas filtroActual) {
+        super(owner, "Filtrar Ventas", true);
+
+        initComponents();
+        setupLayout();
+        mostrarFiltro(filtroActual);
+
+        setSize(450, 360);
+        setLocationRelativeTo(owner);
+        setResizable(false);
+    }
+
+    private void initComponents() {
+        txtDesde = new JTextField(15);
+        txtDesde.setToolTipText("Formato: dd/MM/yyyy (vacío = sin límite)");
+        txtHasta = new JTextField(15);
+        txtHasta.setToolTipText("Formato: dd/MM/yyyy (vacío = sin límite)");
+
+        txtCliente = new CampoAutocompletar<>(clienteDAO::buscarPorPrefijo,
+            c -> c.getNombre() + " (DNI " + c.getDni() + ")");
+        txtCliente.setToolTipText("Escriba el nombre o el DNI del cliente (vacío = todos)");
+        txtProducto = new CampoAutocompletar<>(productoDAO::buscarPorPrefijo, Producto::getNombre);
+        txtProducto.setToolTipText("Escriba el nombre del producto (vacío = todos)");
+
+        txtMontoMinimo = new JTextField(15);
+        txtMontoMaximo = new JTextField(15);
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 10, 20));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(6, 8, 6, 8);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        agregarCampo(formPanel, gbc, 0, "Desde (dd/MM/yyyy):", txtDesde);
+        agregarCampo(formPanel, gbc, 1, "Hasta (dd/MM/yyyy):", txtHasta);
+        agregarCampo(formPanel, gbc, 2, "Cliente:", txtCliente);
+        agregarCampo(formPanel, gbc, 3, "Producto:", txtProducto);
+        agregarCampo(formPanel, gbc, 4, "Total mínimo ($):", txtMontoMinimo);
+        agregarCampo(formPanel, gbc, 5, "Total máximo ($):", txtMontoMaximo);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+
+        JButton btnAplicar = new JButton("🔍 Aplicar");
+        JButton btnLimpiar = new JButton("🧹 Limpiar");
+        JButton btnCancelar = new JButton("❌ Cancelar");
+
+        btnAplicar.addActionListener(e -> aplicar());
+        btnLimpiar.addActionListener(e -> mostrarFiltro(null));
+        btnCancelar.addActionListener(e -> dispose());
+
+        buttonPanel.add(btnAplicar);
+        buttonPanel.add(btnLimpiar);
+        buttonPanel.add(btnCancelar);
+
+        getRootPane().setDefaultButton(btnAplicar);
+
+        add(formPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void agregarCampo(JPanel panel, GridBagConstraints gbc, int fila, String etiqueta, JComponent campo) {
+        gbc.gridx = 0; gbc.gridy = fila;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0.0;
+        panel.add(new JLabel(etiqueta), gbc);
+
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+        panel.add(campo, gbc);
+    }
+
+    private void mostrarFiltro(FiltroVentas filtroActual) {
+        FiltroVentas f = filtroActual != null ? filtroActual : new FiltroVentas();
+
+        txtDesde.setText(f.getDesde() != null ? f.getDesde().format(FORMATO_FECHA) : "");
+        txtHasta.setText(f.getHasta() != null ? f.getHasta().format(FORMATO_FECHA) : "");
+        seleccionar(f.getIdCliente(), f.getIdProducto());
+        txtMontoMinimo.setText(f.getMontoMinimo() != null ? f.getMontoMinimo().toPlainString() : "");
+        txtMontoMaximo.setText(f.getMontoMaximo() != null ? f.getMontoMaximo().toPlainString() : "");
+    }
+
+    /**
+     * Muestra el cliente y el producto del filtro (se leen por ID, uno cada uno)
+     */
+    private void seleccionar(Integer idCliente, Integer idProducto) {
+        try {
+            txtCliente.setSeleccionado(idCliente != null ? clienteDAO.buscarPorId(idCliente) : null);
+            txtProducto.setSeleccionado(idProducto != null ? productoDAO.buscarPorId(idProducto) : null);
+
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al cargar datos: " + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void aplicar() {
+        FiltroVentas nuevo = new FiltroVentas();
+
+        try {
+            nuevo.setDesde(leerFecha(txtDesde));
+            nuevo.setHasta(leerFecha(txtHasta));
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                "Formato de fecha inválido. Use: dd/MM/yyyy",
+                "Fecha inválida",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        if (nuevo.getDesde() != null && nuevo.getHasta() != null && nuevo.getDesde().isAfter(nuevo.getHasta())) {
+            JOptionPane.showMessageDialog(this,
+                "La fecha de inicio no puede ser posterior a la fecha de fin",
+                "Fechas inválidas",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        try {
+            nuevo.setMontoMinimo(leerMonto(txtMontoMinimo));
+            nuevo.setMontoMaximo(leerMonto(txtMontoMaximo));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this,
+                "El total debe ser un número válido (ej: 1500.50)",
+                "Total inválido",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        if (!elegido(txtCliente, "cliente") || !elegido(txtProducto, "producto")) {
+            return;
+        }
+        if (txtCliente.getSeleccionado() != null) {
+            nuevo.setIdCliente(txtCliente.getSeleccionado().getIdCliente());
+        }
+        if (txtProducto.getSeleccionado() != null) {
+            nuevo.setIdProducto(txtProducto.getSeleccionado().getIdProducto());
+        }
+
+        filtro = nuevo;
+        aceptado = true;
+        dispose();
+    }
+
+    /**
+     * Un campo con texto debe tener un elemento elegido de la lista; vacío no filtra
+     */
+    private boolean elegido(CampoAutocompletar<?> campo, String nombre) {
+        if (campo.getText().trim().isEmpty() || campo.getSeleccionado() != null) {
+            return true;
+        }
+        JOptionPane.showMessageDialog(this,
+            "Elija un " + nombre + " de la lista o deje el campo vacío",
+            "Filtro incompleto",
+            JOptionPane.WARNING_MESSAGE);
+        campo.requestFocus();
+        return false;
+    }
+
+    private LocalDate leerFecha(JTextField campo) {
+        String texto = campo.getText().trim();
+        return texto.isEmpty() ? null : LocalDate.parse(texto, FORMATO_FECHA);
+    }
+
+    private BigDecimal leerMonto(JTextField campo) {
+        String texto = campo.getText().trim().replace(",", ".");
+        return texto.isEmpty() ? null : new BigDecimal(texto);
+    }
+
+    /**
+     * Filtro elegido (vacío si se limpiaron todos los campos)
+     */
+    public FiltroVentas getFiltro() {
+        return filtro;
+    }
+
+    public boolean isAceptado() {
+        return aceptado;
+    }
+}
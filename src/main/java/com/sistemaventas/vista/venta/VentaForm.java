@@ -6,6 +6,9 @@ import com.sistemaventas.dao.ProductoDAO;
 import com.sistemaventas.modelo.Cliente;
 import com.sistemaventas.modelo.Producto;
 import com.sistemaventas.modelo.Venta;
+import com.sistemaventas.util.BusEventos;
+import com.sistemaventas.vista.componentes.CampoAutocompletar;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,7 +16,6 @@ import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * Formulario refactorizado para registrar ventas
@@ -24,8 +26,9 @@ import java.util.List;
  */
 public class VentaForm extends JDialog {
     
-    private JComboBox<ComboItem> cmbClientes;
-    private JComboBox<ComboItem> cmbProductos;
+    private CampoAutocompletar<Cliente> txtCliente;
+    private CampoAutocompletar<Producto> txtProducto;
+    private JTextField txtCodigo;
     private JSpinner spnCantidad;
     private JTextField txtPrecioUnitario;
     private JTextField txtTotal;
@@ -40,6 +43,9 @@ public class VentaForm extends JDialog {
     // Cache de productos para evitar consultas repetidas
     private Producto productoSeleccionado = null;
     
+    // Mantiene al día el stock del producto elegido si otra ventana lo cambia
+    private final BusEventos.Suscriptor suscriptor = BusEventos.enEDT(this::alCambiarProducto);
+    
     public VentaForm(JFrame owner) {
         super(owner, "Registrar Nueva Venta", true);
         
@@ -47,18 +53,29 @@ public class VentaForm extends JDialog {
         this.clienteDAO = new ClienteDAO();
         this.productoDAO = new ProductoDAO();
         
+        // Los clientes y productos se buscan al escribir: abrir el formulario no consulta nada
         initComponents();
         setupLayout();
-        cargarDatos();
+        BusEventos.suscribir(suscriptor);
         
-        setSize(500, 450);
+        setSize(500, 490);
         setLocationRelativeTo(owner);
         setResizable(false);
     }
     
     private void initComponents() {
-        cmbClientes = new JComboBox<>();
-        cmbProductos = new JComboBox<>();
+        txtCliente = new CampoAutocompletar<>(clienteDAO::buscarPorPrefijo,
+            c -> c.getNombre() + " (DNI " + c.getDni() + ")");
+        txtCliente.setToolTipText("Escriba el nombre o el DNI del cliente");
+        
+        txtProducto = new CampoAutocompletar<>(productoDAO::buscarPorPrefijo,
+            p -> String.format("%s (Stock: %d)", p.getNombre(), p.getStock()));
+        txtProducto.setToolTipText("Escriba el nombre del producto");
+        
+        // El lector de códigos de barras escribe el código y envía Enter
+        txtCodigo = new JTextField(15);
+        txtCodigo.setToolTipText("Escanee o escriba el código del producto y presione Enter");
+        txtCodigo.addActionListener(e -> leerCodigo());
         
         // Spinner para cantidad
         SpinnerNumberModel spinnerModel = new SpinnerNumberModel(1, 1, 9999, 1);
@@ -84,7 +101,7 @@ public class VentaForm extends JDialog {
         lblStockDisponible.setFont(lblStockDisponible.getFont().deriveFont(Font.ITALIC));
         
         // Evento cuando cambia el producto seleccionado
-        cmbProductos.addActionListener(e -> actualizarPrecioYStock());
+        txtProducto.setAlSeleccionar(p -> actualizarPrecioYStock());
         
         // Evento cuando cambia la cantidad
         spnCantidad.addChangeListener(e -> calcularTotal());
@@ -119,23 +136,30 @@ public class VentaForm extends JDialog {
         formPanel.add(lblCliente, gbc);
         
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
-        formPanel.add(cmbClientes, gbc);
+        formPanel.add(txtCliente, gbc);
         
-        // Producto
+        // Código del producto (lector de códigos de barras)
         gbc.gridx = 0; gbc.gridy = 2; gbc.fill = GridBagConstraints.NONE;
+        formPanel.add(new JLabel("Código:"), gbc);
+        
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(txtCodigo, gbc);
+        
+        // Producto
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.NONE;
         JLabel lblProducto = new JLabel("Producto *:");
         lblProducto.setFont(lblProducto.getFont().deriveFont(Font.BOLD));
         formPanel.add(lblProducto, gbc);
         
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
-        formPanel.add(cmbProductos, gbc);
+        formPanel.add(txtProducto, gbc);
         
         // Stock disponible
-        gbc.gridx = 1; gbc.gridy = 3;
+        gbc.gridx = 1; gbc.gridy = 4;
         formPanel.add(lblStockDisponible, gbc);
         
         // Cantidad
-        gbc.gridx = 0; gbc.gridy = 4; gbc.fill = GridBagConstraints.NONE;
+        gbc.gridx = 0; gbc.gridy = 5; gbc.fill = GridBagConstraints.NONE;
         JLabel lblCantidad = new JLabel("Cantidad *:");
         lblCantidad.setFont(lblCantidad.getFont().deriveFont(Font.BOLD));
         formPanel.add(lblCantidad, gbc);
@@ -149,7 +173,7 @@ public class VentaForm extends JDialog {
         formPanel.add(cantidadPanel, gbc);
         
         // Precio Unitario
-        gbc.gridx = 0; gbc.gridy = 5; gbc.fill = GridBagConstraints.NONE;
+        gbc.gridx = 0; gbc.gridy = 6; gbc.fill = GridBagConstraints.NONE;
         formPanel.add(new JLabel("Precio Unitario:"), gbc);
         
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
@@ -160,7 +184,7 @@ public class VentaForm extends JDialog {
         formPanel.add(precioPanel, gbc);
         
         // Total
-        gbc.gridx = 0; gbc.gridy = 6; gbc.fill = GridBagConstraints.NONE;
+        gbc.gridx = 0; gbc.gridy = 7; gbc.fill = GridBagConstraints.NONE;
         JLabel lblTotal = new JLabel("TOTAL:");
         lblTotal.setFont(lblTotal.getFont().deriveFont(Font.BOLD, 14f));
         formPanel.add(lblTotal, gbc);
@@ -174,7 +198,7 @@ public class VentaForm extends JDialog {
         formPanel.add(totalPanel, gbc);
         
         // Nota de campos obligatorios
-        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 2;
         gbc.fill = GridBagConstraints.NONE;
         JLabel lblNota = new JLabel("* Campos obligatorios");
         lblNota.setFont(lblNota.getFont().deriveFont(Font.ITALIC, 10f));
@@ -217,53 +241,16 @@ public class VentaForm extends JDialog {
         add(buttonPanel, BorderLayout.SOUTH);
     }
     
-    private void cargarDatos() {
-        try {
-            // Cargar clientes
-            List<Cliente> clientes = clienteDAO.obtenerTodos();
-            cmbClientes.addItem(new ComboItem(0, "-- Seleccione un cliente --"));
-            for (Cliente c : clientes) {
-                cmbClientes.addItem(new ComboItem(c.getIdCliente(), c.getNombre()));
-            }
-            
-            // Cargar productos
-            List<Producto> productos = productoDAO.obtenerTodos();
-            cmbProductos.addItem(new ComboItem(0, "-- Seleccione un producto --"));
-            for (Producto p : productos) {
-                String displayText = String.format("%s (Stock: %d)", p.getNombre(), p.getStock());
-                cmbProductos.addItem(new ComboItem(p.getIdProducto(), displayText));
-            }
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error al cargar datos: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
     private void actualizarPrecioYStock() {
-        ComboItem itemSeleccionado = (ComboItem) cmbProductos.getSelectedItem();
+        Producto elegido = txtProducto.getSeleccionado();
         
-        if (itemSeleccionado != null && itemSeleccionado.getId() > 0) {
+        if (elegido != null) {
             try {
-                productoSeleccionado = productoDAO.buscarPorId(itemSeleccionado.getId());
+                // Se relee el producto: la sugerencia puede tener un stock viejo
+                Producto actual = productoDAO.buscarPorId(elegido.getIdProducto());
                 
-                if (productoSeleccionado != null) {
-                    txtPrecioUnitario.setText(productoSeleccionado.getPrecio().toString());
-                    lblStockDisponible.setText(String.format("Stock disponible: %d unidades", productoSeleccionado.getStock()));
-                    
-                    // Ajustar el límite del spinner según el stock
-                    SpinnerNumberModel model = (SpinnerNumberModel) spnCantidad.getModel();
-                    model.setMaximum(productoSeleccionado.getStock() > 0 ? productoSeleccionado.getStock() : 1);
-                    
-                    // Si la cantidad actual excede el stock, ajustarla
-                    int cantidadActual = (Integer) spnCantidad.getValue();
-                    if (cantidadActual > productoSeleccionado.getStock()) {
-                        spnCantidad.setValue(Math.max(1, Math.min(cantidadActual, productoSeleccionado.getStock())));
-                    }
-                    
-                    calcularTotal();
+                if (actual != null) {
+                    mostrarProducto(actual);
                 }
                 
             } catch (SQLException e) {
@@ -280,6 +267,66 @@ public class VentaForm extends JDialog {
         }
     }
     
+    private void mostrarProducto(Producto producto) {
+        productoSeleccionado = producto;
+        txtProducto.setSeleccionado(producto);
+        txtPrecioUnitario.setText(producto.getPrecio().toString());
+        lblStockDisponible.setText(String.format("Stock disponible: %d unidades", producto.getStock()));
+        
+        // Ajustar el límite del spinner según el stock
+        SpinnerNumberModel model = (SpinnerNumberModel) spnCantidad.getModel();
+        model.setMaximum(producto.getStock() > 0 ? producto.getStock() : 1);
+        
+        // Si la cantidad actual excede el stock, ajustarla
+        int cantidadActual = (Integer) spnCantidad.getValue();
+        if (cantidadActual > producto.getStock()) {
+            spnCantidad.setValue(Math.max(1, Math.min(cantidadActual, producto.getStock())));
+        }
+        
+        calcularTotal();
+    }
+    
+    private void leerCodigo() {
+        String codigo = txtCodigo.getText().trim();
+        if (codigo.isEmpty()) {
+            return;
+        }
+        
+        try {
+            // Sale del índice en memoria: el lector no espera a la base de datos
+            Producto producto = productoDAO.buscarPorCodigo(codigo);
+            
+            if (producto == null) {
+                JOptionPane.showMessageDialog(this,
+                    "No hay ningún producto con el código " + codigo,
+                    "Código desconocido",
+                    JOptionPane.WARNING_MESSAGE);
+                txtCodigo.selectAll();
+                return;
+            }
+            
+            if (productoSeleccionado != null && productoSeleccionado.getIdProducto() == producto.getIdProducto()) {
+                // Escanear otra vez el mismo artículo suma una unidad
+                int cantidad = (Integer) spnCantidad.getValue();
+                if (cantidad < producto.getStock()) {
+                    spnCantidad.setValue(cantidad + 1);
+                } else {
+                    Toolkit.getDefaultToolkit().beep();
+                }
+            } else {
+                spnCantidad.setValue(1);
+                mostrarProducto(producto);
+            }
+            txtCodigo.setText("");
+            
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error al buscar el código: " + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
     private void calcularTotal() {
         if (productoSeleccionado != null && !txtPrecioUnitario.getText().isEmpty()) {
             try {
@@ -323,31 +370,30 @@ public class VentaForm extends JDialog {
             }
             
             // Validar cliente
-            ComboItem itemCliente = (ComboItem) cmbClientes.getSelectedItem();
-            if (itemCliente == null || itemCliente.getId() <= 0) {
+            Cliente clienteElegido = txtCliente.getSeleccionado();
+            if (clienteElegido == null) {
                 JOptionPane.showMessageDialog(this,
                     "Debe seleccionar un cliente",
                     "Cliente requerido",
                     JOptionPane.WARNING_MESSAGE);
-                cmbClientes.requestFocus();
+                txtCliente.requestFocus();
                 return;
             }
             
             // Validar producto
-            ComboItem itemProducto = (ComboItem) cmbProductos.getSelectedItem();
-            if (itemProducto == null || itemProducto.getId() <= 0 || productoSeleccionado == null) {
+            if (txtProducto.getSeleccionado() == null || productoSeleccionado == null) {
                 JOptionPane.showMessageDialog(this,
                     "Debe seleccionar un producto",
                     "Producto requerido",
                     JOptionPane.WARNING_MESSAGE);
-                cmbProductos.requestFocus();
+                txtProducto.requestFocus();
                 return;
             }
             
             int cantidad = (Integer) spnCantidad.getValue();
             
             // Verificar stock nuevamente (puede haber cambiado)
-            Producto productoActualizado = productoDAO.buscarPorId(itemProducto.getId());
+            Producto productoActualizado = productoDAO.buscarPorId(productoSeleccionado.getIdProducto());
             if (productoActualizado.getStock() < cantidad) {
                 JOptionPane.showMessageDialog(this,
                     String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
@@ -358,7 +404,7 @@ public class VentaForm extends JDialog {
             }
             
             // Obtener el cliente completo
-            Cliente cliente = clienteDAO.buscarPorId(itemCliente.getId());
+            Cliente cliente = clienteDAO.buscarPorId(clienteElegido.getIdCliente());
             if (cliente == null) {
                 JOptionPane.showMessageDialog(this,
                     "Error: Cliente no encontrado",
@@ -376,33 +422,42 @@ public class VentaForm extends JDialog {
                 productoActualizado.getPrecio()
             );
             
-            // Registrar la venta usando el controlador
-            if (ventaController.registrarVenta(nuevaVenta)) {
-                ventaGuardada = true;
-                
-                String mensaje = String.format(
-                    "¡Venta registrada exitosamente!\n\n" +
-                    "Cliente: %s\n" +
-                    "Producto: %s\n" +
-                    "Cantidad: %d unidades\n" +
-                    "Total: $%.2f",
-                    cliente.getNombre(),
-                    productoActualizado.getNombre(),
-                    cantidad,
-                    nuevaVenta.getTotal()
-                );
-                
-                JOptionPane.showMessageDialog(this,
-                    mensaje,
-                    "Venta registrada",
-                    JOptionPane.INFORMATION_MESSAGE);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this,
-                    "No se pudo registrar la venta",
-                    "Error al guardar",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            // Registrar la venta usando el controlador, fuera del EDT: puede
+            // esperar a otra terminal. El controlador muestra sus propios errores
+            EscrituraEnSegundoPlano.ejecutar(this,
+                () -> ventaController.registrarVenta(nuevaVenta),
+                registrada -> {
+                    if (registrada) {
+                        ventaGuardada = true;
+                        
+                        String mensaje = String.format(
+                            "¡Venta registrada exitosamente!\n\n" +
+                            "Cliente: %s\n" +
+                            "Producto: %s\n" +
+                            "Cantidad: %d unidades\n" +
+                            "Total: $%.2f",
+                            cliente.getNombre(),
+                            productoActualizado.getNombre(),
+                            cantidad,
+                            nuevaVenta.getTotal()
+                        );
+                        
+                        JOptionPane.showMessageDialog(this,
+                            mensaje,
+                            "Venta registrada",
+                            JOptionPane.INFORMATION_MESSAGE);
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                            "No se pudo registrar la venta",
+                            "Error al guardar",
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> JOptionPane.showMessageDialog(this,
+                    "Error inesperado: " + e.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE));
             
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(this,
@@ -437,31 +492,21 @@ public class VentaForm extends JDialog {
         }
     }
     
-    public boolean isVentaGuardada() {
-        return ventaGuardada;
+    @Override
+    public void dispose() {
+        BusEventos.desuscribir(suscriptor);
+        super.dispose();
     }
     
-    // Clase auxiliar para manejar items del ComboBox
-    private static class ComboItem {
-        private int id;
-        private String texto;
-        
-        public ComboItem(int id, String texto) {
-            this.id = id;
-            this.texto = texto;
-        }
-        
-        public int getId() {
-            return id;
-        }
-        
-        public String getTexto() {
-            return texto;
-        }
-        
-        @Override
-        public String toString() {
-            return texto;
+    private void alCambiarProducto(BusEventos.Evento evento) {
+        if (isDisplayable() && evento.esDeProducto() && productoSeleccionado != null
+                && (productoSeleccionado.getIdProducto() == evento.getId()
+                    || evento.esMasivo())) {
+            actualizarPrecioYStock();
         }
     }
+    
+    public boolean isVentaGuardada() {
+        return ventaGuardada;
+    }
 }
\ No newline at end of file
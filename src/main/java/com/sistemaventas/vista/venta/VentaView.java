@@ -1,7 +1,13 @@
 package com.sistemaventas.vista.venta;
 
 import com.sistemaventas.controlador.VentaController;
+import com.sistemaventas.modelo.Dinero;
 import com.sistemaventas.modelo.Venta;
+import com.sistemaventas.util.BusEventos;
+import com.sistemaventas.vista.componentes.EscrituraEnSegundoPlano;
+import com.sistemaventas.dao.FiltroVentas;
+import com.sistemaventas.vista.tables.RendererCeldas;
+import com.sistemaventas.vista.tables.OrdenadorVentas;
 import com.sistemaventas.vista.tables.VentaTableModel;
 
 import javax.swing.*;
@@ -17,10 +23,14 @@ import java.time.format.DateTimeFormatter;
 public class VentaView extends JFrame {
     
     private VentaTableModel tableModel;
+    private OrdenadorVentas ordenador;
     private JTable tabla;
     private JLabel lblTotalVentas;
     private VentaController ventaController;
     
+    // Recibe los cambios confirmados desde otras ventanas
+    private final BusEventos.Suscriptor suscriptor = BusEventos.enEDT(this::alCambiarDatos);
+    
     public VentaView() {
         setTitle("ABM Ventas");
         setSize(1100, 600);
@@ -35,12 +45,16 @@ public class VentaView extends JFrame {
         
         // Cargar datos iniciales
         actualizarLista();
+        BusEventos.suscribir(suscriptor);
     }
     
     private void initComponents() {
         // Modelo y tabla
         tableModel = new VentaTableModel();
         tabla = new JTable(tableModel);
+        RendererCeldas.instalar(tabla);
+        ordenador = new OrdenadorVentas(tableModel);
+        tabla.setRowSorter(ordenador);
         
         // Configurar tabla
         tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -77,15 +91,21 @@ public class VentaView extends JFrame {
         
         JButton btnMostrarTodas = new JButton("📋 Todas las Ventas");
         JButton btnFiltrarFechas = new JButton("📅 Por Fechas");
+        JButton btnFiltrar = new JButton("🔍 Filtrar");
+        JButton btnQuitarFiltro = new JButton("✖ Quitar Filtro");
         JButton btnRefrescar = new JButton("🔄 Actualizar");
         
         panelFiltros.add(btnMostrarTodas);
         panelFiltros.add(btnFiltrarFechas);
+        panelFiltros.add(btnFiltrar);
+        panelFiltros.add(btnQuitarFiltro);
         panelFiltros.add(btnRefrescar);
         
         // Eventos de filtros
         btnMostrarTodas.addActionListener(e -> mostrarTodas());
         btnFiltrarFechas.addActionListener(e -> filtrarPorFechas());
+        btnFiltrar.addActionListener(e -> filtrar());
+        btnQuitarFiltro.addActionListener(e -> aplicarFiltro(null));
         btnRefrescar.addActionListener(e -> actualizarLista());
         
         panelSuperior.add(panelFiltros, BorderLayout.SOUTH);
@@ -159,10 +179,12 @@ public class VentaView extends JFrame {
         add(panelCentral, BorderLayout.CENTER);
         add(panelBotones, BorderLayout.SOUTH);
         
-        // Actualizar labels de información cuando cambie la tabla
-        tableModel.addTableModelListener(e -> {
-            lblCantidad.setText("Total de registros: " + tableModel.getRowCount());
-            BigDecimal totalVentas = tableModel.calcularTotalVentas();
+        // Actualizar labels de información cuando cambien las filas visibles
+        // (el ordenador avisa después de cada recarga, orden o filtro)
+        ordenador.addRowSorterListener(e -> {
+            lblCantidad.setText("Total de registros: " + ordenador.getViewRowCount()
+                + (ordenador.getFiltro() != null ? " (filtrado)" : ""));
+            BigDecimal totalVentas = ordenador.calcularTotalVisible();
             lblTotalVentas.setText(String.format("Total de ventas: $%.2f", totalVentas));
         });
     }
@@ -188,9 +210,42 @@ public class VentaView extends JFrame {
     }
     
     private void mostrarTodas() {
+        ordenador.setFiltro(null);
         actualizarLista();
     }
     
+    private void filtrar() {
+        FiltroVentasDialog dialogo = new FiltroVentasDialog(this, ordenador.getFiltro());
+        dialogo.setVisible(true);
+        
+        if (dialogo.isAceptado()) {
+            aplicarFiltro(dialogo.getFiltro());
+            
+            if (ordenador.getViewRowCount() == 0) {
+                JOptionPane.showMessageDialog(this,
+                    "No se encontraron ventas con los criterios indicados",
+                    "Sin resultados",
+                    JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+    
+    private void aplicarFiltro(FiltroVentas filtro) {
+        try {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            ordenador.setFiltro(filtro);
+            
+        } catch (Exception e) {
+            System.err.println("Error al aplicar filtro: " + e.getMessage());
+            JOptionPane.showMessageDialog(this,
+                "Error al aplicar el filtro:\n" + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        } finally {
+            setCursor(Cursor.getDefaultCursor());
+        }
+    }
+    
     private void filtrarPorFechas() {
         JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
         
@@ -232,14 +287,14 @@ public class VentaView extends JFrame {
                 setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
                 tableModel.buscarPorFechas(fechaInicio, fechaFin);
                 
-                if (tableModel.getRowCount() == 0) {
+                if (tabla.getRowCount() == 0) {
                     JOptionPane.showMessageDialog(this,
                         "No se encontraron ventas en el rango de fechas especificado",
                         "Sin resultados",
                         JOptionPane.INFORMATION_MESSAGE);
                 } else {
                     JOptionPane.showMessageDialog(this,
-                        "Se encontraron " + tableModel.getRowCount() + " venta(s)",
+                        "Se encontraron " + tabla.getRowCount() + " venta(s)",
                         "Filtro aplicado",
                         JOptionPane.INFORMATION_MESSAGE);
                 }
@@ -256,16 +311,13 @@ public class VentaView extends JFrame {
     }
     
     private void nuevaVenta() {
+        // Al guardar, la fila nueva llega por el bus de eventos
         VentaForm form = new VentaForm(this);
         form.setVisible(true);
-        
-        if (form.isVentaGuardada()) {
-            actualizarLista();
-        }
     }
     
     private void verDetalles() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this,
@@ -315,7 +367,7 @@ public class VentaView extends JFrame {
     }
     
     private void eliminarVenta() {
-        int selectedRow = tabla.getSelectedRow();
+        int selectedRow = getFilaSeleccionada();
         
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this,
@@ -355,37 +407,33 @@ public class VentaView extends JFrame {
                 JOptionPane.WARNING_MESSAGE);
             
             if (respuesta == JOptionPane.YES_OPTION) {
-                try {
-                    setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                    
-                    if (ventaController.eliminarVenta(ventaSeleccionada.getIdVenta())) {
-                        actualizarLista();
-                        
-                        JOptionPane.showMessageDialog(this,
-                            "Venta eliminada exitosamente.\nEl stock ha sido restaurado.",
-                            "Eliminación exitosa",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(this,
-                            "No se pudo eliminar la venta",
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    }
-                    
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this,
+                // La fila se quita al recibir el evento del bus
+                int idVenta = ventaSeleccionada.getIdVenta();
+                EscrituraEnSegundoPlano.ejecutar(this,
+                    () -> ventaController.eliminarVenta(idVenta),
+                    eliminada -> {
+                        if (eliminada) {
+                            JOptionPane.showMessageDialog(this,
+                                "Venta eliminada exitosamente.\nEl stock ha sido restaurado.",
+                                "Eliminación exitosa",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this,
+                                "No se pudo eliminar la venta",
+                                "Error",
+                                JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> JOptionPane.showMessageDialog(this,
                         "Error al eliminar venta:\n" + e.getMessage(),
                         "Error",
-                        JOptionPane.ERROR_MESSAGE);
-                } finally {
-                    setCursor(Cursor.getDefaultCursor());
-                }
+                        JOptionPane.ERROR_MESSAGE));
             }
         }
     }
     
     private void generarReporte() {
-        if (tableModel.getRowCount() == 0) {
+        if (tabla.getRowCount() == 0) {
             JOptionPane.showMessageDialog(this,
                 "No hay ventas para generar el reporte",
                 "Sin datos",
@@ -399,15 +447,16 @@ public class VentaView extends JFrame {
         reporte.append("═══════════════════════════════════════════════════════\n\n");
         reporte.append(String.format("Fecha de generación: %s\n", 
             LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
-        reporte.append(String.format("Total de registros: %d\n\n", tableModel.getRowCount()));
+        reporte.append(String.format("Total de registros: %d\n\n", tabla.getRowCount()));
         
-        BigDecimal totalGeneral = BigDecimal.ZERO;
+        long totalGeneral = 0;
         int cantidadTotal = 0;
         
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            Venta venta = tableModel.getVentaAt(i);
+        // Se recorren las filas visibles, en el orden de la tabla
+        for (int i = 0; i < tabla.getRowCount(); i++) {
+            Venta venta = tableModel.getVentaAt(tabla.convertRowIndexToModel(i));
             if (venta != null) {
-                totalGeneral = totalGeneral.add(venta.getTotal());
+                totalGeneral = Dinero.sumarCentavos(totalGeneral, venta.getTotalCentavos());
                 cantidadTotal += venta.getCantidad();
                 
                 reporte.append(String.format("Venta #%d\n", venta.getIdVenta()));
@@ -424,7 +473,7 @@ public class VentaView extends JFrame {
         
         reporte.append("═══════════════════════════════════════════════════════\n");
         reporte.append(String.format("Total de unidades vendidas: %d\n", cantidadTotal));
-        reporte.append(String.format("TOTAL GENERAL: $%.2f\n", totalGeneral));
+        reporte.append(String.format("TOTAL GENERAL: $%.2f\n", Dinero.aBigDecimal(totalGeneral)));
         reporte.append("═══════════════════════════════════════════════════════\n");
         
         JTextArea textArea = new JTextArea(reporte.toString());
@@ -441,6 +490,26 @@ public class VentaView extends JFrame {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    /**
+     * Al cerrar la ventana deja de recibir eventos del bus
+     */
+    @Override
+    public void dispose() {
+        BusEventos.desuscribir(suscriptor);
+        super.dispose();
+    }
+    
+    private void alCambiarDatos(BusEventos.Evento evento) {
+        if (!isDisplayable()) {
+            return;
+        }
+        try {
+            tableModel.aplicarEvento(evento);
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo aplicar " + evento + ": " + e.getMessage());
+        }
+    }
+    
     public void actualizarLista() {
         try {
             setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
@@ -460,4 +529,13 @@ public class VentaView extends JFrame {
             setCursor(Cursor.getDefaultCursor());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Fila del modelo seleccionada en la tabla (-1 si no hay selección).
+     * La tabla puede estar ordenada, así que el índice visible se convierte.
+     */
+    private int getFilaSeleccionada() {
+        int filaVista = tabla.getSelectedRow();
+        return filaVista == -1 ? -1 : tabla.convertRowIndexToModel(filaVista);
+    }
+}
@@ -0,0 +1,120 @@
+package com.sistemaventas.dao;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del redondeo de {@link AjustePrecios#getExpresionSQL()}. La
+ * expresión se evalúa en una base SQLite en memoria, con la misma
+ * aritmética entera que usa el UPDATE del ajuste.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class AjustePreciosTest {
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void abrir() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterAll
+    static void cerrar() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void porcentajeRedondeaLaMitadHaciaArriba() throws SQLException {
+        AjustePrecios suba = AjustePrecios.porcentaje(new BigDecimal("12.5"));
+        assertEquals(1130, nuevoPrecio(suba, 1004));  // 1129,5
+        assertEquals(1128, nuevoPrecio(suba, 1003));  // 1128,375
+
+        AjustePrecios baja = AjustePrecios.porcentaje(new BigDecimal("-10"));
+        assertEquals(896, nuevoPrecio(baja, 995));    // 895,5
+        assertEquals(0, nuevoPrecio(AjustePrecios.porcentaje(new BigDecimal("-100")), 1999));
+    }
+
+    @Test
+    void porcentajeCoincideConHalfUpEnTodosLosPrecios() throws SQLException {
+        for (String porcentaje : new String[]{"0.01", "7.5", "33.33", "-12.5", "-99.99"}) {
+            AjustePrecios ajuste = AjustePrecios.porcentaje(new BigDecimal(porcentaje));
+            String sql = "WITH RECURSIVE p(precio_centavos) AS (SELECT 1 UNION ALL "
+                + "SELECT precio_centavos + 1 FROM p WHERE precio_centavos < 20000) "
+                + "SELECT precio_centavos, " + ajuste.getExpresionSQL() + " FROM p";
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    long precio = rs.getLong(1);
+                    long esperado = BigDecimal.valueOf(precio)
+                        .multiply(BigDecimal.valueOf(100).add(new BigDecimal(porcentaje)))
+                        .divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP)
+                        .longValueExact();
+                    assertEquals(esperado, rs.getLong(2), porcentaje + "% sobre " + precio);
+                }
+            }
+        }
+    }
+
+    @Test
+    void redondeaAlMultiploEnCadaSentido() throws SQLException {
+        assertEquals(1000, nuevoPrecio(redondeo(AjustePrecios.Redondeo.CERCANO, "10"), 1499));
+        assertEquals(2000, nuevoPrecio(redondeo(AjustePrecios.Redondeo.CERCANO, "10"), 1500));
+        assertEquals(2000, nuevoPrecio(redondeo(AjustePrecios.Redondeo.ARRIBA, "10"), 1001));
+        assertEquals(1000, nuevoPrecio(redondeo(AjustePrecios.Redondeo.ARRIBA, "10"), 1000));
+        assertEquals(1000, nuevoPrecio(redondeo(AjustePrecios.Redondeo.ABAJO, "10"), 1999));
+        assertEquals(500, nuevoPrecio(redondeo(AjustePrecios.Redondeo.CERCANO, "5"), 749));
+    }
+
+    @Test
+    void elRedondeoSeAplicaDespuesDelAjuste() throws SQLException {
+        AjustePrecios monto = AjustePrecios.montoFijo(new BigDecimal("5.00"));
+        monto.setRedondeo(AjustePrecios.Redondeo.ARRIBA, BigDecimal.ONE);
+        assertEquals(1800, nuevoPrecio(monto, 1234));  // 17,34 -> 18,00
+
+        AjustePrecios porcentaje = AjustePrecios.porcentaje(new BigDecimal("10"));
+        porcentaje.setRedondeo(AjustePrecios.Redondeo.ABAJO, new BigDecimal("50"));
+        // Primero se redondea a centavos: 149,985 pasa a 149,99 y recién ahí baja a 100
+        assertEquals(10000, nuevoPrecio(porcentaje, 13635));
+        assertEquals(15000, nuevoPrecio(porcentaje, 13636));  // 149,996 -> 150,00
+    }
+
+    @Test
+    void sinValorNiRedondeoNoCambiaElPrecio() throws SQLException {
+        AjustePrecios nulo = AjustePrecios.porcentaje(BigDecimal.ZERO);
+
+        assertTrue(nulo.esNulo());
+        assertEquals(1999, nuevoPrecio(nulo, 1999));
+        assertThrows(IllegalArgumentException.class,
+            () -> nulo.setRedondeo(AjustePrecios.Redondeo.CERCANO, new BigDecimal("0.001")));
+    }
+
+    private static AjustePrecios redondeo(AjustePrecios.Redondeo sentido, String multiplo) {
+        AjustePrecios ajuste = AjustePrecios.porcentaje(BigDecimal.ZERO);
+        ajuste.setRedondeo(sentido, new BigDecimal(multiplo));
+        return ajuste;
+    }
+
+    private static long nuevoPrecio(AjustePrecios ajuste, long precioCentavos) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT " + ajuste.getExpresionSQL() + " FROM (SELECT ? AS precio_centavos)")) {
+            pstmt.setLong(1, precioCentavos);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getLong(1);
+            }
+        }
+    }
+}
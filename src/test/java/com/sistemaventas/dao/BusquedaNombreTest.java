@@ -0,0 +1,32 @@
+package com.sistemaventas.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link BusquedaNombre}: la regla en memoria debe coincidir con
+ * el <code>LIKE</code> / <code>COLLATE NOCASE</code> de SQLite.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class BusquedaNombreTest {
+
+    @Test
+    void soloLasLetrasAsciiIgnoranMayusculas() {
+        assertEquals("yerba mate", BusquedaNombre.minusculasAscii("Yerba MATE"));
+        assertEquals("Ñandú", BusquedaNombre.minusculasAscii("Ñandú"));
+        assertTrue(BusquedaNombre.contiene("Café Molido", "café"));
+        assertFalse(BusquedaNombre.contiene("CAFÉ", "café"));
+        assertFalse(BusquedaNombre.contiene(null, "a"));
+    }
+
+    @Test
+    void elPatronEscapaLosComodines() {
+        assertEquals("%50\\% off\\_x%", BusquedaNombre.patronContiene("50% off_x"));
+        assertEquals("50\\% off\\_x\\\\%", BusquedaNombre.patronPrefijo("50% off_x\\"));
+        assertTrue(BusquedaNombre.contiene("Promo 50% off", "50%"));
+        assertFalse(BusquedaNombre.contiene("Promo 500 off", "50%"));
+    }
+}
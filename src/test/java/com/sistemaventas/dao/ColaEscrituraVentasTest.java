@@ -0,0 +1,133 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.modelo.Venta;
+import com.sistemaventas.util.ConexionDB;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la reserva de stock de {@link ColaEscrituraVentas} sobre una
+ * base nueva en la ruta de pruebas (<code>sistemaventas.db.ruta</code>, en
+ * el pom). La ventana de agrupamiento es larga para que las ventas
+ * encoladas juntas sigan pendientes al reservar las siguientes.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class ColaEscrituraVentasTest {
+
+    private static Cliente cliente;
+
+    private final ColaEscrituraVentas cola = new ColaEscrituraVentas(300, 256);
+
+    @BeforeAll
+    static void crearBase() throws SQLException {
+        ConexionDB.cerrar();
+        String ruta = ConexionDB.getRutaBaseDatos();
+        for (String sufijo : new String[]{"", "-wal", "-shm"}) {
+            new File(ruta + sufijo).delete();
+        }
+
+        try (Connection conn = ConexionDB.getConexionEscritura();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO clientes (nombre, dni, telefono, email) "
+                + "VALUES ('Cola', '40999888', '1122334455', 'cola@mail.com')");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                cliente = new Cliente(rs.getInt(1), "Cola", "40999888", "1122334455", "cola@mail.com");
+            }
+        }
+    }
+
+    @AfterAll
+    static void cerrar() {
+        ConexionDB.cerrar();
+    }
+
+    @Test
+    void reservaContraElStockDeLaBaseYNoElDelFormulario() throws Exception {
+        // El formulario cargó el producto con 1 unidad; después se repuso a 5
+        Producto delFormulario = new Producto(crearProducto("Repuesto", 5), "Repuesto", 1000L, 1);
+
+        Venta venta = venta(delFormulario, 3);
+        assertSame(venta, esperar(cola.encolar(venta)));
+        assertEquals(2, stock(delFormulario.getIdProducto()));
+    }
+
+    @Test
+    void lasReservasPendientesSeDescuentanYSeLiberanAlConfirmar() throws Exception {
+        Producto producto = new Producto(crearProducto("Reservado", 5), "Reservado", 1000L, 5);
+
+        CompletableFuture<Venta> primera = cola.encolar(venta(producto, 3));
+        CompletableFuture<Venta> segunda = cola.encolar(venta(producto, 3));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> esperar(segunda));
+        assertEquals("Stock insuficiente. Disponible: 2, Solicitado: 3", e.getCause().getMessage());
+        assertEquals(3, cola.getReservado(producto.getIdProducto()));
+
+        esperar(primera);
+        assertEquals(0, cola.getReservado(producto.getIdProducto()));
+
+        // Sin reservas pendientes se vuelve a leer el stock: quedan 2
+        CompletableFuture<Venta> tercera = cola.encolar(venta(producto, 2));
+        CompletableFuture<Venta> cuarta = cola.encolar(venta(producto, 1));
+        assertThrows(ExecutionException.class, () -> esperar(cuarta));
+        esperar(tercera);
+        assertEquals(0, stock(producto.getIdProducto()));
+    }
+
+    @Test
+    void unaVentaQueFallaAlGuardarseDevuelveSuReserva() throws Exception {
+        Producto producto = new Producto(crearProducto("Devuelto", 4), "Devuelto", 1000L, 4);
+        Cliente inexistente = new Cliente(999_999, "Nadie", "11111111", "1100000000", "nadie@mail.com");
+
+        CompletableFuture<Venta> fallida = cola.encolar(
+            new Venta(0, LocalDate.now(), inexistente, producto, 4, 1000L, 4000L));
+        assertThrows(ExecutionException.class, () -> esperar(fallida));
+        assertEquals(0, cola.getReservado(producto.getIdProducto()));
+        assertEquals(4, stock(producto.getIdProducto()));
+
+        esperar(cola.encolar(venta(producto, 4)));
+        assertEquals(0, stock(producto.getIdProducto()));
+    }
+
+    private static Venta venta(Producto producto, int cantidad) {
+        return new Venta(0, LocalDate.now(), cliente, producto, cantidad, 1000L, 1000L * cantidad);
+    }
+
+    private static Venta esperar(CompletableFuture<Venta> futuro) throws Exception {
+        return futuro.get(10, TimeUnit.SECONDS);
+    }
+
+    private static int crearProducto(String nombre, int stock) throws SQLException {
+        try (Connection conn = ConexionDB.getConexionEscritura();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock) VALUES ('" + nombre + "', 1000, " + stock + ")");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int stock(int idProducto) throws SQLException {
+        try (Connection conn = ConexionDB.getConexionLectura();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT stock FROM productos WHERE id_producto = " + idProducto)) {
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sistemaventas.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link ConteoInventario#leer(Path)}: separadores, encabezado,
+ * líneas ignoradas, claves repetidas y errores con su número de línea.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class ConteoInventarioTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void leeCadaSeparadorYSaltaEncabezadoYComentarios() throws IOException {
+        ConteoInventario conteo = leer(
+            "\uFEFFcodigo;cantidad",
+            "7791234567890;12",
+            "",
+            "# depósito",
+            "Mouse Logitech,3",
+            "Teclado\t 7 ");
+
+        assertEquals(Map.of("7791234567890", 12, "Mouse Logitech", 3, "Teclado", 7), conteo.getCantidades());
+        assertEquals(List.of("7791234567890", "Mouse Logitech", "Teclado"), List.copyOf(conteo.getCantidades().keySet()));
+        assertEquals("conteo.csv", conteo.getOrigen());
+    }
+
+    @Test
+    void laCantidadEsLoQueSigueAlUltimoSeparador() throws IOException {
+        ConteoInventario conteo = leer("Tornillo 3/4, galvanizado;40");
+
+        assertEquals(Map.of("Tornillo 3/4, galvanizado", 40), conteo.getCantidades());
+    }
+
+    @Test
+    void sumaLasClavesRepetidas() throws IOException {
+        ConteoInventario conteo = leer("ABC-1;5", " ABC-1 ;7", "XYZ;0");
+
+        assertEquals(Map.of("ABC-1", 12, "XYZ", 0), conteo.getCantidades());
+    }
+
+    @Test
+    void archivoSinLineasUtilesQuedaVacio() throws IOException {
+        assertTrue(leer("codigo;cantidad", "", "# nada contado").estaVacio());
+    }
+
+    @Test
+    void informaLaLineaConFormatoInvalido() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> leer("ABC-1;5", "ABC-2;cinco"));
+        assertTrue(e.getMessage().startsWith("Línea 2:"), e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class, () -> leer("ABC-1;5", "ABC-2;1", ";3"));
+        assertTrue(e.getMessage().startsWith("Línea 3:"), e.getMessage());
+    }
+
+    @Test
+    void soloLaPrimeraLineaPuedeSerEncabezado() throws IOException {
+        assertEquals(Map.of("ABC-2", 1), leer("producto sin cantidad", "ABC-2;1").getCantidades());
+        assertThrows(IllegalArgumentException.class, () -> leer("ABC-2;1", "producto sin cantidad"));
+    }
+
+    @Test
+    void rechazaCantidadesNegativasOSobreElMaximo() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> leer("ABC-1;5", "ABC-2;-1"));
+        assertTrue(e.getMessage().startsWith("Línea 2:"), e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+            () -> leer("ABC-1;" + ConteoInventario.STOCK_MAXIMO, "ABC-1;1"));
+        assertTrue(e.getMessage().startsWith("Línea 2:"), e.getMessage());
+    }
+
+    private ConteoInventario leer(String... lineas) throws IOException {
+        Path archivo = carpeta.resolve("conteo.csv");
+        Files.write(archivo, List.of(lineas), StandardCharsets.UTF_8);
+        return ConteoInventario.leer(archivo);
+    }
+}
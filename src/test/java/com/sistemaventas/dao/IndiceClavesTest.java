@@ -0,0 +1,73 @@
+package com.sistemaventas.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link IndiceClaves}: construcción, búsquedas exactas y por
+ * prefijo, y cambios de una entrada.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class IndiceClavesTest {
+
+    private final IndiceClaves indice = IndiceClaves.construir(
+        Arrays.asList("30222333", null, "30111222", "41000111"), new int[]{1, 2, 3, 4});
+
+    @Test
+    void buscaClavesExactasYOmiteLasNulas() {
+        assertEquals(3, indice.tamanio());
+        assertEquals(3, indice.buscar("30111222"));
+        assertEquals(4, indice.buscar("41000111"));
+        assertEquals(IndiceClaves.NO_ENCONTRADO, indice.buscar("3011122"));
+        assertEquals(IndiceClaves.NO_ENCONTRADO, indice.buscar("99999999"));
+    }
+
+    @Test
+    void buscaPorPrefijoEnOrdenDeClaveYRespetaElLimite() {
+        assertArrayEquals(new int[]{3, 1}, indice.buscarPrefijo("30", 10));
+        assertArrayEquals(new int[]{3}, indice.buscarPrefijo("30", 1));
+        assertArrayEquals(new int[]{3, 1, 4}, indice.buscarPrefijo("", 10));
+        assertArrayEquals(new int[0], indice.buscarPrefijo("5", 10));
+    }
+
+    @Test
+    void conReemplazaLaClaveDeUnIdSinModificarElOriginal() {
+        IndiceClaves nuevo = indice.con(1, "50000000");
+
+        assertEquals(IndiceClaves.NO_ENCONTRADO, nuevo.buscar("30222333"));
+        assertEquals(1, nuevo.buscar("50000000"));
+        assertArrayEquals(new int[]{3, 4, 1}, nuevo.buscarPrefijo("", 10));
+        assertEquals(1, indice.buscar("30222333"));
+    }
+
+    @Test
+    void conAgregaIdsNuevosEnOrden() {
+        IndiceClaves nuevo = indice.con(5, "35000000");
+
+        assertEquals(4, nuevo.tamanio());
+        assertArrayEquals(new int[]{3, 1, 5, 4}, nuevo.buscarPrefijo("", 10));
+    }
+
+    @Test
+    void conClaveNulaQuitaLaEntrada() {
+        IndiceClaves nuevo = indice.con(3, null);
+
+        assertEquals(2, nuevo.tamanio());
+        assertEquals(IndiceClaves.NO_ENCONTRADO, nuevo.buscar("30111222"));
+        assertSame(indice, indice.sin(99));
+    }
+
+    @Test
+    void indiceVacioNoEncuentraNada() {
+        assertEquals(IndiceClaves.NO_ENCONTRADO, IndiceClaves.VACIO.buscar("x"));
+        assertArrayEquals(new int[0], IndiceClaves.VACIO.buscarPrefijo("x", 10));
+        assertEquals(7, IndiceClaves.VACIO.con(7, "x").buscar("x"));
+        assertEquals(0, IndiceClaves.construir(List.of(), new int[0]).tamanio());
+    }
+}
@@ -0,0 +1,123 @@
+package com.sistemaventas.dao;
+
+import com.sistemaventas.util.ConexionDB;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link InventarioDAO#comparar(ConteoInventario)} sobre una base
+ * nueva en la ruta de pruebas (<code>sistemaventas.db.ruta</code>, en el pom).
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class InventarioDAOTest {
+
+    private static int idProducto;
+
+    private final InventarioDAO inventarioDAO = new InventarioDAO();
+
+    @BeforeAll
+    static void crearBase() throws SQLException {
+        ConexionDB.cerrar();
+        String ruta = ConexionDB.getRutaBaseDatos();
+        for (String sufijo : new String[]{"", "-wal", "-shm"}) {
+            new File(ruta + sufijo).delete();
+        }
+
+        try (Connection conn = ConexionDB.getConexionEscritura();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock, codigo) "
+                + "VALUES ('Sifón Cromado', 2500, 10, 'SIF-01')");
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                idProducto = rs.getInt(1);
+            }
+            // El índice único NOCASE solo iguala A-Z: son dos productos distintos
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock) VALUES ('Ñoquis', 900, 4)");
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock) VALUES ('ñoquis', 800, 6)");
+            // Igual al anterior salvo el espacio final: el nombre no distingue cuál es
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock) VALUES ('Codo 90', 300, 2)");
+            stmt.execute("INSERT INTO productos (nombre, precio_centavos, stock) VALUES ('Codo 90 ', 300, 2)");
+        }
+    }
+
+    @AfterAll
+    static void cerrar() {
+        ConexionDB.cerrar();
+    }
+
+    @Test
+    void sumaLoContadoPorCodigoYPorNombre() throws SQLException {
+        ConteoInventario conteo = new ConteoInventario("prueba");
+        conteo.agregar("SIF-01", 4);
+        conteo.agregar("sifón cromado", 3);
+        conteo.agregar("NO-EXISTE", 1);
+
+        ConteoInventario.Resultado resultado = inventarioDAO.comparar(conteo);
+
+        assertEquals(1, resultado.getProductosContados());
+        assertEquals(1, resultado.getDiferencias().size());
+        assertEquals(idProducto, resultado.getDiferencias().get(0).getIdProducto());
+        assertEquals(7, resultado.getDiferencias().get(0).getStockContado());
+        assertEquals(3, resultado.getUnidadesFaltantes());
+        assertEquals(List.of("NO-EXISTE"), resultado.getNoEncontrados());
+    }
+
+    @Test
+    void elTotalPorCodigoYPorNombreRespetaElMaximo() throws SQLException {
+        ConteoInventario justo = new ConteoInventario("prueba");
+        justo.agregar("SIF-01", ConteoInventario.STOCK_MAXIMO - 1);
+        justo.agregar("Sifón Cromado", 1);
+        assertEquals(ConteoInventario.STOCK_MAXIMO,
+            inventarioDAO.comparar(justo).getDiferencias().get(0).getStockContado());
+
+        ConteoInventario excedido = new ConteoInventario("prueba");
+        excedido.agregar("SIF-01", ConteoInventario.STOCK_MAXIMO);
+        excedido.agregar("Sifón Cromado", 1);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> inventarioDAO.comparar(excedido));
+        assertTrue(e.getMessage().contains("Sifón Cromado"), e.getMessage());
+    }
+
+    @Test
+    void losNombresQueSoloDifierenEnMayusculasNoAsciiSonProductosDistintos() throws SQLException {
+        ConteoInventario conteo = new ConteoInventario("prueba");
+        conteo.agregar("ÑOQUIS", 5);  // Como NOCASE: "OQUIS" se iguala, la Ñ no
+        conteo.agregar("ñoquis", 7);
+
+        ConteoInventario.Resultado resultado = inventarioDAO.comparar(conteo);
+
+        assertEquals(2, resultado.getProductosContados());
+        assertEquals(5, contado(resultado, "Ñoquis"));
+        assertEquals(7, contado(resultado, "ñoquis"));
+    }
+
+    @Test
+    void unNombreDeVariosProductosSeRechaza() {
+        ConteoInventario conteo = new ConteoInventario("prueba");
+        conteo.agregar("codo 90", 3);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> inventarioDAO.comparar(conteo));
+        assertTrue(e.getMessage().contains("más de un producto"), e.getMessage());
+    }
+
+    private static int contado(ConteoInventario.Resultado resultado, String nombre) {
+        for (ConteoInventario.Diferencia diferencia : resultado.getDiferencias()) {
+            if (diferencia.getNombre().equals(nombre)) {
+                return diferencia.getStockContado();
+            }
+        }
+        return fail("Sin diferencia para " + nombre);
+    }
+}
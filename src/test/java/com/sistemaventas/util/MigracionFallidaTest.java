@@ -0,0 +1,78 @@
+package com.sistemaventas.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link ConexionDB} cuando una migración de formato falla: la
+ * base no se abre a medio convertir. Un trigger de la base anterior impide
+ * el UPDATE que pasa los precios a centavos.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class MigracionFallidaTest {
+
+    private static File ruta;
+
+    @BeforeAll
+    static void crearBaseAnterior() throws SQLException {
+        ConexionDB.cerrar();
+        ruta = new File(ConexionDB.getRutaBaseDatos());
+        for (String sufijo : new String[]{"", "-wal", "-shm"}) {
+            new File(ruta.getPath() + sufijo).delete();
+        }
+        ruta.getParentFile().mkdirs();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + ruta.getPath());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE productos (
+                    id_producto INTEGER PRIMARY KEY AUTOINCREMENT,
+                    nombre VARCHAR(100) NOT NULL UNIQUE,
+                    precio DECIMAL(10,2) NOT NULL CHECK(precio > 0),
+                    stock INTEGER NOT NULL DEFAULT 0 CHECK(stock >= 0)
+                )
+            """);
+            stmt.execute("INSERT INTO productos (nombre, precio, stock) VALUES ('Inodoro', 10.5, 3)");
+            stmt.execute("""
+                CREATE TRIGGER productos_bloqueados BEFORE UPDATE ON productos
+                BEGIN
+                    SELECT RAISE(ABORT, 'productos bloqueados');
+                END
+            """);
+        }
+    }
+
+    @AfterAll
+    static void cerrar() {
+        ConexionDB.cerrar();
+    }
+
+    @Test
+    void siFallaElPasajeACentavosNoSeAbreLaBase() throws SQLException {
+        SQLException e = assertThrows(SQLException.class, ConexionDB::getConexionLectura);
+        assertTrue(e.getMessage().contains("productos bloqueados"), e.getMessage());
+
+        // La transacción de la columna se deshizo: sigue con el nombre y el valor anteriores
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + ruta.getPath());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT precio FROM productos")) {
+            assertTrue(rs.next());
+            assertEquals(10.5, rs.getDouble(1));
+        }
+
+        // Cada intento vuelve a fallar, no queda abierta a medias
+        assertThrows(SQLException.class, ConexionDB::getConexionEscritura);
+    }
+}
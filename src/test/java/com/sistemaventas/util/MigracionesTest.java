@@ -0,0 +1,175 @@
+package com.sistemaventas.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las migraciones que {@link ConexionDB} aplica al abrir una base
+ * creada por una versión anterior del sistema. La base se arma con el
+ * esquema original en la ruta de pruebas (<code>sistemaventas.db.ruta</code>,
+ * configurada en el pom) y se abre dos veces: la segunda no debe cambiar nada.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class MigracionesTest {
+
+    private static final LocalDate DIA_MILIS = LocalDate.of(2023, 3, 15);
+    private static final LocalDate DIA_TEXTO = LocalDate.of(2022, 12, 31);
+
+    @BeforeAll
+    static void crearBaseAnterior() throws SQLException {
+        ConexionDB.cerrar();
+        File ruta = new File(ConexionDB.getRutaBaseDatos());
+        for (String sufijo : new String[]{"", "-wal", "-shm"}) {
+            new File(ruta.getPath() + sufijo).delete();
+        }
+        ruta.getParentFile().mkdirs();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + ruta.getPath());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE productos (
+                    id_producto INTEGER PRIMARY KEY AUTOINCREMENT,
+                    nombre VARCHAR(100) NOT NULL UNIQUE,
+                    precio DECIMAL(10,2) NOT NULL CHECK(precio > 0),
+                    stock INTEGER NOT NULL DEFAULT 0 CHECK(stock >= 0)
+                )
+            """);
+            stmt.execute("""
+                CREATE TABLE clientes (
+                    id_cliente INTEGER PRIMARY KEY AUTOINCREMENT,
+                    nombre VARCHAR(100) NOT NULL,
+                    dni VARCHAR(8) NOT NULL UNIQUE,
+                    telefono VARCHAR(10) NOT NULL,
+                    email VARCHAR(100) NOT NULL UNIQUE
+                )
+            """);
+            stmt.execute("""
+                CREATE TABLE ventas (
+                    id_venta INTEGER PRIMARY KEY AUTOINCREMENT,
+                    fecha DATE NOT NULL DEFAULT (DATE('now')),
+                    id_cliente INTEGER NOT NULL,
+                    id_producto INTEGER NOT NULL,
+                    cantidad INTEGER NOT NULL CHECK(cantidad > 0),
+                    precio_unitario DECIMAL(10,2) NOT NULL,
+                    total DECIMAL(10,2) NOT NULL,
+                    FOREIGN KEY (id_cliente) REFERENCES clientes(id_cliente),
+                    FOREIGN KEY (id_producto) REFERENCES productos(id_producto)
+                )
+            """);
+            // Tabla de totales agregada cuando los importes todavía eran DECIMAL
+            stmt.execute("""
+                CREATE TABLE ventas_resumen_mensual (
+                    anio_mes TEXT NOT NULL,
+                    id_cliente INTEGER NOT NULL,
+                    id_producto INTEGER NOT NULL,
+                    ventas INTEGER NOT NULL,
+                    unidades INTEGER NOT NULL,
+                    total DECIMAL(10,2) NOT NULL,
+                    PRIMARY KEY (anio_mes, id_cliente, id_producto)
+                )
+            """);
+            stmt.execute("INSERT INTO productos (id_producto, nombre, precio, stock) VALUES (1, 'Inodoro', 10.5, 3)");
+            // 19.99 y 0.29 no son exactos en binario: multiplicados por 100 quedan apenas debajo
+            stmt.execute("INSERT INTO productos (id_producto, nombre, precio, stock) VALUES (2, 'Canilla', 19.99, 5)");
+            stmt.execute("INSERT INTO productos (id_producto, nombre, precio, stock) VALUES (3, 'Arandela', 0.29, 100)");
+            stmt.execute("INSERT INTO clientes (id_cliente, nombre, dni, telefono, email) "
+                + "VALUES (1, 'Ana', '30111222', '1122334455', 'ana@mail.com')");
+
+            // Como lo hacía el VentaDAO anterior: setDate guarda milisegundos de la medianoche local
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO ventas "
+                    + "(id_venta, fecha, id_cliente, id_producto, cantidad, precio_unitario, total) "
+                    + "VALUES (1, ?, 1, 1, 2, 10.5, 21.0)")) {
+                pstmt.setDate(1, Date.valueOf(DIA_MILIS));
+                pstmt.executeUpdate();
+            }
+            // Como la dejaba el DEFAULT de la columna: texto 'AAAA-MM-DD'
+            stmt.execute("INSERT INTO ventas (id_venta, fecha, id_cliente, id_producto, cantidad, precio_unitario, total) "
+                + "VALUES (2, '" + DIA_TEXTO + "', 1, 1, 1, 10.5, 10.5)");
+            stmt.execute("INSERT INTO ventas (id_venta, fecha, id_cliente, id_producto, cantidad, precio_unitario, total) "
+                + "VALUES (3, '" + DIA_TEXTO + "', 1, 2, 3, 19.99, 59.97)");
+            stmt.execute("INSERT INTO ventas_resumen_mensual VALUES ('2022-11', 1, 3, 4, 7, 2.03)");
+        }
+
+        abrirYCerrar();
+    }
+
+    @AfterAll
+    static void cerrar() {
+        ConexionDB.cerrar();
+    }
+
+    @Test
+    void pasaLasFechasEnMilisegundosYEnTextoADias() throws SQLException {
+        assertEquals(DIA_MILIS.toEpochDay(), fecha(1));
+        assertEquals(DIA_TEXTO.toEpochDay(), fecha(2));
+    }
+
+    @Test
+    void abrirDeNuevoNoVuelveAConvertirLasFechas() throws SQLException {
+        abrirYCerrar();
+
+        assertEquals(DIA_MILIS.toEpochDay(), fecha(1));
+        assertEquals(DIA_TEXTO.toEpochDay(), fecha(2));
+        assertEquals("integer", consultar("SELECT typeof(fecha) FROM ventas WHERE id_venta = 2"));
+    }
+
+    @Test
+    void pasaLosImportesACentavosRedondeando() throws SQLException {
+        assertEquals(1050, centavos("SELECT precio_centavos FROM productos WHERE id_producto = 1"));
+        assertEquals(1999, centavos("SELECT precio_centavos FROM productos WHERE id_producto = 2"));
+        assertEquals(29, centavos("SELECT precio_centavos FROM productos WHERE id_producto = 3"));
+        assertEquals(1999, centavos("SELECT precio_unitario_centavos FROM ventas WHERE id_venta = 3"));
+        assertEquals(5997, centavos("SELECT total_centavos FROM ventas WHERE id_venta = 3"));
+        assertEquals(203, centavos("SELECT total_centavos FROM ventas_resumen_mensual WHERE id_producto = 3"));
+    }
+
+    @Test
+    void abrirDeNuevoNoVuelveAMultiplicarLosImportes() throws SQLException {
+        abrirYCerrar();
+
+        assertEquals(1050, centavos("SELECT precio_centavos FROM productos WHERE id_producto = 1"));
+        assertEquals(2100, centavos("SELECT total_centavos FROM ventas WHERE id_venta = 1"));
+        assertEquals(203, centavos("SELECT total_centavos FROM ventas_resumen_mensual WHERE id_producto = 3"));
+        assertEquals("integer", consultar("SELECT typeof(total_centavos) FROM ventas WHERE id_venta = 3"));
+    }
+
+    /**
+     * Abre la base (aplicando las migraciones) y cierra sus conexiones
+     */
+    private static void abrirYCerrar() throws SQLException {
+        ConexionDB.getConexionLectura().close();
+        ConexionDB.cerrar();
+    }
+
+    private static long fecha(int idVenta) throws SQLException {
+        return Long.parseLong(consultar("SELECT fecha FROM ventas WHERE id_venta = " + idVenta));
+    }
+
+    private static long centavos(String sql) throws SQLException {
+        return Long.parseLong(consultar(sql));
+    }
+
+    private static String consultar(String sql) throws SQLException {
+        try (Connection conn = ConexionDB.getConexionLectura();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next(), sql);
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.sistemaventas.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la validación de {@link PerfilSQLite#cargar()} con valores
+ * pasados como propiedades del sistema.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class PerfilSQLiteTest {
+
+    @AfterEach
+    void limpiar() {
+        System.clearProperty("sistemaventas.db.cacheSize");
+        System.clearProperty("sistemaventas.db.walAutocheckpoint");
+    }
+
+    @Test
+    void aceptaLosExtremosDeUnEntero() {
+        System.setProperty("sistemaventas.db.cacheSize", String.valueOf(Integer.MIN_VALUE));
+        System.setProperty("sistemaventas.db.walAutocheckpoint", String.valueOf(Integer.MAX_VALUE));
+
+        assertDoesNotThrow(PerfilSQLite::cargar);
+    }
+
+    @Test
+    void rechazaValoresEnterosFueraDeRangoEnLugarDeTruncarlos() {
+        System.setProperty("sistemaventas.db.cacheSize", "3000000000");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, PerfilSQLite::cargar);
+        assertTrue(e.getMessage().contains("sistemaventas.db.cacheSize"), e.getMessage());
+
+        System.clearProperty("sistemaventas.db.cacheSize");
+        System.setProperty("sistemaventas.db.walAutocheckpoint", "-2147483649");
+        assertThrows(IllegalArgumentException.class, PerfilSQLite::cargar);
+    }
+}
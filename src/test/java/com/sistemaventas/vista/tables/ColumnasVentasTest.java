@@ -0,0 +1,106 @@
+package com.sistemaventas.vista.tables;
+
+import com.sistemaventas.modelo.Cliente;
+import com.sistemaventas.modelo.Producto;
+import com.sistemaventas.modelo.Venta;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los cambios de una sola fila sobre {@link ColumnasVentas}:
+ * ubicación por búsqueda binaria, altas, bajas y modificaciones en el lugar.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class ColumnasVentasTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 5, 10);
+
+    private final Cliente cliente = new Cliente(1, "Ana", "30111222", "1122334455", "ana@mail.com");
+    private final Producto producto = new Producto(1, "Yerba", 150_00, 10);
+
+    @Test
+    void ubicaLaFilaPorFechaYDespuesPorId() {
+        ColumnasVentas columnas = ColumnasVentas.desde(List.of(
+            venta(9, HOY, 100), venta(7, HOY, 100), venta(8, HOY.minusDays(1), 100)));
+
+        assertEquals(1, columnas.posicionPorFecha(dia(HOY), 7));
+        assertEquals(1, columnas.posicionPorFecha(dia(HOY), 8));
+        assertEquals(0, columnas.posicionPorFecha(dia(HOY.plusDays(1)), 1));
+        assertEquals(3, columnas.posicionPorFecha(dia(HOY.minusDays(2)), 99));
+    }
+
+    @Test
+    void insertaYQuitaFilasSinPerderElOrden() {
+        ColumnasVentas columnas = ColumnasVentas.vacias();
+        // Más altas que la capacidad inicial, para que los arreglos crezcan
+        for (int id = 1; id <= 20; id++) {
+            Venta venta = venta(id, HOY.minusDays(id % 3), id * 100L);
+            columnas.insertarFila(columnas.posicionPorFecha(dia(venta.getFecha()), id), venta);
+        }
+        columnas.quitarFila(columnas.buscarFila(5));
+
+        int[] ids = columnas.getIds();
+        assertEquals(19, ids.length);
+        assertEquals(19, columnas.getFilas());
+        assertEquals(-1, columnas.buscarFila(5));
+        for (int i = 1; i < ids.length; i++) {
+            int anterior = columnas.getDia(i - 1);
+            assertTrue(anterior > columnas.getDia(i)
+                || (anterior == columnas.getDia(i) && ids[i - 1] > ids[i]));
+        }
+        assertEquals(19, columnas.claves(6).length);
+        assertEquals(sumaIds(ids) * 100L, columnas.sumarTotales());
+    }
+
+    @Test
+    void modificarFilaDescartaLasClavesDeOrden() {
+        ColumnasVentas columnas = ColumnasVentas.desde(List.of(venta(2, HOY, 100), venta(1, HOY, 300)));
+        assertEquals(100, columnas.claves(6)[0]);
+
+        columnas.modificarFila(0, venta(2, HOY, 500));
+
+        assertEquals(500, columnas.claves(6)[0]);
+        assertEquals(800, columnas.sumarTotales());
+    }
+
+    @Test
+    void agregaAlDiccionarioLosClientesNuevos() {
+        Cliente otro = new Cliente(2, "Beto", "30111333", "1122334466", "beto@mail.com");
+        ColumnasVentas columnas = ColumnasVentas.desde(List.of(venta(1, HOY, 100)));
+
+        columnas.insertarFila(0, new Venta(2, HOY, otro, producto, 1, 100L, 100L));
+
+        assertEquals("Beto", columnas.getCliente(0).getNombre());
+        assertEquals("Ana", columnas.getCliente(1).getNombre());
+    }
+
+    @Test
+    void cadaColumnaVaciaEsIndependiente() {
+        ColumnasVentas primera = ColumnasVentas.vacias();
+        primera.insertarFila(0, venta(1, HOY, 100));
+
+        assertEquals(0, ColumnasVentas.vacias().getFilas());
+    }
+
+    private Venta venta(int id, LocalDate fecha, long total) {
+        return new Venta(id, fecha, cliente, producto, 1, total, total);
+    }
+
+    private static int dia(LocalDate fecha) {
+        return (int) fecha.toEpochDay();
+    }
+
+    private static long sumaIds(int[] ids) {
+        long suma = 0;
+        for (int id : ids) {
+            suma += id;
+        }
+        return suma;
+    }
+}
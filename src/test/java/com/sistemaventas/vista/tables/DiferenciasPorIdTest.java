@@ -0,0 +1,222 @@
+package com.sistemaventas.vista.tables;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link DiferenciasPorId}: rangos calculados y eventos que
+ * recibe la tabla al reemplazar las filas de un modelo.
+ *
+ * @author Matías Bravo, Tomás Llera, Alan Barbera
+ * @version 1.0
+ */
+class DiferenciasPorIdTest {
+
+    /**
+     * Fila de prueba: ID y un valor visible
+     */
+    private static final class Fila {
+        final int id;
+        final String valor;
+
+        Fila(int id, String valor) {
+            this.id = id;
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Modelo mínimo que guarda los eventos recibidos como "tipo:primera-última"
+     */
+    private static final class ModeloPrueba extends AbstractTableModel {
+        final List<Fila> filas = new ArrayList<>();
+        final List<String> eventos = new ArrayList<>();
+
+        ModeloPrueba() {
+            addTableModelListener(e -> eventos.add(describir(e)));
+        }
+
+        @Override
+        public int getRowCount() {
+            return filas.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            return filas.get(row).valor;
+        }
+    }
+
+    private ModeloPrueba modelo;
+    private int[] huellas;
+
+    @BeforeEach
+    void preparar() {
+        modelo = new ModeloPrueba();
+        huellas = new int[0];
+        reemplazar(filas(1, 2, 3, 4, 5));
+        modelo.eventos.clear();
+    }
+
+    @Test
+    void sinCambiosNoAvisaNada() {
+        reemplazar(filas(1, 2, 3, 4, 5));
+
+        assertEquals(List.of(), modelo.eventos);
+    }
+
+    @Test
+    void avisaSoloLasFilasInsertadas() {
+        reemplazar(filas(1, 2, 10, 11, 3, 4, 5));
+
+        assertEquals(List.of("INSERT:2-3"), modelo.eventos);
+        assertEquals(List.of(1, 2, 10, 11, 3, 4, 5), ids(modelo.filas));
+    }
+
+    @Test
+    void avisaLasBajasDeLaUltimaALaPrimera() {
+        reemplazar(filas(2, 4));
+
+        assertEquals(List.of("DELETE:4-4", "DELETE:2-2", "DELETE:0-0"), modelo.eventos);
+        assertEquals(List.of(2, 4), ids(modelo.filas));
+    }
+
+    @Test
+    void avisaLasFilasModificadas() {
+        List<Fila> nuevas = filas(1, 2, 3, 4, 5);
+        nuevas.set(1, new Fila(2, "cambiada"));
+        nuevas.set(2, new Fila(3, "cambiada"));
+
+        reemplazar(nuevas);
+
+        assertEquals(List.of("UPDATE:1-2"), modelo.eventos);
+        assertEquals("cambiada", modelo.filas.get(1).valor);
+    }
+
+    @Test
+    void combinaBajasAltasYModificaciones() {
+        List<Fila> nuevas = filas(1, 3, 9, 4, 5);
+        nuevas.set(4, new Fila(5, "cambiada"));
+
+        reemplazar(nuevas);
+
+        assertEquals(List.of("DELETE:1-1", "INSERT:2-2", "UPDATE:4-4"), modelo.eventos);
+        assertEquals(List.of(1, 3, 9, 4, 5), ids(modelo.filas));
+    }
+
+    @Test
+    void filasReordenadasProvocanRefrescoCompleto() {
+        reemplazar(filas(1, 2, 4, 3, 5));
+
+        assertEquals(List.of("DATOS"), modelo.eventos);
+        assertEquals(List.of(1, 2, 4, 3, 5), ids(modelo.filas));
+    }
+
+    @Test
+    void masDeSesentaYCuatroEventosProvocanRefrescoCompleto() {
+        // Filas pares en la versión anterior e impares intercaladas en la
+        // nueva: cada alta es un rango distinto
+        List<Fila> anteriores = new ArrayList<>();
+        List<Fila> nuevas = new ArrayList<>();
+        for (int k = 0; k <= DiferenciasPorId.MAX_EVENTOS; k++) {
+            anteriores.add(new Fila(k * 2, "v"));
+            nuevas.add(new Fila(k * 2, "v"));
+            nuevas.add(new Fila(k * 2 + 1, "v"));
+        }
+        reemplazar(anteriores);
+        modelo.eventos.clear();
+
+        reemplazar(nuevas);
+
+        assertEquals(List.of("DATOS"), modelo.eventos);
+        assertEquals(nuevas.size(), modelo.getRowCount());
+    }
+
+    @Test
+    void exactamenteSesentaYCuatroEventosSeAvisanUnoPorUno() {
+        List<Fila> anteriores = new ArrayList<>();
+        List<Fila> nuevas = new ArrayList<>();
+        for (int k = 0; k < DiferenciasPorId.MAX_EVENTOS; k++) {
+            anteriores.add(new Fila(k * 2, "v"));
+            nuevas.add(new Fila(k * 2, "v"));
+            nuevas.add(new Fila(k * 2 + 1, "v"));
+        }
+        reemplazar(anteriores);
+        modelo.eventos.clear();
+
+        reemplazar(nuevas);
+
+        assertEquals(DiferenciasPorId.MAX_EVENTOS, modelo.eventos.size());
+        assertTrue(modelo.eventos.stream().allMatch(e -> e.startsWith("INSERT:")));
+    }
+
+    @Test
+    void recorreLasFilasActualizadasConSuIndiceEnCadaVersion() {
+        int[] anteriores = {1, 2, 3, 4};
+        int[] nuevos = {7, 1, 3, 4};
+
+        DiferenciasPorId diferencias = DiferenciasPorId.calcular(anteriores, nuevos,
+            (i, j) -> anteriores[i] != 3);
+
+        List<String> pares = new ArrayList<>();
+        diferencias.recorrerActualizadas((i, j) -> pares.add(i + "->" + j));
+        assertEquals(List.of("2->2"), pares);
+        assertEquals(1, diferencias.getEliminadas().size());
+        assertArrayEquals(new int[]{1, 1}, diferencias.getEliminadas().get(0));
+        assertArrayEquals(new int[]{0, 0}, diferencias.getInsertadas().get(0));
+    }
+
+    @Test
+    void conFilaUbicaLaFilaSegunElOrden() {
+        List<Fila> actuales = List.of(new Fila(1, "a"), new Fila(2, "c"), new Fila(3, "e"));
+
+        List<Fila> resultado = DiferenciasPorId.conFila(actuales, 2, new Fila(2, "f"),
+            f -> f.id, (a, b) -> a.valor.compareTo(b.valor));
+
+        assertEquals(List.of(1, 3, 2), ids(resultado));
+        assertEquals(List.of(1, 3), ids(DiferenciasPorId.conFila(actuales, 2, null,
+            f -> f.id, (a, b) -> a.valor.compareTo(b.valor))));
+    }
+
+    private void reemplazar(List<Fila> nuevas) {
+        huellas = DiferenciasPorId.reemplazar(modelo, modelo.filas, huellas, nuevas,
+            f -> f.id, f -> f.valor.hashCode());
+    }
+
+    private static List<Fila> filas(int... ids) {
+        List<Fila> filas = new ArrayList<>();
+        for (int id : ids) {
+            filas.add(new Fila(id, "v" + id));
+        }
+        return filas;
+    }
+
+    private static List<Integer> ids(List<Fila> filas) {
+        List<Integer> ids = new ArrayList<>();
+        for (Fila fila : filas) {
+            ids.add(fila.id);
+        }
+        return ids;
+    }
+
+    private static String describir(TableModelEvent e) {
+        if (e.getLastRow() == Integer.MAX_VALUE) {
+            return "DATOS";
+        }
+        String tipo = e.getType() == TableModelEvent.INSERT ? "INSERT"
+                    : e.getType() == TableModelEvent.DELETE ? "DELETE" : "UPDATE";
+        return tipo + ":" + e.getFirstRow() + "-" + e.getLastRow();
+    }
+}